@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class InternerBenchmark_Cursor_jmhType extends InternerBenchmark_Cursor_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class InternerBenchmark_jmhType extends InternerBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class LatestRevisionBenchmark_jmhType extends LatestRevisionBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class OSGiResolveBenchmark_jmhType extends OSGiResolveBenchmark_jmhType_B3 {
+}
+
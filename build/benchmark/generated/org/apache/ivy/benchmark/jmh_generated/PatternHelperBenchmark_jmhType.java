@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class PatternHelperBenchmark_jmhType extends PatternHelperBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class PomBenchmark_jmhType extends PomBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class ResolveMemoryBenchmark_Footprint_jmhType extends ResolveMemoryBenchmark_Footprint_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class SortBenchmark_jmhType extends SortBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.apache.ivy.benchmark.jmh_generated;
+public class XmlParserBenchmark_jmhType extends XmlParserBenchmark_jmhType_B3 {
+}
+
@@ -35,6 +35,7 @@ import org.apache.ivy.core.check.CheckEngine;
 import org.apache.ivy.core.deliver.DeliverEngine;
 import org.apache.ivy.core.deliver.DeliverOptions;
 import org.apache.ivy.core.event.EventManager;
+import org.apache.ivy.core.event.SynchronousListener;
 import org.apache.ivy.core.install.InstallEngine;
 import org.apache.ivy.core.install.InstallOptions;
 import org.apache.ivy.core.module.descriptor.Artifact;
@@ -306,29 +307,7 @@ public class Ivy {
                         resolveEngine);
             }
 
-            eventManager.addTransferListener(new TransferListener() {
-                public void transferProgress(TransferEvent evt) {
-                    ResolveData resolve;
-                    switch (evt.getEventType()) {
-                        case TransferEvent.TRANSFER_PROGRESS:
-                            resolve = IvyContext.getContext().getResolveData();
-                            if (resolve == null
-                                    || !LogOptions.LOG_QUIET.equals(resolve.getOptions().getLog())) {
-                                Message.progress();
-                            }
-                            break;
-                        case TransferEvent.TRANSFER_COMPLETED:
-                            resolve = IvyContext.getContext().getResolveData();
-                            if (resolve == null
-                                    || !LogOptions.LOG_QUIET.equals(resolve.getOptions().getLog())) {
-                                Message.endProgress(" (" + (evt.getTotalLength() / KILO) + "kB)");
-                            }
-                            break;
-                        default:
-                            break;
-                    }
-                }
-            });
+            eventManager.addTransferListener(new ProgressLogger());
 
             bound = true;
         } finally {
@@ -842,6 +821,12 @@ public class Ivy {
     }
 
     private void postConfigure() {
+        if (settings.isAsyncEvents()) {
+            eventManager.startAsyncDispatch(settings.getEventQueueSize());
+        } else {
+            eventManager.stopAsyncDispatch();
+        }
+
         List<Trigger> triggers = settings.getTriggers();
         for (Trigger trigger : triggers) {
             eventManager.addIvyListener(trigger, trigger.getEventFilter());
@@ -979,4 +964,32 @@ public class Ivy {
     public MessageLoggerEngine getLoggerEngine() {
         return loggerEngine;
     }
+
+    /**
+     * Logs the progress of transfers. It is notified synchronously, to log the progress in the
+     * thread doing the transfer, using its context.
+     */
+    private static final class ProgressLogger implements TransferListener, SynchronousListener {
+        public void transferProgress(TransferEvent evt) {
+            ResolveData resolve;
+            switch (evt.getEventType()) {
+                case TransferEvent.TRANSFER_PROGRESS:
+                    resolve = IvyContext.getContext().getResolveData();
+                    if (resolve == null
+                            || !LogOptions.LOG_QUIET.equals(resolve.getOptions().getLog())) {
+                        Message.progress();
+                    }
+                    break;
+                case TransferEvent.TRANSFER_COMPLETED:
+                    resolve = IvyContext.getContext().getResolveData();
+                    if (resolve == null
+                            || !LogOptions.LOG_QUIET.equals(resolve.getOptions().getLog())) {
+                        Message.endProgress(" (" + (evt.getTotalLength() / KILO) + "kB)");
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
 }
@@ -47,6 +47,13 @@ class IvyAntVariableContainer extends IvyVariableContainerImpl implements IvyVar
         return r;
     }
 
+    @Override
+    protected Map<String, String> getVariables() {
+        Map<String, String> r = new HashMap<>(super.getVariables());
+        r.putAll(overwrittenProperties);
+        return r;
+    }
+
     public void setVariable(String varName, String value, boolean overwrite) {
         if (overwrite) {
             Message.debug("setting '" + varName + "' to '" + value + "'");
@@ -54,6 +54,10 @@ public class IvyRetrieve extends IvyPostResolveTask {
 
     private boolean symlinkmass = false;
 
+    private boolean hardlink = false;
+
+    private int threads = 0;
+
     private String overwriteMode = RetrieveOptions.OVERWRITEMODE_NEWER;
 
     private String pathId = null;
@@ -104,6 +108,7 @@ public class IvyRetrieve extends IvyPostResolveTask {
                     .setDestIvyPattern(ivypattern).setArtifactFilter(artifactFilter)
                     .setSync(sync).setOverwriteMode(getOverwriteMode())
                     .setUseOrigin(isUseOrigin()).setMakeSymlinks(symlink)
+                    .setMakeHardlinks(hardlink).setThreads(threads)
                     .setResolveId(getResolveId())
                     .setMapper(mapper == null ? null : new MapperAdapter(mapper));
             // only set this if the user has explicitly enabled this deprecated option
@@ -191,6 +196,25 @@ public class IvyRetrieve extends IvyPostResolveTask {
         this.symlinkmass = symlinkmass;
     }
 
+    /**
+     * Option to create hard links instead of copying, falling back to a copy when a hard link
+     * cannot be created.
+     *
+     * @param hardlink boolean
+     */
+    public void setHardlink(boolean hardlink) {
+        this.hardlink = hardlink;
+    }
+
+    /**
+     * Maximum number of threads used to copy the retrieved files.
+     *
+     * @param threads int
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     public void setOverwriteMode(String overwriteMode) {
         if (!OVERWRITEMODE_VALUES.contains(overwriteMode)) {
             throw new IllegalArgumentException("invalid overwriteMode value '" + overwriteMode
@@ -243,6 +243,11 @@ public abstract class IvyTask extends Task {
      * example)
      */
     protected void finalizeTask() {
+        // deliver the events fired by the task to asynchronous listeners before the task ends
+        Ivy ivy = IvyContext.getContext().peekIvy();
+        if (ivy != null && ivy.getEventManager() != null) {
+            ivy.getEventManager().flush();
+        }
         if (!IvyContext.getContext().pop(ANT_PROJECT_CONTEXT_KEY, getProject())) {
             Message.error("ANT project popped from stack not equals current! Ignoring");
         }
@@ -20,6 +20,7 @@ package org.apache.ivy.core;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
@@ -72,6 +73,23 @@ public final class IvyPatternHelper {
 
     private static final Pattern VAR_PATTERN = Pattern.compile("\\$\\{(.*?)\\}");
 
+    private static final int MAX_COMPILED_PATTERNS = 1000;
+
+    /**
+     * The most recently used compiled patterns. Resolvers also substitute patterns which are
+     * already partly substituted for a module, and used once: the least recently used ones are
+     * evicted, so that the patterns of the settings stay cached.
+     */
+    private static final Map<String, CompiledPattern> COMPILED_PATTERNS =
+            new LinkedHashMap<String, CompiledPattern>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledPattern> eldest) {
+                    return size() > MAX_COMPILED_PATTERNS;
+                }
+            };
+
     public static String substitute(String pattern, ModuleRevisionId moduleRevision) {
         return substitute(pattern, moduleRevision.getOrganisation(), moduleRevision.getName(),
             moduleRevision.getBranch(), moduleRevision.getRevision(), "ivy", "ivy", "xml", null,
@@ -130,44 +148,9 @@ public final class IvyPatternHelper {
     public static String substitute(String pattern, String org, String module, String branch,
             String revision, String artifact, String type, String ext, String conf,
             ArtifactOrigin origin, Map<String, String> extraModuleAttributes, Map<String, String> extraArtifactAttributes) {
-        Map<String, Object> tokens = new HashMap<>();
-        if (extraModuleAttributes != null) {
-            for (Map.Entry<String, String> entry : extraModuleAttributes.entrySet()) {
-                String token = entry.getKey();
-                if (token.indexOf(':') > 0) {
-                    token = token.substring(token.indexOf(':') + 1);
-                }
-                tokens.put(token, new Validated(token, entry.getValue()));
-            }
-        }
-        if (extraArtifactAttributes != null) {
-            for (Map.Entry<String, String> entry : extraArtifactAttributes.entrySet()) {
-                String token = entry.getKey();
-                if (token.indexOf(':') > 0) {
-                    token = token.substring(token.indexOf(':') + 1);
-                }
-                tokens.put(token, new Validated(token, entry.getValue()));
-            }
-        }
-        tokens.put(ORGANISATION_KEY, org == null ? "" : new Validated(ORGANISATION_KEY, org));
-        tokens.put(ORGANISATION_KEY2, org == null ? "" : new Validated(ORGANISATION_KEY2, org));
-        tokens.put(ORGANISATION_PATH_KEY, org == null ? "" : org.replace('.', '/'));
-        tokens.put(MODULE_KEY, module == null ? "" : new Validated(MODULE_KEY, module));
-        tokens.put(BRANCH_KEY, branch == null ? "" : new Validated(BRANCH_KEY, branch));
-        tokens.put(REVISION_KEY, revision == null ? "" : new Validated(REVISION_KEY, revision));
-        tokens.put(ARTIFACT_KEY, new Validated(ARTIFACT_KEY, artifact == null ? module : artifact));
-        tokens.put(TYPE_KEY, type == null ? "jar" : new Validated(TYPE_KEY, type));
-        tokens.put(EXT_KEY, ext == null ? "jar" : new Validated(EXT_KEY, ext));
-        tokens.put(CONF_KEY, conf == null ? "default" : new Validated(CONF_KEY, conf));
-        if (origin == null) {
-            tokens.put(ORIGINAL_ARTIFACTNAME_KEY, new OriginalArtifactNameValue(org, module,
-                    branch, revision, artifact, type, ext, extraModuleAttributes,
-                    extraArtifactAttributes));
-        } else {
-            tokens.put(ORIGINAL_ARTIFACTNAME_KEY, new OriginalArtifactNameValue(origin));
-        }
-
-        return substituteTokens(pattern, tokens, false, true);
+        return compile(pattern).substitute(new ArtifactTokens(org, module, branch, revision,
+                artifact, type, ext, conf, origin, extraModuleAttributes, extraArtifactAttributes),
+            true);
     }
 
     // CheckStyle:ParameterNumber ON
@@ -224,118 +207,11 @@ public final class IvyPatternHelper {
 
     // This is a cludge to reconcile different values passed to the method
     public static String substituteTokens(String pattern, Map<String, String> tokens) {
-        Map<String, Object> tokensCopy = new HashMap<>();
-        tokensCopy.putAll(tokens);
-        return substituteTokens(pattern, tokensCopy, true, true);
+        return substituteTokens(pattern, new HashMap<String, Object>(tokens), true, true);
     }
 
     private static String substituteTokens(String pattern, Map<String, Object> tokens, boolean external, boolean checkPathTraversal) {
-        Map<String, Object> tokensCopy = external ? tokens : new HashMap<>(tokens);
-        if (tokensCopy.containsKey(ORGANISATION_KEY) && !tokensCopy.containsKey(ORGANISATION_KEY2)) {
-            tokensCopy.put(ORGANISATION_KEY2, tokensCopy.get(ORGANISATION_KEY));
-        }
-        if (tokensCopy.containsKey(ORGANISATION_KEY)
-                && !tokensCopy.containsKey(ORGANISATION_PATH_KEY)) {
-            String org = (String) tokensCopy.get(ORGANISATION_KEY);
-            tokensCopy.put(ORGANISATION_PATH_KEY, org == null ? "" : org.replace('.', '/'));
-        }
-
-        StringBuilder buffer = new StringBuilder();
-
-        StringBuffer optionalPart = null;
-        StringBuffer tokenBuffer = null;
-        boolean insideOptionalPart = false;
-        boolean insideToken = false;
-        boolean tokenSeen = false;
-        boolean tokenHadValue = false;
-
-        for (char ch : pattern.toCharArray()) {
-            int i = pattern.indexOf(ch);
-            switch (ch) {
-                case '(':
-                    if (insideOptionalPart) {
-                        throw new IllegalArgumentException(
-                                "invalid start of optional part at position " + i + " in pattern "
-                                        + pattern);
-                    }
-
-                    optionalPart = new StringBuffer();
-                    insideOptionalPart = true;
-                    tokenSeen = false;
-                    tokenHadValue = false;
-                    break;
-                case ')':
-                    if (!insideOptionalPart || insideToken) {
-                        throw new IllegalArgumentException(
-                                "invalid end of optional part at position " + i + " in pattern "
-                                        + pattern);
-                    }
-
-                    if (tokenHadValue) {
-                        buffer.append(optionalPart.toString());
-                    } else if (!tokenSeen) {
-                        buffer.append('(').append(optionalPart.toString()).append(')');
-                    }
-                    insideOptionalPart = false;
-                    break;
-                case '[':
-                    if (insideToken) {
-                        throw new IllegalArgumentException("invalid start of token at position "
-                                + i + " in pattern " + pattern);
-                    }
-
-                    tokenBuffer = new StringBuffer();
-                    insideToken = true;
-                    break;
-                case ']':
-                    if (!insideToken) {
-                        throw new IllegalArgumentException("invalid end of token at position " + i
-                                + " in pattern " + pattern);
-                    }
-
-                    String token = tokenBuffer.toString();
-                    Object tokenValue = tokensCopy.get(token);
-                    String value = (tokenValue == null) ? null : tokenValue.toString();
-                    if (insideOptionalPart) {
-                        tokenHadValue = !isNullOrEmpty(value);
-                        optionalPart.append(value);
-                    } else {
-                        if (value == null) { // the token wasn't set, it's kept as is
-                            value = "[" + token + "]";
-                        }
-                        buffer.append(value);
-                    }
-                    insideToken = false;
-                    tokenSeen = true;
-                    break;
-                default:
-                    if (insideToken) {
-                        tokenBuffer.append(ch);
-                    } else if (insideOptionalPart) {
-                        optionalPart.append(ch);
-                    } else {
-                        buffer.append(ch);
-                    }
-                    break;
-            }
-        }
-
-        if (insideToken) {
-            throw new IllegalArgumentException("last token hasn't been closed in pattern "
-                    + pattern);
-        }
-
-        if (insideOptionalPart) {
-            throw new IllegalArgumentException("optional part hasn't been closed in pattern "
-                    + pattern);
-        }
-
-        String afterTokenSubstitution = buffer.toString();
-        if (checkPathTraversal) {
-            checkAgainstPathTraversal(pattern, afterTokenSubstitution);
-        }
-
-        return afterTokenSubstitution;
+        return compile(pattern).substitute(new MapTokens(tokens), checkPathTraversal);
     }
 
     public static String substituteVariable(String pattern, String variable, String value) {
@@ -558,37 +434,23 @@ public final class IvyPatternHelper {
     }
 
     /**
-     * This class returns a captured value after validating it doesn't
-     * contain any path traversal sequence.
-     *
-     * <p>{@code toString}</p> will be invoked when the value is
-     * actually used as a token inside of a pattern passed to {@link
-     * #substituteTokens}.</p>
+     * Returns the given token value after validating it doesn't contain any path traversal
+     * sequence.
      */
-    private static class Validated {
-        private final String tokenName, tokenValue;
-
-        private Validated(String tokenName, String tokenValue) {
-            this.tokenName = tokenName;
-            this.tokenValue = tokenValue;
-        }
-
-        @Override
-        public String toString() {
-            if (tokenValue != null && !tokenValue.isEmpty()) {
-                StringTokenizer tok = new StringTokenizer(tokenValue.replace("\\", "/"), "/");
-                while (tok.hasMoreTokens()) {
-                    if ("..".equals(tok.nextToken())) {
-                        throw new IllegalArgumentException("\'" + tokenName + "\' value " + tokenValue + " contains an illegal path sequence");
-                    }
+    private static String validate(String tokenName, String tokenValue) {
+        // most values don't contain any dot sequence at all
+        if (tokenValue != null && tokenValue.contains("..")) {
+            StringTokenizer tok = new StringTokenizer(tokenValue.replace("\\", "/"), "/");
+            while (tok.hasMoreTokens()) {
+                if ("..".equals(tok.nextToken())) {
+                    throw new IllegalArgumentException("\'" + tokenName + "\' value " + tokenValue + " contains an illegal path sequence");
                 }
             }
-            return tokenValue;
         }
+        return tokenValue;
     }
 
-    private static void checkAgainstPathTraversal(String pattern, String afterTokenSubstitution) {
-        String root = getTokenRoot(pattern);
+    private static void checkAgainstPathTraversal(String root, String afterTokenSubstitution) {
         int rootLen = root.length(); // it is OK to have a token root containing .. sequences
         if (root.endsWith("/") || root.endsWith("\\")) {
             --rootLen;
@@ -601,4 +463,344 @@ public final class IvyPatternHelper {
         }
     }
 
+    /**
+     * Returns the compiled form of the given pattern, parsing it if it isn't cached yet.
+     */
+    private static CompiledPattern compile(String pattern) {
+        CompiledPattern compiled;
+        synchronized (COMPILED_PATTERNS) {
+            compiled = COMPILED_PATTERNS.get(pattern);
+        }
+        if (compiled == null) {
+            compiled = new CompiledPattern(pattern);
+            synchronized (COMPILED_PATTERNS) {
+                COMPILED_PATTERNS.put(pattern, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Gives the value of the tokens of a pattern, null for a token which isn't set.
+     */
+    private interface TokenValues {
+        String get(String token);
+    }
+
+    /**
+     * The tokens of an artifact, computed on demand.
+     */
+    private static final class ArtifactTokens implements TokenValues {
+        private final String org;
+
+        private final String module;
+
+        private final String branch;
+
+        private final String revision;
+
+        private final String artifact;
+
+        private final String type;
+
+        private final String ext;
+
+        private final String conf;
+
+        private final Map<String, String> extraModuleAttributes;
+
+        private final Map<String, String> extraArtifactAttributes;
+
+        private final OriginalArtifactNameValue originalArtifactName;
+
+        // CheckStyle:ParameterNumber OFF
+        ArtifactTokens(String org, String module, String branch, String revision,
+                String artifact, String type, String ext, String conf, ArtifactOrigin origin,
+                Map<String, String> extraModuleAttributes,
+                Map<String, String> extraArtifactAttributes) {
+            this.org = org;
+            this.module = module;
+            this.branch = branch;
+            this.revision = revision;
+            this.artifact = artifact;
+            this.type = type;
+            this.ext = ext;
+            this.conf = conf;
+            this.extraModuleAttributes = extraModuleAttributes;
+            this.extraArtifactAttributes = extraArtifactAttributes;
+            this.originalArtifactName = origin == null ? new OriginalArtifactNameValue(org, module,
+                    branch, revision, artifact, type, ext, extraModuleAttributes,
+                    extraArtifactAttributes) : new OriginalArtifactNameValue(origin);
+        }
+        // CheckStyle:ParameterNumber ON
+
+        public String get(String token) {
+            switch (token) {
+                case ORGANISATION_KEY:
+                case ORGANISATION_KEY2:
+                    return org == null ? "" : validate(token, org);
+                case ORGANISATION_PATH_KEY:
+                    return org == null ? "" : org.replace('.', '/');
+                case MODULE_KEY:
+                    return module == null ? "" : validate(token, module);
+                case BRANCH_KEY:
+                    return branch == null ? "" : validate(token, branch);
+                case REVISION_KEY:
+                    return revision == null ? "" : validate(token, revision);
+                case ARTIFACT_KEY:
+                    return validate(token, artifact == null ? module : artifact);
+                case TYPE_KEY:
+                    return type == null ? "jar" : validate(token, type);
+                case EXT_KEY:
+                    return ext == null ? "jar" : validate(token, ext);
+                case CONF_KEY:
+                    return conf == null ? "default" : validate(token, conf);
+                case ORIGINAL_ARTIFACTNAME_KEY:
+                    return originalArtifactName.toString();
+                default:
+                    // artifact extra attributes take precedence over module ones
+                    Map.Entry<String, String> attribute = getExtraAttribute(
+                        extraArtifactAttributes, token);
+                    if (attribute == null) {
+                        attribute = getExtraAttribute(extraModuleAttributes, token);
+                    }
+                    return attribute == null ? null : validate(token, attribute.getValue());
+            }
+        }
+
+        private static Map.Entry<String, String> getExtraAttribute(
+                Map<String, String> attributes, String token) {
+            if (attributes == null) {
+                return null;
+            }
+            Map.Entry<String, String> attribute = null;
+            for (Map.Entry<String, String> entry : attributes.entrySet()) {
+                // the namespace prefix of qualified attributes is ignored
+                String name = entry.getKey();
+                int colon = name.indexOf(':');
+                if (colon > 0 ? name.length() - colon - 1 == token.length()
+                        && name.startsWith(token, colon + 1) : name.equals(token)) {
+                    // last one wins, as if the attributes were put in a map of tokens
+                    attribute = entry;
+                }
+            }
+            return attribute;
+        }
+    }
+
+    /**
+     * Tokens given in a map.
+     */
+    private static final class MapTokens implements TokenValues {
+        private final Map<String, Object> tokens;
+
+        MapTokens(Map<String, Object> tokens) {
+            this.tokens = tokens;
+        }
+
+        public String get(String token) {
+            Object value = tokens.get(token);
+            if (value == null && !tokens.containsKey(token)) {
+                // organization and orgPath are derived from organisation when not set
+                if (ORGANISATION_KEY2.equals(token)) {
+                    value = tokens.get(ORGANISATION_KEY);
+                } else if (ORGANISATION_PATH_KEY.equals(token)
+                        && tokens.containsKey(ORGANISATION_KEY)) {
+                    String org = (String) tokens.get(ORGANISATION_KEY);
+                    value = org == null ? "" : org.replace('.', '/');
+                }
+            }
+            return value == null ? null : value.toString();
+        }
+    }
+
+    /**
+     * A pattern parsed once into literal, token and optional parts, which can then be substituted
+     * without parsing it again.
+     */
+    private static final class CompiledPattern {
+        private final String pattern;
+
+        private final Object[] parts;
+
+        private volatile String tokenRoot;
+
+        CompiledPattern(String pattern) {
+            this.pattern = pattern;
+            this.parts = parse(pattern);
+        }
+
+        String substitute(TokenValues tokens, boolean checkPathTraversal) {
+            StringBuilder buffer = new StringBuilder(pattern.length() + 32);
+            for (Object part : parts) {
+                if (part instanceof String) {
+                    buffer.append((String) part);
+                } else if (part instanceof Token) {
+                    String token = ((Token) part).name;
+                    String value = tokens.get(token);
+                    if (value == null) { // the token wasn't set, it's kept as is
+                        buffer.append('[').append(token).append(']');
+                    } else {
+                        buffer.append(value);
+                    }
+                } else {
+                    ((OptionalPart) part).substitute(buffer, tokens);
+                }
+            }
+            String afterTokenSubstitution = buffer.toString();
+            if (checkPathTraversal) {
+                String root = tokenRoot;
+                if (root == null) {
+                    root = getTokenRoot(pattern);
+                    tokenRoot = root;
+                }
+                checkAgainstPathTraversal(root, afterTokenSubstitution);
+            }
+            return afterTokenSubstitution;
+        }
+
+        /**
+         * Parses the pattern into literal strings, tokens and optional parts.
+         */
+        private static Object[] parse(String pattern) {
+            List<Object> parts = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            List<Object> optionalParts = null;
+            StringBuilder optionalLiteral = null;
+            StringBuilder optionalText = null;
+            StringBuilder tokenBuffer = null;
+            boolean insideOptionalPart = false;
+            boolean insideToken = false;
+            boolean tokenSeen = false;
+
+            for (char ch : pattern.toCharArray()) {
+                int i = pattern.indexOf(ch);
+                switch (ch) {
+                    case '(':
+                        if (insideOptionalPart) {
+                            throw new IllegalArgumentException(
+                                    "invalid start of optional part at position " + i
+                                            + " in pattern " + pattern);
+                        }
+
+                        optionalParts = new ArrayList<>();
+                        optionalLiteral = new StringBuilder();
+                        optionalText = new StringBuilder();
+                        insideOptionalPart = true;
+                        tokenSeen = false;
+                        break;
+                    case ')':
+                        if (!insideOptionalPart || insideToken) {
+                            throw new IllegalArgumentException(
+                                    "invalid end of optional part at position " + i
+                                            + " in pattern " + pattern);
+                        }
+
+                        if (tokenSeen) {
+                            flush(optionalLiteral, optionalParts);
+                            flush(literal, parts);
+                            parts.add(new OptionalPart(optionalParts.toArray()));
+                        } else {
+                            // no token: the optional part is kept as is
+                            literal.append('(').append(optionalText).append(')');
+                        }
+                        insideOptionalPart = false;
+                        break;
+                    case '[':
+                        if (insideToken) {
+                            throw new IllegalArgumentException(
+                                    "invalid start of token at position " + i + " in pattern "
+                                            + pattern);
+                        }
+
+                        tokenBuffer = new StringBuilder();
+                        insideToken = true;
+                        break;
+                    case ']':
+                        if (!insideToken) {
+                            throw new IllegalArgumentException("invalid end of token at position "
+                                    + i + " in pattern " + pattern);
+                        }
+
+                        Token token = new Token(tokenBuffer.toString());
+                        if (insideOptionalPart) {
+                            flush(optionalLiteral, optionalParts);
+                            optionalParts.add(token);
+                        } else {
+                            flush(literal, parts);
+                            parts.add(token);
+                        }
+                        insideToken = false;
+                        tokenSeen = true;
+                        break;
+                    default:
+                        if (insideToken) {
+                            tokenBuffer.append(ch);
+                        } else if (insideOptionalPart) {
+                            optionalLiteral.append(ch);
+                            optionalText.append(ch);
+                        } else {
+                            literal.append(ch);
+                        }
+                        break;
+                }
+            }
+
+            if (insideToken) {
+                throw new IllegalArgumentException("last token hasn't been closed in pattern "
+                        + pattern);
+            }
+
+            if (insideOptionalPart) {
+                throw new IllegalArgumentException("optional part hasn't been closed in pattern "
+                        + pattern);
+            }
+            flush(literal, parts);
+            return parts.toArray();
+        }
+
+        private static void flush(StringBuilder literal, List<Object> parts) {
+            if (literal.length() > 0) {
+                parts.add(literal.toString());
+                literal.setLength(0);
+            }
+        }
+    }
+
+    private static final class Token {
+        private final String name;
+
+        Token(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * A part of a pattern between parenthesis, only kept if its last token has a value.
+     */
+    private static final class OptionalPart {
+        private final Object[] parts;
+
+        OptionalPart(Object[] parts) {
+            this.parts = parts;
+        }
+
+        void substitute(StringBuilder buffer, TokenValues tokens) {
+            int start = buffer.length();
+            boolean tokenHadValue = false;
+            for (Object part : parts) {
+                if (part instanceof Token) {
+                    String value = tokens.get(((Token) part).name);
+                    tokenHadValue = !isNullOrEmpty(value);
+                    buffer.append(value);
+                } else {
+                    buffer.append((String) part);
+                }
+            }
+            if (!tokenHadValue) {
+                buffer.setLength(start);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,177 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.event.EventManager;
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.util.MessageLogger;
+
+/**
+ * A task which may be run by a worker thread on behalf of the thread which submits it.
+ * <p>
+ * A submitted task runs with a copy of the context and with the logger of the submitting thread.
+ * If it is given an event manager, the ivy events it fires are recorded, so that the submitting
+ * thread can deliver them later with {@link #fireEvents()}, in a deterministic order. A task which
+ * has not been started when its result is awaited is run by the awaiting thread, so that tasks
+ * waiting for other tasks never wait for a free worker thread. A task which is never submitted is
+ * simply run by the awaiting thread, in its own context.
+ * </p>
+ *
+ * @param <T>
+ *            the type of the result of the task
+ * @param <E>
+ *            the type of the checked exception the task may fail with
+ */
+public abstract class WorkerTask<T, E extends Exception> implements Callable<T> {
+    private final EventManager eventManager;
+
+    private final FutureTask<T> future = new FutureTask<>(this);
+
+    private IvyContext context;
+
+    private MessageLogger logger;
+
+    private List<IvyEvent> events = Collections.emptyList();
+
+    protected WorkerTask() {
+        this(null);
+    }
+
+    /**
+     * @param eventManager
+     *            the event manager whose events fired by the task are to be recorded, or
+     *            <code>null</code> to let them be delivered by the thread running the task
+     */
+    protected WorkerTask(EventManager eventManager) {
+        this.eventManager = eventManager;
+    }
+
+    /**
+     * Submits the task to be run by a thread of the given executor.
+     *
+     * @param executor Executor
+     */
+    public void submit(Executor executor) {
+        context = new IvyContext(IvyContext.getContext());
+        Ivy ivy = context.peekIvy();
+        logger = ivy == null ? null : ivy.getLoggerEngine().peekLogger();
+        executor.execute(future);
+    }
+
+    public final T call() throws E {
+        if (context == null) {
+            return doCall();
+        }
+        IvyContext.pushContext(context);
+        if (logger != null) {
+            context.getIvy().getLoggerEngine().pushLogger(logger);
+        }
+        // a task run by a thread which is itself running a task records its own events, which
+        // the enclosing task records in turn when they are fired
+        List<IvyEvent> outerEvents = eventManager == null ? null
+                : eventManager.deferIvyEvents();
+        try {
+            return doCall();
+        } finally {
+            if (eventManager != null) {
+                events = eventManager.stopDeferringIvyEvents(outerEvents);
+            }
+            if (logger != null) {
+                context.getIvy().getLoggerEngine().popLogger();
+            }
+            IvyContext.popContext();
+        }
+    }
+
+    protected abstract T doCall() throws E;
+
+    /**
+     * Waits for the end of the task, running it in the current thread if it has not been started,
+     * and rethrows in the current thread the exception it may have failed with.
+     *
+     * @return the result of the task
+     * @throws E if the task failed
+     */
+    @SuppressWarnings("unchecked")
+    public T await() throws E {
+        // no-op if already started
+        future.run();
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("operation interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // doCall can't throw any other checked exception
+            throw (E) cause;
+        }
+    }
+
+    /**
+     * Cancels the task, interrupting the thread running it if it has been started.
+     */
+    public void cancel() {
+        future.cancel(true);
+    }
+
+    /**
+     * Delivers the ivy events recorded while the task was running. Must be called from the thread
+     * which submitted the task, once it is done.
+     */
+    public void fireEvents() {
+        for (IvyEvent event : events) {
+            eventManager.fireIvyEvent(event);
+        }
+    }
+
+    /**
+     * Returns a factory of daemon worker threads, named with the given prefix followed by a
+     * sequence number.
+     *
+     * @param prefix String
+     * @return ThreadFactory
+     */
+    public static ThreadFactory newThreadFactory(final String prefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
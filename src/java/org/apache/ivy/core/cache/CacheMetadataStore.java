@@ -0,0 +1,54 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.util.Properties;
+
+/**
+ * Storage of the data a {@link DefaultRepositoryCacheManager} keeps about the modules in its
+ * cache: resolvers used, artifact origins, resolved dynamic revisions, ...
+ * <p>
+ * Data is stored as properties, under a key which is the path of the data relative to the cache
+ * root, as computed from the data file pattern of the cache. Callers are responsible for locking
+ * the module metadata before reading and saving its data.
+ * </p>
+ */
+public interface CacheMetadataStore {
+
+    /**
+     * Loads the data stored under the given key.
+     *
+     * @param key
+     *            the key of the data, i.e. its path relative to the cache root
+     * @return a copy of the data stored under the key, empty if there is none. Never null.
+     */
+    Properties load(String key);
+
+    /**
+     * Saves the data under the given key, replacing any data previously saved under it. Saving
+     * empty data removes the previously saved data.
+     *
+     * @param key
+     *            the key of the data, i.e. its path relative to the cache root
+     * @param data
+     *            the data to save
+     * @param header
+     *            a description of the data, which may be stored along with it
+     */
+    void save(String key, Properties data, String header);
+}
@@ -35,10 +35,16 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
 import java.util.regex.Pattern;
 
 import org.apache.ivy.Ivy;
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
@@ -51,10 +57,12 @@ import org.apache.ivy.core.pack.PackagingManager;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.report.MetadataArtifactDownloadReport;
+import org.apache.ivy.core.resolve.ResolveData;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.IvySettingsAware;
 import org.apache.ivy.plugins.lock.LockStrategy;
+import org.apache.ivy.plugins.lock.ReadWriteLockStrategy;
 import org.apache.ivy.plugins.matcher.ExactPatternMatcher;
 import org.apache.ivy.plugins.matcher.MapMatcher;
 import org.apache.ivy.plugins.matcher.Matcher;
@@ -71,14 +79,16 @@ import org.apache.ivy.plugins.repository.Repository;
 import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.plugins.repository.ResourceDownloader;
 import org.apache.ivy.plugins.repository.ResourceHelper;
+import org.apache.ivy.plugins.repository.url.URLResource;
 import org.apache.ivy.plugins.resolver.AbstractResolver;
 import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.ivy.plugins.resolver.RepositoryResolver;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
 import org.apache.ivy.util.Checks;
 import org.apache.ivy.util.FileUtil;
 import org.apache.ivy.util.HexEncoder;
 import org.apache.ivy.util.Message;
-import org.apache.ivy.util.PropertiesFile;
+import org.apache.ivy.util.url.ConditionalURLHandler.Validators;
 
 import static org.apache.ivy.util.StringUtils.isNullOrEmpty;
 
@@ -130,10 +140,27 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
     private ModuleDescriptorMemoryCache memoryModuleDescrCache;
 
+    private int memorySize = DEFAULT_MEMORY_CACHE_SIZE;
+
+    private long memoryMaxWeight = 0;
+
+    private String metadataStoreName;
+
+    private CacheMetadataStore metadataStore;
+
     private PackagingManager packagingManager = new PackagingManager();
 
     private final List<ConfiguredTTL> configuredTTLs = new ArrayList<>();
 
+    private final ConcurrentMap<ModuleRevisionId, MetadataLock> metadataLocks
+            = new ConcurrentHashMap<>();
+
+    // validators of the descriptors found modified, saved once downloaded again by the resolver
+    private final ConcurrentMap<String, Validators> modifiedDescriptors = new ConcurrentHashMap<>();
+
+    private final Set<String> hostsWithoutValidators = Collections
+            .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
     public DefaultRepositoryCacheManager() {
     }
 
@@ -205,6 +232,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
     public void setBasedir(File cache) {
         this.basedir = cache;
+        this.metadataStore = null;
     }
 
     public long getDefaultTTL() {
@@ -222,6 +250,48 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         this.defaultTTL = parseDuration(defaultTTL);
     }
 
+    /**
+     * Sets the name of the store used to save the data about the modules in the cache: either
+     * {@code properties}, to save the data of each module revision in its own properties file
+     * located according to the data file pattern, or {@code log}, to save the data of all modules
+     * in a single indexed file located at the cache root.
+     *
+     * @param metadataStoreName String
+     */
+    public synchronized void setMetadataStore(String metadataStoreName) {
+        this.metadataStoreName = metadataStoreName;
+        this.metadataStore = null;
+    }
+
+    public synchronized void setCacheMetadataStore(CacheMetadataStore metadataStore) {
+        this.metadataStore = metadataStore;
+    }
+
+    /**
+     * Returns the store used to save the data about the modules in the cache. Unless set, it
+     * depends on the {@code metadataStore} attribute, defaulting to the
+     * {@code ivy.cache.metadata.store} variable, and to {@code properties} if undefined.
+     *
+     * @return CacheMetadataStore
+     */
+    public synchronized CacheMetadataStore getCacheMetadataStore() {
+        if (metadataStore == null) {
+            String storeName = metadataStoreName;
+            if (storeName == null && settings != null) {
+                storeName = settings.getVariable("ivy.cache.metadata.store");
+            }
+            if (storeName == null || "properties".equals(storeName)) {
+                metadataStore = new PropertiesCacheMetadataStore(getRepositoryCacheRoot());
+            } else if ("log".equals(storeName)) {
+                metadataStore = LogCacheMetadataStore.getInstance(getRepositoryCacheRoot());
+            } else {
+                throw new IllegalArgumentException("unknown cache metadata store '" + storeName
+                        + "' for cache " + getName() + ": use 'properties' or 'log'");
+            }
+        }
+        return metadataStore;
+    }
+
     public String getDataFilePattern() {
         return dataFilePattern;
     }
@@ -277,13 +347,31 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         this.configuredTTLs.add(configuredTTL);
     }
 
-    public void setMemorySize(int size) {
-        memoryModuleDescrCache = new ModuleDescriptorMemoryCache(size);
+    public synchronized void setMemorySize(int size) {
+        memorySize = size;
+        memoryModuleDescrCache = null;
+    }
+
+    /**
+     * Sets the approximate maximum memory, in bytes, the parsed module descriptors kept in the
+     * memory cache may retain. 0 or less means the memory cache is only bounded by its size.
+     *
+     * @param maxWeight long
+     */
+    public synchronized void setMemoryMaxWeight(long maxWeight) {
+        memoryMaxWeight = maxWeight;
+        memoryModuleDescrCache = null;
     }
 
-    public ModuleDescriptorMemoryCache getMemoryCache() {
+    /**
+     * Returns the in-memory cache of parsed module descriptors, which gives access to its hit,
+     * miss, eviction and stale counters.
+     *
+     * @return ModuleDescriptorMemoryCache
+     */
+    public synchronized ModuleDescriptorMemoryCache getMemoryCache() {
         if (memoryModuleDescrCache == null) {
-            memoryModuleDescrCache = new ModuleDescriptorMemoryCache(DEFAULT_MEMORY_CACHE_SIZE);
+            memoryModuleDescrCache = new ModuleDescriptorMemoryCache(memorySize, memoryMaxWeight);
         }
         return memoryModuleDescrCache;
     }
@@ -435,10 +523,18 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
      *            resolver name
      */
     private void saveResolver(ModuleDescriptor md, String name) {
-        // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(md);
-        cdf.setProperty("resolver", name);
-        cdf.save();
+        ModuleRevisionId mrid = md.getResolvedModuleRevisionId();
+        if (!lockMetadataArtifact(mrid)) {
+            Message.error("impossible to acquire lock for " + mrid);
+            return;
+        }
+        try {
+            CachedData cdf = getCachedDataFile(md);
+            cdf.setProperty("resolver", name);
+            cdf.save();
+        } finally {
+            unlockMetadataArtifact(mrid);
+        }
     }
 
     /**
@@ -460,7 +556,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             return;
         }
         try {
-            PropertiesFile cdf = getCachedDataFile(md);
+            CachedData cdf = getCachedDataFile(md);
             cdf.setProperty("resolver", metadataResolverName);
             cdf.setProperty("artifact.resolver", artifactResolverName);
             cdf.save();
@@ -471,19 +567,19 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
     private String getSavedResolverName(ModuleDescriptor md) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(md);
+        CachedData cdf = getCachedDataFile(md);
         return cdf.getProperty("resolver");
     }
 
     private String getSavedArtResolverName(ModuleDescriptor md) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(md);
+        CachedData cdf = getCachedDataFile(md);
         return cdf.getProperty("artifact.resolver");
     }
 
     void saveArtifactOrigin(Artifact artifact, ArtifactOrigin origin) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
+        CachedData cdf = getCachedDataFile(artifact.getModuleRevisionId());
         cdf.setProperty(getIsLocalKey(artifact), String.valueOf(origin.isLocal()));
         cdf.setProperty(getLocationKey(artifact), origin.getLocation());
         cdf.setProperty(getOriginalKey(artifact), getPrefixKey(origin.getArtifact()));
@@ -494,9 +590,23 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         cdf.save();
     }
 
+    private void saveETag(Artifact artifact, String etag) {
+        // should always be called with a lock on module metadata artifact
+        CachedData cdf = getCachedDataFile(artifact.getModuleRevisionId());
+        if (etag == null) {
+            if (cdf.getProperty(getETagKey(artifact)) == null) {
+                return;
+            }
+            cdf.remove(getETagKey(artifact));
+        } else {
+            cdf.setProperty(getETagKey(artifact), etag);
+        }
+        cdf.save();
+    }
+
     private void removeSavedArtifactOrigin(Artifact artifact) {
         // should always be called with a lock on module metadata artifact
-        PropertiesFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
+        CachedData cdf = getCachedDataFile(artifact.getModuleRevisionId());
         cdf.remove(getLocationKey(artifact));
         cdf.remove(getIsLocalKey(artifact));
         cdf.remove(getLastCheckedKey(artifact));
@@ -509,12 +619,12 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
     public ArtifactOrigin getSavedArtifactOrigin(Artifact artifact) {
         ModuleRevisionId mrid = artifact.getModuleRevisionId();
-        if (!lockMetadataArtifact(mrid)) {
+        if (!lockMetadataArtifactForRead(mrid)) {
             Message.error("impossible to acquire lock for " + mrid);
             return ArtifactOrigin.unknown(artifact);
         }
         try {
-            PropertiesFile cdf = getCachedDataFile(artifact.getModuleRevisionId());
+            CachedData cdf = getCachedDataFile(artifact.getModuleRevisionId());
             String location = cdf.getProperty(getLocationKey(artifact));
             String local = cdf.getProperty(getIsLocalKey(artifact));
             String lastChecked = cdf.getProperty(getLastCheckedKey(artifact));
@@ -605,7 +715,7 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
             return origin;
         } finally {
-            unlockMetadataArtifact(mrid);
+            unlockMetadataArtifactForRead(mrid);
         }
     }
 
@@ -656,6 +766,18 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         return getPrefixKey(artifact) + ".lastchecked";
     }
 
+    /**
+     * Returns the key used to identify the entity tag of the remote artifact, as given by the
+     * server when it was last checked.
+     *
+     * @param artifact
+     *            the artifact to generate the key from. Cannot be null.
+     * @return the key to be used to reference the artifact's entity tag.
+     */
+    private String getETagKey(Artifact artifact) {
+        return getPrefixKey(artifact) + ".etag";
+    }
+
     /**
      * Returns the key used to identify the existence of the remote artifact.
      *
@@ -678,27 +800,27 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         return getPrefixKey(artifact) + ".original";
     }
 
-    private PropertiesFile getCachedDataFile(ModuleDescriptor md) {
+    private CachedData getCachedDataFile(ModuleDescriptor md) {
         return getCachedDataFile(md.getResolvedModuleRevisionId());
     }
 
-    private PropertiesFile getCachedDataFile(ModuleRevisionId mRevId) {
-        File file = new File(getRepositoryCacheRoot(), IvyPatternHelper.substitute(
-            getDataFilePattern(), mRevId));
-        assertInsideCache(file);
-        return new PropertiesFile(file, "ivy cached data file for " + mRevId);
+    private CachedData getCachedDataFile(ModuleRevisionId mRevId) {
+        return getCachedData(IvyPatternHelper.substitute(getDataFilePattern(), mRevId), mRevId);
     }
 
     /**
      * A resolver-specific ivydata file, only used for caching dynamic revisions, e.g.
      * integration-repo.
      */
-    private PropertiesFile getCachedDataFile(String resolverName, ModuleRevisionId mRevId) {
+    private CachedData getCachedDataFile(String resolverName, ModuleRevisionId mRevId) {
         // we append ".${resolverName} onto the end of the regular ivydata location
-        File file = new File(getRepositoryCacheRoot(),
-            IvyPatternHelper.substitute(getDataFilePattern(), mRevId) + "." + resolverName);
-        assertInsideCache(file);
-        return new PropertiesFile(file, "ivy cached data file for " + mRevId);
+        return getCachedData(IvyPatternHelper.substitute(getDataFilePattern(), mRevId) + "."
+                + resolverName, mRevId);
+    }
+
+    private CachedData getCachedData(String key, ModuleRevisionId mRevId) {
+        assertInsideCache(new File(getRepositoryCacheRoot(), key));
+        return new CachedData(getCacheMetadataStore(), key, "ivy cached data file for " + mRevId);
     }
 
     public ResolvedModuleRevision findModuleInCache(DependencyDescriptor dd,
@@ -706,48 +828,126 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             String expectedResolver) {
         if (isCheckmodified(dd, requestedRevisionId, options)) {
             Message.verbose("don't use cache for " + requestedRevisionId + ": checkModified=true");
-            return null;
+            expireResolveResultAt(0);
+            return options.isUseCacheOnly() ? null
+                    : revalidateModuleInCache(requestedRevisionId, options, expectedResolver);
         }
         if (!options.isUseCacheOnly() && isChanging(dd, requestedRevisionId, options)) {
             Message.verbose("don't use cache for " + requestedRevisionId + ": changing=true");
-            return null;
+            expireResolveResultAt(0);
+            return revalidateModuleInCache(requestedRevisionId, options, expectedResolver);
         }
         return doFindModuleInCache(requestedRevisionId, options, expectedResolver);
     }
 
-    private ResolvedModuleRevision doFindModuleInCache(ModuleRevisionId mrid,
+    /**
+     * Checks with a single conditional request to its origin if the module descriptor in cache of
+     * a changing or checked module is still up to date, in which case it is returned without the
+     * resolver having to look for it again. The request goes through the repository of the
+     * resolver, with its timeouts. The entity tag of the descriptor, when the server gave one, is
+     * saved once the descriptor has been downloaded by the resolver.
+     */
+    private ResolvedModuleRevision revalidateModuleInCache(ModuleRevisionId mrid,
             CacheMetadataOptions options, String expectedResolver) {
-        if (!lockMetadataArtifact(mrid)) {
-            Message.error("impossible to acquire lock for " + mrid);
+        if (expectedResolver == null || settings.getVersionMatcher().isDynamic(mrid)) {
             return null;
         }
-
-        boolean unlock = true;
-
+        DependencyResolver resolver = settings.getResolver(expectedResolver);
+        if (!(resolver instanceof RepositoryResolver)) {
+            return null;
+        }
+        ResolvedModuleRevision rmr = doFindModuleInCache(mrid, options, expectedResolver);
+        if (rmr == null || rmr.getDescriptor().isDefault()) {
+            return null;
+        }
+        ArtifactOrigin origin = rmr.getReport().getArtifactOrigin();
+        File originalFile = rmr.getReport().getOriginalLocalFile();
+        if (origin == null || ArtifactOrigin.isUnknown(origin) || origin.isLocal()
+                || !origin.isExists() || originalFile == null || !originalFile.exists()) {
+            return null;
+        }
+        URL url;
         try {
-            if (settings.getVersionMatcher().isDynamic(mrid)) {
-                String resolvedRevision = getResolvedRevision(expectedResolver, mrid, options);
-                if (resolvedRevision == null) {
-                    return null;
-                }
-                Message.verbose("found resolved revision in cache: " + mrid + " => "
-                        + resolvedRevision);
-
-                // we have found another module in the cache, make sure we unlock
-                // the original module
+            url = new URL(origin.getLocation());
+        } catch (MalformedURLException e) {
+            return null;
+        }
+        if (!"http".equals(url.getProtocol()) && !"https".equals(url.getProtocol())
+                || hostsWithoutValidators.contains(url.getHost())) {
+            return null;
+        }
+        Artifact metadataArtifact = rmr.getDescriptor().getMetadataArtifact();
+        Validators validators;
+        try {
+            Resource resource = ((RepositoryResolver) resolver).getRepository()
+                    .getResource(origin.getLocation());
+            if (!(resource instanceof URLResource)) {
+                return null;
+            }
+            String etag;
+            if (!lockMetadataArtifactForRead(mrid)) {
+                Message.error("impossible to acquire lock for " + mrid);
+                return null;
+            }
+            try {
+                etag = getCachedDataFile(metadataArtifact.getModuleRevisionId())
+                        .getProperty(getETagKey(metadataArtifact));
+            } finally {
+                unlockMetadataArtifactForRead(mrid);
+            }
+            // the request is sent without holding the lock, other resolves may use the cache
+            validators = ((URLResource) resource).checkModified(etag,
+                originalFile.lastModified());
+        } catch (IOException | UnsupportedOperationException e) {
+            Message.debug("\t" + getName() + ": impossible to check if revision in cache is "
+                    + "up to date: " + mrid + ": " + e.getMessage());
+            return null;
+        }
+        if (validators == null) {
+            Message.verbose("\t" + getName() + ": revision in cache (not modified): " + mrid);
+            if (!lockMetadataArtifact(mrid)) {
+                Message.error("impossible to acquire lock for " + mrid);
+                return null;
+            }
+            try {
+                origin.setLastChecked(System.currentTimeMillis());
+                saveArtifactOrigin(metadataArtifact, origin);
+            } finally {
                 unlockMetadataArtifact(mrid);
-                mrid = ModuleRevisionId.newInstance(mrid, resolvedRevision);
-
-                // don't forget to request a lock on the new module!
-                if (!lockMetadataArtifact(mrid)) {
-                    Message.error("impossible to acquire lock for " + mrid);
+            }
+            return rmr;
+        }
+        if (!validators.isValidatable()) {
+            // the server can't tell if something has changed, don't ask it again
+            hostsWithoutValidators.add(url.getHost());
+        } else {
+            modifiedDescriptors.put(origin.getLocation(), validators);
+        }
+        Message.verbose("\t" + getName() + ": revision in cache is not up to date: " + mrid);
+        return null;
+    }
 
-                    // we couldn't lock the new module, so no need to unlock it
-                    unlock = false;
-                    return null;
-                }
+    private ResolvedModuleRevision doFindModuleInCache(ModuleRevisionId mrid,
+            CacheMetadataOptions options, String expectedResolver) {
+        if (settings.getVersionMatcher().isDynamic(mrid)) {
+            String resolvedRevision = getResolvedRevision(expectedResolver, mrid, options);
+            if (resolvedRevision == null) {
+                return null;
             }
+            Message.verbose("found resolved revision in cache: " + mrid + " => "
+                    + resolvedRevision);
+            mrid = ModuleRevisionId.newInstance(mrid, resolvedRevision);
+        }
 
+        if (!lockMetadataArtifactForRead(mrid)) {
+            Message.error("impossible to acquire lock for " + mrid);
+            return null;
+        }
+
+        // the module descriptor which resolver has to be saved once the read lock is released
+        ModuleDescriptor unsavedResolverMd = null;
+        String unsavedResolverName = null;
+        try {
             File ivyFile = getIvyFileInCache(mrid);
             if (ivyFile.exists()) {
                 // found in cache !
@@ -765,7 +965,8 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                             Message.debug("\tconfigured resolver found for "
                                     + depMD.getResolvedModuleRevisionId() + ": "
                                     + resolver.getName() + ": saving this data");
-                            saveResolver(depMD, resolver.getName());
+                            unsavedResolverMd = depMD;
+                            unsavedResolverName = resolver.getName();
                         }
                     }
                     DependencyResolver artResolver = settings.getResolver(artResolverName);
@@ -812,8 +1013,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                 Message.debug("\tno ivy file in cache for " + mrid + ": tried " + ivyFile);
             }
         } finally {
-            if (unlock) {
-                unlockMetadataArtifact(mrid);
+            unlockMetadataArtifactForRead(mrid);
+            if (unsavedResolverMd != null) {
+                // a read lock can't be upgraded, the resolver is saved under a new write lock
+                saveResolver(unsavedResolverMd, unsavedResolverName);
             }
         }
         return null;
@@ -868,47 +1071,51 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
      * file.
      */
     private String getResolvedRevision(String expectedResolver, ModuleRevisionId mrid, CacheMetadataOptions options) {
-        if (!lockMetadataArtifact(mrid)) {
+        if (!lockMetadataArtifactForRead(mrid)) {
             Message.error("impossible to acquire lock for " + mrid);
             return null;
         }
+        String resolvedRevision;
+        String resolvedTime;
         try {
             if (options.isForce()) {
                 Message.verbose("refresh mode: no check for cached resolved revision for " + mrid);
                 return null;
             }
             // If a resolver is asking for its specific dynamic revision, avoid looking at a different one
-            PropertiesFile cachedResolvedRevision;
+            CachedData cachedResolvedRevision;
             if (expectedResolver != null) {
                 cachedResolvedRevision = getCachedDataFile(expectedResolver, mrid);
             } else {
                 cachedResolvedRevision = getCachedDataFile(mrid);
             }
-            String resolvedRevision = cachedResolvedRevision.getProperty("resolved.revision");
+            resolvedRevision = cachedResolvedRevision.getProperty("resolved.revision");
             if (resolvedRevision == null) {
                 Message.verbose(getName() + ": no cached resolved revision for " + mrid);
                 return null;
             }
 
-            String resolvedTime = cachedResolvedRevision.getProperty("resolved.time");
-            if (resolvedTime == null) {
-                Message.verbose(getName()
-                        + ": inconsistent or old cache: no cached resolved time for " + mrid);
-                saveResolvedRevision(expectedResolver, mrid, resolvedRevision);
-                return resolvedRevision;
-            }
-            if (options.isCheckTTL()) {
+            resolvedTime = cachedResolvedRevision.getProperty("resolved.time");
+            if (resolvedTime != null && options.isCheckTTL()) {
                 long expiration = Long.parseLong(resolvedTime) + getTTL(mrid);
                 // negative expiration means that Long.MAX_VALUE has been exceeded
                 if (expiration > 0 && System.currentTimeMillis() > expiration) {
                     Message.verbose(getName() + ": cached resolved revision expired for " + mrid);
                     return null;
                 }
+                if (expiration > 0) {
+                    expireResolveResultAt(expiration);
+                }
             }
-            return resolvedRevision;
         } finally {
-            unlockMetadataArtifact(mrid);
+            unlockMetadataArtifactForRead(mrid);
+        }
+        if (resolvedTime == null) {
+            Message.verbose(getName()
+                    + ": inconsistent or old cache: no cached resolved time for " + mrid);
+            saveResolvedRevision(expectedResolver, mrid, resolvedRevision);
         }
+        return resolvedRevision;
     }
 
     @Deprecated
@@ -922,19 +1129,23 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
             return;
         }
         try {
-            PropertiesFile cachedResolvedRevision;
+            CachedData cachedResolvedRevision;
             if (resolverName == null) {
                 cachedResolvedRevision = getCachedDataFile(mrid);
             } else {
                 cachedResolvedRevision = getCachedDataFile(resolverName, mrid);
             }
-            cachedResolvedRevision.setProperty("resolved.time",
-                String.valueOf(System.currentTimeMillis()));
+            long now = System.currentTimeMillis();
+            cachedResolvedRevision.setProperty("resolved.time", String.valueOf(now));
             cachedResolvedRevision.setProperty("resolved.revision", revision);
             if (resolverName != null) {
                 cachedResolvedRevision.setProperty("resolver", resolverName);
             }
             cachedResolvedRevision.save();
+            long expiration = now + getTTL(mrid);
+            if (expiration > 0) {
+                expireResolveResultAt(expiration);
+            }
         } finally {
             unlockMetadataArtifact(mrid);
         }
@@ -945,6 +1156,17 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         return ttl == null ? getDefaultTTL() : ttl;
     }
 
+    /**
+     * Tells the resolve in progress, if any, that its result is only valid until the given time,
+     * so that it is not reused after a cached dynamic revision expired.
+     */
+    private static void expireResolveResultAt(long time) {
+        ResolveData data = IvyContext.getContext().getResolveData();
+        if (data != null) {
+            data.expireResultAt(time);
+        }
+    }
+
     @Override
     public String toString() {
         return name;
@@ -976,6 +1198,13 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
     public ArtifactDownloadReport download(Artifact artifact,
             ArtifactResourceResolver resourceResolver, ResourceDownloader resourceDownloader,
             CacheDownloadOptions options) {
+        if (!options.isForce()) {
+            // most artifacts are already in cache: look for them without excluding other readers
+            ArtifactDownloadReport adr = getDownloadedArtifact(artifact, options);
+            if (adr != null) {
+                return adr;
+            }
+        }
         final ArtifactDownloadReport adr = new ArtifactDownloadReport(artifact);
         boolean useOrigin = isUseOrigin();
 
@@ -1069,6 +1298,54 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         }
     }
 
+    /**
+     * Looks for an artifact already downloaded, and unpacked if it needs to be, under a read lock.
+     *
+     * @return the report of the artifact found in cache, or null if it has to be downloaded or
+     *         unpacked
+     */
+    private ArtifactDownloadReport getDownloadedArtifact(Artifact artifact,
+            CacheDownloadOptions options) {
+        ModuleRevisionId mrid = artifact.getModuleRevisionId();
+        if (!lockMetadataArtifactForRead(mrid)) {
+            return null;
+        }
+        try {
+            ArtifactOrigin origin = getSavedArtifactOrigin(artifact);
+            File archiveFile = getArchiveFileInCache(artifact, origin, isUseOrigin());
+            if (!archiveFile.exists()) {
+                return null;
+            }
+            Artifact unpacked = packagingManager.getUnpackedArtifact(artifact);
+            File unpackedFile = null;
+            if (unpacked != null) {
+                unpackedFile = getArchiveFileInCache(unpacked, null, false);
+                if (!unpackedFile.exists()) {
+                    return null;
+                }
+            }
+            DownloadListener listener = options.getListener();
+            if (listener != null) {
+                listener.needArtifact(this, artifact);
+            }
+            ArtifactDownloadReport adr = new ArtifactDownloadReport(artifact);
+            adr.setDownloadStatus(DownloadStatus.NO);
+            adr.setSize(archiveFile.length());
+            adr.setArtifactOrigin(origin);
+            adr.setLocalFile(archiveFile);
+            if (unpacked != null) {
+                adr.setUnpackedLocalFile(unpackedFile);
+                adr.setUnpackedArtifact(unpacked);
+            }
+            if (listener != null) {
+                listener.endArtifactDownload(this, artifact, adr, archiveFile);
+            }
+            return adr;
+        } finally {
+            unlockMetadataArtifactForRead(mrid);
+        }
+    }
+
     private void unpackArtifact(Artifact artifact, ArtifactDownloadReport adr,
             CacheDownloadOptions options) {
         Artifact unpacked = packagingManager.getUnpackedArtifact(artifact);
@@ -1106,6 +1383,11 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
         final ArtifactDownloadReport adr = new ArtifactDownloadReport(artifact);
         boolean useOrigin = isUseOrigin();
 
+        if (!lockMetadataArtifact(mrid)) {
+            adr.setDownloadStatus(DownloadStatus.FAILED);
+            adr.setDownloadDetails("impossible to get lock for " + mrid);
+            return adr;
+        }
         try {
             DownloadListener listener = options.getListener();
             if (listener != null) {
@@ -1309,6 +1591,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                 return null;
             }
 
+            // the validators of the descriptor, if it is known to have been modified
+            Validators modified = mdRef.getResource() == null ? null
+                    : modifiedDescriptors.remove(mdRef.getResource().getName());
+
             // now let's see if we can find it in cache and if it is up to date
             ResolvedModuleRevision rmr = doFindModuleInCache(mrid, options, null);
             if (rmr != null) {
@@ -1324,7 +1610,8 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                     }
                     long repLastModified = mdRef.getLastModified();
                     long cacheLastModified = rmr.getDescriptor().getLastModified();
-                    if (!rmr.getDescriptor().isDefault() && repLastModified <= cacheLastModified) {
+                    if (!rmr.getDescriptor().isDefault() && repLastModified <= cacheLastModified
+                            && modified == null) {
                         Message.verbose("\t" + getName() + ": revision in cache (not updated): "
                                 + mrid);
                         rmr.getReport().setSearched(true);
@@ -1425,6 +1712,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                 Artifact transformedMetadataArtifact = NameSpaceHelper.transform(
                     md.getMetadataArtifact(), options.getNamespace().getToSystemTransformer());
                 saveArtifactOrigin(transformedMetadataArtifact, report.getArtifactOrigin());
+                String etag = modified != null ? modified.getETag()
+                        : mdRef.getResource() instanceof URLResource
+                                ? ((URLResource) mdRef.getResource()).getETag() : null;
+                saveETag(transformedMetadataArtifact, etag);
 
                 return new ResolvedModuleRevision(resolver, resolver, md, madr);
             } catch (IOException ex) {
@@ -1432,31 +1723,117 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
                 return null;
             }
         } finally {
-            unlockMetadataArtifact(mrid);
+            // the backup must go before the lock: other caches may back up the same file
             backupDownloader.cleanUp();
+            unlockMetadataArtifact(mrid);
         }
 
     }
 
     // lock used to lock all metadata related information access
     private boolean lockMetadataArtifact(ModuleRevisionId mrid) {
+        return lockMetadataArtifact(mrid, false);
+    }
+
+    // lock used to read metadata related information, shared with other readers
+    private boolean lockMetadataArtifactForRead(ModuleRevisionId mrid) {
+        return lockMetadataArtifact(mrid, true);
+    }
+
+    private boolean lockMetadataArtifact(ModuleRevisionId mrid, boolean shared) {
         Artifact artifact = getDefaultMetadataArtifact(mrid);
+        // threads of this jvm are serialized first, whatever the lock strategy, since resolvers
+        // may look for the same module concurrently
+        ReentrantReadWriteLock readWriteLock = metadataLocks.compute(mrid,
+            new BiFunction<ModuleRevisionId, MetadataLock, MetadataLock>() {
+                public MetadataLock apply(ModuleRevisionId id, MetadataLock lock) {
+                    MetadataLock result = lock == null ? new MetadataLock() : lock;
+                    result.users++;
+                    return result;
+                }
+            }).lock;
+        if (!shared && readWriteLock.getReadHoldCount() > 0
+                && !readWriteLock.isWriteLockedByCurrentThread()) {
+            unuseMetadataLock(mrid);
+            throw new IllegalStateException("impossible to lock the metadata of " + mrid
+                    + " for writing while reading them");
+        }
+        (shared ? readWriteLock.readLock() : readWriteLock.writeLock()).lock();
+        boolean locked = false;
         try {
             // we need to provide an artifact origin to be sure we do not end up in a stack
             // overflow if the cache pattern is using original name, and the substitution thus
             // trying to get the saved artifact origin value which in turns calls this method
-            return getLockStrategy().lockArtifact(artifact,
-                getArchiveFileInCache(artifact, getDefaultMetadataArtifactOrigin(mrid)));
+            File file = getArchiveFileInCache(artifact, getDefaultMetadataArtifactOrigin(mrid));
+            LockStrategy lockStrategy = getLockStrategy();
+            if (shared && lockStrategy instanceof ReadWriteLockStrategy) {
+                locked = ((ReadWriteLockStrategy) lockStrategy).lockArtifactForRead(artifact,
+                    file);
+            } else {
+                locked = lockStrategy.lockArtifact(artifact, file);
+            }
+            return locked;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // reset interrupt status
             throw new RuntimeException("operation interrupted");
+        } finally {
+            if (!locked) {
+                releaseMetadataLock(mrid, shared);
+            }
         }
     }
 
     private void unlockMetadataArtifact(ModuleRevisionId mrid) {
+        unlockMetadataArtifact(mrid, false);
+    }
+
+    private void unlockMetadataArtifactForRead(ModuleRevisionId mrid) {
+        unlockMetadataArtifact(mrid, true);
+    }
+
+    private void unlockMetadataArtifact(ModuleRevisionId mrid, boolean shared) {
         Artifact artifact = getDefaultMetadataArtifact(mrid);
-        getLockStrategy().unlockArtifact(artifact,
-            getArchiveFileInCache(artifact, getDefaultMetadataArtifactOrigin(mrid)));
+        try {
+            File file = getArchiveFileInCache(artifact, getDefaultMetadataArtifactOrigin(mrid));
+            LockStrategy lockStrategy = getLockStrategy();
+            if (shared && lockStrategy instanceof ReadWriteLockStrategy) {
+                ((ReadWriteLockStrategy) lockStrategy).unlockArtifactForRead(artifact, file);
+            } else {
+                lockStrategy.unlockArtifact(artifact, file);
+            }
+        } finally {
+            releaseMetadataLock(mrid, shared);
+        }
+    }
+
+    private void releaseMetadataLock(ModuleRevisionId mrid, boolean shared) {
+        MetadataLock metadataLock = metadataLocks.get(mrid);
+        if (metadataLock == null || (shared ? metadataLock.lock.getReadHoldCount() == 0
+                : !metadataLock.lock.isWriteLockedByCurrentThread())) {
+            // like lock strategies, tolerate unlocking what was not locked
+            return;
+        }
+        (shared ? metadataLock.lock.readLock() : metadataLock.lock.writeLock()).unlock();
+        unuseMetadataLock(mrid);
+    }
+
+    private void unuseMetadataLock(ModuleRevisionId mrid) {
+        metadataLocks.computeIfPresent(mrid,
+            new BiFunction<ModuleRevisionId, MetadataLock, MetadataLock>() {
+                public MetadataLock apply(ModuleRevisionId id, MetadataLock lock) {
+                    return --lock.users == 0 ? null : lock;
+                }
+            });
+    }
+
+    /**
+     * The in-process lock on the metadata of a module revision, with the number of threads using
+     * it so that it can be forgotten once released by all of them.
+     */
+    private static final class MetadataLock {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private int users;
     }
 
     private ArtifactOrigin getDefaultMetadataArtifactOrigin(ModuleRevisionId mrid) {
@@ -1527,6 +1904,10 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
     }
 
     public void clean() {
+        if (metadataStore instanceof LogCacheMetadataStore) {
+            // the store file can't be deleted while opened on some platforms
+            ((LogCacheMetadataStore) metadataStore).close();
+        }
         FileUtil.forceDelete(getBasedir());
     }
 
@@ -1625,6 +2006,46 @@ public class DefaultRepositoryCacheManager implements RepositoryCacheManager, Iv
 
     }
 
+    /**
+     * The data saved about a module revision in the cache metadata store.
+     */
+    private static final class CachedData {
+        private final CacheMetadataStore store;
+
+        private final String key;
+
+        private final String header;
+
+        private final Properties data;
+
+        CachedData(CacheMetadataStore store, String key, String header) {
+            this.store = store;
+            this.key = key;
+            this.header = header;
+            this.data = store.load(key);
+        }
+
+        String getProperty(String name) {
+            return data.getProperty(name);
+        }
+
+        void setProperty(String name, String value) {
+            data.setProperty(name, value);
+        }
+
+        void remove(String name) {
+            data.remove(name);
+        }
+
+        Set<Map.Entry<Object, Object>> entrySet() {
+            return data.entrySet();
+        }
+
+        void save() {
+            store.save(key, data, header);
+        }
+    }
+
     private static final class ConfiguredTTL {
         // attributes on the TTL, that don't contribute to module matching
         private static final Set<String> attributesNotContributingToMatching = new HashSet<>();
@@ -0,0 +1,422 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.PropertiesFile;
+
+/**
+ * A {@link CacheMetadataStore} keeping the data of all the modules of a cache in a single
+ * append-only file located at the cache root, with an in-memory index of the position of the last
+ * record saved for each key. Loading data is thus a hash lookup followed by a single read, instead
+ * of opening and parsing a properties file per module, and the cache doesn't need one small file
+ * per module revision anymore.
+ * <p>
+ * The file can be shared by several processes: records are appended while holding an exclusive
+ * lock on the file, and each process indexes the records appended by the others before using its
+ * index. Once superseded records take more than half of the file, the live records are copied to a
+ * new file which atomically replaces the old one; processes notice the replacement and rebuild
+ * their index.
+ * </p>
+ * <p>
+ * When no data has been saved in the store under a key, the properties file saved at the key path
+ * by previous versions of Ivy, if any, is used, so that existing caches can be reused as is.
+ * </p>
+ */
+public class LogCacheMetadataStore implements CacheMetadataStore {
+
+    /**
+     * The name of the store file, in the cache root.
+     */
+    public static final String FILE_NAME = "ivydata.log";
+
+    private static final byte[] MAGIC = {'I', 'V', 'Y', 'D', 'A', 'T', 'A', 1};
+
+    /**
+     * Each record starts with the length of its payload and the CRC32 of its payload.
+     */
+    private static final int RECORD_HEADER_LENGTH = 8;
+
+    private static final long MIN_COMPACTION_GARBAGE = 1024 * 1024;
+
+    private static final Map<File, LogCacheMetadataStore> STORES = new HashMap<>();
+
+    /**
+     * Returns the store for the given cache root. Stores are shared in a JVM, since a file can't be
+     * locked by two channels of the same JVM.
+     *
+     * @param root
+     *            the cache root
+     * @return LogCacheMetadataStore
+     */
+    public static LogCacheMetadataStore getInstance(File root) {
+        File key = root.getAbsoluteFile();
+        synchronized (STORES) {
+            LogCacheMetadataStore store = STORES.get(key);
+            if (store == null) {
+                store = new LogCacheMetadataStore(key);
+                STORES.put(key, store);
+            }
+            return store;
+        }
+    }
+
+    private final File root;
+
+    private final File file;
+
+    private final Map<String, Record> index = new HashMap<>();
+
+    private FileChannel channel;
+
+    private Object fileKey;
+
+    /**
+     * The position up to which the records of the file have been indexed.
+     */
+    private long indexedEnd;
+
+    /**
+     * The number of bytes in the file used by superseded or corrupted records.
+     */
+    private long garbage;
+
+    LogCacheMetadataStore(File root) {
+        this.root = root;
+        this.file = new File(root, FILE_NAME);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized Properties load(String key) {
+        try {
+            open();
+            catchUp();
+            Record record = index.get(key);
+            if (record != null) {
+                return read(record);
+            }
+        } catch (IOException ex) {
+            Message.warn("exception occurred while reading cache metadata store " + file, ex);
+        }
+        // nothing saved in the store: use the data saved by previous versions, if any
+        return new PropertiesFile(new File(root, key), null);
+    }
+
+    public synchronized void save(String key, Properties data, String header) {
+        try {
+            byte[] record = encode(key, data);
+            while (true) {
+                open();
+                FileLock lock = channel.lock();
+                try {
+                    if (!isCurrent()) {
+                        // compacted by another process while we were waiting for the lock
+                        close();
+                        continue;
+                    }
+                    if (channel.size() < MAGIC.length) {
+                        channel.truncate(0);
+                        writeFully(channel, ByteBuffer.wrap(MAGIC), 0);
+                    }
+                    catchUp();
+                    long position = indexedEnd;
+                    if (channel.size() > position) {
+                        // nobody else writes while we hold the lock: this is the incomplete
+                        // record of a process which died while appending it, which would hide
+                        // the records appended after it
+                        Message.warn("discarding incomplete record at the end of " + file
+                                + " at " + position);
+                        channel.truncate(position);
+                    }
+                    writeFully(channel, ByteBuffer.wrap(record), position);
+                    indexedEnd = position + record.length;
+                    put(key, new Record(position, record.length));
+                    if (garbage > MIN_COMPACTION_GARBAGE && garbage > indexedEnd / 2) {
+                        compact();
+                    }
+                    return;
+                } finally {
+                    if (lock.isValid()) {
+                        lock.release();
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            Message.warn("exception occurred while writing cache metadata store " + file, ex);
+        }
+    }
+
+    /**
+     * @return the number of keys with data in the store
+     */
+    public synchronized int size() {
+        try {
+            open();
+            catchUp();
+        } catch (IOException ex) {
+            Message.warn("exception occurred while reading cache metadata store " + file, ex);
+        }
+        return index.size();
+    }
+
+    /**
+     * Closes the store file. It is opened again on next access.
+     */
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignored
+            }
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel != null && isCurrent()) {
+            return;
+        }
+        close();
+        index.clear();
+        indexedEnd = 0;
+        garbage = 0;
+        file.getParentFile().mkdirs();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileKey = getFileKey(file);
+    }
+
+    private boolean isCurrent() {
+        Object key = getFileKey(file);
+        return key != null && key.equals(fileKey);
+    }
+
+    private static Object getFileKey(File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(),
+                BasicFileAttributes.class);
+            // the file key isn't available on every platform, fall back to the creation time
+            return attributes.fileKey() == null ? attributes.creationTime() : attributes.fileKey();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Indexes the records appended since the last call, possibly by other processes.
+     */
+    private void catchUp() throws IOException {
+        long size = channel.size();
+        if (indexedEnd == 0) {
+            if (size < MAGIC.length) {
+                // nothing written yet
+                return;
+            }
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            readFully(channel, magic, 0);
+            if (!Arrays.equals(magic.array(), MAGIC)) {
+                throw new IOException(file + " is not a cache metadata store");
+            }
+            indexedEnd = MAGIC.length;
+        }
+        if (indexedEnd >= size) {
+            return;
+        }
+        // the stream isn't closed since it would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(indexedEnd)), 64 * 1024));
+        long position = indexedEnd;
+        try {
+            while (size - position >= RECORD_HEADER_LENGTH) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || size - position - RECORD_HEADER_LENGTH < length) {
+                    // record still being written by another process
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                int recordLength = RECORD_HEADER_LENGTH + length;
+                if (checksum(payload, 0, length) == checksum) {
+                    String key = new DataInputStream(new ByteArrayInputStream(payload)).readUTF();
+                    put(key, new Record(position, recordLength));
+                } else {
+                    Message.warn("ignoring corrupted record in " + file + " at " + position);
+                    garbage += recordLength;
+                }
+                position += recordLength;
+            }
+        } catch (EOFException e) {
+            // the file has been truncated meanwhile, stop at the last complete record
+        }
+        indexedEnd = position;
+    }
+
+    private void put(String key, Record record) {
+        Record previous = index.put(key, record);
+        if (previous != null) {
+            garbage += previous.length;
+        }
+    }
+
+    private Properties read(Record record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(record.length);
+        readFully(channel, buffer, record.position);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array(),
+                RECORD_HEADER_LENGTH, record.length - RECORD_HEADER_LENGTH));
+        in.readUTF(); // key
+        int count = in.readInt();
+        Properties data = new Properties();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            data.setProperty(name, in.readUTF());
+        }
+        return data;
+    }
+
+    private static byte[] encode(String key, Properties data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(bytes);
+        // placeholder for the record header
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeUTF(key);
+        Set<String> names = data.stringPropertyNames();
+        out.writeInt(names.size());
+        for (String name : names) {
+            out.writeUTF(name);
+            out.writeUTF(data.getProperty(name));
+        }
+        out.flush();
+        byte[] record = bytes.toByteArray();
+        int length = record.length - RECORD_HEADER_LENGTH;
+        ByteBuffer.wrap(record).putInt(length)
+                .putInt(checksum(record, RECORD_HEADER_LENGTH, length));
+        return record;
+    }
+
+    /**
+     * Copies the indexed records to a new file replacing the store file. Must be called while
+     * holding the file lock.
+     */
+    private void compact() {
+        File tmp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        Map<String, Record> compacted = new HashMap<>();
+        long position = MAGIC.length;
+        try {
+            try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(out, ByteBuffer.wrap(MAGIC), 0);
+                for (Map.Entry<String, Record> entry : index.entrySet()) {
+                    Record record = entry.getValue();
+                    ByteBuffer buffer = ByteBuffer.allocate(record.length);
+                    readFully(channel, buffer, record.position);
+                    buffer.flip();
+                    writeFully(out, buffer, position);
+                    compacted.put(entry.getKey(), new Record(position, record.length));
+                    position += record.length;
+                }
+                out.force(true);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Message.verbose("impossible to compact cache metadata store " + file + ": " + ex);
+            tmp.delete();
+            // don't try again before as much garbage is accumulated
+            garbage = 0;
+            return;
+        }
+        Message.verbose("compacted cache metadata store " + file + " from " + indexedEnd
+                + " to " + position + " bytes");
+        // closing the old file releases its lock, other processes will notice the replacement
+        close();
+        index.clear();
+        index.putAll(compacted);
+        indexedEnd = position;
+        garbage = 0;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            fileKey = getFileKey(file);
+        } catch (IOException ex) {
+            // the store will be opened again on next access
+            Message.debug(ex);
+        }
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of cache metadata store at " + position);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static final class Record {
+        private final long position;
+
+        private final int length;
+
+        Record(long position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+}
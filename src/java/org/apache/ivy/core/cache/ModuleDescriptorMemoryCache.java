@@ -26,18 +26,76 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cache ModuleDescriptors so that when the same module is used twice (in multi-module build for
  * instance), it is parsed only once. This cache is has a limited size, and keep the most recently
  * used entries. The entry in the cache are invalidated if there is a change to one variable used in
  * the module descriptor.
+ * <p>
+ * The cache is split in segments, each one guarded by its own lock, so that concurrent resolves
+ * don't contend on a single lock. When the cache is full, the least recently used entries of the
+ * segment in which an entry is added are evicted first. Besides the number of entries, the cache
+ * can be bounded by an approximate memory weight of the cached descriptors, as computed by a
+ * {@link Weigher}. Hit, miss, eviction and stale counters are maintained and can be
+ * used to tune the cache size.
+ * </p>
  */
-class ModuleDescriptorMemoryCache {
+public class ModuleDescriptorMemoryCache {
+
+    /**
+     * Computes the approximate weight of a module descriptor, used to bound the memory retained by
+     * the cache.
+     */
+    public interface Weigher {
+        /**
+         * @param md the module descriptor to weigh
+         * @return the approximate weight of the descriptor, in bytes. Must not be negative.
+         */
+        long weigh(ModuleDescriptor md);
+    }
+
+    /**
+     * Default weigher, giving a rough estimate of the heap retained by a parsed module descriptor
+     * based on the number of its configurations, dependencies, artifacts and exclude rules.
+     */
+    public static final Weigher DEFAULT_WEIGHER = new Weigher() {
+        public long weigh(ModuleDescriptor md) {
+            return 1024L + 256L * md.getConfigurations().length
+                    + 512L * md.getDependencies().length + 384L * md.getAllArtifacts().length
+                    + 256L * md.getAllExcludeRules().length;
+        }
+    };
+
+    /**
+     * The minimum number of entries per segment. Small caches use a single segment, so that
+     * eviction follows a strict least recently used order.
+     */
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private static final int MAX_SEGMENTS = 16;
 
     private final int maxSize;
 
-    private final LinkedHashMap<File, CacheEntry> valueMap;
+    private final long maxWeight;
+
+    private final Weigher weigher;
+
+    private final Segment[] segments;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong weight = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final AtomicLong staleCount = new AtomicLong();
 
     /**
      * Create a cache of the given size
@@ -45,8 +103,45 @@ class ModuleDescriptorMemoryCache {
      * @param size int
      */
     public ModuleDescriptorMemoryCache(int size) {
+        this(size, 0);
+    }
+
+    /**
+     * Create a cache of the given size, also bounded by the given approximate weight computed by
+     * the {@link #DEFAULT_WEIGHER default weigher}.
+     *
+     * @param size
+     *            the maximum number of entries, 0 or less to disable the cache
+     * @param maxWeight
+     *            the maximum weight of the cached entries, 0 or less for no weight bound
+     */
+    public ModuleDescriptorMemoryCache(int size, long maxWeight) {
+        this(size, maxWeight, DEFAULT_WEIGHER);
+    }
+
+    /**
+     * Create a cache of the given size, also bounded by the given weight computed by the given
+     * weigher.
+     *
+     * @param size
+     *            the maximum number of entries, 0 or less to disable the cache
+     * @param maxWeight
+     *            the maximum weight of the cached entries, 0 or less for no weight bound
+     * @param weigher
+     *            the weigher used to compute the weight of a module descriptor
+     */
+    public ModuleDescriptorMemoryCache(int size, long maxWeight, Weigher weigher) {
         this.maxSize = size;
-        this.valueMap = new LinkedHashMap<>(size);
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && size / (segmentCount * 2) >= MIN_SEGMENT_SIZE) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
     }
 
     public ModuleDescriptor get(File ivyFile, ParserSettings ivySettings, boolean validated,
@@ -76,23 +171,26 @@ class ModuleDescriptorMemoryCache {
             // cache is disabled
             return null;
         }
-        synchronized (valueMap) {
-            CacheEntry entry = valueMap.get(ivyFile);
+        Segment segment = segments[segmentIndex(ivyFile)];
+        synchronized (segment) {
+            // access ordered map: the entry is moved at the end of the list
+            CacheEntry entry = segment.entries.get(ivyFile);
             if (entry != null) {
                 if (entry.isStale(ivyFile, validated, ivySettings)) {
                     Message.debug("Entry is found in the ModuleDescriptorCache but entry should be "
                             + "reevaluated : " + ivyFile);
-                    valueMap.remove(ivyFile);
+                    remove(segment, ivyFile);
+                    staleCount.incrementAndGet();
+                    missCount.incrementAndGet();
                     return null;
                 } else {
-                    // Move the entry at the end of the list
-                    valueMap.remove(ivyFile);
-                    valueMap.put(ivyFile, entry);
                     Message.debug("Entry is found in the ModuleDescriptorCache : " + ivyFile);
+                    hitCount.incrementAndGet();
                     return entry.md;
                 }
             } else {
                 Message.debug("No entry is found in the ModuleDescriptorCache : " + ivyFile);
+                missCount.incrementAndGet();
                 return null;
             }
         }
@@ -104,17 +202,173 @@ class ModuleDescriptorMemoryCache {
             // cache is disabled
             return;
         }
-        synchronized (valueMap) {
-            if (valueMap.size() >= maxSize) {
+        CacheEntry entry = new CacheEntry(descriptor, validated, ivySettingsMonitor,
+                maxWeight > 0 ? weigher.weigh(descriptor) : 0);
+        int index = segmentIndex(url);
+        Segment segment = segments[index];
+        synchronized (segment) {
+            remove(segment, url);
+            segment.entries.put(url, entry);
+            size.incrementAndGet();
+            weight.addAndGet(entry.weight);
+        }
+        evictIfNeeded(index, entry);
+    }
+
+    /**
+     * Evicts entries until the cache is within its bounds, starting with the least recently used
+     * entries of the segment at the given index. Only one segment lock is held at a time.
+     */
+    private void evictIfNeeded(int index, CacheEntry added) {
+        int visited = 0;
+        while (visited < segments.length && isOverBounds()) {
+            Segment segment = segments[index];
+            boolean evicted;
+            synchronized (segment) {
+                evicted = evictEldest(segment, added);
+            }
+            if (evicted) {
                 Message.debug("ModuleDescriptorCache is full, remove one entry");
-                Iterator<CacheEntry> it = valueMap.values().iterator();
-                it.next();
-                it.remove();
+                evictionCount.incrementAndGet();
+            } else {
+                index = (index + 1) % segments.length;
+                visited++;
+            }
+        }
+    }
+
+    private boolean isOverBounds() {
+        return size.get() > maxSize || (maxWeight > 0 && weight.get() > maxWeight);
+    }
+
+    /**
+     * Must be called while holding the segment lock. The added entry is never evicted, even if it
+     * is heavier than the cache weight bound.
+     */
+    private boolean evictEldest(Segment segment, CacheEntry added) {
+        Iterator<CacheEntry> it = segment.entries.values().iterator();
+        if (!it.hasNext()) {
+            return false;
+        }
+        CacheEntry eldest = it.next();
+        if (eldest == added) {
+            return false;
+        }
+        it.remove();
+        size.decrementAndGet();
+        weight.addAndGet(-eldest.weight);
+        return true;
+    }
+
+    /**
+     * Must be called while holding the segment lock.
+     */
+    private void remove(Segment segment, File file) {
+        CacheEntry entry = segment.entries.remove(file);
+        if (entry != null) {
+            size.decrementAndGet();
+            weight.addAndGet(-entry.weight);
+        }
+    }
+
+    private int segmentIndex(File file) {
+        int h = file.hashCode();
+        // spread the hash bits, the way HashMap does
+        h ^= h >>> 16;
+        return h & (segments.length - 1);
+    }
+
+    /**
+     * @return the maximum number of entries this cache can hold
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the maximum weight of the entries this cache can hold, 0 or less if the cache isn't
+     *         bounded by weight
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @return the current number of entries in the cache
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return the current weight of the entries in the cache, always 0 if the cache isn't bounded
+     *         by weight
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * @return the number of lookups which returned a cached module descriptor
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of lookups which didn't return a cached module descriptor, including the
+     *         ones which found a stale entry
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of entries removed to keep the cache within its bounds
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return the number of entries removed because the cached module descriptor was stale
+     */
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    /**
+     * Removes all the entries from the cache. The counters are left untouched.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (CacheEntry entry : segment.entries.values()) {
+                    size.decrementAndGet();
+                    weight.addAndGet(-entry.weight);
+                }
+                segment.entries.clear();
             }
-            valueMap.put(url, new CacheEntry(descriptor, validated, ivySettingsMonitor));
         }
     }
 
+    @Override
+    public String toString() {
+        return "ModuleDescriptorMemoryCache[size=" + size() + "/" + maxSize + " weight="
+                + getWeight() + "/" + maxWeight + " hits=" + getHitCount() + " misses="
+                + getMissCount() + " evictions=" + getEvictionCount() + " stale="
+                + getStaleCount() + "]";
+    }
+
+    /**
+     * A part of the cache, holding its entries in access order. All accesses must be done while
+     * holding the segment lock.
+     */
+    private static final class Segment {
+        private final LinkedHashMap<File, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f,
+                true);
+    }
+
     private static class CacheEntry {
         private final ModuleDescriptor md;
 
@@ -122,11 +376,14 @@ class ModuleDescriptorMemoryCache {
 
         private final ParserSettingsMonitor parserSettingsMonitor;
 
+        private final long weight;
+
         CacheEntry(ModuleDescriptor md, boolean validated,
-                ParserSettingsMonitor parserSettingsMonitor) {
+                ParserSettingsMonitor parserSettingsMonitor, long weight) {
             this.md = md;
             this.validated = validated;
             this.parserSettingsMonitor = parserSettingsMonitor;
+            this.weight = weight;
         }
 
         boolean isStale(File ivyFile, boolean validated, ParserSettings newParserSettings) {
@@ -0,0 +1,56 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.PropertiesFile;
+
+/**
+ * The default {@link CacheMetadataStore}, storing the data of each key in its own properties file,
+ * located at the key path relative to the cache root.
+ */
+public class PropertiesCacheMetadataStore implements CacheMetadataStore {
+
+    private final File root;
+
+    public PropertiesCacheMetadataStore(File root) {
+        this.root = root;
+    }
+
+    public Properties load(String key) {
+        return new PropertiesFile(new File(root, key), null);
+    }
+
+    public void save(String key, Properties data, String header) {
+        File file = new File(root, key);
+        if (file.getParentFile() != null && !file.getParentFile().exists()) {
+            file.getParentFile().mkdirs();
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            data.store(out, header);
+        } catch (IOException ex) {
+            Message.warn("exception occurred while writing properties file " + file, ex);
+        }
+    }
+}
@@ -17,18 +17,33 @@
  */
 package org.apache.ivy.core.event;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.event.EventListenerList;
 
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.plugins.repository.TransferEvent;
 import org.apache.ivy.plugins.repository.TransferListener;
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.MessageLogger;
 import org.apache.ivy.util.filter.Filter;
 
 public class EventManager implements TransferListener {
 
     private EventListenerList listeners = new EventListenerList();
 
+    private final ThreadLocal<List<IvyEvent>> deferredEvents = new ThreadLocal<>();
+
+    private volatile AsyncDispatcher dispatcher;
+
     public void addIvyListener(IvyListener listener) {
         listeners.add(IvyListener.class, listener);
     }
@@ -66,14 +81,63 @@ public class EventManager implements TransferListener {
     }
 
     public void fireIvyEvent(IvyEvent evt) {
-        Object[] listeners = this.listeners.getListenerList();
-        for (int i = listeners.length - 2; i >= 0; i -= 2) {
-            if (listeners[i] == IvyListener.class) {
-                ((IvyListener) listeners[i + 1]).progress(evt);
+        List<IvyEvent> deferred = deferredEvents.get();
+        if (deferred != null && !(evt instanceof TransferEvent)) {
+            deferred.add(evt);
+            return;
+        }
+        AsyncDispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null) {
+            Object[] listeners = this.listeners.getListenerList();
+            for (int i = listeners.length - 2; i >= 0; i -= 2) {
+                if (listeners[i] == IvyListener.class) {
+                    ((IvyListener) listeners[i + 1]).progress(evt);
+                }
             }
+        } else if (fireSynchronously(evt, false) && !dispatcher.enqueue(evt, false)) {
+            fireAsynchronously(evt, false);
         }
     }
 
+    /**
+     * Starts recording the ivy events fired from the current thread instead of dispatching them to
+     * listeners. Transfer events are not recorded: they are still dispatched immediately.
+     * <p>
+     * This is used by worker threads which want their events to be delivered later by the thread
+     * which owns the operation, in a predictable order. Recordings can be nested: the events
+     * recorded by the outer one are kept aside until the inner one is stopped. Recorded events are
+     * returned and the recording is stopped by {@link #stopDeferringIvyEvents(List)}.
+     * </p>
+     *
+     * @return the events recorded so far by the enclosing recording of the current thread, to be
+     *         given back to {@link #stopDeferringIvyEvents(List)}, or <code>null</code> if there
+     *         is none
+     */
+    public List<IvyEvent> deferIvyEvents() {
+        List<IvyEvent> outer = deferredEvents.get();
+        deferredEvents.set(new ArrayList<IvyEvent>());
+        return outer;
+    }
+
+    /**
+     * Stops recording the ivy events fired from the current thread, and resumes the enclosing
+     * recording if any.
+     *
+     * @param outer
+     *            the events of the enclosing recording, as returned by {@link #deferIvyEvents()}
+     * @return the events recorded since the matching call to {@link #deferIvyEvents()}, in the
+     *         order they were fired. Never <code>null</code>.
+     */
+    public List<IvyEvent> stopDeferringIvyEvents(List<IvyEvent> outer) {
+        List<IvyEvent> deferred = deferredEvents.get();
+        if (outer == null) {
+            deferredEvents.remove();
+        } else {
+            deferredEvents.set(outer);
+        }
+        return deferred == null ? new ArrayList<IvyEvent>() : deferred;
+    }
+
     public void addTransferListener(TransferListener listener) {
         listeners.add(TransferListener.class, listener);
     }
@@ -96,8 +160,340 @@ public class EventManager implements TransferListener {
     }
 
     public void transferProgress(TransferEvent evt) {
-        fireTransferEvent(evt);
-        fireIvyEvent(evt);
+        AsyncDispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null) {
+            fireTransferEvent(evt);
+            fireIvyEvent(evt);
+        } else if (fireSynchronously(evt, true) && !dispatcher.enqueue(evt, true)) {
+            fireAsynchronously(evt, true);
+        }
+    }
+
+    /**
+     * Starts delivering events asynchronously, from a dedicated dispatcher thread.
+     * <p>
+     * Events are put in a bounded queue, in the order they are fired, and delivered to listeners
+     * in that order by the dispatcher thread. When the queue is full, the thread firing an event
+     * waits for room in the queue. Consecutive progress events of a transfer which have not been
+     * delivered yet are coalesced into a single one. Listeners implementing
+     * {@link SynchronousListener} (directly or through a filter) are still notified synchronously,
+     * by the thread firing the event.
+     * </p>
+     * <p>
+     * Asynchronous listeners are called with a copy of the context and the logger of the thread
+     * which fired the event. Exceptions they throw are logged and do not reach the thread which
+     * fired the event.
+     * </p>
+     * <p>
+     * The dispatcher thread is started when an event is queued, and ends once no event has been
+     * queued for a second: an idle instance has no running thread and can be garbage collected.
+     * </p>
+     *
+     * @param queueSize
+     *            the maximum number of events waiting to be delivered
+     * @see #flush()
+     */
+    public synchronized void startAsyncDispatch(int queueSize) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("event queue size must be at least 1, was "
+                    + queueSize);
+        }
+        if (dispatcher != null) {
+            if (dispatcher.queue.remainingCapacity() + dispatcher.queue.size() == queueSize) {
+                return;
+            }
+            stopAsyncDispatch();
+        }
+        dispatcher = new AsyncDispatcher(queueSize);
+    }
+
+    /**
+     * Delivers the events waiting in the queue, and goes back to delivering events synchronously.
+     */
+    public synchronized void stopAsyncDispatch() {
+        AsyncDispatcher stopped = dispatcher;
+        if (stopped == null) {
+            return;
+        }
+        dispatcher = null;
+        stopped.stop();
+    }
+
+    public boolean isAsyncDispatch() {
+        return dispatcher != null;
+    }
+
+    /**
+     * Waits until the events fired so far have been delivered to all listeners. Returns
+     * immediately when events are delivered synchronously.
+     */
+    public void flush() {
+        AsyncDispatcher dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            dispatcher.flush();
+        }
+    }
+
+    private static boolean isSynchronous(Object listener) {
+        return listener instanceof SynchronousListener
+                || listener instanceof FilteredIvyListener
+                && ((FilteredIvyListener) listener).getIvyListener() instanceof SynchronousListener;
+    }
+
+    /**
+     * Delivers the given event to the synchronous listeners.
+     *
+     * @return true if there are asynchronous listeners to which the event should also be delivered
+     */
+    private boolean fireSynchronously(IvyEvent evt, boolean transfer) {
+        boolean async = false;
+        Object[] listeners = this.listeners.getListenerList();
+        if (transfer) {
+            for (int i = listeners.length - 2; i >= 0; i -= 2) {
+                if (listeners[i] == TransferListener.class) {
+                    if (isSynchronous(listeners[i + 1])) {
+                        ((TransferListener) listeners[i + 1]).transferProgress((TransferEvent) evt);
+                    } else {
+                        async = true;
+                    }
+                }
+            }
+        }
+        for (int i = listeners.length - 2; i >= 0; i -= 2) {
+            if (listeners[i] == IvyListener.class) {
+                if (isSynchronous(listeners[i + 1])) {
+                    ((IvyListener) listeners[i + 1]).progress(evt);
+                } else {
+                    async = true;
+                }
+            }
+        }
+        return async;
+    }
+
+    /**
+     * Delivers the given event to the asynchronous listeners.
+     */
+    private void fireAsynchronously(IvyEvent evt, boolean transfer) {
+        Object[] listeners = this.listeners.getListenerList();
+        if (transfer) {
+            for (int i = listeners.length - 2; i >= 0; i -= 2) {
+                if (listeners[i] == TransferListener.class && !isSynchronous(listeners[i + 1])) {
+                    ((TransferListener) listeners[i + 1]).transferProgress((TransferEvent) evt);
+                }
+            }
+        }
+        for (int i = listeners.length - 2; i >= 0; i -= 2) {
+            if (listeners[i] == IvyListener.class && !isSynchronous(listeners[i + 1])) {
+                ((IvyListener) listeners[i + 1]).progress(evt);
+            }
+        }
+    }
+
+    /**
+     * An event waiting in the queue of the asynchronous dispatcher.
+     */
+    private static final class QueuedEvent {
+        private final IvyEvent event;
+
+        private final boolean transfer;
+
+        private final IvyContext context;
+
+        private final MessageLogger logger;
+
+        private QueuedEvent(IvyEvent event, boolean transfer, IvyContext context,
+                MessageLogger logger) {
+            this.event = event;
+            this.transfer = transfer;
+            this.context = context;
+            this.logger = logger;
+        }
+    }
+
+    private final class AsyncDispatcher implements Runnable {
+        private static final int BATCH_SIZE = 64;
+
+        private static final long KEEP_ALIVE_MILLIS = 1000;
+
+        private final BlockingQueue<QueuedEvent> queue;
+
+        /**
+         * The progress events not delivered yet, by the event object updated by the repository
+         * during the transfer. Later progress events of the same transfer are coalesced into them.
+         */
+        private final Map<TransferEvent, QueuedEvent> pendingProgress = new IdentityHashMap<>();
+
+        // the dispatcher thread, null when it is not running
+        private Thread thread;
+
+        private IvyContext lastContext;
+
+        private IvyContext lastContextCopy;
+
+        private MessageLogger lastLogger;
+
+        private long queued;
+
+        private long delivered;
+
+        private boolean stopped;
+
+        private AsyncDispatcher(int queueSize) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        /**
+         * Puts the given event in the queue.
+         *
+         * @return false if the event has not been queued and should be delivered by the caller
+         */
+        private boolean enqueue(IvyEvent evt, boolean transfer) {
+            QueuedEvent queuedEvent;
+            synchronized (this) {
+                if (stopped || Thread.currentThread() == thread) {
+                    return false;
+                }
+                IvyEvent event = evt;
+                if (evt instanceof TransferEvent) {
+                    TransferEvent transferEvent = (TransferEvent) evt;
+                    QueuedEvent pending = pendingProgress.remove(transferEvent);
+                    if (pending != null && pending.transfer == transfer
+                            && transferEvent.getEventType() == TransferEvent.TRANSFER_PROGRESS) {
+                        ((TransferEvent) pending.event).coalesce(transferEvent);
+                        pendingProgress.put(transferEvent, pending);
+                        return true;
+                    }
+                    event = new TransferEvent(transferEvent);
+                }
+                IvyContext context = IvyContext.getContext();
+                if (context != lastContext) {
+                    lastContext = context;
+                    lastContextCopy = new IvyContext(context);
+                    Ivy ivy = context.peekIvy();
+                    lastLogger = ivy == null ? null : ivy.getLoggerEngine().peekLogger();
+                }
+                queuedEvent = new QueuedEvent(event, transfer, lastContextCopy, lastLogger);
+                if (event instanceof TransferEvent && ((TransferEvent) event)
+                        .getEventType() == TransferEvent.TRANSFER_PROGRESS) {
+                    pendingProgress.put((TransferEvent) evt, queuedEvent);
+                }
+                queued++;
+                if (thread == null) {
+                    thread = new Thread(this, "ivy-event-dispatcher");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            }
+            try {
+                queue.put(queuedEvent);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                synchronized (this) {
+                    pendingProgress.values().remove(queuedEvent);
+                }
+                deliver(queuedEvent);
+            }
+            return true;
+        }
+
+        public void run() {
+            List<QueuedEvent> batch = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                QueuedEvent next;
+                try {
+                    next = queue.poll(KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    if (isStopped()) {
+                        return;
+                    }
+                    continue;
+                }
+                if (next == null) {
+                    synchronized (this) {
+                        // an event counted as queued may not be in the queue yet
+                        if (queued == delivered) {
+                            lastContext = null;
+                            lastContextCopy = null;
+                            lastLogger = null;
+                            thread = null;
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                batch.add(next);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (QueuedEvent queuedEvent : batch) {
+                    synchronized (this) {
+                        // no progress can be coalesced into the event once it is being delivered
+                        pendingProgress.values().remove(queuedEvent);
+                    }
+                    deliver(queuedEvent);
+                }
+                batch.clear();
+            }
+        }
+
+        private void deliver(QueuedEvent queuedEvent) {
+            boolean pushed = queuedEvent.context != null;
+            if (pushed) {
+                IvyContext.pushContext(queuedEvent.context);
+                if (queuedEvent.logger != null) {
+                    queuedEvent.context.getIvy().getLoggerEngine().pushLogger(queuedEvent.logger);
+                }
+            }
+            try {
+                fireAsynchronously(queuedEvent.event, queuedEvent.transfer);
+            } catch (RuntimeException e) {
+                Message.warn("problem while delivering " + queuedEvent.event, e);
+            } finally {
+                if (pushed) {
+                    if (queuedEvent.logger != null) {
+                        queuedEvent.context.getIvy().getLoggerEngine().popLogger();
+                    }
+                    IvyContext.popContext();
+                }
+                synchronized (this) {
+                    delivered++;
+                    notifyAll();
+                }
+            }
+        }
+
+        private synchronized boolean isStopped() {
+            return stopped;
+        }
+
+        private synchronized void flush() {
+            if (Thread.currentThread() == thread) {
+                return;
+            }
+            long target = queued;
+            boolean interrupted = false;
+            while (delivered < target) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void stop() {
+            synchronized (this) {
+                stopped = true;
+            }
+            flush();
+            synchronized (this) {
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            }
+        }
     }
 
 }
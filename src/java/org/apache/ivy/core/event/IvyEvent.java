@@ -54,6 +54,18 @@ public class IvyEvent {
         this.name = name;
     }
 
+    /**
+     * Creates a copy of the given event, with the same source, name and attributes.
+     *
+     * @param event
+     *            the event to copy
+     */
+    protected IvyEvent(IvyEvent event) {
+        this.source = event.source;
+        this.name = event.name;
+        this.attributes.putAll(event.attributes);
+    }
+
     /**
      * Should only be called during event object construction, since events should be immutable
      *
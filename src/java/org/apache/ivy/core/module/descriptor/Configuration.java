@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.util.WeakInterner;
 import org.apache.ivy.util.extendable.DefaultExtendableItem;
 
 /**
@@ -72,6 +73,9 @@ public class Configuration extends DefaultExtendableItem implements InheritableI
         return extendingConfs;
     }
 
+    // configuration names are repeated in almost every module and dependency of a resolve
+    private static final WeakInterner<String> NAMES = new WeakInterner<>();
+
     private String name;
 
     private String description;
@@ -134,7 +138,7 @@ public class Configuration extends DefaultExtendableItem implements InheritableI
         if (visibility == null) {
             throw new NullPointerException("null visibility not allowed");
         }
-        this.name = name;
+        this.name = internName(name);
         this.visibility = visibility;
         this.description = description;
         if (exts == null) {
@@ -142,7 +146,7 @@ public class Configuration extends DefaultExtendableItem implements InheritableI
         } else {
             extendsFrom = new LinkedHashSet<>();
             for (String ext : exts) {
-                extendsFrom.add(ext.trim());
+                extendsFrom.add(internName(ext.trim()));
             }
         }
         this.transitive = transitive;
@@ -242,6 +246,18 @@ public class Configuration extends DefaultExtendableItem implements InheritableI
         this.extendsFrom = newExtends;
     }
 
+    /**
+     * Returns the canonical instance of a configuration name, shared by the configurations and
+     * dependency descriptors.
+     *
+     * @param name
+     *            the configuration name, not null
+     * @return the canonical instance of the name
+     */
+    static String internName(String name) {
+        return NAMES.intern(name);
+    }
+
     private void addOther(Configuration[] allConfigs, Visibility visibility, Set<String> configs) {
         for (Configuration allConfig : allConfigs) {
             String currentName = allConfig.getName();
@@ -571,11 +571,11 @@ public class DefaultDependencyDescriptor implements DependencyDescriptor {
 
         List<String> confsList = confs.get(masterConf);
         if (confsList == null) {
-            confsList = new ArrayList<>();
-            confs.put(masterConf, confsList);
+            confsList = new ArrayList<>(1);
+            confs.put(Configuration.internName(masterConf), confsList);
         }
         if (!confsList.contains(depConf)) {
-            confsList.add(depConf);
+            confsList.add(Configuration.internName(depConf));
         }
     }
 
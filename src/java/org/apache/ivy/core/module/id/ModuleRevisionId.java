@@ -17,17 +17,16 @@
  */
 package org.apache.ivy.core.module.id;
 
-import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.WeakHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.ivy.Ivy;
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.util.WeakInterner;
 import org.apache.ivy.util.extendable.UnmodifiableExtendableItem;
 
 /**
@@ -47,7 +46,7 @@ public class ModuleRevisionId extends UnmodifiableExtendableItem {
 
     private static final String REV_STRICT_CHARS_PATTERN = "[a-zA-Z0-9\\-/\\._+=,\\[\\]\\{\\}\\(\\):@]";
 
-    private static final Map<ModuleRevisionId, WeakReference<ModuleRevisionId>> CACHE = new WeakHashMap<>();
+    private static final WeakInterner<ModuleRevisionId> CACHE = new WeakInterner<>();
 
     /**
      * Pattern to use to matched mrid text representation.
@@ -148,20 +147,7 @@ public class ModuleRevisionId extends UnmodifiableExtendableItem {
      * @return an interned ModuleRevisionId
      */
     public static ModuleRevisionId intern(ModuleRevisionId moduleRevisionId) {
-        ModuleRevisionId r = null;
-
-        synchronized (CACHE) {
-            WeakReference<ModuleRevisionId> ref = CACHE.get(moduleRevisionId);
-            if (ref != null) {
-                r = ref.get();
-            }
-            if (r == null) {
-                r = moduleRevisionId;
-                CACHE.put(r, new WeakReference<>(r));
-            }
-        }
-
-        return r;
+        return CACHE.intern(moduleRevisionId);
     }
 
     private final ModuleId moduleId;
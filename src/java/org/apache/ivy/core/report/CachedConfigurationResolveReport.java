@@ -0,0 +1,127 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolveEngine;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.plugins.report.XmlReportParser;
+
+/**
+ * A configuration report rebuilt from the xml report a previous resolve left in the resolution
+ * cache, used when the result of this previous resolve is reused.
+ * <p>
+ * Such a report has no dependency graph: the methods returning <code>IvyNode</code>s return empty
+ * arrays, and evicted modules are not known. The dependencies and the artifact download reports
+ * are the ones of the previous resolve.
+ * </p>
+ */
+public class CachedConfigurationResolveReport extends ConfigurationResolveReport {
+
+    private final Set<ModuleRevisionId> mrids;
+
+    private final Map<ModuleRevisionId, List<ArtifactDownloadReport>> artifactReports =
+            new LinkedHashMap<>();
+
+    private final List<ArtifactDownloadReport> allArtifactReports;
+
+    public CachedConfigurationResolveReport(ResolveEngine resolveEngine, ModuleDescriptor md,
+            String conf, Date date, ResolveOptions options, XmlReportParser parser) {
+        super(resolveEngine, md, conf, date, options);
+        mrids = new LinkedHashSet<>(Arrays.asList(parser.getDependencyRevisionIds()));
+        allArtifactReports = Arrays.asList(parser.getArtifactReports());
+        for (ArtifactDownloadReport adr : allArtifactReports) {
+            ModuleRevisionId mrid = adr.getArtifact().getModuleRevisionId();
+            List<ArtifactDownloadReport> reports = artifactReports.get(mrid);
+            if (reports == null) {
+                reports = new ArrayList<>();
+                artifactReports.put(mrid, reports);
+            }
+            reports.add(adr);
+        }
+    }
+
+    /**
+     * Does nothing: the reused result is by definition the same as the previous one.
+     */
+    @Override
+    public void checkIfChanged() {
+    }
+
+    @Override
+    public boolean hasChanged() {
+        return false;
+    }
+
+    @Override
+    public Set<ModuleRevisionId> getModuleRevisionIds() {
+        return Collections.unmodifiableSet(mrids);
+    }
+
+    @Override
+    public ArtifactDownloadReport[] getDownloadReports(ModuleRevisionId mrid) {
+        List<ArtifactDownloadReport> reports = artifactReports.get(mrid);
+        if (reports == null) {
+            return new ArtifactDownloadReport[0];
+        }
+        return reports.toArray(new ArtifactDownloadReport[reports.size()]);
+    }
+
+    @Override
+    public List<ModuleId> getModuleIds() {
+        Set<ModuleId> mids = new LinkedHashSet<>();
+        for (ModuleRevisionId mrid : mrids) {
+            mids.add(mrid.getModuleId());
+        }
+        return Collections.unmodifiableList(new ArrayList<>(mids));
+    }
+
+    @Override
+    public int getArtifactsNumber() {
+        return allArtifactReports.size();
+    }
+
+    @Override
+    public ArtifactDownloadReport[] getArtifactsReports(DownloadStatus downloadStatus,
+            boolean withEvicted) {
+        List<ArtifactDownloadReport> reports = new ArrayList<>();
+        for (ArtifactDownloadReport adr : allArtifactReports) {
+            if (downloadStatus == null || adr.getDownloadStatus() == downloadStatus) {
+                reports.add(adr);
+            }
+        }
+        return reports.toArray(new ArtifactDownloadReport[reports.size()]);
+    }
+
+    @Override
+    public int getNodesNumber() {
+        return mrids.size();
+    }
+}
@@ -262,6 +262,17 @@ public class ResolveReport {
         return artifacts;
     }
 
+    /**
+     * Sets the list of artifacts of this report, when it is not built from a list of dependencies.
+     *
+     * @param artifacts
+     *            the list of all artifacts
+     * @see #setDependencies(List, Filter)
+     */
+    public void setArtifacts(List<Artifact> artifacts) {
+        this.artifacts = artifacts;
+    }
+
     /**
      * gives all the modules ids concerned by this report, from the most dependent to the least one
      *
@@ -269,6 +280,17 @@ public class ResolveReport {
      */
     public List<ModuleId> getModuleIds() {
         List<ModuleId> ret = new ArrayList<>();
+        if (dependencies.isEmpty()) {
+            // report not built from a dependency graph: rely on the configuration reports
+            for (ConfigurationResolveReport report : confReports.values()) {
+                for (ModuleId mid : report.getModuleIds()) {
+                    if (!ret.contains(mid)) {
+                        ret.add(mid);
+                    }
+                }
+            }
+            return ret;
+        }
         List<IvyNode> sortedDependencies = new ArrayList<>(dependencies);
         for (IvyNode dependency : sortedDependencies) {
             ModuleId mid = dependency.getResolvedId().getModuleId();
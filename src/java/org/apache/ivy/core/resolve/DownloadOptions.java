@@ -21,7 +21,33 @@ import org.apache.ivy.core.LogOptions;
 
 public class DownloadOptions extends LogOptions {
 
+    /**
+     * The maximum number of threads to use to download artifacts, or 0 to use the number
+     * configured in the settings.
+     */
+    private int threads = 0;
+
     public DownloadOptions() {
     }
 
+    public DownloadOptions(DownloadOptions options) {
+        super(options);
+        threads = options.threads;
+    }
+
+    /**
+     * Returns the maximum number of threads to use to download the artifacts of several modules,
+     * or 0 to use the number configured in the settings.
+     *
+     * @return the number of download threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    public DownloadOptions setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
 }
@@ -18,6 +18,7 @@
 package org.apache.ivy.core.resolve;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -27,6 +28,7 @@ import java.util.Set;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.conflict.ConflictManager;
+import org.apache.ivy.util.CollectionUtils;
 
 public class IvyNodeEviction {
     /**
@@ -175,18 +177,28 @@ public class IvyNodeEviction {
 
     private IvyNode node;
 
-    // map indicating for each dependency which node has been selected
-    private Map<ModuleIdConf, Set<IvyNode>> selectedDeps = new HashMap<>();
+    /**
+     * The selected, evicted and pending conflict nodes of a dependency module in a root module
+     * configuration. A node has one for each module among its transitive dependencies, which makes
+     * their number grow with the square of the size of the graph: the collections are stored as
+     * compact unmodifiable sets, and replaced rather than updated.
+     */
+    private static final class DependencyConflicts {
+        // the nodes which have been selected
+        private Set<IvyNode> selected = Collections.emptySet();
 
-    // map indicating for each dependency which nodes are in pending conflict (conflict detected but
-    // not yet resolved)
-    private Map<ModuleIdConf, Set<IvyNode>> pendingConflicts = new HashMap<>();
+        // the nodes which have been evicted
+        private Set<IvyNode> evicted = Collections.emptySet();
 
-    // map indicating for each dependency which node has been evicted
-    private Map<ModuleIdConf, Set<IvyNode>> evictedDeps = new HashMap<>();
+        // the revisions which have been evicted
+        private Set<ModuleRevisionId> evictedRevs = Collections.emptySet();
+
+        // the nodes which are in pending conflict (conflict detected but not yet resolved)
+        private Set<IvyNode> pending = Collections.emptySet();
+    }
 
-    // map indicating for each dependency which revision has been evicted
-    private Map<ModuleIdConf, Collection<ModuleRevisionId>> evictedRevs = new HashMap<>();
+    // map indicating for each dependency its selected, evicted and pending conflict nodes
+    private Map<ModuleIdConf, DependencyConflicts> dependencyConflicts = new HashMap<>();
 
     // indicates if the node is evicted in each root module conf
     private Map<String, EvictionData> evicted = new HashMap<>();
@@ -204,10 +216,10 @@ public class IvyNodeEviction {
      * @return A copy of the set of resolved nodes (real nodes)
      */
     public Set<IvyNode> getResolvedNodes(ModuleId mid, String rootModuleConf) {
-        Collection<IvyNode> resolved = selectedDeps.get(new ModuleIdConf(mid, rootModuleConf));
+        DependencyConflicts conflicts = getDependencyConflicts(mid, rootModuleConf);
         Set<IvyNode> ret = new HashSet<>();
-        if (resolved != null) {
-            for (IvyNode node : resolved) {
+        if (conflicts != null) {
+            for (IvyNode node : conflicts.selected) {
                 ret.add(node.getRealNode());
             }
         }
@@ -215,12 +227,12 @@ public class IvyNodeEviction {
     }
 
     public Collection<ModuleRevisionId> getResolvedRevisions(ModuleId mid, String rootModuleConf) {
-        Collection<IvyNode> resolved = selectedDeps.get(new ModuleIdConf(mid, rootModuleConf));
-        if (resolved == null) {
+        DependencyConflicts conflicts = getDependencyConflicts(mid, rootModuleConf);
+        if (conflicts == null) {
             return new HashSet<>();
         } else {
             Collection<ModuleRevisionId> resolvedRevs = new HashSet<>();
-            for (IvyNode node : resolved) {
+            for (IvyNode node : conflicts.selected) {
                 ModuleRevisionId resolvedId = node.getResolvedId();
                 resolvedRevs.add(node.getId());
                 resolvedRevs.add(resolvedId);
@@ -238,15 +250,18 @@ public class IvyNodeEviction {
 
     public void setResolvedNodes(ModuleId moduleId, String rootModuleConf,
             Collection<IvyNode> resolved) {
-        ModuleIdConf moduleIdConf = new ModuleIdConf(moduleId, rootModuleConf);
-        selectedDeps.put(moduleIdConf, new HashSet<>(resolved));
+        DependencyConflicts conflicts = getDependencyConflicts(moduleId, rootModuleConf,
+            !resolved.isEmpty());
+        if (conflicts != null) {
+            conflicts.selected = CollectionUtils.compactSet(resolved);
+        }
     }
 
     public Collection<IvyNode> getEvictedNodes(ModuleId mid, String rootModuleConf) {
-        Collection<IvyNode> resolved = evictedDeps.get(new ModuleIdConf(mid, rootModuleConf));
+        DependencyConflicts conflicts = getDependencyConflicts(mid, rootModuleConf);
         Set<IvyNode> ret = new HashSet<>();
-        if (resolved != null) {
-            for (IvyNode node : resolved) {
+        if (conflicts != null) {
+            for (IvyNode node : conflicts.evicted) {
                 ret.add(node.getRealNode());
             }
         }
@@ -254,25 +269,27 @@ public class IvyNodeEviction {
     }
 
     public Collection<ModuleRevisionId> getEvictedRevisions(ModuleId mid, String rootModuleConf) {
-        Collection<ModuleRevisionId> evicted = evictedRevs
-                .get(new ModuleIdConf(mid, rootModuleConf));
-        if (evicted == null) {
+        DependencyConflicts conflicts = getDependencyConflicts(mid, rootModuleConf);
+        if (conflicts == null) {
             return new HashSet<>();
         } else {
-            return new HashSet<>(evicted);
+            return new HashSet<>(conflicts.evictedRevs);
         }
     }
 
     public void setEvictedNodes(ModuleId moduleId, String rootModuleConf,
             Collection<IvyNode> evicted) {
-        ModuleIdConf moduleIdConf = new ModuleIdConf(moduleId, rootModuleConf);
-        evictedDeps.put(moduleIdConf, new HashSet<>(evicted));
-        Collection<ModuleRevisionId> evictedRevs = new HashSet<>();
-        for (IvyNode node : evicted) {
-            evictedRevs.add(node.getId());
-            evictedRevs.add(node.getResolvedId());
+        DependencyConflicts conflicts = getDependencyConflicts(moduleId, rootModuleConf,
+            !evicted.isEmpty());
+        if (conflicts != null) {
+            conflicts.evicted = CollectionUtils.compactSet(evicted);
+            Collection<ModuleRevisionId> evictedRevs = new HashSet<>();
+            for (IvyNode node : evicted) {
+                evictedRevs.add(node.getId());
+                evictedRevs.add(node.getResolvedId());
+            }
+            conflicts.evictedRevs = CollectionUtils.compactSet(evictedRevs);
         }
-        this.evictedRevs.put(moduleIdConf, evictedRevs);
     }
 
     public boolean isEvicted(String rootModuleConf) {
@@ -408,10 +425,10 @@ public class IvyNodeEviction {
     }
 
     public Collection<IvyNode> getPendingConflicts(String rootModuleConf, ModuleId mid) {
-        Collection<IvyNode> resolved = pendingConflicts.get(new ModuleIdConf(mid, rootModuleConf));
+        DependencyConflicts conflicts = getDependencyConflicts(mid, rootModuleConf);
         Set<IvyNode> ret = new HashSet<>();
-        if (resolved != null) {
-            for (IvyNode node : resolved) {
+        if (conflicts != null) {
+            for (IvyNode node : conflicts.pending) {
                 ret.add(node.getRealNode());
             }
         }
@@ -420,8 +437,31 @@ public class IvyNodeEviction {
 
     public void setPendingConflicts(ModuleId moduleId, String rootModuleConf,
             Collection<IvyNode> conflicts) {
+        DependencyConflicts dependencyConflicts = getDependencyConflicts(moduleId,
+            rootModuleConf, !conflicts.isEmpty());
+        if (dependencyConflicts != null) {
+            dependencyConflicts.pending = CollectionUtils.compactSet(conflicts);
+        }
+    }
+
+    private DependencyConflicts getDependencyConflicts(ModuleId moduleId, String rootModuleConf) {
+        return getDependencyConflicts(moduleId, rootModuleConf, false);
+    }
+
+    /**
+     * @param create
+     *            true to create the conflict data of the dependency if there is none yet
+     * @return the conflict data of the dependency, null if there is none and none was created
+     */
+    private DependencyConflicts getDependencyConflicts(ModuleId moduleId, String rootModuleConf,
+            boolean create) {
         ModuleIdConf moduleIdConf = new ModuleIdConf(moduleId, rootModuleConf);
-        pendingConflicts.put(moduleIdConf, new HashSet<>(conflicts));
+        DependencyConflicts conflicts = dependencyConflicts.get(moduleIdConf);
+        if (conflicts == null && create) {
+            conflicts = new DependencyConflicts();
+            dependencyConflicts.put(moduleIdConf, conflicts);
+        }
+        return conflicts;
     }
 
 }
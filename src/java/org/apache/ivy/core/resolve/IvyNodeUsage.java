@@ -19,6 +19,7 @@ package org.apache.ivy.core.resolve;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -28,6 +29,7 @@ import org.apache.ivy.core.module.descriptor.DependencyArtifactDescriptor;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.IncludeRule;
 import org.apache.ivy.core.module.descriptor.WorkspaceModuleDescriptor;
+import org.apache.ivy.util.CollectionUtils;
 
 /**
  * Class collecting usage data for an IvyNode.
@@ -125,6 +127,8 @@ public class IvyNodeUsage {
     // rootConfName -> confNames
     private Map<String, Set<String>> rootModuleConfs = new HashMap<>();
 
+    // the sets of required confs and of dependers are compact unmodifiable sets, replaced when
+    // updated, so that they can be shared with the usages they are merged into
     private Map<NodeConf, Set<String>> requiredConfs = new HashMap<>();
 
     private Map<String, Set<Depender>> dependers = new HashMap<>();
@@ -141,7 +145,7 @@ public class IvyNodeUsage {
     }
 
     protected void setRequiredConfs(IvyNode parent, String parentConf, Collection<String> confs) {
-        requiredConfs.put(new NodeConf(parent, parentConf), new HashSet<>(confs));
+        requiredConfs.put(new NodeConf(parent, parentConf), CollectionUtils.compactSet(confs));
     }
 
     /**
@@ -175,18 +179,17 @@ public class IvyNodeUsage {
 
     private void updateDataFrom(IvyNodeUsage usage, String rootModuleConf) {
         // update requiredConfs
-        updateMapOfSet(usage.requiredConfs, requiredConfs);
+        for (Map.Entry<NodeConf, Set<String>> entry : usage.requiredConfs.entrySet()) {
+            addToCompactSet(requiredConfs, entry.getKey(), entry.getValue());
+        }
 
         // update rootModuleConfs
         updateMapOfSetForKey(usage.rootModuleConfs, rootModuleConfs, rootModuleConf);
 
         // update dependencyArtifacts
-        updateMapOfSetForKey(usage.dependers, dependers, rootModuleConf);
-    }
-
-    private <K, V> void updateMapOfSet(Map<K, Set<V>> from, Map<K, Set<V>> to) {
-        for (K key : from.keySet()) {
-            updateMapOfSetForKey(from, to, key);
+        Set<Depender> usageDependers = usage.dependers.get(rootModuleConf);
+        if (usageDependers != null) {
+            addToCompactSet(dependers, rootModuleConf, usageDependers);
         }
     }
 
@@ -202,17 +205,21 @@ public class IvyNodeUsage {
         }
     }
 
-    private <K, V> void addObjectsForConf(K rootModuleConf, V objectToAdd, Map<K, Set<V>> map) {
-        Set<V> set = map.get(rootModuleConf);
+    private static <K, V> void addToCompactSet(Map<K, Set<V>> map, K key, Set<V> toAdd) {
+        Set<V> set = map.get(key);
         if (set == null) {
-            set = new HashSet<>();
-            map.put(rootModuleConf, set);
+            // compact sets are unmodifiable: they can be shared
+            map.put(key, toAdd);
+        } else if (!set.containsAll(toAdd)) {
+            Set<V> union = new HashSet<>(set);
+            union.addAll(toAdd);
+            map.put(key, Collections.unmodifiableSet(union));
         }
-        set.add(objectToAdd);
     }
 
     public void addUsage(String rootModuleConf, DependencyDescriptor dd, String parentConf) {
-        addObjectsForConf(rootModuleConf, new Depender(dd, parentConf), dependers);
+        addToCompactSet(dependers, rootModuleConf,
+            Collections.singleton(new Depender(dd, parentConf)));
     }
 
     protected Set<DependencyArtifactDescriptor> getDependencyArtifactsSet(String rootModuleConf) {
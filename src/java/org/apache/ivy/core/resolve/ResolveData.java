@@ -25,6 +25,10 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
@@ -47,9 +51,23 @@ public class ResolveData {
 
     private ResolvedModuleRevision currentResolvedModuleRevision;
 
+    // shared time after which the result of the resolve must not be reused any more
+    private AtomicLong resultExpiration = new AtomicLong(Long.MAX_VALUE);
+
+    // shared cache of the modules referenced by the descriptors of the resolved modules, by name of
+    // the resolver they have been resolved with
+    private Map<String, Map<ModuleRevisionId, ResolvedModuleRevision>> referencedModules =
+            new ConcurrentHashMap<>();
+
+    // shared threads prefetching module descriptors, created when first needed
+    private AtomicReference<ExecutorService> prefetchExecutor = new AtomicReference<>();
+
     public ResolveData(ResolveData data, boolean validate) {
         this(data.engine, new ResolveOptions(data.options).setValidate(validate), data.report,
                 data.visitData);
+        resultExpiration = data.resultExpiration;
+        referencedModules = data.referencedModules;
+        prefetchExecutor = data.prefetchExecutor;
         setCurrentVisitNode(data.currentVisitNode);
         setCurrentResolvedModuleRevision(data.currentResolvedModuleRevision);
     }
@@ -332,4 +350,92 @@ public class ResolveData {
     public ResolvedModuleRevision getCurrentResolvedModuleRevision() {
         return currentResolvedModuleRevision;
     }
+
+    /**
+     * Restricts the time until which the result of this resolve may be reused by a later identical
+     * resolve. Cache managers call it with the expiration time of the cached dynamic revisions they
+     * use, and with 0 for dependencies which have to be checked against the repository on every
+     * resolve. The earliest time wins.
+     *
+     * @param time
+     *            the time, in milliseconds since the epoch, after which the result must not be
+     *            reused
+     */
+    public void expireResultAt(long time) {
+        resultExpiration.accumulateAndGet(time, Math::min);
+    }
+
+    /**
+     * Returns the time after which the result of this resolve must not be reused any more, or
+     * {@link Long#MAX_VALUE} if nothing restricted it.
+     *
+     * @return the expiration time of the result of this resolve
+     * @see #expireResultAt(long)
+     */
+    public long getResultExpiration() {
+        return resultExpiration.get();
+    }
+
+    /**
+     * Returns the threads prefetching module descriptors during this resolve, if they have been
+     * started.
+     *
+     * @return the executor of the prefetch threads, or <code>null</code>
+     */
+    ExecutorService getPrefetchExecutor() {
+        return prefetchExecutor.get();
+    }
+
+    void setPrefetchExecutor(ExecutorService executor) {
+        prefetchExecutor.set(executor);
+    }
+
+    /**
+     * Returns a module referenced by the descriptor of another module, like a parent pom or an
+     * imported bill of materials, which has already been resolved with the given resolver during
+     * this resolve.
+     *
+     * @param resolverName
+     *            the name of the resolver the referenced module has been resolved with
+     * @param mrid
+     *            the id of the referenced module, in the system namespace
+     * @return the module registered with {@link #setReferencedModule}, or <code>null</code>
+     */
+    public ResolvedModuleRevision getReferencedModule(String resolverName,
+            ModuleRevisionId mrid) {
+        Map<ModuleRevisionId, ResolvedModuleRevision> modules = referencedModules
+                .get(getReferencedModulesKey(resolverName));
+        return modules == null ? null : modules.get(mrid);
+    }
+
+    /**
+     * Registers a module referenced by the descriptor of another module, so that the other modules
+     * referencing it during this resolve don't need to resolve it again with the same resolver.
+     *
+     * @param resolverName
+     *            the name of the resolver the referenced module has been resolved with
+     * @param mrid
+     *            the id of the referenced module, in the system namespace
+     * @param module
+     *            the referenced module
+     */
+    public void setReferencedModule(String resolverName, ModuleRevisionId mrid,
+            ResolvedModuleRevision module) {
+        String key = getReferencedModulesKey(resolverName);
+        Map<ModuleRevisionId, ResolvedModuleRevision> modules = referencedModules.get(key);
+        if (modules == null) {
+            modules = new ConcurrentHashMap<>();
+            Map<ModuleRevisionId, ResolvedModuleRevision> previous = referencedModules
+                    .putIfAbsent(key, modules);
+            if (previous != null) {
+                modules = previous;
+            }
+        }
+        modules.put(mrid, module);
+    }
+
+    private static String getReferencedModulesKey(String resolverName) {
+        // resolvers created programmatically may have no name
+        return resolverName == null ? "" : resolverName;
+    }
 }
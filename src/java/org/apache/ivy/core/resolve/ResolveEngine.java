@@ -17,18 +17,31 @@
  */
 package org.apache.ivy.core.resolve;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.ivy.Ivy;
 import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.WorkerTask;
 import org.apache.ivy.core.LogOptions;
 import org.apache.ivy.core.cache.ArtifactOrigin;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.ivy.core.cache.DefaultResolutionCacheManager;
+import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.apache.ivy.core.cache.ResolutionCacheManager;
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.event.download.PrepareDownloadEvent;
@@ -43,6 +56,7 @@ import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.CachedConfigurationResolveReport;
 import org.apache.ivy.core.report.ConfigurationResolveReport;
 import org.apache.ivy.core.report.DownloadReport;
 import org.apache.ivy.core.report.DownloadStatus;
@@ -52,13 +66,20 @@ import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.core.sort.SortEngine;
 import org.apache.ivy.core.sort.SortOptions;
 import org.apache.ivy.plugins.conflict.ConflictManager;
+import org.apache.ivy.plugins.lock.AbstractLockStrategy;
+import org.apache.ivy.plugins.lock.LockStrategy;
+import org.apache.ivy.plugins.lock.LockWaitHistogram;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorWriter;
+import org.apache.ivy.plugins.report.XmlReportParser;
 import org.apache.ivy.plugins.repository.url.URLResource;
 import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.plugins.version.VersionMatcher;
+import org.apache.ivy.util.HexEncoder;
 import org.apache.ivy.util.Message;
 import org.apache.ivy.util.filter.Filter;
+import org.apache.ivy.util.filter.FilterHelper;
 
 /**
  * The resolve engine which is the core of the dependency resolution mechanism used in Ivy. It
@@ -230,6 +251,28 @@ public class ResolveEngine {
             Message.verbose("\tvalidate = " + options.isValidate());
             Message.verbose("\trefresh = " + options.isRefresh());
 
+            ResolutionCacheManager cacheManager = settings.getResolutionCacheManager();
+            File fingerprintFile = new File(cacheManager.getResolutionCacheRoot(),
+                    options.getResolveId() + ".fingerprint");
+            String fingerprint = getResolveFingerprint(md, options);
+            if (fingerprint != null) {
+                ResolveReport report = getPreviousResolveReport(md, options, fingerprint,
+                    fingerprintFile);
+                if (report != null) {
+                    report.setResolveTime(System.currentTimeMillis() - start);
+                    if (ResolveOptions.LOG_DEFAULT.equals(options.getLog())) {
+                        Message.info("\tprevious resolution reused");
+                    } else {
+                        Message.verbose("\tprevious resolution reused");
+                    }
+                    Message.verbose("\tresolve done (" + report.getResolveTime() + "ms resolve)");
+                    eventManager.fireIvyEvent(new EndResolveEvent(md, confs, report));
+                    return report;
+                }
+            }
+            // the result of a previous resolve is about to be overwritten
+            fingerprintFile.delete();
+
             ResolveReport report = new ResolveReport(md, options.getResolveId());
 
             ResolveData data = new ResolveData(this, options);
@@ -244,7 +287,6 @@ public class ResolveEngine {
             }
 
             // produce resolved ivy file and ivy properties in cache
-            ResolutionCacheManager cacheManager = settings.getResolutionCacheManager();
             cacheManager.saveResolvedModuleDescriptor(md);
 
             // we store the resolved dependencies revisions and statuses per asked dependency
@@ -326,6 +368,7 @@ public class ResolveEngine {
 
                 DownloadOptions downloadOptions = new DownloadOptions();
                 downloadOptions.setLog(options.getLog());
+                downloadOptions.setThreads(options.getDownloadThreads());
                 downloadArtifacts(report, options.getArtifactFilter(), downloadOptions);
             }
 
@@ -333,6 +376,10 @@ public class ResolveEngine {
                 outputReport(report, cacheManager, options);
             }
 
+            if (fingerprint != null) {
+                saveResolveFingerprint(report, data, fingerprint, fingerprintFile);
+            }
+
             Message.verbose("\tresolve done (" + report.getResolveTime() + "ms resolve - "
                     + report.getDownloadTime() + "ms download)");
             Message.sumupProblems();
@@ -347,9 +394,220 @@ public class ResolveEngine {
         } finally {
             context.setResolveData(null);
             setDictatorResolver(oldDictator);
+            // the events of the resolve are delivered before it returns
+            eventManager.flush();
+            logLockWaitTimes();
         }
     }
 
+    /**
+     * Logs the distribution of the time waited for the locks of the repository caches, since
+     * their lock strategies were created.
+     */
+    private void logLockWaitTimes() {
+        Set<LockStrategy> logged = new HashSet<>();
+        for (RepositoryCacheManager cache : settings.getRepositoryCacheManagers()) {
+            if (!(cache instanceof DefaultRepositoryCacheManager)) {
+                continue;
+            }
+            LockStrategy lockStrategy = ((DefaultRepositoryCacheManager) cache).getLockStrategy();
+            if (lockStrategy instanceof AbstractLockStrategy && logged.add(lockStrategy)) {
+                LockWaitHistogram waitTimes = ((AbstractLockStrategy) lockStrategy)
+                        .getWaitTimes();
+                if (waitTimes != null) {
+                    Message.debug("\tlock waits of " + lockStrategy.getName() + ": " + waitTimes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes a digest of everything the result of a resolve depends on, apart from the
+     * repositories: the module descriptor, the settings and the resolve options.
+     *
+     * @return the fingerprint of the resolve, or <code>null</code> if its result must not be
+     *         reused or recorded for reuse
+     */
+    private String getResolveFingerprint(ModuleDescriptor md, ResolveOptions options)
+            throws IOException {
+        boolean reuse = options.getReuseResolution() == null ? settings.isReuseResolution()
+                : options.getReuseResolution();
+        if (!reuse || options.isRefresh() || !options.isOutputReport()
+                || options.getArtifactFilter() != FilterHelper.NO_FILTER) {
+            return null;
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 digest not available", e);
+        }
+        StringBuilder inputs = new StringBuilder();
+        inputs.append(Ivy.getIvyVersion()).append('\n');
+        inputs.append(Arrays.asList(options.getConfs())).append(' ')
+                .append(options.getRevision()).append(' ')
+                .append(options.getDate() == null ? null : options.getDate().getTime()).append(' ')
+                .append(options.getResolveMode()).append(' ').append(options.isTransitive())
+                .append(' ').append(options.isDownload()).append(' ')
+                .append(options.isUseCacheOnly()).append(' ').append(options.isValidate())
+                .append(' ').append(options.isRefresh()).append(' ')
+                .append(options.getCheckIfChanged()).append(' ').append(options.isOutputReport())
+                .append('\n');
+        // with useOrigin, the reports point to the artifacts at their origin
+        for (RepositoryCacheManager cache : settings.getRepositoryCacheManagers()) {
+            if (cache instanceof DefaultRepositoryCacheManager) {
+                inputs.append(cache.getName()).append(" useOrigin=")
+                        .append(((DefaultRepositoryCacheManager) cache).isUseOrigin())
+                        .append('\n');
+            }
+        }
+        for (Map.Entry<String, String> variable : settings.getVariablesSnapshot().entrySet()) {
+            inputs.append(variable.getKey()).append('=').append(variable.getValue()).append('\n');
+        }
+        // settings and properties loaded from other urls are only identified by their url
+        for (URL resource : settings.getLoadedResources()) {
+            inputs.append(resource.toExternalForm());
+            if ("file".equals(resource.getProtocol())) {
+                try {
+                    inputs.append(' ').append(getFileStamp(new File(resource.toURI())));
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    Message.debug("impossible to stamp " + resource + ": " + e);
+                }
+            }
+            inputs.append('\n');
+        }
+        digest.update(inputs.toString().getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream mdBytes = new ByteArrayOutputStream();
+        XmlModuleDescriptorWriter.write(md, null, mdBytes);
+        digest.update(mdBytes.toByteArray());
+        return HexEncoder.encode(digest.digest());
+    }
+
+    /**
+     * Rebuilds the report of a previous resolve from the resolution cache, if this resolve had the
+     * same fingerprint, none of the dynamic revisions it used expired and the files it produced
+     * are still there.
+     *
+     * @return the report of the previous resolve, or <code>null</code> if it cannot be reused
+     */
+    private ResolveReport getPreviousResolveReport(ModuleDescriptor md, ResolveOptions options,
+            String fingerprint, File fingerprintFile) {
+        if (!fingerprintFile.exists()) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(fingerprintFile)) {
+            props.load(in);
+        } catch (IOException e) {
+            Message.debug("impossible to read " + fingerprintFile + ": " + e);
+            return null;
+        }
+        if (!fingerprint.equals(props.getProperty("fingerprint"))) {
+            Message.verbose("\tresolve inputs changed since previous resolution");
+            return null;
+        }
+        long expiration;
+        try {
+            expiration = Long.parseLong(props.getProperty("expiration"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (System.currentTimeMillis() > expiration) {
+            Message.verbose("\tdynamic revisions of previous resolution expired");
+            return null;
+        }
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith("file.")
+                    && !getFileStamp(new File(name.substring(5))).equals(props.get(name))) {
+                Message.verbose("\t" + name.substring(5) + " changed since previous resolution");
+                return null;
+            }
+        }
+
+        ResolutionCacheManager cacheManager = settings.getResolutionCacheManager();
+        ResolveReport report = new ResolveReport(md, options.getResolveId());
+        Set<Artifact> artifacts = new LinkedHashSet<>();
+        Date reportDate = new Date();
+        for (String conf : options.getConfs()) {
+            File reportFile = cacheManager.getConfigurationResolveReportInCache(
+                options.getResolveId(), conf);
+            if (!reportFile.exists()) {
+                return null;
+            }
+            XmlReportParser parser = new XmlReportParser();
+            try {
+                parser.parse(reportFile);
+            } catch (ParseException e) {
+                Message.debug("impossible to parse " + reportFile + ": " + e);
+                return null;
+            }
+            if (parser.hasError()) {
+                return null;
+            }
+            for (ArtifactDownloadReport adr : parser.getArtifactReports()) {
+                if (adr.getDownloadStatus() == DownloadStatus.FAILED
+                        || adr.getLocalFile() != null && !adr.getLocalFile().exists()) {
+                    Message.verbose("\t" + adr.getArtifact() + " missing from cache");
+                    return null;
+                }
+            }
+            artifacts.addAll(Arrays.asList(parser.getArtifacts()));
+            report.addReport(conf, new CachedConfigurationResolveReport(this, md, conf,
+                    reportDate, options, parser));
+        }
+        report.setArtifacts(new ArrayList<>(artifacts));
+        return report;
+    }
+
+    /**
+     * Records the fingerprint of a successful resolve, along with the time until which its result
+     * may be reused and the state of the files it produced in the resolution cache.
+     */
+    private void saveResolveFingerprint(ResolveReport report, ResolveData data,
+            String fingerprint, File fingerprintFile) throws IOException {
+        if (report.hasError()) {
+            return;
+        }
+        long expiration = data.getResultExpiration();
+        if (expiration == Long.MAX_VALUE) {
+            // dynamic revisions resolved without a cache manager telling how long they are valid
+            for (IvyNode dependency : report.getDependencies()) {
+                if (settings.getVersionMatcher().isDynamic(dependency.getId())) {
+                    return;
+                }
+            }
+        }
+        if (expiration < System.currentTimeMillis()) {
+            Message.verbose("\tresolution not reusable: some dependencies are checked on each"
+                    + " resolve");
+            return;
+        }
+        ResolutionCacheManager cacheManager = settings.getResolutionCacheManager();
+        ModuleRevisionId mrid = report.getModuleDescriptor().getResolvedModuleRevisionId();
+        List<File> files = new ArrayList<>();
+        files.add(cacheManager.getResolvedIvyFileInCache(mrid));
+        files.add(cacheManager.getResolvedIvyPropertiesInCache(mrid));
+        for (String conf : report.getConfigurations()) {
+            files.add(cacheManager.getConfigurationResolveReportInCache(report.getResolveId(),
+                conf));
+        }
+
+        Properties props = new Properties();
+        props.setProperty("fingerprint", fingerprint);
+        props.setProperty("expiration", String.valueOf(expiration));
+        for (File file : files) {
+            props.setProperty("file." + file.getAbsolutePath(), getFileStamp(file));
+        }
+        try (OutputStream out = new FileOutputStream(fingerprintFile)) {
+            props.store(out, report.getResolveId() + " resolve fingerprint");
+        }
+    }
+
+    private static String getFileStamp(File file) {
+        return file.lastModified() + ":" + file.length();
+    }
+
     public void outputReport(ResolveReport report, ResolutionCacheManager cacheMgr,
             ResolveOptions options) throws IOException {
         if (ResolveOptions.LOG_DEFAULT.equals(options.getLog())) {
@@ -371,16 +629,53 @@ public class ResolveEngine {
         eventManager.fireIvyEvent(new PrepareDownloadEvent(report.getArtifacts().toArray(
             new Artifact[report.getArtifacts().size()])));
 
-        long totalSize = 0;
+        // download artifacts required in all asked configurations
+        List<IvyNode> dependencies = new ArrayList<>();
         for (IvyNode dependency : report.getDependencies()) {
-            checkInterrupted();
-            // download artifacts required in all asked configurations
             if (!dependency.isCompletelyEvicted() && !dependency.hasProblem()
                     && dependency.getModuleRevision() != null) {
+                dependencies.add(dependency);
+            }
+        }
+
+        int threads = options.getThreads() > 0 ? options.getThreads()
+                : settings.getDownloadThreads();
+        threads = Math.min(threads, dependencies.size());
+        ExecutorService executor = null;
+        List<ArtifactDownloadTask> downloads = null;
+        if (threads > 1) {
+            Message.verbose("\tdownloading artifacts of " + dependencies.size() + " modules using "
+                    + threads + " threads");
+            executor = Executors.newFixedThreadPool(threads,
+                WorkerTask.newThreadFactory("ivy-download-"));
+            downloads = new ArrayList<>(dependencies.size());
+            for (IvyNode dependency : dependencies) {
+                ArtifactDownloadTask download = new ArtifactDownloadTask(dependency
+                        .getModuleRevision().getArtifactResolver(), dependency
+                        .getSelectedArtifacts(artifactFilter), options);
+                download.submit(executor);
+                downloads.add(download);
+            }
+        }
+
+        long totalSize = 0;
+        try {
+            // reports are always handled in the order of the dependencies, whatever the order in
+            // which parallel downloads complete
+            for (int i = 0; i < dependencies.size(); i++) {
+                checkInterrupted();
+                IvyNode dependency = dependencies.get(i);
                 DependencyResolver resolver = dependency.getModuleRevision()
                         .getArtifactResolver();
-                Artifact[] selectedArtifacts = dependency.getSelectedArtifacts(artifactFilter);
-                DownloadReport dReport = resolver.download(selectedArtifacts, options);
+                DownloadReport dReport;
+                if (downloads == null) {
+                    Artifact[] selectedArtifacts = dependency.getSelectedArtifacts(artifactFilter);
+                    dReport = resolver.download(selectedArtifacts, options);
+                } else {
+                    ArtifactDownloadTask download = downloads.get(i);
+                    dReport = download.await();
+                    download.fireEvents();
+                }
                 for (ArtifactDownloadReport adr : dReport.getArtifactsReports()) {
                     if (adr.getDownloadStatus() == DownloadStatus.FAILED) {
                         if (adr.getArtifact().getExtraAttribute("ivy:merged") != null) {
@@ -409,11 +704,78 @@ public class ResolveEngine {
                     }
                 }
             }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
         }
         report.setDownloadTime(System.currentTimeMillis() - start);
         report.setDownloadSize(totalSize);
     }
 
+    /**
+     * Downloads the artifacts of a single module in a download thread.
+     */
+    private final class ArtifactDownloadTask extends WorkerTask<DownloadReport, RuntimeException> {
+        private final DependencyResolver resolver;
+
+        private final Artifact[] artifacts;
+
+        private final DownloadOptions options;
+
+        private ArtifactDownloadTask(DependencyResolver resolver, Artifact[] artifacts,
+                DownloadOptions options) {
+            super(eventManager);
+            this.resolver = resolver;
+            this.artifacts = artifacts;
+            this.options = options;
+        }
+
+        protected DownloadReport doCall() {
+            return resolver.download(artifacts, options);
+        }
+    }
+
+    /**
+     * Loads the module descriptor of a dependency in a prefetch thread. The result is not used: the
+     * purpose of the task is to have the descriptor in the repository cache when the dependency is
+     * visited.
+     */
+    private final class DescriptorPrefetchTask extends WorkerTask<Void, RuntimeException> {
+        private final DependencyResolver resolver;
+
+        private final DependencyDescriptor dd;
+
+        private final ResolveData data;
+
+        private DescriptorPrefetchTask(DependencyResolver resolver, DependencyDescriptor dd,
+                ResolveData data) {
+            super(eventManager);
+            this.resolver = resolver;
+            this.dd = dd;
+            this.data = data;
+        }
+
+        protected Void doCall() {
+            try {
+                ResolvedModuleRevision module = resolver.getDependency(dd, data);
+                if (module != null) {
+                    // as done when the node is loaded, so that the module found in cache is
+                    // associated with the right artifact resolver
+                    module.getResolver().getRepositoryCacheManager().saveResolvers(
+                        module.getDescriptor(), module.getResolver().getName(),
+                        module.getArtifactResolver().getName());
+                }
+            } catch (Exception e) {
+                // the dependency will be resolved again when visited, which will report the
+                // problem if it persists
+                Message.debug("\tprefetch of " + dd.getDependencyRevisionId() + " failed: "
+                        + e.getMessage());
+            }
+            return null;
+        }
+    }
+
     /**
      * Download an artifact to the cache. Not used internally, useful especially for IDE plugins
      * needing to download artifact one by one (for source or javadoc artifact, for instance).
@@ -612,6 +974,11 @@ public class ResolveEngine {
 
             return dependencies.toArray(new IvyNode[dependencies.size()]);
         } finally {
+            ResolveData data = context.getResolveData();
+            if (data != null && data.getPrefetchExecutor() != null) {
+                data.getPrefetchExecutor().shutdownNow();
+                data.setPrefetchExecutor(null);
+            }
             IvyContext.popContext();
         }
     }
@@ -758,6 +1125,9 @@ public class ResolveEngine {
             node.setRequestedConf(conf);
             requestedConfSet = true;
         }
+        if (requestedConfSet && node.isTransitive()) {
+            prefetchDescriptors(node, conf);
+        }
         // now let's recurse in extended confs
         String[] extendedConfs = c.getExtends();
         if (extendedConfs.length > 0) {
@@ -798,6 +1168,102 @@ public class ResolveEngine {
 
     }
 
+    /**
+     * Loads concurrently the module descriptors of the dependencies of a node in the given
+     * configuration and the configurations it extends, so that they are already in the repository
+     * cache when the dependencies are visited.
+     * <p>
+     * The visit itself is left untouched: it is still done by the resolving thread, in the same
+     * order, and resolves each dependency again, which is cheap once its descriptor is cached. This
+     * method returns only when all prefetches are done, so resolvers are never used by the
+     * prefetch threads and the resolving thread at the same time.
+     * </p>
+     */
+    private void prefetchDescriptors(VisitNode node, String conf) {
+        ResolveData data = node.getNode().getData();
+        ResolveOptions options = data.getOptions();
+        if (options.isRefresh() || options.isUseCacheOnly()) {
+            // prefetching would only download descriptors twice, or do nothing useful
+            return;
+        }
+        int threads = options.getPrefetchThreads() > 0 ? options.getPrefetchThreads()
+                : settings.getPrefetchThreads();
+        if (threads <= 1) {
+            return;
+        }
+
+        ModuleDescriptor md = node.getDescriptor();
+        Set<String> confs = new LinkedHashSet<>();
+        collectExtendedConfs(md, conf, confs);
+        List<DescriptorPrefetchTask> tasks = new ArrayList<>();
+        // only one lookup per module, two revisions of the same module may be resolved to the
+        // same one and concurrently written to the same cache files
+        Set<ModuleId> modules = new HashSet<>();
+        for (DependencyDescriptor dependencyDescriptor : md.getDependencies()) {
+            DependencyDescriptor dd = data.mediate(dependencyDescriptor);
+            ModuleRevisionId mrid = dd.getDependencyRevisionId();
+            IvyNode depNode = data.getNode(mrid);
+            if (depNode != null && (depNode.getDescriptor() != null || depNode.hasProblem())
+                    || !isRequiredIn(dd, confs, conf) || !modules.add(mrid.getModuleId())) {
+                continue;
+            }
+            DependencyResolver resolver = getDictatorResolver();
+            if (resolver == null) {
+                resolver = settings.getResolver(mrid);
+            }
+            if (resolver == null) {
+                continue;
+            }
+            ResolveData prefetchData = new ResolveData(data, data.isValidate());
+            prefetchData.setCurrentResolvedModuleRevision(null);
+            tasks.add(new DescriptorPrefetchTask(resolver, dd, prefetchData));
+        }
+        if (tasks.size() < 2) {
+            return;
+        }
+
+        Message.verbose("\tprefetching " + tasks.size() + " module descriptors required by "
+                + node.getId() + " [" + conf + "]");
+        // the prefetch threads are shared by all the nodes visited during the resolve
+        ExecutorService executor = data.getPrefetchExecutor();
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads,
+                WorkerTask.newThreadFactory("ivy-prefetch-"));
+            data.setPrefetchExecutor(executor);
+        }
+        try {
+            for (DescriptorPrefetchTask task : tasks) {
+                task.submit(executor);
+            }
+            for (DescriptorPrefetchTask task : tasks) {
+                task.await();
+                task.fireEvents();
+            }
+        } finally {
+            for (DescriptorPrefetchTask task : tasks) {
+                task.cancel();
+            }
+        }
+    }
+
+    private void collectExtendedConfs(ModuleDescriptor md, String conf, Set<String> confs) {
+        Configuration c = md.getConfiguration(conf);
+        if (c != null && confs.add(conf)) {
+            for (String extendedConf : c.getExtends()) {
+                collectExtendedConfs(md, extendedConf, confs);
+            }
+        }
+    }
+
+    private boolean isRequiredIn(DependencyDescriptor dd, Set<String> confs, String requestedConf) {
+        for (String conf : confs) {
+            if (dd.getDependencyConfigurations(conf, requestedConf).length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns true if we've already fetched the dependencies for this node and configuration
      *
@@ -17,6 +17,10 @@
  */
 package org.apache.ivy.core.resolve;
 
+import java.net.URL;
+import java.util.Collection;
+import java.util.Map;
+
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.conflict.ConflictManager;
@@ -42,4 +46,42 @@ public interface ResolveEngineSettings extends ResolverSettings {
 
     boolean logResolvedRevision();
 
+    /**
+     * Returns the maximum number of threads to use to download the artifacts of a resolve, when
+     * not specified in the {@link DownloadOptions}.
+     *
+     * @return the default number of download threads, 1 meaning artifacts are downloaded serially
+     */
+    int getDownloadThreads();
+
+    /**
+     * Returns the maximum number of threads to use to prefetch the module descriptors of the
+     * dependencies of a module, when not specified in the {@link ResolveOptions}.
+     *
+     * @return the default number of prefetch threads, 1 meaning descriptors are not prefetched
+     */
+    int getPrefetchThreads();
+
+    /**
+     * Indicates if a resolve may reuse the result of a previous resolve left in the resolution
+     * cache when its inputs did not change, when not specified in the {@link ResolveOptions}.
+     *
+     * @return <code>true</code> if resolution results should be reused by default
+     */
+    boolean isReuseResolution();
+
+    /**
+     * Returns a copy of the variables defined in these settings, sorted by name.
+     *
+     * @return the variables of these settings
+     */
+    Map<String, String> getVariablesSnapshot();
+
+    /**
+     * Returns the urls of the settings and properties files loaded in these settings.
+     *
+     * @return the urls of the loaded settings and properties files
+     */
+    Collection<URL> getLoadedResources();
+
 }
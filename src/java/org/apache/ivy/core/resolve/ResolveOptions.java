@@ -121,6 +121,24 @@ public class ResolveOptions extends LogOptions {
      **/
     private boolean checkIfChanged = false;
 
+    /**
+     * The maximum number of threads used to download artifacts, 0 to use the value configured in
+     * the settings
+     */
+    private int downloadThreads = 0;
+
+    /**
+     * The maximum number of threads used to prefetch module descriptors, 0 to use the value
+     * configured in the settings
+     */
+    private int prefetchThreads = 0;
+
+    /**
+     * True if the result of a previous identical resolve can be reused, null to use the value
+     * configured in the settings
+     */
+    private Boolean reuseResolution = null;
+
     public ResolveOptions() {
     }
 
@@ -139,6 +157,9 @@ public class ResolveOptions extends LogOptions {
         artifactFilter = options.artifactFilter;
         resolveId = options.resolveId;
         checkIfChanged = options.checkIfChanged;
+        downloadThreads = options.downloadThreads;
+        prefetchThreads = options.prefetchThreads;
+        reuseResolution = options.reuseResolution;
     }
 
     public Filter<Artifact> getArtifactFilter() {
@@ -299,6 +320,56 @@ public class ResolveOptions extends LogOptions {
         return checkIfChanged;
     }
 
+    /**
+     * Returns the maximum number of threads to use to download artifacts, or 0 to use the value
+     * configured in the settings.
+     *
+     * @return the number of download threads
+     * @see DownloadOptions#getThreads()
+     */
+    public int getDownloadThreads() {
+        return downloadThreads;
+    }
+
+    public ResolveOptions setDownloadThreads(int downloadThreads) {
+        this.downloadThreads = downloadThreads;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of threads to use to prefetch the module descriptors of the
+     * dependencies of a module, or 0 to use the value configured in the settings. With more than
+     * one thread, the descriptors of the direct dependencies of each visited module are loaded in
+     * parallel before the dependencies are actually visited.
+     *
+     * @return the number of prefetch threads
+     */
+    public int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    public ResolveOptions setPrefetchThreads(int prefetchThreads) {
+        this.prefetchThreads = prefetchThreads;
+        return this;
+    }
+
+    /**
+     * Indicates if the result of a previous resolve found in the resolution cache can be returned
+     * without walking the dependency graph again, when the module descriptor, the settings and the
+     * resolve options did not change and no dynamic revision of the previous resolve expired.
+     *
+     * @return <code>Boolean.TRUE</code> to reuse previous results, <code>Boolean.FALSE</code>
+     *         to always resolve, or <code>null</code> to use the value configured in the settings
+     */
+    public Boolean getReuseResolution() {
+        return reuseResolution;
+    }
+
+    public ResolveOptions setReuseResolution(Boolean reuseResolution) {
+        this.reuseResolution = reuseResolution;
+        return this;
+    }
+
     public static String getDefaultResolveId(ModuleDescriptor md) {
         ModuleId module = md.getModuleRevisionId().getModuleId();
         return getDefaultResolveId(module);
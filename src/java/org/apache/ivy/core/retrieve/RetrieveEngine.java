@@ -19,6 +19,7 @@ package org.apache.ivy.core.retrieve;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,10 +31,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
 import org.apache.ivy.core.LogOptions;
+import org.apache.ivy.core.WorkerTask;
 import org.apache.ivy.core.cache.ResolutionCacheManager;
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.event.retrieve.EndRetrieveArtifactEvent;
@@ -132,7 +136,7 @@ public class RetrieveEngine {
             Collection<File> targetIvysStructure = new HashSet<>(); // same for ivy files
 
             // do retrieve
-            long totalCopiedSize = 0;
+            List<FileRetrieval> retrievals = new ArrayList<>();
             for (Map.Entry<ArtifactDownloadReport, Set<String>> artifactAndPaths : artifactsToCopy
                     .entrySet()) {
                 ArtifactDownloadReport artifact = artifactAndPaths.getKey();
@@ -146,30 +150,29 @@ public class RetrieveEngine {
                 }
                 Message.verbose("\tretrieving " + archive);
                 for (String path : artifactAndPaths.getValue()) {
-                    IvyContext.getContext().checkInterrupted();
                     File destFile = settings.resolveFile(path);
-                    if (!settings.isCheckUpToDate() || !upToDate(archive, destFile, options)) {
+                    boolean required = !settings.isCheckUpToDate()
+                            || !upToDate(archive, destFile, options);
+                    retrievals.add(new FileRetrieval(artifact, archive, destFile, required,
+                            options));
+                }
+            }
+
+            long totalCopiedSize = 0;
+            ExecutorService executor = startRetrievals(retrievals, options);
+            try {
+                for (FileRetrieval retrieval : retrievals) {
+                    IvyContext.getContext().checkInterrupted();
+                    ArtifactDownloadReport artifact = retrieval.artifact;
+                    File destFile = retrieval.destFile;
+                    if (retrieval.required) {
                         Message.verbose("\t\tto " + destFile);
-                        if (this.eventManager != null) {
+                        // the start event of a copy run in a retrieve thread has been fired
+                        // before the copy was submitted
+                        if (executor == null && this.eventManager != null) {
                             this.eventManager.fireIvyEvent(new StartRetrieveArtifactEvent(artifact, destFile));
                         }
-                        if (options.isMakeSymlinks()) {
-                            boolean symlinkCreated;
-                            try {
-                                symlinkCreated = FileUtil.symlink(archive, destFile,  true);
-                            } catch (IOException ioe) {
-                                symlinkCreated = false;
-                                // warn about the inability to create a symlink
-                                Message.warn("symlink creation failed at path " + destFile, ioe);
-                            }
-                            if (!symlinkCreated) {
-                                // since symlink creation failed, let's attempt to an actual copy instead
-                                Message.info("Attempting a copy operation (since symlink creation failed) at path " + destFile);
-                                FileUtil.copy(archive, destFile, null, true);
-                            }
-                        } else {
-                            FileUtil.copy(archive, destFile, null, true);
-                        }
+                        retrieval.await();
                         if (this.eventManager != null) {
                             this.eventManager.fireIvyEvent(new EndRetrieveArtifactEvent(artifact, destFile));
                         }
@@ -192,6 +195,10 @@ public class RetrieveEngine {
                         }
                     }
                 }
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
             }
 
             if (options.isSync()) {
@@ -239,6 +246,41 @@ public class RetrieveEngine {
         }
     }
 
+    /**
+     * Starts the copy of the files to retrieve in retrieve threads, when more than one thread is
+     * configured and more than one file has to be copied. The start event of each copy is fired
+     * before the copy is submitted.
+     *
+     * @return the executor running the copies, or <code>null</code> if the files are to be copied
+     *         by the retrieving thread
+     */
+    private ExecutorService startRetrievals(List<FileRetrieval> retrievals,
+            RetrieveOptions options) {
+        int threads = options.getThreads() > 0 ? options.getThreads()
+                : settings.getRetrieveThreads();
+        int required = 0;
+        for (FileRetrieval retrieval : retrievals) {
+            if (retrieval.required) {
+                required++;
+            }
+        }
+        if (threads <= 1 || required <= 1) {
+            return null;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, required),
+            WorkerTask.newThreadFactory("ivy-retrieve-"));
+        for (FileRetrieval retrieval : retrievals) {
+            if (retrieval.required) {
+                if (eventManager != null) {
+                    eventManager.fireIvyEvent(new StartRetrieveArtifactEvent(retrieval.artifact,
+                            retrieval.destFile));
+                }
+                retrieval.submit(executor);
+            }
+        }
+        return executor;
+    }
+
     private String[] getConfs(ModuleRevisionId mrid, RetrieveOptions options) throws IOException {
         String[] confs = options.getConfs();
         if (confs == null || (confs.length == 1 && "*".equals(confs[0]))) {
@@ -502,4 +544,79 @@ public class RetrieveEngine {
         };
     }
 
+
+    /**
+     * The copy (or link) of a retrieved artifact to one of its destination files. The copy is run
+     * either in a retrieve thread or, if it has not been started in one, by the retrieving thread
+     * when it waits for it.
+     */
+    private static final class FileRetrieval extends WorkerTask<Void, IOException> {
+        private final ArtifactDownloadReport artifact;
+
+        private final File archive;
+
+        private final File destFile;
+
+        private final boolean required;
+
+        private final RetrieveOptions options;
+
+        private FileRetrieval(ArtifactDownloadReport artifact, File archive, File destFile,
+                boolean required, RetrieveOptions options) {
+            this.artifact = artifact;
+            this.archive = archive;
+            this.destFile = destFile;
+            this.required = required;
+            this.options = options;
+        }
+
+        protected Void doCall() throws IOException {
+            if (options.isMakeSymlinks()) {
+                boolean symlinkCreated;
+                try {
+                    symlinkCreated = FileUtil.symlink(archive, destFile,  true);
+                } catch (IOException ioe) {
+                    symlinkCreated = false;
+                    // warn about the inability to create a symlink
+                    Message.warn("symlink creation failed at path " + destFile, ioe);
+                }
+                if (!symlinkCreated) {
+                    // since symlink creation failed, let's attempt to an actual copy instead
+                    Message.info("Attempting a copy operation (since symlink creation failed) at path " + destFile);
+                    copy(archive, destFile);
+                }
+            } else if (options.isMakeHardlinks()) {
+                if (!FileUtil.hardlink(archive, destFile, true)) {
+                    // typically when the cache and the destination are on different file systems
+                    Message.verbose("\t\thard link creation failed at path " + destFile
+                            + ": copying");
+                    copy(archive, destFile);
+                }
+            } else {
+                copy(archive, destFile);
+            }
+            return null;
+        }
+
+        /**
+         * Copies a retrieved file. A destination hard linked to another file, for instance to the
+         * cache by a previous retrieve, is removed first so that it is never written through.
+         */
+        private static void copy(File archive, File destFile) throws IOException {
+            if (destFile.isFile() && getLinkCount(destFile) > 1
+                    && !Files.isSameFile(archive.toPath(), destFile.toPath())) {
+                Files.delete(destFile.toPath());
+            }
+            FileUtil.copy(archive, destFile, null, true);
+        }
+
+        private static int getLinkCount(File file) throws IOException {
+            try {
+                return (Integer) Files.getAttribute(file.toPath(), "unix:nlink");
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                // file systems without hard links
+                return 1;
+            }
+        }
+    }
 }
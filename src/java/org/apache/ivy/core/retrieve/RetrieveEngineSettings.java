@@ -28,4 +28,6 @@ public interface RetrieveEngineSettings extends ParserSettings {
 
     String[] getIgnorableFilenames();
 
+    int getRetrieveThreads();
+
 }
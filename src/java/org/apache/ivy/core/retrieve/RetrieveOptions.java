@@ -83,6 +83,19 @@ public class RetrieveOptions extends LogOptions {
     @Deprecated
     private boolean makeSymlinksInMass = false;
 
+    /**
+     * True if hard links should be created instead of plain copy. When a hard link cannot be
+     * created, for instance because the cache and the destination are on different file systems,
+     * the file is copied.
+     */
+    private boolean makeHardlinks = false;
+
+    /**
+     * The maximum number of threads used to copy the retrieved files, 0 to use the value
+     * configured in the settings
+     */
+    private int threads = 0;
+
     /**
      * The id used to store the resolve information.
      */
@@ -104,6 +117,8 @@ public class RetrieveOptions extends LogOptions {
         this.useOrigin = options.useOrigin;
         this.makeSymlinks = options.makeSymlinks;
         this.makeSymlinksInMass = options.makeSymlinksInMass;
+        this.makeHardlinks = options.makeHardlinks;
+        this.threads = options.threads;
         this.resolveId = options.resolveId;
         this.mapper = options.mapper;
     }
@@ -187,6 +202,30 @@ public class RetrieveOptions extends LogOptions {
         return this;
     }
 
+    public boolean isMakeHardlinks() {
+        return makeHardlinks;
+    }
+
+    public RetrieveOptions setMakeHardlinks(boolean makeHardlinks) {
+        this.makeHardlinks = makeHardlinks;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of threads to use to copy the retrieved files, or 0 to use the
+     * value configured in the settings.
+     *
+     * @return the number of retrieve threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    public RetrieveOptions setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
     public boolean isSync() {
         return sync;
     }
@@ -60,6 +60,7 @@ import org.apache.ivy.plugins.latest.WorkspaceLatestStrategy;
 import org.apache.ivy.plugins.lock.CreateFileLockStrategy;
 import org.apache.ivy.plugins.lock.LockStrategy;
 import org.apache.ivy.plugins.lock.NIOFileLockStrategy;
+import org.apache.ivy.plugins.lock.NIOFileReadWriteLockStrategy;
 import org.apache.ivy.plugins.lock.NoLockStrategy;
 import org.apache.ivy.plugins.matcher.ExactOrRegexpPatternMatcher;
 import org.apache.ivy.plugins.matcher.ExactPatternMatcher;
@@ -115,6 +116,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 import static org.apache.ivy.util.StringUtils.splitToArray;
 
@@ -185,6 +187,18 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
 
     private boolean useRemoteConfig = false;
 
+    private int downloadThreads = 1;
+
+    private int prefetchThreads = 1;
+
+    private int retrieveThreads = 1;
+
+    private boolean reuseResolution = false;
+
+    private boolean asyncEvents = false;
+
+    private int eventQueueSize = 1024;
+
     private File defaultUserDir;
 
     private File baseDir = new File(".").getAbsoluteFile();
@@ -219,6 +233,9 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
 
     private final Map<String, TimeoutConstraint> timeoutConstraints = new HashMap<>();
 
+    // the settings and properties files loaded in these settings, by url
+    private final Map<String, URL> loadedResources = new LinkedHashMap<>();
+
     public IvySettings() {
         this(new IvyVariableContainerImpl());
     }
@@ -261,6 +278,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         addLockStrategy("no-lock", new NoLockStrategy());
         addLockStrategy("artifact-lock", new CreateFileLockStrategy(debugLocking()));
         addLockStrategy("artifact-lock-nio", new NIOFileLockStrategy(debugLocking()));
+        addLockStrategy("artifact-lock-nio-rw", new NIOFileReadWriteLockStrategy(debugLocking()));
 
         addConflictManager("latest-revision", new LatestConflictManager("latest-revision",
                 latestRevisionStrategy));
@@ -564,6 +582,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public synchronized void loadProperties(URL url, boolean overwrite) throws IOException {
+        addLoadedResource(url);
         loadProperties(url.openStream(), overwrite);
     }
 
@@ -572,6 +591,7 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
     }
 
     public synchronized void loadProperties(File file, boolean overwrite) throws IOException {
+        addLoadedResource(file.toURI().toURL());
         loadProperties(new FileInputStream(file), overwrite);
     }
 
@@ -666,6 +686,41 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         return variableContainer;
     }
 
+    /**
+     * Returns a copy of the variables loaded in these settings, sorted by name. Only variables
+     * actually held by an {@link IvyVariableContainerImpl} are returned, so this map is empty when
+     * a custom variable container is used.
+     *
+     * @return Map&lt;String, String&gt;
+     */
+    public synchronized Map<String, String> getVariablesSnapshot() {
+        if (variableContainer instanceof IvyVariableContainerImpl) {
+            return new TreeMap<>(((IvyVariableContainerImpl) variableContainer).getVariables());
+        }
+        return new TreeMap<>();
+    }
+
+    /**
+     * Records that a settings file, included or not, or a properties file has been loaded in these
+     * settings.
+     *
+     * @param url
+     *            the url of the loaded file
+     */
+    public synchronized void addLoadedResource(URL url) {
+        loadedResources.put(url.toExternalForm(), url);
+    }
+
+    /**
+     * Returns the urls of the settings and properties files loaded in these settings, in the
+     * order in which they were first loaded.
+     *
+     * @return Collection&lt;URL&gt;
+     */
+    public synchronized Collection<URL> getLoadedResources() {
+        return new ArrayList<>(loadedResources.values());
+    }
+
     public synchronized Class<?> typeDef(String name, String className) {
         return typeDef(name, className, false);
     }
@@ -1376,6 +1431,70 @@ public class IvySettings implements SortEngineSettings, PublishEngineSettings, P
         this.useRemoteConfig = useRemoteConfig;
     }
 
+    public synchronized int getDownloadThreads() {
+        return downloadThreads;
+    }
+
+    public synchronized void setDownloadThreads(int downloadThreads) {
+        if (downloadThreads < 1) {
+            throw new IllegalArgumentException("downloadThreads must be at least 1, was "
+                    + downloadThreads);
+        }
+        this.downloadThreads = downloadThreads;
+    }
+
+    public synchronized int getRetrieveThreads() {
+        return retrieveThreads;
+    }
+
+    public synchronized void setRetrieveThreads(int retrieveThreads) {
+        if (retrieveThreads < 1) {
+            throw new IllegalArgumentException("retrieveThreads must be at least 1, was "
+                    + retrieveThreads);
+        }
+        this.retrieveThreads = retrieveThreads;
+    }
+
+    public synchronized int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    public synchronized void setPrefetchThreads(int prefetchThreads) {
+        if (prefetchThreads < 1) {
+            throw new IllegalArgumentException("prefetchThreads must be at least 1, was "
+                    + prefetchThreads);
+        }
+        this.prefetchThreads = prefetchThreads;
+    }
+
+    public synchronized boolean isReuseResolution() {
+        return reuseResolution;
+    }
+
+    public synchronized void setReuseResolution(boolean reuseResolution) {
+        this.reuseResolution = reuseResolution;
+    }
+
+    public synchronized boolean isAsyncEvents() {
+        return asyncEvents;
+    }
+
+    public synchronized void setAsyncEvents(boolean asyncEvents) {
+        this.asyncEvents = asyncEvents;
+    }
+
+    public synchronized int getEventQueueSize() {
+        return eventQueueSize;
+    }
+
+    public synchronized void setEventQueueSize(int eventQueueSize) {
+        if (eventQueueSize < 1) {
+            throw new IllegalArgumentException("eventQueueSize must be at least 1, was "
+                    + eventQueueSize);
+        }
+        this.eventQueueSize = eventQueueSize;
+    }
+
     public synchronized boolean logModulesInUse() {
         return getVariableAsBoolean("ivy.log.modules.in.use", true);
     }
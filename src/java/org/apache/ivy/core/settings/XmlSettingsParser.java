@@ -45,6 +45,7 @@ import org.apache.ivy.util.Configurator;
 import org.apache.ivy.util.FileResolver;
 import org.apache.ivy.util.Message;
 import org.apache.ivy.util.XMLHelper;
+import org.apache.ivy.util.url.ConnectionPoolingURLHandler;
 import org.apache.ivy.util.url.CredentialsStore;
 import org.apache.ivy.util.url.TimeoutConstrainedURLHandler;
 import org.apache.ivy.util.url.URLHandlerRegistry;
@@ -150,6 +151,7 @@ public class XmlSettingsParser extends DefaultHandler {
     @SuppressWarnings("deprecation")
     private void doParse(URL settingsUrl) throws IOException, ParseException {
         this.settings = settingsUrl;
+        ivy.addLoadedResource(settingsUrl);
         try {
             XMLHelper.parse(settingsUrl, null, this);
             ivy.validate();
@@ -337,6 +339,30 @@ public class XmlSettingsParser extends DefaultHandler {
                     + ")");
             ivy.setCheckUpToDate(Boolean.valueOf(up2d));
         }
+        String downloadThreads = attributes.get("downloadThreads");
+        if (downloadThreads != null) {
+            ivy.setDownloadThreads(Integer.parseInt(downloadThreads));
+        }
+        String prefetchThreads = attributes.get("prefetchThreads");
+        if (prefetchThreads != null) {
+            ivy.setPrefetchThreads(Integer.parseInt(prefetchThreads));
+        }
+        String retrieveThreads = attributes.get("retrieveThreads");
+        if (retrieveThreads != null) {
+            ivy.setRetrieveThreads(Integer.parseInt(retrieveThreads));
+        }
+        String reuseResolution = attributes.get("reuseResolution");
+        if (reuseResolution != null) {
+            ivy.setReuseResolution(Boolean.valueOf(reuseResolution));
+        }
+        String asyncEvents = attributes.get("asyncEvents");
+        if (asyncEvents != null) {
+            ivy.setAsyncEvents(Boolean.valueOf(asyncEvents));
+        }
+        String eventQueueSize = attributes.get("eventQueueSize");
+        if (eventQueueSize != null) {
+            ivy.setEventQueueSize(Integer.parseInt(eventQueueSize));
+        }
         String useRemoteConfig = attributes.get("useRemoteConfig");
         if (useRemoteConfig != null) {
             ivy.setUseRemoteConfig(Boolean.valueOf(useRemoteConfig));
@@ -369,6 +395,36 @@ public class XmlSettingsParser extends DefaultHandler {
             throw new IllegalArgumentException(
                     "Invalid httpRequestMethod specified, must be one of {'HEAD', 'GET'}");
         }
+        configureHttpConnections(attributes);
+    }
+
+    private void configureHttpConnections(Map<String, String> attributes) {
+        String maxConnections = attributes.get("httpMaxConnections");
+        String maxConnectionsPerRoute = attributes.get("httpMaxConnectionsPerRoute");
+        String idleConnectionTimeout = attributes.get("httpIdleConnectionTimeout");
+        String keepAliveTimeout = attributes.get("httpKeepAliveTimeout");
+        if (maxConnections == null && maxConnectionsPerRoute == null
+                && idleConnectionTimeout == null && keepAliveTimeout == null) {
+            return;
+        }
+        TimeoutConstrainedURLHandler httpHandler = URLHandlerRegistry.getHttp();
+        if (!(httpHandler instanceof ConnectionPoolingURLHandler)) {
+            Message.verbose("HTTP connection pool settings ignored: no pooling HTTP handler");
+            return;
+        }
+        ConnectionPoolingURLHandler poolingHandler = (ConnectionPoolingURLHandler) httpHandler;
+        if (maxConnections != null) {
+            poolingHandler.setMaxConnections(Integer.parseInt(maxConnections));
+        }
+        if (maxConnectionsPerRoute != null) {
+            poolingHandler.setMaxConnectionsPerRoute(Integer.parseInt(maxConnectionsPerRoute));
+        }
+        if (idleConnectionTimeout != null) {
+            poolingHandler.setIdleConnectionTimeout(Long.parseLong(idleConnectionTimeout));
+        }
+        if (keepAliveTimeout != null) {
+            poolingHandler.setKeepAliveTimeout(Long.parseLong(keepAliveTimeout));
+        }
     }
 
     private void includeStarted(Map<String, String> attributes) throws IOException, ParseException {
@@ -20,14 +20,15 @@ package org.apache.ivy.core.sort;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.version.VersionMatcher;
 
 /**
@@ -43,7 +44,13 @@ class CollectionOfModulesToSort implements Iterable<ModuleInSort> {
 
     private final VersionMatcher versionMatcher;
 
-    private final Map<ModuleId, Collection<ModuleInSort>> modulesByModuleId;
+    private final Map<ModuleId, List<ModuleInSort>> modulesByModuleId;
+
+    /**
+     * The result of the lookup of each dependency revision id already asked for, so that the
+     * version matcher is invoked only once per requested revision and not once per dependency.
+     */
+    private final Map<ModuleRevisionId, DependencyMatch> matchesByRevisionId = new HashMap<>();
 
     private final NonMatchingVersionReporter nonMatchingVersionReporter;
 
@@ -70,12 +77,12 @@ class CollectionOfModulesToSort implements Iterable<ModuleInSort> {
 
     private void addToModulesByModuleId(ModuleDescriptor md, ModuleInSort mdInSort) {
         ModuleId mdId = md.getModuleRevisionId().getModuleId();
-        List<ModuleInSort> mdInSortAsList = new LinkedList<>();
-        mdInSortAsList.add(mdInSort);
-        Collection<ModuleInSort> previousList = modulesByModuleId.put(mdId, mdInSortAsList);
-        if (previousList != null) {
-            mdInSortAsList.addAll(previousList);
+        List<ModuleInSort> modulesOfSameId = modulesByModuleId.get(mdId);
+        if (modulesOfSameId == null) {
+            modulesOfSameId = new ArrayList<>(1);
+            modulesByModuleId.put(mdId, modulesOfSameId);
         }
+        modulesOfSameId.add(mdInSort);
     }
 
     public Iterator<ModuleInSort> iterator() {
@@ -94,20 +101,52 @@ class CollectionOfModulesToSort implements Iterable<ModuleInSort> {
      *         returns null.
      */
     public ModuleInSort getModuleDescriptorDependency(DependencyDescriptor descriptor) {
-        Collection<ModuleInSort> modulesOfSameId = modulesByModuleId.get(descriptor
+        ModuleRevisionId askedMrid = descriptor.getDependencyRevisionId();
+        DependencyMatch match = matchesByRevisionId.get(askedMrid);
+        if (match == null) {
+            match = findMatch(descriptor);
+            matchesByRevisionId.put(askedMrid, match);
+        }
+        for (ModuleInSort nonMatching : match.nonMatching) {
+            nonMatchingVersionReporter.reportNonMatchingVersion(descriptor,
+                nonMatching.getSortedModuleDescriptor());
+        }
+        return match.module;
+    }
+
+    private DependencyMatch findMatch(DependencyDescriptor descriptor) {
+        List<ModuleInSort> modulesOfSameId = modulesByModuleId.get(descriptor
                 .getDependencyId());
         if (modulesOfSameId == null) {
-            return null;
+            return DependencyMatch.NONE;
         }
-        for (ModuleInSort mdInSort : modulesOfSameId) {
+        List<ModuleInSort> nonMatching = Collections.emptyList();
+        // the last module added for a module id is checked first
+        for (int i = modulesOfSameId.size() - 1; i >= 0; i--) {
+            ModuleInSort mdInSort = modulesOfSameId.get(i);
             if (mdInSort.match(descriptor, versionMatcher)) {
-                return mdInSort;
-            } else {
-                nonMatchingVersionReporter.reportNonMatchingVersion(descriptor,
-                    mdInSort.getSortedModuleDescriptor());
+                return new DependencyMatch(mdInSort, nonMatching);
             }
+            if (nonMatching.isEmpty()) {
+                nonMatching = new ArrayList<>(1);
+            }
+            nonMatching.add(mdInSort);
+        }
+        return new DependencyMatch(null, nonMatching);
+    }
+
+    private static final class DependencyMatch {
+        private static final DependencyMatch NONE = new DependencyMatch(null,
+                Collections.<ModuleInSort>emptyList());
+
+        private final ModuleInSort module;
+
+        private final List<ModuleInSort> nonMatching;
+
+        private DependencyMatch(ModuleInSort module, List<ModuleInSort> nonMatching) {
+            this.module = module;
+            this.nonMatching = nonMatching;
         }
-        return null;
     }
 
 }
@@ -17,8 +17,10 @@
  */
 package org.apache.ivy.core.sort;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Deque;
 import java.util.List;
 
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
@@ -42,7 +44,7 @@ public class ModuleDescriptorSorter {
 
     private final CollectionOfModulesToSort moduleDescriptors;
 
-    private final List<ModuleDescriptor> sorted = new LinkedList<>();
+    private final List<ModuleDescriptor> sorted;
 
     private final CircularDependencyStrategy circularDepStrategy;
 
@@ -52,6 +54,7 @@ public class ModuleDescriptorSorter {
         this.circularDepStrategy = circularDepStrategy;
         moduleDescriptors = new CollectionOfModulesToSort(modulesDescriptorsToSort, matcher,
                 nonMatchingVersionReporter);
+        sorted = new ArrayList<>(moduleDescriptors.size());
     }
 
     /**
@@ -69,12 +72,16 @@ public class ModuleDescriptorSorter {
     }
 
     /**
-     * If current module has already been added to list, returns, Otherwise invokes
-     * sortModuleDescriptorsHelp for all dependencies contained within set of moduleDescriptors.
-     * Then finally adds self to list of sorted.<br/>
-     * When a loop is detected by a recursive call, the moduleDescriptors are not added immediately
-     * added to the sorted list. They are added as loop dependencies of the root, and will be added
-     * to the sorted list only when the root itself will be added.
+     * If current module has already been added to list, returns, Otherwise visits all the
+     * dependencies contained within set of moduleDescriptors, and finally adds self to list of
+     * sorted.<br/>
+     * When a loop is detected, the moduleDescriptors are not added immediately added to the sorted
+     * list. They are added as loop dependencies of the root, and will be added to the sorted list
+     * only when the root itself will be added.
+     * <p>
+     * The graph is walked depth first with an explicit stack rather than by recursion, so that
+     * long chains of dependencies can be sorted whatever the size of the thread stack.
+     * </p>
      *
      * @param current
      *            Current module to add to sorted list.
@@ -82,6 +89,27 @@ public class ModuleDescriptorSorter {
      */
     private void sortModuleDescriptorsHelp(ModuleInSort current, ModuleInSort caller)
             throws CircularDependencyException {
+        Deque<Visit> stack = new ArrayDeque<>();
+        visit(current, caller, stack);
+        while (!stack.isEmpty()) {
+            Visit visit = stack.peek();
+            if (visit.next < visit.dependencies.length) {
+                DependencyDescriptor descriptor = visit.dependencies[visit.next++];
+                ModuleInSort child = moduleDescriptors.getModuleDescriptorDependency(descriptor);
+                if (child != null) {
+                    visit(child, visit.module, stack);
+                }
+            } else {
+                stack.pop();
+                visit.module.endOfCall();
+                Message.debug("Sort done for : " + visit.module.toString());
+                visit.module.addToSortedListIfRequired(sorted);
+            }
+        }
+    }
+
+    private void visit(ModuleInSort current, ModuleInSort caller, Deque<Visit> stack)
+            throws CircularDependencyException {
         // if already sorted return
         if (current.isProcessed()) {
             return;
@@ -93,15 +121,23 @@ public class ModuleDescriptorSorter {
         Message.debug("Sort dependencies of : " + current.toString()
                 + " / Number of dependencies = " + descriptors.length);
         current.setCaller(caller);
-        for (DependencyDescriptor descriptor : descriptors) {
-            ModuleInSort child = moduleDescriptors.getModuleDescriptorDependency(descriptor);
-            if (child != null) {
-                sortModuleDescriptorsHelp(child, current);
-            }
+        stack.push(new Visit(current, descriptors));
+    }
+
+    /**
+     * A module being visited, with the index of the next of its dependencies to visit.
+     */
+    private static final class Visit {
+        private final ModuleInSort module;
+
+        private final DependencyDescriptor[] dependencies;
+
+        private int next = 0;
+
+        private Visit(ModuleInSort module, DependencyDescriptor[] dependencies) {
+            this.module = module;
+            this.dependencies = dependencies;
         }
-        current.endOfCall();
-        Message.debug("Sort done for : " + current.toString());
-        current.addToSortedListIfRequired(sorted);
     }
 
 }
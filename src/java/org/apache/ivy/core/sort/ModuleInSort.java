@@ -84,13 +84,8 @@ class ModuleInSort {
      * the list.
      */
     public boolean isProcessed() {
-        if (isSorted || isLoopIntermediateElement) {
-            Message.debug("Module descriptor is processed : "
-                    + module.getModuleRevisionId().toString());
-            return true;
-        } else {
-            return false;
-        }
+        // not logged: this is checked for every dependency of every module to sort
+        return isSorted || isLoopIntermediateElement;
     }
 
     public void setCaller(ModuleInSort caller) {
@@ -0,0 +1,261 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.osgi.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link OSGiFilter} compiled into a flat program, which evaluates the same as the filter but
+ * without walking its tree of sub filters. The sub filters of an <code>and</code> or an
+ * <code>or</code> become jumps out of the operator as soon as its result is known.
+ * <p>
+ * A compiled filter is immutable and can be evaluated by several threads at once.
+ * </p>
+ */
+public final class CompiledOSGiFilter {
+
+    private static final byte CONST = 0;
+
+    private static final byte COMPARE = 1;
+
+    private static final byte EVAL = 2;
+
+    private static final byte NOT = 3;
+
+    private static final byte JUMP_IF_FALSE = 4;
+
+    private static final byte JUMP_IF_TRUE = 5;
+
+    private static final byte PRESENT = 0;
+
+    private static final byte EQUALS = 1;
+
+    private static final byte LOWER_THAN = 2;
+
+    private static final byte LOWER_OR_EQUAL = 3;
+
+    private static final byte GREATER_THAN = 4;
+
+    private static final byte GREATER_OR_EQUAL = 5;
+
+    private final OSGiFilter filter;
+
+    private final byte[] ops;
+
+    private final int[] args;
+
+    private final String[] keys;
+
+    private final byte[] operators;
+
+    private final String[] values;
+
+    private final OSGiFilter[] delegates;
+
+    private CompiledOSGiFilter(OSGiFilter filter, Compiler compiler) {
+        this.filter = filter;
+        int size = compiler.ops.size();
+        ops = new byte[size];
+        args = new int[size];
+        for (int i = 0; i < size; i++) {
+            ops[i] = compiler.ops.get(i);
+            args[i] = compiler.args.get(i);
+        }
+        keys = compiler.keys.toArray(new String[0]);
+        operators = new byte[compiler.operators.size()];
+        for (int i = 0; i < operators.length; i++) {
+            operators[i] = compiler.operators.get(i);
+        }
+        values = compiler.values.toArray(new String[0]);
+        delegates = compiler.delegates.toArray(new OSGiFilter[0]);
+    }
+
+    public static CompiledOSGiFilter compile(OSGiFilter filter) {
+        Compiler compiler = new Compiler();
+        compiler.compile(filter);
+        return new CompiledOSGiFilter(filter, compiler);
+    }
+
+    public OSGiFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @see OSGiFilter#eval(Map)
+     */
+    public boolean eval(Map<String, String> properties) {
+        boolean result = false;
+        for (int pc = 0; pc < ops.length; pc++) {
+            switch (ops[pc]) {
+                case CONST:
+                    result = args[pc] != 0;
+                    break;
+                case COMPARE:
+                    result = compare(args[pc], properties);
+                    break;
+                case EVAL:
+                    result = delegates[args[pc]].eval(properties);
+                    break;
+                case NOT:
+                    result = !result;
+                    break;
+                case JUMP_IF_FALSE:
+                    if (!result) {
+                        pc = args[pc] - 1;
+                    }
+                    break;
+                case JUMP_IF_TRUE:
+                    if (result) {
+                        pc = args[pc] - 1;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        return result;
+    }
+
+    private boolean compare(int i, Map<String, String> properties) {
+        String actualValue = properties.get(keys[i]);
+        if (actualValue == null) {
+            return false;
+        }
+        switch (operators[i]) {
+            case PRESENT:
+                return true;
+            case EQUALS:
+                return values[i].equals(actualValue);
+            case LOWER_THAN:
+                return values[i].compareTo(actualValue) < 0;
+            case LOWER_OR_EQUAL:
+                return values[i].compareTo(actualValue) <= 0;
+            case GREATER_THAN:
+                return values[i].compareTo(actualValue) > 0;
+            case GREATER_OR_EQUAL:
+                return values[i].compareTo(actualValue) >= 0;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return filter.toString();
+    }
+
+    private static final class Compiler {
+        private final List<Byte> ops = new ArrayList<>();
+
+        private final List<Integer> args = new ArrayList<>();
+
+        private final List<String> keys = new ArrayList<>();
+
+        private final List<Byte> operators = new ArrayList<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        private final List<OSGiFilter> delegates = new ArrayList<>();
+
+        void compile(OSGiFilter filter) {
+            if (filter instanceof AndFilter) {
+                compileOperands((AndFilter) filter, JUMP_IF_FALSE, true);
+            } else if (filter instanceof OrFilter) {
+                compileOperands((OrFilter) filter, JUMP_IF_TRUE, false);
+            } else if (filter instanceof NotFilter) {
+                compile(((NotFilter) filter).getSubFilter());
+                emit(NOT, 0);
+            } else if (filter instanceof CompareFilter) {
+                compileCompare((CompareFilter) filter);
+            } else {
+                emit(EVAL, delegates.size());
+                delegates.add(filter);
+            }
+        }
+
+        /**
+         * Each operand but the last one is followed by a jump to the end of the operator, taken
+         * as soon as the operand gives its result to the whole operator.
+         */
+        private void compileOperands(MultiOperatorFilter filter, byte jump, boolean empty) {
+            List<OSGiFilter> subFilters = filter.getSubFilters();
+            if (subFilters.isEmpty()) {
+                emit(CONST, empty ? 1 : 0);
+                return;
+            }
+            List<Integer> jumps = new ArrayList<>(subFilters.size() - 1);
+            for (int i = 0; i < subFilters.size(); i++) {
+                compile(subFilters.get(i));
+                if (i < subFilters.size() - 1) {
+                    jumps.add(ops.size());
+                    emit(jump, -1);
+                }
+            }
+            for (int jumpIndex : jumps) {
+                args.set(jumpIndex, ops.size());
+            }
+        }
+
+        private void compileCompare(CompareFilter filter) {
+            byte operator;
+            switch (filter.getOperator()) {
+                case PRESENT:
+                    operator = PRESENT;
+                    break;
+                case EQUALS:
+                    if (filter.getRightValue().contains("*")) {
+                        // substrings are not supported by CompareFilter either
+                        emit(CONST, 0);
+                        return;
+                    }
+                    operator = EQUALS;
+                    break;
+                case LOWER_THAN:
+                    operator = LOWER_THAN;
+                    break;
+                case LOWER_OR_EQUAL:
+                    operator = LOWER_OR_EQUAL;
+                    break;
+                case GREATER_THAN:
+                    operator = GREATER_THAN;
+                    break;
+                case GREATER_OR_EQUAL:
+                    operator = GREATER_OR_EQUAL;
+                    break;
+                case APPROX:
+                    // not supported by CompareFilter either
+                    emit(CONST, 0);
+                    return;
+                default:
+                    throw new IllegalArgumentException("unsupported operator "
+                            + filter.getOperator());
+            }
+            emit(COMPARE, keys.size());
+            keys.add(filter.getLeftValue());
+            operators.add(operator);
+            values.add(filter.getRightValue());
+        }
+
+        private void emit(byte op, int arg) {
+            ops.add(op);
+            args.add(arg);
+        }
+    }
+}
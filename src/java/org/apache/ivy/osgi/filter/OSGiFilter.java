@@ -32,4 +32,11 @@ public abstract class OSGiFilter {
 
     public abstract boolean eval(Map<String, String> properties);
 
+    /**
+     * @return this filter compiled, to be evaluated many times
+     */
+    public CompiledOSGiFilter compile() {
+        return CompiledOSGiFilter.compile(this);
+    }
+
 }
@@ -31,8 +31,9 @@ import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.osgi.obr.xml.OBRXMLParser;
 import org.apache.ivy.osgi.repo.AbstractOSGiResolver;
-import org.apache.ivy.plugins.repository.Resource;
-import org.apache.ivy.plugins.repository.url.URLResource;
+import org.apache.ivy.osgi.repo.BundleRepoDescriptor;
+import org.apache.ivy.osgi.repo.EditableRepoDescriptor;
+import org.apache.ivy.osgi.repo.RepoDescriptorSnapshot;
 import org.xml.sax.SAXException;
 
 public class OBRResolver extends AbstractOSGiResolver {
@@ -69,7 +70,16 @@ public class OBRResolver extends AbstractOSGiResolver {
         }
         if (repoXmlFile != null) {
             File f = new File(repoXmlFile);
-            loadRepoFromFile(f.getParentFile().toURI(), f, repoXmlFile);
+            RepoDescriptorSnapshot snapshot = new RepoDescriptorSnapshot("obr "
+                    + f.getAbsolutePath(), getRepositoryCacheManager(), getRepository(),
+                    new CacheResourceOptions(), getTimeoutConstraint());
+            snapshot.addSource(f);
+            EditableRepoDescriptor repo = snapshot.load();
+            if (repo == null) {
+                repo = loadRepoFromFile(f.getParentFile().toURI(), f, repoXmlFile);
+                snapshot.save(repo);
+            }
+            setRepoDescriptor(repo);
         } else if (repoXmlURL != null) {
             final URL url;
             try {
@@ -79,13 +89,14 @@ public class OBRResolver extends AbstractOSGiResolver {
                         + " couldn't be configured: repoXmlURL '" + repoXmlURL + "' is not an URL");
             }
 
-            ArtifactDownloadReport report;
+            RepoDescriptorSnapshot snapshot;
+            EditableRepoDescriptor repo;
+            ArtifactDownloadReport report = null;
             EventManager eventManager = getEventManager();
             try {
                 if (eventManager != null) {
                     getRepository().addTransferListener(eventManager);
                 }
-                final Resource obrResource = new URLResource(url, this.getTimeoutConstraint());
                 CacheResourceOptions options = new CacheResourceOptions();
                 if (metadataTtl != null) {
                     options.setTtl(metadataTtl);
@@ -93,21 +104,30 @@ public class OBRResolver extends AbstractOSGiResolver {
                 if (forceMetadataUpdate != null) {
                     options.setForce(forceMetadataUpdate);
                 }
-                report = getRepositoryCacheManager().downloadRepositoryResource(obrResource, "obr",
-                    "obr", "xml", options, getRepository());
+                snapshot = new RepoDescriptorSnapshot("obr " + repoXmlURL,
+                        getRepositoryCacheManager(), getRepository(), options,
+                        getTimeoutConstraint());
+                repo = snapshot.load();
+                if (repo == null) {
+                    report = snapshot.download(url, "obr", "obr", "xml");
+                }
             } finally {
                 if (eventManager != null) {
                     getRepository().removeTransferListener(eventManager);
                 }
             }
 
-            URI baseURI;
-            try {
-                baseURI = new URI(repoXmlURL);
-            } catch (URISyntaxException e) {
-                throw new RuntimeException("illegal uri");
+            if (repo == null) {
+                URI baseURI;
+                try {
+                    baseURI = new URI(repoXmlURL);
+                } catch (URISyntaxException e) {
+                    throw new RuntimeException("illegal uri");
+                }
+                repo = loadRepoFromFile(baseURI, report.getLocalFile(), repoXmlURL);
+                snapshot.save(repo);
             }
-            loadRepoFromFile(baseURI, report.getLocalFile(), repoXmlURL);
+            setRepoDescriptor(repo);
 
         } else {
             throw new RuntimeException("The OBR repository resolver " + getName()
@@ -115,7 +135,8 @@ public class OBRResolver extends AbstractOSGiResolver {
         }
     }
 
-    private void loadRepoFromFile(URI baseUri, File repoFile, String sourceLocation) {
+    private BundleRepoDescriptor loadRepoFromFile(URI baseUri, File repoFile,
+            String sourceLocation) {
         FileInputStream in;
         try {
             in = new FileInputStream(repoFile);
@@ -123,8 +144,9 @@ public class OBRResolver extends AbstractOSGiResolver {
             throw new RuntimeException("The OBR repository resolver " + getName()
                     + " couldn't be configured: the file " + sourceLocation + " was not found");
         }
+        BundleRepoDescriptor repo;
         try {
-            setRepoDescriptor(OBRXMLParser.parse(baseUri, in));
+            repo = OBRXMLParser.parse(baseUri, in);
         } catch (IOException e) {
             throw new RuntimeException("The OBR repository resolver " + getName()
                     + " couldn't be configured: the file " + sourceLocation
@@ -139,5 +161,6 @@ public class OBRResolver extends AbstractOSGiResolver {
         } catch (IOException e) {
             // don't care
         }
+        return repo;
     }
 }
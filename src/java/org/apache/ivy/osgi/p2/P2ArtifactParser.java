@@ -24,12 +24,15 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.apache.ivy.osgi.filter.CompiledOSGiFilter;
 import org.apache.ivy.osgi.filter.OSGiFilter;
 import org.apache.ivy.osgi.filter.OSGiFilterParser;
 import org.apache.ivy.osgi.p2.PropertiesParser.PropertiesHandler;
@@ -189,12 +192,25 @@ public class P2ArtifactParser implements XMLInputParser {
                     }
                 }
 
+                private List<CompiledOSGiFilter> filters;
+
+                private List<String> patterns;
+
                 private String getPattern(P2Artifact p2Artifact, Map<String, String> properties) {
+                    if (filters == null) {
+                        // the mappings are all read before the first artifact
+                        filters = new ArrayList<>(artifactPatterns.size());
+                        patterns = new ArrayList<>(artifactPatterns.size());
+                        for (Map.Entry<OSGiFilter, String> pattern : artifactPatterns.entrySet()) {
+                            filters.add(pattern.getKey().compile());
+                            patterns.add(pattern.getValue());
+                        }
+                    }
                     Map<String, String> props = new HashMap<>(properties);
                     props.put("classifier", p2Artifact.getClassifier());
-                    for (Map.Entry<OSGiFilter, String> pattern : artifactPatterns.entrySet()) {
-                        if (pattern.getKey().eval(props)) {
-                            return pattern.getValue();
+                    for (int i = 0; i < filters.size(); i++) {
+                        if (filters.get(i).eval(props)) {
+                            return patterns.get(i);
                         }
                     }
                     return null;
@@ -20,6 +20,7 @@ package org.apache.ivy.osgi.repo;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -47,6 +48,7 @@ import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.osgi.core.BundleInfo;
 import org.apache.ivy.osgi.core.BundleInfoAdapter;
 import org.apache.ivy.osgi.util.Version;
+import org.apache.ivy.osgi.util.VersionRange;
 import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.plugins.repository.url.URLRepository;
 import org.apache.ivy.plugins.repository.url.URLResource;
@@ -140,8 +142,8 @@ public abstract class AbstractOSGiResolver extends BasicResolver {
             throw new RuntimeException("Unsupported OSGi module Id: " + mrid.getModuleId());
         }
         String id = mrid.getName();
-        Collection<ModuleDescriptor> mds = ModuleDescriptorWrapper.unwrap(getRepoDescriptor()
-                .findModules(osgiType, id));
+        Collection<ModuleDescriptor> mds = ModuleDescriptorWrapper.unwrap(findModules(osgiType,
+            id, mrid.getRevision()));
         if (mds == null || mds.isEmpty()) {
             Message.verbose("\t " + id + " not found.");
             return null;
@@ -162,6 +164,29 @@ public abstract class AbstractOSGiResolver extends BasicResolver {
         return found;
     }
 
+    /**
+     * Finds the modules providing a capability, only among the ones in the range of versions of
+     * the revision if it is an OSGi version range. The versions of the returned modules are still
+     * to be matched against the revision.
+     */
+    private Collection<ModuleDescriptorWrapper> findModules(String osgiType, String id,
+            String revision) {
+        if (revision != null && revision.length() > 1
+                && (revision.charAt(0) == '[' || revision.charAt(0) == '(')) {
+            VersionRange range;
+            try {
+                range = new VersionRange(revision);
+            } catch (ParseException | RuntimeException e) {
+                // an Ivy range, or not a range at all
+                range = null;
+            }
+            if (range != null) {
+                return getRepoDescriptor().findModules(osgiType, id, range);
+            }
+        }
+        return getRepoDescriptor().findModules(osgiType, id);
+    }
+
     public ResolvedResource[] findBundle(DependencyDescriptor dd, ResolveData data,
             Collection<ModuleDescriptor> mds) {
         ResolvedResource[] ret = new ResolvedResource[mds.size()];
@@ -182,11 +207,14 @@ public abstract class AbstractOSGiResolver extends BasicResolver {
         List<ResolvedResource> ret = new ArrayList<>(mds.size());
         for (ModuleDescriptor md : mds) {
             IvyNode node = data.getNode(md.getModuleRevisionId());
-            if (node != null && node.getDescriptor() != null) {
+            MDResolvedResource rres = buildResolvedCapabilityMd(dd, md);
+            if (node != null && node.getDescriptor() != null
+                    && getSettings().getVersionMatcher().accept(dd.getDependencyRevisionId(),
+                        rres.getResolvedModuleRevision().getId())) {
                 // already resolved import, no need to go further
                 return new ResolvedResource[] {buildResolvedCapabilityMd(dd, node.getDescriptor())};
             }
-            ret.add(buildResolvedCapabilityMd(dd, md));
+            ret.add(rres);
         }
         return ret.toArray(new ResolvedResource[mds.size()]);
     }
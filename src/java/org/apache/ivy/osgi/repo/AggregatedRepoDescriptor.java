@@ -17,12 +17,15 @@
  */
 package org.apache.ivy.osgi.repo;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
+import org.apache.ivy.osgi.util.VersionRange;
+
 public class AggregatedRepoDescriptor extends RepoDescriptor {
 
     private List<RepoDescriptor> repos;
@@ -97,6 +100,20 @@ public class AggregatedRepoDescriptor extends RepoDescriptor {
         return ret;
     }
 
+    @Override
+    public Collection<ModuleDescriptorWrapper> findModules(String requirement, String value,
+            VersionRange range) {
+        Set<ModuleDescriptorWrapper> ret = new HashSet<>();
+        for (RepoDescriptor repo : repos) {
+            Collection<ModuleDescriptorWrapper> modules = repo.findModules(requirement, value,
+                range);
+            if (modules != null) {
+                ret.addAll(modules);
+            }
+        }
+        return ret;
+    }
+
     @Override
     public Set<String> getCapabilityValues(String capabilityName) {
         Set<String> ret = new HashSet<>();
@@ -18,23 +18,31 @@
 package org.apache.ivy.osgi.repo;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.apache.ivy.osgi.core.BundleCapability;
 import org.apache.ivy.osgi.core.BundleInfo;
 import org.apache.ivy.osgi.core.ExecutionEnvironmentProfileProvider;
 import org.apache.ivy.osgi.util.Version;
+import org.apache.ivy.osgi.util.VersionRange;
 import org.apache.ivy.util.Message;
 
 public class EditableRepoDescriptor extends RepoDescriptor {
 
     private final Map<String, Map<String, Set<ModuleDescriptorWrapper>>> moduleByCapabilities = new HashMap<>();
 
+    private final Map<String, Map<String, VersionIndex>> versionIndexes = new HashMap<>();
+
     private final Set<ModuleDescriptorWrapper> modules = new HashSet<>();
 
     private final ExecutionEnvironmentProfileProvider profileProvider;
@@ -76,8 +84,23 @@ public class EditableRepoDescriptor extends RepoDescriptor {
         return modules.get(value);
     }
 
+    @Override
+    public Collection<ModuleDescriptorWrapper> findModules(String requirement, String value,
+            VersionRange range) {
+        VersionIndex index = getVersionIndex(requirement, value);
+        if (index == null) {
+            return null;
+        }
+        return index.find(range);
+    }
+
     public ModuleDescriptorWrapper findModule(String symbolicName, Version version) {
-        Set<ModuleDescriptorWrapper> modules = findModules(BundleInfo.BUNDLE_TYPE, symbolicName);
+        VersionIndex index = getVersionIndex(BundleInfo.BUNDLE_TYPE, symbolicName);
+        if (index == null || version == null) {
+            return null;
+        }
+        // every bundle is indexed with its own version as a bundle capability
+        List<ModuleDescriptorWrapper> modules = index.byVersion.get(version);
         if (modules == null) {
             return null;
         }
@@ -98,7 +121,7 @@ public class EditableRepoDescriptor extends RepoDescriptor {
         return modules.keySet();
     }
 
-    private void add(String type, String value, ModuleDescriptorWrapper md) {
+    private void add(String type, String value, Version version, ModuleDescriptorWrapper md) {
         modules.add(md);
         Map<String, Set<ModuleDescriptorWrapper>> map = moduleByCapabilities.get(type);
         if (map == null) {
@@ -110,7 +133,19 @@ public class EditableRepoDescriptor extends RepoDescriptor {
             bundleReferences = new HashSet<>();
             map.put(value, bundleReferences);
         }
-        if (!bundleReferences.add(md)) {
+        if (bundleReferences.add(md)) {
+            Map<String, VersionIndex> indexes = versionIndexes.get(type);
+            if (indexes == null) {
+                indexes = new HashMap<>();
+                versionIndexes.put(type, indexes);
+            }
+            VersionIndex index = indexes.get(value);
+            if (index == null) {
+                index = new VersionIndex(bundleReferences);
+                indexes.put(value, index);
+            }
+            index.add(version, md);
+        } else {
             if (logLevel <= Message.MSG_DEBUG) {
                 Message.debug("Duplicate module in the repo " + baseUri + " for " + type + " "
                         + value + ": " + md.getBundleInfo().getSymbolicName() + "#"
@@ -129,12 +164,17 @@ public class EditableRepoDescriptor extends RepoDescriptor {
         }
         ModuleDescriptorWrapper md = new ModuleDescriptorWrapper(bundleInfo, baseUri,
                 profileProvider);
-        add(BundleInfo.BUNDLE_TYPE, bundleInfo.getSymbolicName(), md);
+        add(BundleInfo.BUNDLE_TYPE, bundleInfo.getSymbolicName(), bundleInfo.getVersion(), md);
         for (BundleCapability capability : bundleInfo.getCapabilities()) {
-            add(capability.getType(), capability.getName(), md);
+            add(capability.getType(), capability.getName(), capability.getVersion(), md);
         }
     }
 
+    private VersionIndex getVersionIndex(String type, String value) {
+        Map<String, VersionIndex> indexes = versionIndexes.get(type);
+        return indexes == null ? null : indexes.get(value);
+    }
+
     @Override
     public String toString() {
         return modules.toString();
@@ -160,4 +200,70 @@ public class EditableRepoDescriptor extends RepoDescriptor {
         return modules == null ? other.modules == null : modules.equals(other.modules);
     }
 
+    /**
+     * The modules providing a capability, sorted by the version they provide it with.
+     */
+    private static final class VersionIndex {
+        private final NavigableMap<Version, List<ModuleDescriptorWrapper>> byVersion =
+                new TreeMap<>();
+
+        /**
+         * The modules with no version, or an ill-formed one, which may match any range.
+         */
+        private final List<ModuleDescriptorWrapper> unversioned = new ArrayList<>();
+
+        private final Set<ModuleDescriptorWrapper> all;
+
+        VersionIndex(Set<ModuleDescriptorWrapper> all) {
+            this.all = all;
+        }
+
+        void add(Version version, ModuleDescriptorWrapper md) {
+            if (version == null) {
+                unversioned.add(md);
+                return;
+            }
+            List<ModuleDescriptorWrapper> mds;
+            try {
+                mds = byVersion.get(version);
+                if (mds == null) {
+                    mds = new ArrayList<>(1);
+                    byVersion.put(version, mds);
+                }
+            } catch (RuntimeException e) {
+                // ill-formed version
+                unversioned.add(md);
+                return;
+            }
+            mds.add(md);
+        }
+
+        /**
+         * The returned modules are not copied into a new set, which would hash them all. They may
+         * include some outside of the range, when most of the versions are in it.
+         */
+        Collection<ModuleDescriptorWrapper> find(VersionRange range) {
+            Version low = range.getStartVersion().withoutQualifier();
+            NavigableMap<Version, List<ModuleDescriptorWrapper>> inRange;
+            if (range.getEndVersion() == null) {
+                inRange = byVersion.tailMap(low, true);
+            } else {
+                Version high = range.getEndVersion().withNudgedPatch();
+                if (low.compareTo(high) >= 0) {
+                    return unversioned;
+                }
+                inRange = byVersion.subMap(low, true, high, false);
+            }
+            if (inRange.size() * 2 > byVersion.size()) {
+                // copying most of the modules would cost more than letting the caller skip a few
+                return all;
+            }
+            List<ModuleDescriptorWrapper> mds = new ArrayList<>(unversioned);
+            for (List<ModuleDescriptorWrapper> versionMds : inRange.values()) {
+                mds.addAll(versionMds);
+            }
+            return mds;
+        }
+    }
+
 }
@@ -17,9 +17,12 @@
  */
 package org.apache.ivy.osgi.repo;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 
+import org.apache.ivy.osgi.util.VersionRange;
+
 public abstract class RepoDescriptor {
 
     public abstract Iterator<ModuleDescriptorWrapper> getModules();
@@ -28,6 +31,20 @@ public abstract class RepoDescriptor {
 
     public abstract Set<ModuleDescriptorWrapper> findModules(String requirement, String value);
 
+    /**
+     * Finds the modules which may provide a capability in a range of versions: at least all the
+     * ones providing it with a version between the bounds of the range, qualifiers and exclusions
+     * aside. The callers still have to check the versions of the returned modules, but they can
+     * skip the ones which are not returned.
+     * <p>
+     * This default implementation returns all the modules providing the capability.
+     * </p>
+     */
+    public Collection<ModuleDescriptorWrapper> findModules(String requirement, String value,
+            VersionRange range) {
+        return findModules(requirement, value);
+    }
+
     public abstract Set<String> getCapabilityValues(String capabilityName);
 
 }
@@ -0,0 +1,546 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.osgi.repo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ivy.core.cache.CacheResourceOptions;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
+import org.apache.ivy.core.cache.RepositoryCacheManager;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.DownloadStatus;
+import org.apache.ivy.core.settings.TimeoutConstraint;
+import org.apache.ivy.osgi.core.BundleArtifact;
+import org.apache.ivy.osgi.core.BundleCapability;
+import org.apache.ivy.osgi.core.BundleInfo;
+import org.apache.ivy.osgi.core.BundleRequirement;
+import org.apache.ivy.osgi.core.ExecutionEnvironmentProfileProvider;
+import org.apache.ivy.osgi.core.ExportPackage;
+import org.apache.ivy.osgi.util.Version;
+import org.apache.ivy.osgi.util.VersionRange;
+import org.apache.ivy.plugins.repository.Repository;
+import org.apache.ivy.plugins.repository.url.URLResource;
+import org.apache.ivy.util.HexEncoder;
+import org.apache.ivy.util.Message;
+
+/**
+ * A binary copy of the bundles of a {@link RepoDescriptor}, saved in the repository cache, which
+ * is read much faster than the repository metadata it has been built from can be parsed.
+ * <p>
+ * The snapshot records the metadata files it has been built from, as they are downloaded to the
+ * cache with {@link #download(URL, String, String, String)}. It is loaded only if downloading
+ * them again gives the very same files: when the cache finds them up to date.
+ * </p>
+ * <p>
+ * Snapshots are only kept by the caches which have a root directory, i.e.
+ * {@link DefaultRepositoryCacheManager}s.
+ * </p>
+ */
+public class RepoDescriptorSnapshot {
+
+    private static final int MAGIC = 0x4956594f; // IVYO
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int EXPORT_PACKAGE = 1;
+
+    private final RepositoryCacheManager cacheManager;
+
+    private final Repository repository;
+
+    private final CacheResourceOptions options;
+
+    private final TimeoutConstraint timeoutConstraint;
+
+    private final File file;
+
+    private final List<Source> sources = Collections.synchronizedList(new ArrayList<Source>());
+
+    /**
+     * @param key
+     *            the identifier of the repository in the cache, like its url prefixed by its kind
+     */
+    public RepoDescriptorSnapshot(String key, RepositoryCacheManager cacheManager,
+            Repository repository, CacheResourceOptions options,
+            TimeoutConstraint timeoutConstraint) {
+        this.cacheManager = cacheManager;
+        this.repository = repository;
+        this.options = options;
+        this.timeoutConstraint = timeoutConstraint;
+        this.file = getSnapshotFile(cacheManager, key);
+    }
+
+    private static File getSnapshotFile(RepositoryCacheManager cacheManager, String key) {
+        if (!(cacheManager instanceof DefaultRepositoryCacheManager)) {
+            return null;
+        }
+        File root = ((DefaultRepositoryCacheManager) cacheManager).getRepositoryCacheRoot();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA1").digest(
+                key.getBytes(StandardCharsets.UTF_8));
+            return new File(root, "_repository_metadata_/snapshots/" + HexEncoder.encode(hash)
+                    + ".bin");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Downloads a metadata file of the repository to the cache, recording it as a source of the
+     * snapshot, whether it exists or not. May be called by several threads at once.
+     */
+    public ArtifactDownloadReport download(URL url, String name, String type, String ext) {
+        Source source = new Source(url.toExternalForm(), name, type, ext);
+        ArtifactDownloadReport report = source.download(this);
+        source.setState(report);
+        sources.add(source);
+        return report;
+    }
+
+    /**
+     * Records a local metadata file of the repository as a source of the snapshot.
+     */
+    public void addSource(File metadataFile) {
+        Source source = new Source(metadataFile.getAbsolutePath(), null, null, null);
+        source.setState(metadataFile);
+        sources.add(source);
+    }
+
+    /**
+     * Loads the snapshot, if it exists and its sources have not changed.
+     *
+     * @return the loaded descriptor, or null if it has to be built from the repository metadata
+     */
+    public EditableRepoDescriptor load() {
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read it all
+            }
+            buffer.flip();
+        } catch (IOException e) {
+            Message.verbose("\tunreadable repository snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+        try {
+            return read(buffer);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException
+                | IndexOutOfBoundsException e) {
+            Message.verbose("\tcorrupted repository snapshot " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves the snapshot of a descriptor, built from the sources recorded so far.
+     */
+    public void save(EditableRepoDescriptor repo) {
+        if (file == null) {
+            return;
+        }
+        File tmp = new File(file.getPath() + ".part");
+        try {
+            byte[] bytes = write(repo);
+            file.getParentFile().mkdirs();
+            try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+                out.write(bytes);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+            Message.verbose("\tsaved repository snapshot " + file + " (" + bytes.length
+                    + " bytes)");
+        } catch (IOException e) {
+            Message.verbose("\timpossible to save repository snapshot " + file + ": "
+                    + e.getMessage());
+            tmp.delete();
+        }
+    }
+
+    private EditableRepoDescriptor read(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+            throw new IOException("not a repository snapshot");
+        }
+        int sourceCount = in.getInt();
+        for (int i = 0; i < sourceCount; i++) {
+            Source source = new Source(readString(in), readString(in), readString(in),
+                    readString(in));
+            long length = in.getLong();
+            long lastModified = in.getLong();
+            if (!source.isUnchanged(this, length, lastModified)) {
+                Message.verbose("\t" + source.location + " has changed: the repository snapshot "
+                        + file + " is out of date");
+                return null;
+            }
+        }
+        String[] strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(in);
+        }
+        URI baseUri = toURI(string(strings, in));
+        int bundleCount = in.getInt();
+        List<BundleInfo> bundles = new ArrayList<>(bundleCount);
+        for (int i = 0; i < bundleCount; i++) {
+            bundles.add(readBundle(strings, in));
+        }
+        EditableRepoDescriptor repo = new EditableRepoDescriptor(baseUri,
+                ExecutionEnvironmentProfileProvider.getInstance());
+        for (BundleInfo bundle : bundles) {
+            repo.addBundle(bundle);
+        }
+        Message.verbose("\tloaded " + bundleCount + " bundles from the repository snapshot "
+                + file);
+        return repo;
+    }
+
+    private static BundleInfo readBundle(String[] strings, ByteBuffer in) throws IOException {
+        BundleInfo bundle = new BundleInfo(string(strings, in), version(strings, in));
+        bundle.setId(string(strings, in));
+        bundle.setPresentationName(string(strings, in));
+        bundle.setDescription(string(strings, in));
+        bundle.setDocumentation(string(strings, in));
+        bundle.setLicense(string(strings, in));
+        int size = in.getInt();
+        bundle.setSize(size < 0 ? null : size);
+        byte flags = in.get();
+        bundle.setSource((flags & 1) != 0);
+        bundle.setHasInnerClasspath((flags & 2) != 0);
+        bundle.setSymbolicNameTarget(string(strings, in));
+        bundle.setVersionTarget(version(strings, in));
+        bundle.setClasspath(strings(strings, in));
+        List<String> executionEnvironments = strings(strings, in);
+        if (executionEnvironments != null) {
+            for (String executionEnvironment : executionEnvironments) {
+                bundle.addExecutionEnvironment(executionEnvironment);
+            }
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            String type = string(strings, in);
+            String name = string(strings, in);
+            String resolution = string(strings, in);
+            VersionRange range = null;
+            byte rangeFlags = in.get();
+            if (rangeFlags != 0) {
+                Version start = version(strings, in);
+                Version end = version(strings, in);
+                range = new VersionRange((rangeFlags & 2) != 0, start, (rangeFlags & 4) != 0,
+                        end);
+            }
+            bundle.addRequirement(new BundleRequirement(type, name, range, resolution));
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            byte kind = in.get();
+            String type = string(strings, in);
+            String name = string(strings, in);
+            Version version = version(strings, in);
+            if (kind == EXPORT_PACKAGE) {
+                ExportPackage exportPackage = new ExportPackage(name, version);
+                for (String use : strings(strings, in)) {
+                    exportPackage.addUse(use);
+                }
+                bundle.addCapability(exportPackage);
+            } else {
+                bundle.addCapability(new BundleCapability(type, name, version));
+            }
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            boolean source = in.get() != 0;
+            URI uri = toURI(string(strings, in));
+            bundle.addArtifact(new BundleArtifact(source, uri, string(strings, in)));
+        }
+        return bundle;
+    }
+
+    private byte[] write(EditableRepoDescriptor repo) throws IOException {
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream bundles = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bundles);
+        strings.write(repo.getBaseUri() == null ? null : repo.getBaseUri().toString(), out);
+        List<BundleInfo> bundleInfos = new ArrayList<>();
+        Iterator<ModuleDescriptorWrapper> it = repo.getModules();
+        while (it.hasNext()) {
+            bundleInfos.add(it.next().getBundleInfo());
+        }
+        out.writeInt(bundleInfos.size());
+        for (BundleInfo bundle : bundleInfos) {
+            writeBundle(bundle, strings, out);
+        }
+        out.flush();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(bundles.size() * 3 / 2);
+        out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        synchronized (sources) {
+            out.writeInt(sources.size());
+            for (Source source : sources) {
+                writeString(source.location, out);
+                writeString(source.name, out);
+                writeString(source.type, out);
+                writeString(source.ext, out);
+                out.writeLong(source.length);
+                out.writeLong(source.lastModified);
+            }
+        }
+        out.writeInt(strings.size());
+        for (String string : strings.values()) {
+            writeString(string, out);
+        }
+        bundles.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeBundle(BundleInfo bundle, StringTable strings, DataOutputStream out)
+            throws IOException {
+        strings.write(bundle.getSymbolicName(), out);
+        strings.write(bundle.getRawVersion(), out);
+        strings.write(bundle.getId(), out);
+        strings.write(bundle.getPresentationName(), out);
+        strings.write(bundle.getDescription(), out);
+        strings.write(bundle.getDocumentation(), out);
+        strings.write(bundle.getLicense(), out);
+        out.writeInt(bundle.getSize() == null ? -1 : bundle.getSize());
+        out.writeByte((bundle.isSource() ? 1 : 0) | (bundle.hasInnerClasspath() ? 2 : 0));
+        strings.write(bundle.getSymbolicNameTarget(), out);
+        strings.write(bundle.getVersionTarget(), out);
+        strings.write(bundle.getClasspath(), out);
+        strings.write(bundle.getExecutionEnvironments(), out);
+        out.writeInt(bundle.getRequirements().size());
+        for (BundleRequirement requirement : bundle.getRequirements()) {
+            strings.write(requirement.getType(), out);
+            strings.write(requirement.getName(), out);
+            strings.write(requirement.getResolution(), out);
+            VersionRange range = requirement.getVersion();
+            if (range == null) {
+                out.writeByte(0);
+            } else {
+                out.writeByte(1 | (range.isStartExclusive() ? 2 : 0)
+                        | (range.isEndExclusive() ? 4 : 0));
+                strings.write(range.getStartVersion(), out);
+                strings.write(range.getEndVersion(), out);
+            }
+        }
+        out.writeInt(bundle.getCapabilities().size());
+        for (BundleCapability capability : bundle.getCapabilities()) {
+            boolean exportPackage = capability instanceof ExportPackage;
+            out.writeByte(exportPackage ? EXPORT_PACKAGE : 0);
+            strings.write(capability.getType(), out);
+            strings.write(capability.getName(), out);
+            strings.write(capability.getRawVersion(), out);
+            if (exportPackage) {
+                strings.write(((ExportPackage) capability).getUses(), out);
+            }
+        }
+        out.writeInt(bundle.getArtifacts().size());
+        for (BundleArtifact artifact : bundle.getArtifacts()) {
+            out.writeByte(artifact.isSource() ? 1 : 0);
+            strings.write(artifact.getUri() == null ? null : artifact.getUri().toString(), out);
+            strings.write(artifact.getFormat(), out);
+        }
+    }
+
+    private static void writeString(String s, DataOutputStream out) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String s = new String(in.array(), in.arrayOffset() + in.position(), length,
+                StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+
+    private static String string(String[] strings, ByteBuffer in) {
+        int index = in.getInt();
+        return index < 0 ? null : strings[index];
+    }
+
+    private static Version version(String[] strings, ByteBuffer in) {
+        String version = string(strings, in);
+        return version == null ? null : new Version(version);
+    }
+
+    private static List<String> strings(String[] strings, ByteBuffer in) {
+        int size = in.getInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(string(strings, in));
+        }
+        return list;
+    }
+
+    private static URI toURI(String uri) throws IOException {
+        try {
+            return uri == null ? null : new URI(uri);
+        } catch (URISyntaxException e) {
+            throw new IOException("invalid uri " + uri, e);
+        }
+    }
+
+    /**
+     * The strings of a snapshot, each written once and then referenced by its index.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        void write(String s, DataOutputStream out) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer index = indexes.get(s);
+            if (index == null) {
+                index = values.size();
+                indexes.put(s, index);
+                values.add(s);
+            }
+            out.writeInt(index);
+        }
+
+        void write(Version version, DataOutputStream out) throws IOException {
+            write(version == null ? null : version.toString(), out);
+        }
+
+        void write(Collection<String> collection, DataOutputStream out) throws IOException {
+            if (collection == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(collection.size());
+            for (String s : collection) {
+                write(s, out);
+            }
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        List<String> values() {
+            return values;
+        }
+    }
+
+    /**
+     * A metadata file the snapshot has been built from, with the length and last modification
+     * date of its copy in the cache, or -1 if it does not exist.
+     */
+    private static final class Source {
+        private final String location;
+
+        /**
+         * The name, type and extension of the file in the cache, null for local files.
+         */
+        private final String name;
+
+        private final String type;
+
+        private final String ext;
+
+        private long length = -1;
+
+        private long lastModified = -1;
+
+        Source(String location, String name, String type, String ext) {
+            this.location = location;
+            this.name = name;
+            this.type = type;
+            this.ext = ext;
+        }
+
+        ArtifactDownloadReport download(RepoDescriptorSnapshot snapshot) {
+            URLResource resource;
+            try {
+                resource = new URLResource(new URL(location), snapshot.timeoutConstraint);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("invalid snapshot source " + location, e);
+            }
+            return snapshot.cacheManager.downloadRepositoryResource(resource, name, type, ext,
+                snapshot.options, snapshot.repository);
+        }
+
+        void setState(ArtifactDownloadReport report) {
+            if (report.getDownloadStatus() == DownloadStatus.FAILED) {
+                length = -1;
+                lastModified = -1;
+            } else {
+                setState(report.getLocalFile());
+            }
+        }
+
+        void setState(File file) {
+            length = file.exists() ? file.length() : -1;
+            lastModified = file.exists() ? file.lastModified() : -1;
+        }
+
+        boolean isUnchanged(RepoDescriptorSnapshot snapshot, long length, long lastModified) {
+            if (name == null) {
+                setState(new File(location));
+            } else {
+                setState(download(snapshot));
+            }
+            return this.length == length && this.lastModified == lastModified;
+        }
+    }
+}
@@ -24,29 +24,37 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.apache.ivy.core.WorkerTask;
 import org.apache.ivy.core.cache.CacheResourceOptions;
 import org.apache.ivy.core.cache.RepositoryCacheManager;
 import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.settings.TimeoutConstraint;
+import org.apache.ivy.osgi.core.BundleInfo;
 import org.apache.ivy.osgi.core.ExecutionEnvironmentProfileProvider;
 import org.apache.ivy.osgi.p2.P2ArtifactParser;
 import org.apache.ivy.osgi.p2.P2CompositeParser;
 import org.apache.ivy.osgi.p2.P2Descriptor;
 import org.apache.ivy.osgi.p2.P2MetadataParser;
 import org.apache.ivy.osgi.p2.XMLInputParser;
+import org.apache.ivy.osgi.repo.EditableRepoDescriptor;
 import org.apache.ivy.osgi.repo.RepoDescriptor;
+import org.apache.ivy.osgi.repo.RepoDescriptorSnapshot;
 import org.apache.ivy.osgi.updatesite.xml.EclipseFeature;
 import org.apache.ivy.osgi.updatesite.xml.EclipseUpdateSiteParser;
 import org.apache.ivy.osgi.updatesite.xml.FeatureParser;
 import org.apache.ivy.osgi.updatesite.xml.UpdateSite;
 import org.apache.ivy.osgi.updatesite.xml.UpdateSiteDigestParser;
+import org.apache.ivy.osgi.util.Version;
 import org.apache.ivy.plugins.repository.url.URLRepository;
-import org.apache.ivy.plugins.repository.url.URLResource;
 import org.apache.ivy.util.Message;
 import org.xml.sax.SAXException;
 
@@ -62,6 +70,12 @@ public class UpdateSiteLoader {
 
     private int logLevel = Message.MSG_INFO;
 
+    private int compositeThreads = 1;
+
+    private RepoDescriptorSnapshot snapshot;
+
+    private ExecutorService executor;
+
     public UpdateSiteLoader(final RepositoryCacheManager repositoryCacheManager,
                             final EventManager eventManager, final CacheResourceOptions options,
                             final TimeoutConstraint timeoutConstraint) {
@@ -77,6 +91,21 @@ public class UpdateSiteLoader {
         this.logLevel = logLevel;
     }
 
+    /**
+     * Sets the number of threads loading the children of p2 composite repositories concurrently.
+     * Whatever the number of threads, the children are merged in the order of their declaration.
+     *
+     * @param compositeThreads
+     *            the number of threads, 1 to load the children one after the other
+     */
+    public void setCompositeThreads(int compositeThreads) {
+        if (compositeThreads < 1) {
+            throw new IllegalArgumentException("compositeThreads must be at least 1, was "
+                    + compositeThreads);
+        }
+        this.compositeThreads = compositeThreads;
+    }
+
     public RepoDescriptor load(URI repoUri) throws IOException, ParseException, SAXException {
         if (!repoUri.toString().endsWith("/")) {
             try {
@@ -86,8 +115,35 @@ public class UpdateSiteLoader {
             }
         }
         Message.info("Loading the update site " + repoUri);
+        snapshot = new RepoDescriptorSnapshot("updatesite " + repoUri, repositoryCacheManager,
+                urlRepository, options, timeoutConstraint);
+        EditableRepoDescriptor repo = snapshot.load();
+        if (repo != null) {
+            repo.setLogLevel(logLevel);
+            return repo;
+        }
+        if (compositeThreads > 1) {
+            executor = Executors.newFixedThreadPool(compositeThreads,
+                WorkerTask.newThreadFactory("ivy-p2-composite-"));
+        }
+        try {
+            repo = loadRepo(repoUri);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+        if (repo != null) {
+            snapshot.save(repo);
+        }
+        return repo;
+    }
+
+    private EditableRepoDescriptor loadRepo(URI repoUri) throws IOException, ParseException,
+            SAXException {
         // first look for a p2 repository
-        RepoDescriptor repo = loadP2(repoUri);
+        EditableRepoDescriptor repo = loadP2(repoUri);
         if (repo != null) {
             return repo;
         }
@@ -150,13 +206,7 @@ public class UpdateSiteLoader {
         P2CompositeParser p2CompositeParser = new P2CompositeParser();
         boolean exist = readJarOrXml(repoUri, name, p2CompositeParser);
         if (exist) {
-            for (String childLocation : p2CompositeParser.getChildLocations()) {
-                if (!childLocation.endsWith("/")) {
-                    childLocation += "/";
-                }
-                URI childUri = repoUri.resolve(childLocation);
-                readContent(childUri, p2Descriptor);
-            }
+            readChildren(repoUri, p2CompositeParser, p2Descriptor, true);
         }
         return exist;
     }
@@ -166,34 +216,69 @@ public class UpdateSiteLoader {
         P2CompositeParser p2CompositeParser = new P2CompositeParser();
         boolean exist = readJarOrXml(repoUri, name, p2CompositeParser);
         if (exist) {
-            for (String childLocation : p2CompositeParser.getChildLocations()) {
-                if (!childLocation.endsWith("/")) {
-                    childLocation += "/";
-                }
-                URI childUri = repoUri.resolve(childLocation);
-                readArtifacts(childUri, p2Descriptor);
-            }
+            readChildren(repoUri, p2CompositeParser, p2Descriptor, false);
         }
         return exist;
     }
 
+    private void readChildren(URI repoUri, P2CompositeParser p2CompositeParser,
+            P2Descriptor p2Descriptor, boolean content) throws IOException, ParseException,
+            SAXException {
+        List<URI> childUris = new ArrayList<>();
+        for (String childLocation : p2CompositeParser.getChildLocations()) {
+            if (!childLocation.endsWith("/")) {
+                childLocation += "/";
+            }
+            childUris.add(repoUri.resolve(childLocation));
+        }
+        if (executor == null || childUris.size() < 2) {
+            for (URI childUri : childUris) {
+                readChild(childUri, p2Descriptor, content);
+            }
+            return;
+        }
+        Message.verbose("\tloading the " + childUris.size() + " children of " + repoUri + " using "
+                + compositeThreads + " threads");
+        // each child is read into its own descriptor, and merged in the order of declaration
+        List<ChildLoading> loadings = new ArrayList<>(childUris.size());
+        for (URI childUri : childUris) {
+            ChildLoading loading = new ChildLoading(childUri, content);
+            loading.submit(executor);
+            loadings.add(loading);
+        }
+        for (ChildLoading loading : loadings) {
+            ChildP2Descriptor child;
+            try {
+                child = loading.await();
+            } catch (IOException | ParseException | SAXException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            child.mergeInto(p2Descriptor);
+        }
+    }
+
+    private void readChild(URI childUri, P2Descriptor p2Descriptor, boolean content)
+            throws IOException, ParseException, SAXException {
+        if (content) {
+            readContent(childUri, p2Descriptor);
+        } else {
+            readArtifacts(childUri, p2Descriptor);
+        }
+    }
+
     private boolean readJarOrXml(URI repoUri, String baseName, XMLInputParser reader)
             throws IOException, ParseException, SAXException {
         InputStream readIn = null; // the input stream from which the xml should be read
 
         URL contentUrl = repoUri.resolve(baseName + ".jar").toURL();
-        URLResource res = new URLResource(contentUrl, this.timeoutConstraint);
-
-        ArtifactDownloadReport report = repositoryCacheManager.downloadRepositoryResource(res,
-            baseName, baseName, "jar", options, urlRepository);
+        ArtifactDownloadReport report = snapshot.download(contentUrl, baseName, baseName, "jar");
 
         if (report.getDownloadStatus() == DownloadStatus.FAILED) {
             // no jar file, try the xml one
             contentUrl = repoUri.resolve(baseName + ".xml").toURL();
-            res = new URLResource(contentUrl, this.timeoutConstraint);
-
-            report = repositoryCacheManager.downloadRepositoryResource(res, baseName, baseName,
-                "xml", options, urlRepository);
+            report = snapshot.download(contentUrl, baseName, baseName, "xml");
 
             if (report.getDownloadStatus() == DownloadStatus.FAILED) {
                 // no xml either
@@ -231,9 +316,7 @@ public class UpdateSiteLoader {
         URI siteUri = normalizeSiteUri(repoUri, null);
         URL u = siteUri.resolve("site.xml").toURL();
 
-        final URLResource res = new URLResource(u, this.timeoutConstraint);
-        ArtifactDownloadReport report = repositoryCacheManager.downloadRepositoryResource(res,
-            "site", "updatesite", "xml", options, urlRepository);
+        ArtifactDownloadReport report = snapshot.download(u, "site", "updatesite", "xml");
         if (report.getDownloadStatus() == DownloadStatus.FAILED) {
             return null;
         }
@@ -277,9 +360,7 @@ public class UpdateSiteLoader {
         URL digest = digestBaseUri.resolve("digest.zip").toURL();
         Message.verbose("\tReading " + digest);
 
-        final URLResource res = new URLResource(digest, this.timeoutConstraint);
-        ArtifactDownloadReport report = repositoryCacheManager.downloadRepositoryResource(res,
-            "digest", "digest", "zip", options, urlRepository);
+        ArtifactDownloadReport report = snapshot.download(digest, "digest", "digest", "zip");
         if (report.getDownloadStatus() == DownloadStatus.FAILED) {
             return null;
         }
@@ -299,9 +380,8 @@ public class UpdateSiteLoader {
         for (EclipseFeature feature : site.getFeatures()) {
             URL url = site.getUri().resolve(feature.getUrl()).toURL();
 
-            final URLResource res = new URLResource(url, this.timeoutConstraint);
-            ArtifactDownloadReport report = repositoryCacheManager.downloadRepositoryResource(res,
-                feature.getId(), "feature", "jar", options, urlRepository);
+            ArtifactDownloadReport report = snapshot.download(url, feature.getId(), "feature",
+                "jar");
             if (report.getDownloadStatus() == DownloadStatus.FAILED) {
                 return null;
             }
@@ -319,6 +399,85 @@ public class UpdateSiteLoader {
         return repoDescriptor;
     }
 
+    /**
+     * The loading of a child of a composite repository in a composite thread. If it has not been
+     * started yet when its result is needed, it is run by the waiting thread, so that the children
+     * of nested composites never wait for a free thread.
+     */
+    private final class ChildLoading extends WorkerTask<ChildP2Descriptor, Exception> {
+        private final URI childUri;
+
+        private final boolean content;
+
+        private ChildLoading(URI childUri, boolean content) {
+            this.childUri = childUri;
+            this.content = content;
+        }
+
+        protected ChildP2Descriptor doCall() throws IOException, ParseException, SAXException {
+            ChildP2Descriptor child = new ChildP2Descriptor(childUri);
+            child.setLogLevel(logLevel);
+            readChild(childUri, child, content);
+            return child;
+        }
+    }
+
+    /**
+     * Records what is read from a child of a composite repository, to be merged in the composite
+     * descriptor once the previous children have been.
+     */
+    private static final class ChildP2Descriptor extends P2Descriptor {
+        private final List<BundleInfo> bundles = new ArrayList<>();
+
+        private final List<ArtifactUrl> artifactUrls = new ArrayList<>();
+
+        private ChildP2Descriptor(URI repoUri) {
+            super(repoUri, ExecutionEnvironmentProfileProvider.getInstance());
+        }
+
+        @Override
+        public void addBundle(BundleInfo bundleInfo) {
+            bundles.add(bundleInfo);
+        }
+
+        @Override
+        public void addArtifactUrl(String classifier, String id, Version version, URI uri,
+                String format) {
+            artifactUrls.add(new ArtifactUrl(classifier, id, version, uri, format));
+        }
+
+        private void mergeInto(P2Descriptor p2Descriptor) {
+            for (BundleInfo bundleInfo : bundles) {
+                p2Descriptor.addBundle(bundleInfo);
+            }
+            for (ArtifactUrl artifactUrl : artifactUrls) {
+                p2Descriptor.addArtifactUrl(artifactUrl.classifier, artifactUrl.id,
+                    artifactUrl.version, artifactUrl.uri, artifactUrl.format);
+            }
+        }
+    }
+
+    private static final class ArtifactUrl {
+        private final String classifier;
+
+        private final String id;
+
+        private final Version version;
+
+        private final URI uri;
+
+        private final String format;
+
+        private ArtifactUrl(String classifier, String id, Version version, URI uri,
+                String format) {
+            this.classifier = classifier;
+            this.id = id;
+            this.version = version;
+            this.uri = uri;
+            this.format = format;
+        }
+    }
+
     private ZipInputStream findEntry(InputStream in, String entryName) throws IOException {
         ZipInputStream zipped = new ZipInputStream(in);
         ZipEntry zipEntry = zipped.getNextEntry();
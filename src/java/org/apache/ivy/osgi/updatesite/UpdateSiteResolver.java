@@ -45,6 +45,8 @@ public class UpdateSiteResolver extends AbstractOSGiResolver {
 
     private String logLevel;
 
+    private int compositeThreads = 1;
+
     public void setUrl(String url) {
         this.url = url;
     }
@@ -61,6 +63,14 @@ public class UpdateSiteResolver extends AbstractOSGiResolver {
         this.logLevel = logLevel;
     }
 
+    public void setCompositeThreads(int compositeThreads) {
+        if (compositeThreads < 1) {
+            throw new IllegalArgumentException("compositeThreads must be at least 1, was "
+                    + compositeThreads);
+        }
+        this.compositeThreads = compositeThreads;
+    }
+
     protected void init() {
         if (url == null) {
             throw new RuntimeException("Missing url");
@@ -118,6 +128,7 @@ public class UpdateSiteResolver extends AbstractOSGiResolver {
         final UpdateSiteLoader loader = new UpdateSiteLoader(getRepositoryCacheManager(),
                 getEventManager(), options, this.getTimeoutConstraint());
         loader.setLogLevel(log);
+        loader.setCompositeThreads(compositeThreads);
         RepoDescriptor repoDescriptor;
         try {
             repoDescriptor = loader.load(new URI(url));
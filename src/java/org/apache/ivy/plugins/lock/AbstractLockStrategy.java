@@ -44,4 +44,12 @@ public abstract class AbstractLockStrategy implements LockStrategy {
     public boolean isDebugLocking() {
         return debugLocking;
     }
+
+    /**
+     * @return the distribution of the time waited for the locks of this strategy, or
+     *         <code>null</code> if this strategy doesn't record it
+     */
+    public LockWaitHistogram getWaitTimes() {
+        return null;
+    }
 }
@@ -21,13 +21,22 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ivy.util.Message;
 
 public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
-    private static final int SLEEP_TIME = 100;
+    /**
+     * Initial and maximum delays between two attempts to lock a file held by another process.
+     */
+    private static final long MIN_RETRY_DELAY = 5;
+
+    private static final long MAX_RETRY_DELAY = 100;
 
     private static final long DEFAULT_TIMEOUT = 2 * 60 * 1000;
 
@@ -38,11 +47,13 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
 
     private long timeout = DEFAULT_TIMEOUT;
 
+    private final LockWaitHistogram waitTimes = new LockWaitHistogram();
+
     /**
-     * Lock counter list must be static: locks are implicitly shared to the entire process, so the
-     * list too much be.
+     * In process locks must be static: locks are implicitly shared to the entire process, so the
+     * map too must be. A lock is in the map as long as a thread holds it or waits for it.
      */
-    private static final ConcurrentMap<File, ConcurrentMap<Thread, Integer>> currentLockHolders = new ConcurrentHashMap<>();
+    private static final Map<File, ProcessLock> processLocks = new HashMap<>();
 
     protected FileBasedLockStrategy() {
         this(new CreateFileLocker(false), false);
@@ -57,168 +68,147 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
         this.locker = locker;
     }
 
+    /**
+     * Threads of this process wait for each other on an in process lock, and are woken up as
+     * soon as it is released. The lock file itself is only taken by the outermost lock of a
+     * thread, and is polled for with an increasing delay when another process holds it.
+     *
+     * @param file
+     *            the lock file
+     * @return true if the lock has been acquired, false if the timeout expired
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting
+     */
     protected boolean acquireLock(File file) throws InterruptedException {
-        Thread currentThread = Thread.currentThread();
         if (isDebugLocking()) {
             debugLocking("acquiring lock on " + file);
         }
-        long start = System.currentTimeMillis();
-        do {
-            synchronized (currentLockHolders) {
+        long start = System.nanoTime();
+        ProcessLock processLock = useProcessLock(file);
+        boolean acquired = false;
+        try {
+            acquired = acquireLock(file, processLock, start);
+        } finally {
+            if (acquired) {
+                waitTimes.record(System.nanoTime() - start);
+            } else {
+                unuseProcessLock(file, processLock);
+            }
+        }
+        if (!acquired) {
+            waitTimes.recordTimeout();
+        }
+        return acquired;
+    }
+
+    private boolean acquireLock(File file, ProcessLock processLock, long start)
+            throws InterruptedException {
+        if (!processLock.tryLock(timeout, TimeUnit.MILLISECONDS)) {
+            if (isDebugLocking()) {
+                debugLocking("timed out waiting for another thread to release the lock: "
+                        + processLock.getOwnerName());
+            }
+            return false;
+        }
+        boolean acquired = false;
+        try {
+            if (processLock.getHoldCount() > 1) {
                 if (isDebugLocking()) {
-                    debugLocking("entered synchronized area (locking)");
+                    debugLocking("reentrant lock acquired on " + file + " - hold locks = "
+                            + processLock.getHoldCount());
                 }
-                int lockCount = hasLock(file, currentThread);
+                acquired = true;
+            } else {
+                acquired = lockFile(file, start + TimeUnit.MILLISECONDS.toNanos(timeout));
+            }
+            return acquired;
+        } finally {
+            if (!acquired) {
+                processLock.unlock();
+            }
+        }
+    }
+
+    private boolean lockFile(File file, long deadline) throws InterruptedException {
+        long start = System.nanoTime();
+        long delay = MIN_RETRY_DELAY;
+        while (!locker.tryLock(file)) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
                 if (isDebugLocking()) {
-                    debugLocking("current status for " + file + " is " + lockCount
-                            + " held locks: " + getCurrentLockHolderNames(file));
-                }
-                if (lockCount < 0) {
-                    /* Another thread in this process holds the lock; we need to wait */
-                    if (isDebugLocking()) {
-                        debugLocking("waiting for another thread to release the lock: "
-                                + getCurrentLockHolderNames(file));
-                    }
-                } else if (lockCount > 0) {
-                    int holdLocks = incrementLock(file, currentThread);
-                    if (isDebugLocking()) {
-                        debugLocking("reentrant lock acquired on " + file + " in "
-                                + (System.currentTimeMillis() - start) + "ms" + " - hold locks = "
-                                + holdLocks);
-                    }
-                    return true;
-                } else {
-                    /* No prior lock on this file is held at all */
-                    if (locker.tryLock(file)) {
-                        if (isDebugLocking()) {
-                            debugLocking("lock acquired on " + file + " in "
-                                    + (System.currentTimeMillis() - start) + "ms");
-                        }
-                        incrementLock(file, currentThread);
-                        return true;
-                    }
+                    debugLocking("timed out waiting for another process to release " + file);
                 }
+                return false;
             }
             if (isDebugLocking()) {
-                debugLocking("failed to acquire lock; sleeping for retry...");
+                debugLocking("failed to acquire lock; sleeping " + delay + "ms for retry...");
             }
-            Thread.sleep(SLEEP_TIME);
-        } while (System.currentTimeMillis() - start < timeout);
-        return false;
+            Thread.sleep(Math.min(delay, remaining));
+            delay = Math.min(delay * 2, MAX_RETRY_DELAY);
+        }
+        if (isDebugLocking()) {
+            debugLocking("lock acquired on " + file + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        }
+        return true;
     }
 
     protected void releaseLock(File file) {
-        Thread currentThread = Thread.currentThread();
         if (isDebugLocking()) {
             debugLocking("releasing lock on " + file);
         }
-        synchronized (currentLockHolders) {
-            if (isDebugLocking()) {
-                debugLocking("entered synchronized area (unlocking)");
-            }
-            int holdLocks = decrementLock(file, currentThread);
-            if (holdLocks == 0) {
+        ProcessLock processLock;
+        synchronized (processLocks) {
+            processLock = processLocks.get(file);
+        }
+        if (processLock == null || !processLock.isHeldByCurrentThread()) {
+            throw new RuntimeException("Calling releaseLock on a thread which holds no locks");
+        }
+        try {
+            if (processLock.getHoldCount() == 1) {
                 locker.unlock(file);
                 if (isDebugLocking()) {
                     debugLocking("lock released on " + file);
                 }
-            } else {
-                if (isDebugLocking()) {
-                    debugLocking("reentrant lock released on " + file + " - hold locks = "
-                            + holdLocks);
-                }
+            } else if (isDebugLocking()) {
+                debugLocking("reentrant lock released on " + file + " - hold locks = "
+                        + (processLock.getHoldCount() - 1));
             }
+        } finally {
+            processLock.unlock();
+            unuseProcessLock(file, processLock);
         }
     }
 
-    private static void debugLocking(String msg) {
-        Message.info(Thread.currentThread() + " " + System.currentTimeMillis() + " " + msg);
-    }
-
     /**
-     * Determine the state of the lockfile.
-     *
-     * Must be called from within a synchronized block.
-     *
-     * Three possibilities exist: - The lock is held by the current thread (>0) - The lock is held
-     * by one or more different threads (-1) - The lock is not held at all (0).
-     *
-     * @param file
-     *            file to lock
-     * @param forThread
-     *            thread for which lock status is being queried
+     * @return the distribution of the time waited for the locks of this strategy
      */
-    private int hasLock(File file, Thread forThread) {
-        ConcurrentMap<Thread, Integer> locksPerThread = currentLockHolders.get(file);
-        if (locksPerThread == null) {
-            return 0;
-        }
-        if (locksPerThread.isEmpty()) {
-            return 0;
-        }
-        Integer counterObj = locksPerThread.get(forThread);
-        int counter = (counterObj == null) ? 0 : counterObj;
-        if (counter > 0) {
-            return counter;
-        } else {
-            return -1;
-        }
+    public LockWaitHistogram getWaitTimes() {
+        return waitTimes;
     }
 
-    /**
-     * Record that this thread holds the lock.
-     *
-     * Asserts that the lock has been previously grabbed by this thread. Must be called from a
-     * synchronized block in which the lock was grabbed.
-     *
-     * @param file
-     *            file which has been locked
-     * @param forThread
-     *            thread for which locking occurred
-     * @return number of times this thread has grabbed the lock
-     */
-    private int incrementLock(File file, Thread forThread) {
-        ConcurrentMap<Thread, Integer> locksPerThread = currentLockHolders.get(file);
-        if (locksPerThread == null) {
-            locksPerThread = new ConcurrentHashMap<>();
-            currentLockHolders.put(file, locksPerThread);
+    private static ProcessLock useProcessLock(File file) {
+        synchronized (processLocks) {
+            ProcessLock processLock = processLocks.get(file);
+            if (processLock == null) {
+                processLock = new ProcessLock();
+                processLocks.put(file, processLock);
+            }
+            processLock.users++;
+            return processLock;
         }
-        Integer c = locksPerThread.get(forThread);
-        int holdLocks = (c == null) ? 1 : c + 1;
-        locksPerThread.put(forThread, holdLocks);
-        return holdLocks;
     }
 
-    /**
-     * Decrease depth of this thread's lock.
-     *
-     * Must be called within a synchronized block.
-     *
-     * If this returns 0, the caller is responsible for releasing the lock within that same block.
-     *
-     * @param file
-     *            file for which lock depth is being decreased
-     * @param forThread
-     *            thread for which lock depth is being decreased
-     * @return remaining depth of this lock
-     */
-    private int decrementLock(File file, Thread forThread) {
-        ConcurrentMap<Thread, Integer> locksPerThread = currentLockHolders.get(file);
-        if (locksPerThread == null) {
-            throw new RuntimeException("Calling decrementLock on a thread which holds no locks");
-        }
-        Integer c = locksPerThread.get(forThread);
-        int oldHeldLocks = (c == null) ? 0 : c;
-        if (oldHeldLocks <= 0) {
-            throw new RuntimeException("Calling decrementLock on a thread which holds no locks");
-        }
-        int newHeldLocks = oldHeldLocks - 1;
-        if (newHeldLocks > 0) {
-            locksPerThread.put(forThread, newHeldLocks);
-        } else {
-            locksPerThread.remove(forThread);
+    private static void unuseProcessLock(File file, ProcessLock processLock) {
+        synchronized (processLocks) {
+            if (--processLock.users == 0) {
+                processLocks.remove(file);
+            }
         }
-        return newHeldLocks;
+    }
+
+    private static void debugLocking(String msg) {
+        Message.info(Thread.currentThread() + " " + System.currentTimeMillis() + " " + msg);
     }
 
     /**
@@ -228,18 +218,28 @@ public abstract class FileBasedLockStrategy extends AbstractLockStrategy {
      * @return String
      */
     protected String getCurrentLockHolderNames(File file) {
-        StringBuilder sb = new StringBuilder();
-        ConcurrentMap<Thread, Integer> m = currentLockHolders.get(file);
-        if (m == null) {
-            return "(NULL)";
+        ProcessLock processLock;
+        synchronized (processLocks) {
+            processLock = processLocks.get(file);
         }
-        for (Thread t : m.keySet()) {
-            if (sb.length() > 0) {
-                sb.append(", ");
-            }
-            sb.append(t.toString());
+        return processLock == null ? "(NULL)" : processLock.getOwnerName();
+    }
+
+    /**
+     * The lock of a file within this process.
+     */
+    private static final class ProcessLock extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Number of lock acquisitions holding or waiting for this lock, guarded by processLocks.
+         */
+        private int users;
+
+        private String getOwnerName() {
+            Thread owner = getOwner();
+            return owner == null ? "(NULL)" : owner.toString();
         }
-        return sb.toString();
     }
 
     public interface FileLocker {
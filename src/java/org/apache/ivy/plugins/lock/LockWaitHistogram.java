@@ -0,0 +1,125 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.lock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of the time spent waiting for locks, in buckets whose upper bounds are powers of
+ * two milliseconds: less than 1ms, less than 2ms, less than 4ms, ... up to the last bucket which
+ * counts all the waits longer than {@link #getUpperBoundMillis(int) its lower bound}.
+ */
+public final class LockWaitHistogram {
+    private static final int BUCKETS = 18;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * Records the time waited for a lock which was acquired.
+     *
+     * @param nanos
+     *            the time waited, in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(getBucket(TimeUnit.NANOSECONDS.toMillis(nanos)));
+    }
+
+    /**
+     * Records a lock acquisition which timed out.
+     */
+    public void recordTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    public int getBucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * @param bucket
+     *            the index of the bucket
+     * @return the number of waits in the given bucket
+     */
+    public long getCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * @param bucket
+     *            the index of the bucket
+     * @return the exclusive upper bound of the waits counted in the bucket, in milliseconds, or
+     *         {@link Long#MAX_VALUE} for the last bucket
+     */
+    public long getUpperBoundMillis(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * @return the number of acquired locks
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of lock acquisitions which timed out
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    private static int getBucket(long millis) {
+        int bucket = 64 - Long.numberOfLeadingZeros(millis);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            if (i == BUCKETS - 1) {
+                sb.append(">=").append(1L << (i - 1));
+            } else {
+                sb.append('<').append(1L << i);
+            }
+            sb.append("ms: ").append(count);
+        }
+        if (timeouts.get() > 0) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append("timeouts: ").append(timeouts.get());
+        }
+        return sb.length() == 0 ? "no wait" : sb.toString();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.lock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.util.Message;
+
+/**
+ * Locks artifacts with {@link FileLock}s on the same lock files as {@link NIOFileLockStrategy},
+ * taken in shared mode to read artifacts and in exclusive mode to download them. Processes using
+ * this strategy thus read a shared cache concurrently, and still exclude processes using
+ * {@link NIOFileLockStrategy}.
+ * <p>
+ * Within this process, the threads locking a file share its {@link FileLock}: it is acquired by
+ * the first of them and released by the last one, and they wait for each other on an in process
+ * read write lock.
+ * </p>
+ */
+public class NIOFileReadWriteLockStrategy extends AbstractLockStrategy implements
+        ReadWriteLockStrategy {
+    /**
+     * Initial and maximum delays between two attempts to lock a file held by another process.
+     */
+    private static final long MIN_RETRY_DELAY = 5;
+
+    private static final long MAX_RETRY_DELAY = 100;
+
+    private static final long DEFAULT_TIMEOUT = 2 * 60 * 1000;
+
+    private long timeout = DEFAULT_TIMEOUT;
+
+    private final LockWaitHistogram waitTimes = new LockWaitHistogram();
+
+    /**
+     * In process locks must be static, as file locks are held by the entire process. A lock is in
+     * the map as long as a thread holds it or waits for it.
+     */
+    private static final Map<File, ProcessLock> processLocks = new HashMap<>();
+
+    public NIOFileReadWriteLockStrategy(boolean debugLocking) {
+        super(debugLocking);
+        setName("artifact-lock-nio-rw");
+    }
+
+    public boolean lockArtifact(Artifact artifact, File artifactFileToDownload)
+            throws InterruptedException {
+        return acquireLock(getLockFile(artifactFileToDownload), false);
+    }
+
+    public void unlockArtifact(Artifact artifact, File artifactFileToDownload) {
+        releaseLock(getLockFile(artifactFileToDownload), false);
+    }
+
+    public boolean lockArtifactForRead(Artifact artifact, File artifactFile)
+            throws InterruptedException {
+        return acquireLock(getLockFile(artifactFile), true);
+    }
+
+    public void unlockArtifactForRead(Artifact artifact, File artifactFile) {
+        releaseLock(getLockFile(artifactFile), true);
+    }
+
+    /**
+     * @return the distribution of the time waited for the locks of this strategy
+     */
+    public LockWaitHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    private static File getLockFile(File artifactFile) {
+        return new File(artifactFile.getAbsolutePath() + ".lck");
+    }
+
+    private boolean acquireLock(File file, boolean shared) throws InterruptedException {
+        if (isDebugLocking()) {
+            debugLocking("acquiring " + (shared ? "shared" : "exclusive") + " lock on " + file);
+        }
+        long start = System.nanoTime();
+        ProcessLock processLock = useProcessLock(file);
+        boolean acquired = false;
+        try {
+            acquired = acquireLock(file, processLock, shared,
+                start + TimeUnit.MILLISECONDS.toNanos(timeout));
+        } finally {
+            if (acquired) {
+                waitTimes.record(System.nanoTime() - start);
+            } else {
+                unuseProcessLock(file, processLock);
+            }
+        }
+        if (!acquired) {
+            waitTimes.recordTimeout();
+        }
+        return acquired;
+    }
+
+    private boolean acquireLock(File file, ProcessLock processLock, boolean shared,
+            long deadline) throws InterruptedException {
+        if (!shared && processLock.getReadHoldCount() > 0
+                && !processLock.isWriteLockedByCurrentThread()) {
+            throw new IllegalStateException("impossible to lock " + file
+                    + " exclusively while holding a shared lock on it");
+        }
+        Lock lock = shared ? processLock.readLock() : processLock.writeLock();
+        if (!lock.tryLock(timeout, TimeUnit.MILLISECONDS)) {
+            if (isDebugLocking()) {
+                debugLocking("timed out waiting for other threads to release " + file);
+            }
+            return false;
+        }
+        boolean acquired = false;
+        try {
+            acquired = processLock.lockFile(file, shared, deadline);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void releaseLock(File file, boolean shared) {
+        if (isDebugLocking()) {
+            debugLocking("releasing " + (shared ? "shared" : "exclusive") + " lock on " + file);
+        }
+        ProcessLock processLock;
+        synchronized (processLocks) {
+            processLock = processLocks.get(file);
+        }
+        if (processLock == null || (shared ? processLock.getReadHoldCount() == 0
+                : !processLock.isWriteLockedByCurrentThread())) {
+            throw new RuntimeException("Calling releaseLock on a thread which holds no locks");
+        }
+        try {
+            processLock.unlockFile(file);
+        } finally {
+            (shared ? processLock.readLock() : processLock.writeLock()).unlock();
+            unuseProcessLock(file, processLock);
+        }
+    }
+
+    private static ProcessLock useProcessLock(File file) {
+        synchronized (processLocks) {
+            ProcessLock processLock = processLocks.get(file);
+            if (processLock == null) {
+                processLock = new ProcessLock();
+                processLocks.put(file, processLock);
+            }
+            processLock.users++;
+            return processLock;
+        }
+    }
+
+    private static void unuseProcessLock(File file, ProcessLock processLock) {
+        synchronized (processLocks) {
+            if (--processLock.users == 0) {
+                processLocks.remove(file);
+            }
+        }
+    }
+
+    private static void debugLocking(String msg) {
+        Message.info(Thread.currentThread() + " " + System.currentTimeMillis() + " " + msg);
+    }
+
+    /**
+     * The lock of a file within this process, and the file lock shared by the threads holding it.
+     */
+    private static final class ProcessLock extends ReentrantReadWriteLock {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Number of lock acquisitions holding or waiting for this lock, guarded by processLocks.
+         */
+        private int users;
+
+        /**
+         * Number of lock acquisitions holding this lock, and thus the file lock.
+         */
+        private int holds;
+
+        private transient RandomAccessFile raf;
+
+        private transient FileLock fileLock;
+
+        /**
+         * Takes the file lock if no thread of this process holds it already. The file lock is
+         * exclusive if it is taken for a writer: as long as the writer holds it, the other threads
+         * holding this lock can only be the writer itself, or readers admitted after it released
+         * the write lock, which can keep on reading under an exclusive file lock.
+         */
+        private synchronized boolean lockFile(File file, boolean shared, long deadline)
+                throws InterruptedException {
+            if (holds == 0) {
+                long delay = MIN_RETRY_DELAY;
+                while (!tryLockFile(file, shared)) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    Thread.sleep(Math.min(delay, remaining));
+                    delay = Math.min(delay * 2, MAX_RETRY_DELAY);
+                }
+            }
+            holds++;
+            return true;
+        }
+
+        private boolean tryLockFile(File file, boolean shared) {
+            RandomAccessFile raf = null;
+            try {
+                if (file.getParentFile().exists() || file.getParentFile().mkdirs()) {
+                    raf = new RandomAccessFile(file, "rw");
+                    FileLock l = raf.getChannel().tryLock(0L, Long.MAX_VALUE, shared);
+                    if (l != null) {
+                        this.raf = raf;
+                        this.fileLock = l;
+                        return true;
+                    }
+                }
+            } catch (IOException | OverlappingFileLockException e) {
+                // held by another lock strategy of this process, or not lockable at all
+                Message.verbose("file lock failed due to an exception: " + e.getMessage() + " ("
+                        + file + ")");
+            }
+            closeQuietly(raf, file);
+            return false;
+        }
+
+        private synchronized void unlockFile(File file) {
+            if (--holds > 0) {
+                return;
+            }
+            try {
+                fileLock.release();
+            } catch (IOException e) {
+                Message.error("problem while releasing lock on " + file + ": " + e.getMessage());
+            } finally {
+                closeQuietly(raf, file);
+                fileLock = null;
+                raf = null;
+            }
+        }
+
+        private static void closeQuietly(RandomAccessFile raf, File file) {
+            if (raf == null) {
+                return;
+            }
+            try {
+                raf.close();
+            } catch (IOException e) {
+                Message.error("problem while closing lock file " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
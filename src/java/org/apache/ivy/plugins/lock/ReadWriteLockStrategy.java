@@ -0,0 +1,59 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.lock;
+
+import java.io.File;
+
+import org.apache.ivy.core.module.descriptor.Artifact;
+
+/**
+ * A {@link LockStrategy} which can also lock an artifact for reading only.
+ * <p>
+ * Any number of threads and processes can hold a read lock on the same artifact at the same time,
+ * while the lock acquired by {@link #lockArtifact(Artifact, File)} remains exclusive: it is held
+ * by a single thread, and excludes readers. A thread holding a read lock must not ask for the
+ * exclusive lock of the same artifact, but a thread holding the exclusive lock can also lock it
+ * for reading.
+ * </p>
+ */
+public interface ReadWriteLockStrategy extends LockStrategy {
+
+    /**
+     * Performs a shared lock before reading the given {@link Artifact} from the given file.
+     *
+     * @param artifact
+     *            the artifact about to be read
+     * @param artifactFile
+     *            the file of the artifact in the cache
+     * @return true if the artifact is locked, false otherwise
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting to acquire the lock
+     */
+    boolean lockArtifactForRead(Artifact artifact, File artifactFile) throws InterruptedException;
+
+    /**
+     * Release the shared lock acquired to read an artifact.
+     *
+     * @param artifact
+     *            the artifact for which the lock was acquired
+     * @param artifactFile
+     *            the file of the artifact in the cache
+     */
+    void unlockArtifactForRead(Artifact artifact, File artifactFile);
+
+}
@@ -20,18 +20,46 @@ package org.apache.ivy.plugins.matcher;
 
 /**
  * An abstract implementation of the pattern matcher providing base template methods
+ * <p>
+ * Compiled matchers can be cached, in which case the same {@link Matcher} instance is returned
+ * for an expression to all callers, from any thread: the matchers returned by
+ * {@link #newMatcher(String)} must then be thread safe and reusable. Caching is only enabled by
+ * subclasses giving a cache size to {@link #AbstractPatternMatcher(String, int)}.
+ * </p>
  */
 public abstract class AbstractPatternMatcher implements PatternMatcher {
+    /**
+     * The number of compiled matchers kept by the pattern matchers of Ivy which cache them.
+     */
+    public static final int DEFAULT_MATCHER_CACHE_SIZE = 1000;
+
     private final String name;
 
+    private final MatcherCache matcherCache;
+
     /**
-     * Create a new instance of a pattern matcher
+     * Create a new instance of a pattern matcher, which compiles a new matcher on each call to
+     * {@link #getMatcher(String)}.
      *
      * @param name
      *            the name of the pattern matcher. Never null.
      */
     public AbstractPatternMatcher(/* @NotNull */String name) {
+        this(name, 0);
+    }
+
+    /**
+     * Create a new instance of a pattern matcher, caching the given number of compiled matchers.
+     * The matchers returned by {@link #newMatcher(String)} must then be thread safe.
+     *
+     * @param name
+     *            the name of the pattern matcher. Never null.
+     * @param matcherCacheSize
+     *            the number of matchers to cache, 0 to compile a new matcher on each call
+     */
+    protected AbstractPatternMatcher(/* @NotNull */String name, int matcherCacheSize) {
         this.name = name;
+        this.matcherCache = new MatcherCache(matcherCacheSize);
     }
 
     public/* @NotNull */Matcher getMatcher(/* @NotNull */String expression) {
@@ -41,7 +69,18 @@ public abstract class AbstractPatternMatcher implements PatternMatcher {
         if (ANY_EXPRESSION.equals(expression)) {
             return AnyMatcher.INSTANCE;
         }
-        return newMatcher(expression);
+        Matcher matcher = matcherCache.get(expression);
+        if (matcher == null) {
+            matcher = matcherCache.put(expression, newMatcher(expression));
+        }
+        return matcher;
+    }
+
+    /**
+     * @return the cache of the matchers compiled by this pattern matcher, with its statistics
+     */
+    public MatcherCache getMatcherCache() {
+        return matcherCache;
     }
 
     public/* @NotNull */String getName() {
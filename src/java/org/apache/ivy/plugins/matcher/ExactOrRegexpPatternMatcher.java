@@ -34,7 +34,7 @@ public/* @Immutable */final class ExactOrRegexpPatternMatcher extends AbstractPa
     public static final ExactOrRegexpPatternMatcher INSTANCE = new ExactOrRegexpPatternMatcher();
 
     public ExactOrRegexpPatternMatcher() {
-        super(EXACT_OR_REGEXP);
+        super(EXACT_OR_REGEXP, DEFAULT_MATCHER_CACHE_SIZE);
     }
 
     @Override
@@ -29,7 +29,8 @@ public/* @Immutable */final class ExactPatternMatcher extends AbstractPatternMat
     public static final ExactPatternMatcher INSTANCE = new ExactPatternMatcher();
 
     public ExactPatternMatcher() {
-        super(EXACT);
+        // exact matchers are cheaper to create than to look up
+        super(EXACT, 0);
     }
 
     @Override
@@ -42,14 +42,8 @@ public/* @Immutable */final class GlobPatternMatcher extends AbstractPatternMatc
 
     public static final GlobPatternMatcher INSTANCE = new GlobPatternMatcher();
 
-    /*
-     * NOTE: GlobCompiler does ~100K compilation/s - If necessary look into using ThreadLocal for
-     * GlobCompiler/Perl5Matcher to cut on useless object creation - If expression are reused over
-     * and over a LRU cache could make sense
-     */
-
     public GlobPatternMatcher() {
-        super(GLOB);
+        super(GLOB, DEFAULT_MATCHER_CACHE_SIZE);
     }
 
     @Override
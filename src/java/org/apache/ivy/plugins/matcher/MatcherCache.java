@@ -0,0 +1,140 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.matcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the matchers compiled by a {@link PatternMatcher}, evicting the least
+ * recently used ones. The same expressions are matched over and over during a resolve (exclude
+ * and include rules, conflict managers, namespaces, ...), while compiling them is costly.
+ * <p>
+ * The cached matchers are shared between threads, so they must be thread safe.
+ * </p>
+ */
+public final class MatcherCache {
+    private final int capacity;
+
+    private final Map<String, Matcher> matchers;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * @param capacity
+     *            the maximum number of matchers to keep, 0 to disable caching
+     */
+    public MatcherCache(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("negative matcher cache capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.matchers = new LinkedHashMap<String, Matcher>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Matcher> eldest) {
+                return size() > MatcherCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the matcher cached for the given expression, if any.
+     *
+     * @param expression
+     *            the expression
+     * @return the cached matcher, or null if there is none
+     */
+    public Matcher get(String expression) {
+        if (capacity == 0) {
+            return null;
+        }
+        synchronized (this) {
+            Matcher matcher = matchers.get(expression);
+            if (matcher == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return matcher;
+        }
+    }
+
+    /**
+     * Caches the matcher compiled for an expression. If another thread cached one meanwhile,
+     * that one is kept and returned.
+     *
+     * @param expression
+     *            the expression
+     * @param matcher
+     *            the matcher compiled for it
+     * @return the matcher to use for the expression
+     */
+    public Matcher put(String expression, Matcher matcher) {
+        if (capacity == 0) {
+            return matcher;
+        }
+        synchronized (this) {
+            Matcher cached = matchers.get(expression);
+            if (cached != null) {
+                return cached;
+            }
+            matchers.put(expression, matcher);
+            return matcher;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return matchers.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return the ratio of lookups which found a cached matcher, 0 if there was none
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public synchronized void clear() {
+        matchers.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MatcherCache[size=" + matchers.size() + ", capacity=" + capacity + ", hits="
+                + hits + ", misses=" + misses + "]";
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.parser.m2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An element of a pom, as read by the {@link PomReader}: its name, its own text and its child
+ * elements. Unlike a DOM element it does not keep attributes, comments nor the whitespace
+ * between child elements, and it cannot be modified once read.
+ */
+final class PomElement {
+
+    private final String name;
+
+    private final String text;
+
+    private final List<PomElement> children;
+
+    private PomElement(String name, String text, List<PomElement> children) {
+        this.name = name;
+        this.text = text;
+        this.children = children;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the concatenation of the text and CDATA sections directly contained in this
+     *         element, never <code>null</code>.
+     */
+    public String getText() {
+        return text;
+    }
+
+    public List<PomElement> getChildren() {
+        return children;
+    }
+
+    /**
+     * @param childName
+     *            the name of the child element to look for
+     * @return the first child element with the given name, or <code>null</code> if there is none.
+     */
+    public PomElement getFirstChild(String childName) {
+        for (PomElement child : children) {
+            if (childName.equals(child.name)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collects the content of an element while it is being read.
+     */
+    static final class Builder {
+
+        private final String name;
+
+        private final StringBuilder text = new StringBuilder();
+
+        private List<PomElement> children = Collections.emptyList();
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void appendText(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        void addChild(PomElement child) {
+            if (children.isEmpty()) {
+                children = new ArrayList<>(2);
+            }
+            children.add(child);
+        }
+
+        PomElement build() {
+            List<PomElement> builtChildren;
+            String builtText;
+            if (children.isEmpty()) {
+                builtChildren = Collections.emptyList();
+                builtText = text.toString();
+            } else {
+                ((ArrayList<PomElement>) children).trimToSize();
+                builtChildren = Collections.unmodifiableList(children);
+                // the text of an element with children is only the whitespace around them
+                builtText = isBlank(text) ? "" : text.toString();
+            }
+            return new PomElement(name, builtText, builtChildren);
+        }
+
+        private static boolean isBlank(CharSequence s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (!Character.isWhitespace(s.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
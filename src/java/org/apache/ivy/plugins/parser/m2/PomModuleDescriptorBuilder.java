@@ -109,6 +109,8 @@ public class PomModuleDescriptorBuilder {
 
     private static final String EXTRA_INFO_DELIMITER = "__";
 
+    private static final String EXCLUSION_PROPERTY = "exclusion_";
+
     private static final Collection<String> JAR_PACKAGINGS = Arrays.asList("ejb",
             "bundle", "maven-plugin", "eclipse-plugin", "jbi-component", "jbi-shared-library",
             "orbit", "hk2-jar");
@@ -179,6 +181,9 @@ public class PomModuleDescriptorBuilder {
 
     private final PomModuleDescriptor ivyModuleDescriptor;
 
+    // the extra infos of the module descriptor by name: poms importing big boms have thousands
+    private final Map<String, ExtraInfoHolder> extraInfosByName = new HashMap<>();
+
     private ModuleRevisionId mrid;
 
     private DefaultArtifact mainArtifact;
@@ -432,12 +437,12 @@ public class PomModuleDescriptorBuilder {
     public void addPlugin(PomDependencyMgt plugin) {
         String pluginValue = plugin.getGroupId() + EXTRA_INFO_DELIMITER + plugin.getArtifactId()
                 + EXTRA_INFO_DELIMITER + plugin.getVersion();
-        ExtraInfoHolder extraInfoByTagName = ivyModuleDescriptor
-                .getExtraInfoByTagName("m:maven.plugins");
+        ExtraInfoHolder extraInfoByTagName = extraInfosByName.get("m:maven.plugins");
         if (extraInfoByTagName == null) {
             extraInfoByTagName = new ExtraInfoHolder();
             extraInfoByTagName.setName("m:maven.plugins");
             ivyModuleDescriptor.addExtraInfo(extraInfoByTagName);
+            extraInfosByName.put("m:maven.plugins", extraInfoByTagName);
         }
         String pluginExtraInfo = extraInfoByTagName.getContent();
         if (pluginExtraInfo == null) {
@@ -510,7 +515,7 @@ public class PomModuleDescriptorBuilder {
             return ivyModuleDescriptor.getDependencyManagementMap().get(key).getVersion();
         }
         String tagName = getDependencyMgtExtraInfoKeyForVersion(dep);
-        return ivyModuleDescriptor.getExtraInfoContentByTagName(tagName);
+        return getExtraInfoContent(tagName);
     }
 
     private String getDefaultScope(PomDependencyData dep) {
@@ -520,7 +525,7 @@ public class PomModuleDescriptorBuilder {
             result = ivyModuleDescriptor.getDependencyManagementMap().get(key).getScope();
         } else {
             String tagname = getDependencyMgtExtraInfoKeyForScope(dep);
-            result = ivyModuleDescriptor.getExtraInfoContentByTagName(tagname);
+            result = getExtraInfoContent(tagname);
         }
         if (result == null || !MAVEN2_CONF_MAPPING.containsKey(result)) {
             result = "compile";
@@ -537,7 +542,7 @@ public class PomModuleDescriptorBuilder {
     }
 
     private static String getDependencyMgtExtraInfoPrefixForExclusion(PomDependencyMgt dep) {
-        return getDependencyMgtExtraInfoKeyForProperty(dep, "exclusion_");
+        return getDependencyMgtExtraInfoKeyForProperty(dep, EXCLUSION_PROPERTY);
     }
 
     private static String getDependencyMgtExtraInfoKeyForProperty(PomDependencyMgt dep, String propertyName) {
@@ -603,6 +608,37 @@ public class PomModuleDescriptorBuilder {
         if (md instanceof PomModuleDescriptor) {
             result.addAll(((PomModuleDescriptor) md).getDependencyManagementMap().values());
         } else {
+            // index the extra infos first, instead of looking up the version, scope and
+            // exclusions of each managed dependency among all of them
+            Map<String, String> contentsByName = new HashMap<>();
+            Map<String, List<ModuleId>> exclusionsByPrefix = new HashMap<>();
+            for (ExtraInfoHolder extraInfoHolder : md.getExtraInfos()) {
+                String key = extraInfoHolder.getName();
+                if (!key.startsWith(DEPENDENCY_MANAGEMENT)) {
+                    continue;
+                }
+                if (!contentsByName.containsKey(key)) {
+                    contentsByName.put(key, extraInfoHolder.getContent());
+                }
+                int exclusionIndex = key.lastIndexOf(EXTRA_INFO_DELIMITER + EXCLUSION_PROPERTY);
+                if (exclusionIndex != -1) {
+                    String exclusionPrefix = key.substring(0, exclusionIndex
+                            + EXTRA_INFO_DELIMITER.length() + EXCLUSION_PROPERTY.length());
+                    String fullExclusion = extraInfoHolder.getContent();
+                    String[] exclusionParts = fullExclusion.split(EXTRA_INFO_DELIMITER);
+                    if (exclusionParts.length != 2) {
+                        Message.error(WRONG_NUMBER_OF_PARTS_MSG + exclusionParts.length + " : "
+                                + fullExclusion);
+                        continue;
+                    }
+                    List<ModuleId> exclusionIds = exclusionsByPrefix.get(exclusionPrefix);
+                    if (exclusionIds == null) {
+                        exclusionIds = new LinkedList<>();
+                        exclusionsByPrefix.put(exclusionPrefix, exclusionIds);
+                    }
+                    exclusionIds.add(ModuleId.newInstance(exclusionParts[0], exclusionParts[1]));
+                }
+            }
             for (ExtraInfoHolder extraInfoHolder : md.getExtraInfos()) {
                 String key = extraInfoHolder.getName();
                 if (key.startsWith(DEPENDENCY_MANAGEMENT)) {
@@ -628,9 +664,15 @@ public class PomModuleDescriptorBuilder {
                         String versionKey = getDependencyMgtExtraInfoKeyForVersion(dep);
                         String scopeKey = getDependencyMgtExtraInfoKeyForScope(dep);
 
-                        String version = md.getExtraInfoContentByTagName(versionKey);
-                        String scope = md.getExtraInfoContentByTagName(scopeKey);
-                        List<ModuleId> exclusions = getDependencyMgtExclusions(md, dep);
+                        String version = contentsByName.get(versionKey);
+                        String scope = contentsByName.get(scopeKey);
+                        List<ModuleId> exclusions = exclusionsByPrefix
+                                .get(getDependencyMgtExtraInfoPrefixForExclusion(dep));
+                        if (exclusions == null) {
+                            exclusions = new LinkedList<>();
+                        } else {
+                            exclusions = new LinkedList<>(exclusions);
+                        }
                         result.add(new DefaultPomDependencyMgt(groupId, artifactId, type, classifier, version, scope, exclusions));
                     }
                 }
@@ -647,24 +689,29 @@ public class PomModuleDescriptorBuilder {
     }
 
     private void addExtraInfo(String key, String value) {
-        if (ivyModuleDescriptor.getExtraInfoByTagName(key) == null) {
-            ivyModuleDescriptor.getExtraInfos().add(new ExtraInfoHolder(key, value));
+        if (!extraInfosByName.containsKey(key)) {
+            ExtraInfoHolder extraInfoHolder = new ExtraInfoHolder(key, value);
+            ivyModuleDescriptor.getExtraInfos().add(extraInfoHolder);
+            extraInfosByName.put(key, extraInfoHolder);
         }
     }
 
     private void overwriteExtraInfoIfExists(String key, String value) {
-        boolean found = false;
-        for (ExtraInfoHolder extraInfoHolder : ivyModuleDescriptor.getExtraInfos()) {
-            if (extraInfoHolder.getName().equals(key)) {
-                extraInfoHolder.setContent(value);
-                found = true;
-            }
-        }
-        if (!found) {
-            ivyModuleDescriptor.getExtraInfos().add(new ExtraInfoHolder(key, value));
+        ExtraInfoHolder extraInfoHolder = extraInfosByName.get(key);
+        if (extraInfoHolder == null) {
+            extraInfoHolder = new ExtraInfoHolder(key, value);
+            ivyModuleDescriptor.getExtraInfos().add(extraInfoHolder);
+            extraInfosByName.put(key, extraInfoHolder);
+        } else {
+            extraInfoHolder.setContent(value);
         }
     }
 
+    private String getExtraInfoContent(String key) {
+        ExtraInfoHolder extraInfoHolder = extraInfosByName.get(key);
+        return extraInfoHolder == null ? null : extraInfoHolder.getContent();
+    }
+
     public void addExtraInfos(List<ExtraInfoHolder> extraInfosHolder) {
         for (ExtraInfoHolder extraInfoHolder : extraInfosHolder) {
             addExtraInfo(extraInfoHolder.getName(), extraInfoHolder.getContent());
@@ -469,7 +469,18 @@ public final class PomModuleDescriptorParser implements ModuleDescriptorParser {
                 return null;
             }
             dd = toSystem(dd, ivySettings.getContextNamespace());
-            return resolver.getDependency(dd, data);
+            // popular parents and boms are referenced by many modules of a resolve, but the same
+            // id may stand for different modules in different resolvers
+            ModuleRevisionId systemMrid = dd.getDependencyRevisionId();
+            ResolvedModuleRevision module = data.getReferencedModule(resolver.getName(),
+                systemMrid);
+            if (module == null) {
+                module = resolver.getDependency(dd, data);
+                if (module != null) {
+                    data.setReferencedModule(resolver.getName(), systemMrid, module);
+                }
+            }
+            return module;
         } finally {
             if (!isParentPom) {
                 // switch back to the previous state of the parent tracking
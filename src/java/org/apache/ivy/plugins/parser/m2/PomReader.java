@@ -24,14 +24,11 @@ import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.util.XMLHelper;
 import org.apache.ivy.util.url.URLHandlerRegistry;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.EntityResolver;
+import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.BufferedInputStream;
 import java.io.File;
@@ -42,16 +39,27 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+
+import javax.xml.parsers.ParserConfigurationException;
 
 /**
- * Provides the method to read some data out of the DOM tree of a pom file.
+ * Provides the method to read some data out of a pom file.
+ * <p>
+ * The pom is read with a SAX parser into a tree of {@link PomElement}, which only keeps the
+ * elements that may be needed to build a module descriptor.
+ * </p>
  */
 public class PomReader {
 
@@ -115,9 +123,9 @@ public class PomReader {
 
     private final Map<String, String> properties = new HashMap<>();
 
-    private final Element projectElement;
+    private final PomElement projectElement;
 
-    private final Element parentElement;
+    private final PomElement parentElement;
 
     @SuppressWarnings("deprecation")
     public PomReader(final URL descriptorURL, final Resource res) throws IOException, SAXException {
@@ -126,24 +134,18 @@ public class PomReader {
         InputSource source = new InputSource(stream);
         source.setSystemId(XMLHelper.toSystemId(descriptorURL));
         try {
-            Document pomDomDoc = XMLHelper.parseToDom(source, new EntityResolver() {
-                public InputSource resolveEntity(String publicId, String systemId)
-                        throws SAXException, IOException {
-                    if (systemId != null && systemId.endsWith("m2-entities.ent")) {
-                        // IVY-921: return an InputSource for our local packaged m2-entities.ent file
-                        return new InputSource(
-                                PomReader.class.getResourceAsStream("m2-entities.ent"));
-                    }
-                    return null;
-                }
-            }, true, XMLHelper.ExternalResources.IGNORE);
-            projectElement = pomDomDoc.getDocumentElement();
-            if (!PROJECT.equals(projectElement.getNodeName())
-                    && !MODEL.equals(projectElement.getNodeName())) {
+            PomHandler handler = new PomHandler();
+            XMLHelper.parse(source, null, handler, null, true,
+                XMLHelper.ExternalResources.IGNORE);
+            projectElement = handler.getRootElement();
+            if (projectElement == null || !PROJECT.equals(projectElement.getName())
+                    && !MODEL.equals(projectElement.getName())) {
                 throw new SAXParseException("project must be the root tag", res.getName(),
                         res.getName(), 0, 0);
             }
             parentElement = getFirstChildElement(projectElement, PARENT);
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
         } finally {
             try {
                 stream.close();
@@ -257,14 +259,13 @@ public class PomReader {
     }
 
     public License[] getLicenses() {
-        Element licenses = getFirstChildElement(projectElement, LICENSES);
+        PomElement licenses = getFirstChildElement(projectElement, LICENSES);
         if (licenses == null) {
             return new License[0];
         }
-        licenses.normalize();
         List<License> lics = new ArrayList<>();
-        for (Element license : getAllChilds(licenses)) {
-            if (LICENSE.equals(license.getNodeName())) {
+        for (PomElement license : getAllChilds(licenses)) {
+            if (LICENSE.equals(license.getName())) {
                 String name = getFirstChildText(license, LICENSE_NAME);
                 String url = getFirstChildText(license, LICENSE_URL);
 
@@ -285,8 +286,8 @@ public class PomReader {
     }
 
     public ModuleRevisionId getRelocation() {
-        Element distrMgt = getFirstChildElement(projectElement, DISTRIBUTION_MGT);
-        Element relocation = getFirstChildElement(distrMgt, RELOCATION);
+        PomElement distrMgt = getFirstChildElement(projectElement, DISTRIBUTION_MGT);
+        PomElement relocation = getFirstChildElement(distrMgt, RELOCATION);
         if (relocation == null) {
             return null;
         } else {
@@ -310,17 +311,15 @@ public class PomReader {
         return getDependencies(projectElement);
     }
 
-    private List<PomDependencyData> getDependencies(Element parent) {
-        Element dependenciesElement = getFirstChildElement(parent, DEPENDENCIES);
+    private List<PomDependencyData> getDependencies(PomElement parent) {
+        PomElement dependenciesElement = getFirstChildElement(parent, DEPENDENCIES);
         if (dependenciesElement == null) {
             return Collections.emptyList();
         }
         List<PomDependencyData> dependencies = new LinkedList<>();
-        NodeList children = dependenciesElement.getChildNodes();
-        for (int i = 0, sz = children.getLength(); i < sz; i++) {
-            Node node = children.item(i);
-            if (node instanceof Element && DEPENDENCY.equals(node.getNodeName())) {
-                dependencies.add(new PomDependencyData((Element) node));
+        for (PomElement node : dependenciesElement.getChildren()) {
+            if (DEPENDENCY.equals(node.getName())) {
+                dependencies.add(new PomDependencyData(node));
             }
         }
         return dependencies;
@@ -330,47 +329,43 @@ public class PomReader {
         return getDependencyMgt(projectElement);
     }
 
-    private List<PomDependencyMgt> getDependencyMgt(Element parent) {
-        Element dependenciesElement = getFirstChildElement(
+    private List<PomDependencyMgt> getDependencyMgt(PomElement parent) {
+        PomElement dependenciesElement = getFirstChildElement(
                 getFirstChildElement(parent, DEPENDENCY_MGT), DEPENDENCIES);
         if (dependenciesElement == null) {
             return Collections.emptyList();
         }
         List<PomDependencyMgt> dependencies = new LinkedList<>();
-        NodeList children = dependenciesElement.getChildNodes();
-        for (int i = 0, sz = children.getLength(); i < sz; i++) {
-            Node node = children.item(i);
-            if (node instanceof Element && DEPENDENCY.equals(node.getNodeName())) {
-                dependencies.add(new PomDependencyMgtElement((Element) node));
+        for (PomElement node : dependenciesElement.getChildren()) {
+            if (DEPENDENCY.equals(node.getName())) {
+                dependencies.add(new PomDependencyMgtElement(node));
             }
         }
         return dependencies;
     }
 
     public List<PomProfileElement> getProfiles() {
-        Element profilesElement = getFirstChildElement(projectElement, PROFILES_ELEMENT);
+        PomElement profilesElement = getFirstChildElement(projectElement, PROFILES_ELEMENT);
         if (profilesElement == null) {
             return Collections.emptyList();
         }
         List<PomProfileElement> result = new LinkedList<>();
-        NodeList children = profilesElement.getChildNodes();
-        for (int i = 0, sz = children.getLength(); i < sz; i++) {
-            Node node = children.item(i);
-            if (node instanceof Element && PROFILE.equals(node.getNodeName())) {
-                result.add(new PomProfileElement((Element) node));
+        for (PomElement node : profilesElement.getChildren()) {
+            if (PROFILE.equals(node.getName())) {
+                result.add(new PomProfileElement(node));
             }
         }
         return result;
     }
 
     public class PomDependencyMgtElement implements PomDependencyMgt {
-        private final Element depElement;
+        private final PomElement depElement;
 
         public PomDependencyMgtElement(PomDependencyMgtElement copyFrom) {
             this(copyFrom.depElement);
         }
 
-        PomDependencyMgtElement(Element depElement) {
+        PomDependencyMgtElement(PomElement depElement) {
             this.depElement = depElement;
         }
 
@@ -422,17 +417,15 @@ public class PomReader {
         }
 
         public List<ModuleId> getExcludedModules() {
-            Element exclusionsElement = getFirstChildElement(depElement, EXCLUSIONS);
+            PomElement exclusionsElement = getFirstChildElement(depElement, EXCLUSIONS);
             if (exclusionsElement == null) {
                 return Collections.emptyList();
             }
             List<ModuleId> exclusions = new LinkedList<>();
-            NodeList children = exclusionsElement.getChildNodes();
-            for (int i = 0, sz = children.getLength(); i < sz; i++) {
-                Node node = children.item(i);
-                if (node instanceof Element && EXCLUSION.equals(node.getNodeName())) {
-                    String groupId = getFirstChildText((Element) node, GROUP_ID);
-                    String artifactId = getFirstChildText((Element) node, ARTIFACT_ID);
+            for (PomElement node : exclusionsElement.getChildren()) {
+                if (EXCLUSION.equals(node.getName())) {
+                    String groupId = getFirstChildText(node, GROUP_ID);
+                    String artifactId = getFirstChildText(node, ARTIFACT_ID);
                     if (groupId != null && artifactId != null) {
                         exclusions.add(ModuleId.newInstance(groupId, artifactId));
                     }
@@ -463,41 +456,38 @@ public class PomReader {
         return getPlugins(projectElement);
     }
 
-    private List<PomPluginElement> getPlugins(Element parent) {
-        Element buildElement = getFirstChildElement(parent, "build");
-        Element pluginsElement = getFirstChildElement(buildElement, PLUGINS);
+    private List<PomPluginElement> getPlugins(PomElement parent) {
+        PomElement buildElement = getFirstChildElement(parent, "build");
+        PomElement pluginsElement = getFirstChildElement(buildElement, PLUGINS);
 
         if (pluginsElement == null) {
             return Collections.emptyList();
         }
-        NodeList children = pluginsElement.getChildNodes();
         List<PomPluginElement> plugins = new LinkedList<>();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node node = children.item(i);
-            if (node instanceof Element && PLUGIN.equals(node.getNodeName())) {
-                plugins.add(new PomPluginElement((Element) node));
+        for (PomElement node : pluginsElement.getChildren()) {
+            if (PLUGIN.equals(node.getName())) {
+                plugins.add(new PomPluginElement(node));
             }
         }
         return plugins;
     }
 
-    private static Map<String, String> getProperties(final Element parent) {
-        final Element propsEl = getFirstChildElement(parent, PROPERTIES);
+    private static Map<String, String> getProperties(final PomElement parent) {
+        final PomElement propsEl = getFirstChildElement(parent, PROPERTIES);
         if (propsEl == null) {
             return Collections.emptyMap();
         }
-        propsEl.normalize();
         final Map<String, String> props = new HashMap<>();
-        for (final Element prop : getAllChilds(propsEl)) {
-            props.put(prop.getNodeName(), getTextContent(prop));
+        for (final PomElement prop : getAllChilds(propsEl)) {
+            props.put(prop.getName(), prop.getText());
         }
         return props;
     }
 
     public class PomPluginElement implements PomDependencyMgt {
-        private Element pluginElement;
+        private PomElement pluginElement;
 
-        PomPluginElement(Element pluginElement) {
+        PomPluginElement(PomElement pluginElement) {
             this.pluginElement = pluginElement;
         }
 
@@ -536,13 +526,13 @@ public class PomReader {
     }
 
     public class PomDependencyData extends PomDependencyMgtElement {
-        private final Element depElement;
+        private final PomElement depElement;
 
         public PomDependencyData(PomDependencyData copyFrom) {
             this(copyFrom.depElement);
         }
 
-        PomDependencyData(Element depElement) {
+        PomDependencyData(PomElement depElement) {
             super(depElement);
             this.depElement = depElement;
         }
@@ -582,9 +572,9 @@ public class PomReader {
 
         private static final String JDK = "jdk";
 
-        private final Element profileElement;
+        private final PomElement profileElement;
 
-        PomProfileElement(Element profileElement) {
+        PomProfileElement(PomElement profileElement) {
             this.profileElement = profileElement;
         }
 
@@ -598,16 +588,16 @@ public class PomReader {
         }
 
         public boolean isActiveByDefault() {
-            Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
             return Boolean.parseBoolean(getFirstChildText(activation, ACTIVE_BY_DEFAULT_ELEMENT));
         }
 
         public boolean isActiveByOS() {
-            final Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            final PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
             if (activation == null) {
                 return false;
             }
-            final Element osActivation = getFirstChildElement(activation, OS);
+            final PomElement osActivation = getFirstChildElement(activation, OS);
             if (osActivation == null) {
                 return false;
             }
@@ -640,7 +630,7 @@ public class PomReader {
         }
 
         public boolean isActiveByJDK() {
-            final Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            final PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
             if (activation == null) {
                 return false;
             }
@@ -655,11 +645,11 @@ public class PomReader {
         }
 
         public boolean isActiveByFile() {
-            final Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            final PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
             if (activation == null) {
                 return false;
             }
-            final Element fileActivation = getFirstChildElement(activation, FILE);
+            final PomElement fileActivation = getFirstChildElement(activation, FILE);
             if (fileActivation == null) {
                 return false;
             }
@@ -681,8 +671,8 @@ public class PomReader {
         }
 
         public boolean isActivatedByProperty() {
-            Element activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
-            Element propertyActivation = getFirstChildElement(activation, PROPERTY);
+            PomElement activation = getFirstChildElement(profileElement, ACTIVATION_ELEMENT);
+            PomElement propertyActivation = getFirstChildElement(activation, PROPERTY);
             String propertyName = getFirstChildText(propertyActivation, NAME);
             if (propertyName == null || "".equals(propertyName)) {
                 return false;
@@ -737,61 +727,112 @@ public class PomReader {
         }
     }
 
-    private static String getTextContent(Element element) {
-        StringBuilder result = new StringBuilder();
-
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node child = childNodes.item(i);
-
-            switch (child.getNodeType()) {
-                case Node.CDATA_SECTION_NODE:
-                case Node.TEXT_NODE:
-                    result.append(child.getNodeValue());
-                    break;
-                default:
-                    break;
-            }
-        }
-
-        return result.toString();
-    }
-
-    private static String getFirstChildText(Element parentElem, String name) {
-        Element node = getFirstChildElement(parentElem, name);
+    private static String getFirstChildText(PomElement parentElem, String name) {
+        PomElement node = getFirstChildElement(parentElem, name);
         if (node != null) {
-            return getTextContent(node);
+            return node.getText();
         } else {
             return null;
         }
     }
 
-    private static Element getFirstChildElement(Element parentElem, String name) {
+    private static PomElement getFirstChildElement(PomElement parentElem, String name) {
         if (parentElem == null) {
             return null;
         }
-        NodeList childs = parentElem.getChildNodes();
-        for (int i = 0; i < childs.getLength(); i++) {
-            Node node = childs.item(i);
-            if (node instanceof Element && name.equals(node.getNodeName())) {
-                return (Element) node;
-            }
+        return parentElem.getFirstChild(name);
+    }
+
+    private static List<PomElement> getAllChilds(PomElement parent) {
+        if (parent == null) {
+            return Collections.emptyList();
         }
-        return null;
+        return parent.getChildren();
     }
 
-    private static List<Element> getAllChilds(Element parent) {
-        List<Element> r = new LinkedList<>();
-        if (parent != null) {
-            NodeList childs = parent.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element) {
-                    r.add((Element) node);
+    /**
+     * Builds the tree of {@link PomElement} of a pom, leaving out the elements which are never
+     * read, like the reporting section or the configuration of plugins.
+     */
+    private static final class PomHandler extends DefaultHandler {
+
+        /**
+         * The names of the elements to leave out, by name of their parent element.
+         */
+        private static final Map<String, Set<String>> SKIPPED_ELEMENTS = new HashMap<>();
+
+        static {
+            Set<String> projectSkipped = new HashSet<>(Arrays.asList("modules", "repositories",
+                "pluginRepositories", "reporting", "developers", "contributors", "scm",
+                "issueManagement", "ciManagement", "mailingLists", "organization",
+                "prerequisites"));
+            SKIPPED_ELEMENTS.put(PROJECT, projectSkipped);
+            SKIPPED_ELEMENTS.put(MODEL, projectSkipped);
+            SKIPPED_ELEMENTS.put(PROFILE, projectSkipped);
+            SKIPPED_ELEMENTS.put("build", new HashSet<>(Arrays.asList("pluginManagement",
+                "resources", "testResources", "extensions", "filters")));
+            SKIPPED_ELEMENTS.put(PLUGIN, new HashSet<>(Arrays.asList("configuration",
+                "executions", DEPENDENCIES)));
+        }
+
+        private final Deque<PomElement.Builder> elements = new ArrayDeque<>();
+
+        private int skippedDepth = 0;
+
+        private PomElement root;
+
+        public PomElement getRootElement() {
+            return root;
+        }
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) {
+            if (systemId != null && systemId.endsWith("m2-entities.ent")) {
+                // IVY-921: return an InputSource for our local packaged m2-entities.ent file
+                return new InputSource(PomReader.class.getResourceAsStream("m2-entities.ent"));
+            }
+            return null;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) {
+            if (skippedDepth > 0) {
+                skippedDepth++;
+                return;
+            }
+            PomElement.Builder parent = elements.peek();
+            if (parent != null) {
+                Set<String> skipped = SKIPPED_ELEMENTS.get(parent.getName());
+                if (skipped != null && skipped.contains(qName)) {
+                    skippedDepth = 1;
+                    return;
                 }
             }
+            elements.push(new PomElement.Builder(qName));
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (skippedDepth > 0) {
+                skippedDepth--;
+                return;
+            }
+            PomElement element = elements.pop().build();
+            PomElement.Builder parent = elements.peek();
+            if (parent == null) {
+                root = element;
+            } else {
+                parent.addChild(element);
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (skippedDepth == 0 && !elements.isEmpty()) {
+                elements.peek().appendText(ch, start, length);
+            }
         }
-        return r;
     }
 
     private static final class AddDTDFilterInputStream extends FilterInputStream {
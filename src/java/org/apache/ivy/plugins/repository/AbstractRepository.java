@@ -31,7 +31,8 @@ public abstract class AbstractRepository implements Repository {
 
     private String name;
 
-    private TransferEvent evt;
+    // transfers may run concurrently in several threads, each one having its own event
+    private final ThreadLocal<TransferEvent> evt = new ThreadLocal<>();
 
     private final TimeoutConstraint timeoutConstraint;
 
@@ -56,16 +57,20 @@ public abstract class AbstractRepository implements Repository {
     }
 
     protected void fireTransferInitiated(Resource res, int requestType) {
-        evt = new TransferEvent(this, res, TransferEvent.TRANSFER_INITIATED, requestType);
+        TransferEvent evt = new TransferEvent(this, res, TransferEvent.TRANSFER_INITIATED,
+                requestType);
+        this.evt.set(evt);
         fireTransferEvent(evt);
     }
 
     protected void fireTransferStarted() {
+        TransferEvent evt = this.evt.get();
         evt.setEventType(TransferEvent.TRANSFER_STARTED);
         fireTransferEvent(evt);
     }
 
     protected void fireTransferStarted(long totalLength) {
+        TransferEvent evt = this.evt.get();
         evt.setEventType(TransferEvent.TRANSFER_STARTED);
         evt.setTotalLength(totalLength);
         evt.setTotalLengthSet(true);
@@ -73,6 +78,7 @@ public abstract class AbstractRepository implements Repository {
     }
 
     protected void fireTransferProgress(long length) {
+        TransferEvent evt = this.evt.get();
         evt.setEventType(TransferEvent.TRANSFER_PROGRESS);
         evt.setLength(length);
         if (!evt.isTotalLengthSet()) {
@@ -82,6 +88,7 @@ public abstract class AbstractRepository implements Repository {
     }
 
     protected void fireTransferCompleted() {
+        TransferEvent evt = this.evt.get();
         evt.setEventType(TransferEvent.TRANSFER_COMPLETED);
         if (evt.getTotalLength() > 0 && !evt.isTotalLengthSet()) {
             evt.setTotalLengthSet(true);
@@ -90,6 +97,7 @@ public abstract class AbstractRepository implements Repository {
     }
 
     protected void fireTransferCompleted(long totalLength) {
+        TransferEvent evt = this.evt.get();
         evt.setEventType(TransferEvent.TRANSFER_COMPLETED);
         evt.setTotalLength(totalLength);
         evt.setTotalLengthSet(true);
@@ -97,11 +105,13 @@ public abstract class AbstractRepository implements Repository {
     }
 
     protected void fireTransferError() {
+        TransferEvent evt = this.evt.get();
         evt.setEventType(TransferEvent.TRANSFER_ERROR);
         fireTransferEvent(evt);
     }
 
     protected void fireTransferError(Exception ex) {
+        TransferEvent evt = this.evt.get();
         evt.setEventType(TransferEvent.TRANSFER_ERROR);
         evt.setException(ex);
         fireTransferEvent(evt);
@@ -27,9 +27,12 @@ public class RepositoryCopyProgressListener implements CopyProgressListener {
         this.repository = repository;
     }
 
-    private Long totalLength = null;
+    // a single listener is shared by all the transfers of its repository, which may run
+    // concurrently
+    private final ThreadLocal<Long> totalLength = new ThreadLocal<>();
 
     public void start(CopyProgressEvent evt) {
+        Long totalLength = getTotalLength();
         if (totalLength == null) {
             repository.fireTransferStarted();
         } else {
@@ -47,10 +50,14 @@ public class RepositoryCopyProgressListener implements CopyProgressListener {
     }
 
     public Long getTotalLength() {
-        return totalLength;
+        return totalLength.get();
     }
 
     public void setTotalLength(Long totalLength) {
-        this.totalLength = totalLength;
+        if (totalLength == null) {
+            this.totalLength.remove();
+        } else {
+            this.totalLength.set(totalLength);
+        }
     }
 }
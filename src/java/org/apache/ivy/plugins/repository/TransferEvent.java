@@ -151,6 +151,27 @@ public class TransferEvent extends IvyEvent {
         this.totalLength = length;
     }
 
+    /**
+     * Creates a copy of the given event, in its current state. Repositories update a single event
+     * during a transfer: a copy is needed to deliver the event after the transfer has moved on.
+     *
+     * @param event
+     *            the event to copy
+     */
+    public TransferEvent(final TransferEvent event) {
+        super(event);
+        this.resource = event.resource;
+        this.eventType = event.eventType;
+        this.requestType = event.requestType;
+        this.exception = event.exception;
+        this.localFile = event.localFile;
+        this.repository = event.repository;
+        this.length = event.length;
+        this.totalLength = event.totalLength;
+        this.isTotalLengthSet = event.isTotalLengthSet;
+        this.timeTracking = event.timeTracking.clone();
+    }
+
     private static String getName(int eventType) {
         switch (eventType) {
             case TRANSFER_INITIATED:
@@ -333,6 +354,19 @@ public class TransferEvent extends IvyEvent {
         }
     }
 
+    /**
+     * Adds the progress reported by a later progress event of the same transfer to this progress
+     * event, so that a single event can be delivered for both.
+     *
+     * @param event
+     *            the later progress event
+     */
+    public void coalesce(TransferEvent event) {
+        this.length += event.length;
+        this.totalLength = event.totalLength;
+        this.isTotalLengthSet = event.isTotalLengthSet;
+    }
+
     /**
      * Checks the given event type is a valid event type, throws an {@link IllegalArgumentException}
      * if it isn't
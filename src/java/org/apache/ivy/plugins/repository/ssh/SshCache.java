@@ -27,6 +27,7 @@ import java.util.Properties;
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.event.IvyEvent;
 import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.SynchronousListener;
 import org.apache.ivy.core.event.resolve.EndResolveEvent;
 import org.apache.ivy.util.Checks;
 import org.apache.ivy.util.Credentials;
@@ -61,6 +62,23 @@ public final class SshCache {
         return instance;
     }
 
+    /**
+     * Clears a session at the end of the resolve. It is notified synchronously, so that the
+     * session is closed before the resolve returns, even when events are delivered asynchronously.
+     */
+    private class SessionCleaner implements IvyListener, SynchronousListener {
+        private final Session session;
+
+        private SessionCleaner(Session session) {
+            this.session = session;
+        }
+
+        public void progress(IvyEvent event) {
+            event.getSource().removeIvyListener(this);
+            clearSession(session);
+        }
+    }
+
     private class Entry {
         private Session session = null;
 
@@ -98,12 +116,8 @@ public final class SshCache {
             host = newHost;
             user = newUser;
             port = newPort;
-            IvyContext.getContext().getEventManager().addIvyListener(new IvyListener() {
-                public void progress(IvyEvent event) {
-                    event.getSource().removeIvyListener(this);
-                    clearSession(session);
-                }
-            }, EndResolveEvent.NAME);
+            IvyContext.getContext().getEventManager().addIvyListener(new SessionCleaner(session),
+                EndResolveEvent.NAME);
         }
 
         /**
@@ -24,9 +24,9 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ivy.core.settings.TimeoutConstraint;
 import org.apache.ivy.plugins.repository.AbstractRepository;
@@ -39,7 +39,7 @@ import org.apache.ivy.util.url.ApacheURLLister;
 public class URLRepository extends AbstractRepository {
     private RepositoryCopyProgressListener progress = new RepositoryCopyProgressListener(this);
 
-    private final Map<String, Resource> resourcesCache = new HashMap<>();
+    private final Map<String, Resource> resourcesCache = new ConcurrentHashMap<>();
 
     public URLRepository() {
     }
@@ -27,6 +27,8 @@ import java.net.URL;
 import org.apache.ivy.core.settings.TimeoutConstraint;
 import org.apache.ivy.plugins.repository.LocalizableResource;
 import org.apache.ivy.plugins.repository.Resource;
+import org.apache.ivy.util.url.ConditionalURLHandler;
+import org.apache.ivy.util.url.ConditionalURLHandler.Validators;
 import org.apache.ivy.util.url.TimeoutConstrainedURLHandler;
 import org.apache.ivy.util.url.URLHandler;
 import org.apache.ivy.util.url.URLHandler.URLInfo;
@@ -45,6 +47,8 @@ public class URLResource implements LocalizableResource {
 
     private boolean exists;
 
+    private String etag;
+
     public URLResource(final URL url) {
         this(url, null);
     }
@@ -86,9 +90,48 @@ public class URLResource implements LocalizableResource {
         contentLength = info.getContentLength();
         lastModified = info.getLastModified();
         exists = info.isReachable();
+        etag = info.getETag();
         init = true;
     }
 
+    /**
+     * @return the entity tag of the content of this resource, or <code>null</code> if the server
+     *         didn't give one
+     */
+    public String getETag() {
+        if (!init) {
+            init();
+        }
+        return etag;
+    }
+
+    /**
+     * Checks with a single conditional request if the content of this resource has changed since
+     * it was last downloaded.
+     *
+     * @param etag
+     *            the entity tag of the known content, may be <code>null</code>
+     * @param lastModified
+     *            the last modification date of the known content, or 0 if unknown
+     * @return <code>null</code> if the known content is still up to date, the validators of the
+     *         current content otherwise
+     * @throws IOException
+     *             if the resource can't be checked
+     * @throws UnsupportedOperationException
+     *             if the URL handler in use can't send conditional requests
+     * @see ConditionalURLHandler#checkModified(URL, TimeoutConstraint, String, long)
+     */
+    @SuppressWarnings("deprecation")
+    public Validators checkModified(String etag, long lastModified) throws IOException {
+        final URLHandler handler = URLHandlerRegistry.getDefault();
+        if (!(handler instanceof ConditionalURLHandler)) {
+            throw new UnsupportedOperationException(
+                    "conditional requests are not supported by " + handler);
+        }
+        return ((ConditionalURLHandler) handler).checkModified(this.url, this.timeoutConstraint,
+            etag, lastModified);
+    }
+
     public long getContentLength() {
         if (!init) {
             init();
@@ -33,6 +33,7 @@ import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyThread;
 import org.apache.ivy.core.event.IvyEvent;
 import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.SynchronousListener;
 import org.apache.ivy.core.event.resolve.EndResolveEvent;
 import org.apache.ivy.core.settings.TimeoutConstraint;
 import org.apache.ivy.plugins.repository.AbstractRepository;
@@ -529,12 +530,8 @@ public class VsftpRepository extends AbstractRepository {
                 }
 
                 if (ivy != null) {
-                    ivy.getEventManager().addIvyListener(new IvyListener() {
-                        public void progress(IvyEvent event) {
-                            disconnect();
-                            event.getSource().removeIvyListener(this);
-                        }
-                    }, EndResolveEvent.NAME);
+                    ivy.getEventManager().addIvyListener(new Disconnecter(),
+                        EndResolveEvent.NAME);
                 }
 
             } catch (IOException ex) {
@@ -760,4 +757,15 @@ public class VsftpRepository extends AbstractRepository {
     public void setReadTimeout(long readTimeout) {
         this.readTimeout = readTimeout;
     }
+
+    /**
+     * Disconnects at the end of the resolve. It is notified synchronously, so that the connection
+     * is closed before the resolve returns, even when events are delivered asynchronously.
+     */
+    private class Disconnecter implements IvyListener, SynchronousListener {
+        public void progress(IvyEvent event) {
+            disconnect();
+            event.getSource().removeIvyListener(this);
+        }
+    }
 }
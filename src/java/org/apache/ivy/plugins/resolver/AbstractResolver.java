@@ -552,13 +552,31 @@ public abstract class AbstractResolver implements DependencyResolver, HasLatestS
         saveModuleRevisionIfNeeded(dd, newModuleFound);
 
         // check if latest is asked and compare to return the most recent
-        ResolvedModuleRevision previousModuleFound = data.getCurrentResolvedModuleRevision();
+        return selectLatest(newModuleFound, data.getCurrentResolvedModuleRevision(),
+            data.getDate());
+    }
+
+    /**
+     * Returns the module revision to keep among a newly found one and the one found by a previous
+     * resolver: the most recent one according to the latest strategy of this resolver, or the new
+     * one if it is as recent but has a real module descriptor while the previous one hasn't.
+     *
+     * @param newModuleFound
+     *            the module revision just found
+     * @param previousModuleFound
+     *            the module revision found previously, may be <code>null</code>
+     * @param date
+     *            the date of the resolve, may be <code>null</code>
+     * @return the module revision to keep
+     */
+    protected ResolvedModuleRevision selectLatest(ResolvedModuleRevision newModuleFound,
+            ResolvedModuleRevision previousModuleFound, Date date) {
         String newModuleDesc = describe(newModuleFound);
         Message.debug("\tchecking " + newModuleDesc + " against " + describe(previousModuleFound));
         if (previousModuleFound == null) {
             Message.debug("\tmodule revision kept as first found: " + newModuleDesc);
             return newModuleFound;
-        } else if (isAfter(newModuleFound, previousModuleFound, data.getDate())) {
+        } else if (isAfter(newModuleFound, previousModuleFound, date)) {
             Message.debug("\tmodule revision kept as younger: " + newModuleDesc);
             return newModuleFound;
         } else if (!newModuleFound.getDescriptor().isDefault()
@@ -34,6 +34,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.IvyPatternHelper;
@@ -76,6 +77,7 @@ import org.apache.ivy.plugins.resolver.util.ResolvedResource;
 import org.apache.ivy.plugins.resolver.util.ResourceMDParser;
 import org.apache.ivy.plugins.version.VersionMatcher;
 import org.apache.ivy.util.Checks;
+import org.apache.ivy.util.ChecksumDigester;
 import org.apache.ivy.util.ChecksumHelper;
 import org.apache.ivy.util.DateUtil;
 import org.apache.ivy.util.HostUtil;
@@ -144,9 +146,10 @@ public abstract class BasicResolver extends AbstractResolver {
      */
     private boolean envDependent = true;
 
-    private List<String> ivyattempts = new ArrayList<>();
+    private List<String> ivyattempts = Collections.synchronizedList(new ArrayList<String>());
 
-    private Map<Artifact, List<String>> artattempts = new HashMap<>();
+    // artifacts may be downloaded and descriptors prefetched concurrently, see ResolveEngine
+    private Map<Artifact, List<String>> artattempts = new ConcurrentHashMap<>();
 
     private boolean checkconsistency = true;
 
@@ -839,7 +842,7 @@ public abstract class BasicResolver extends AbstractResolver {
     public DownloadReport download(Artifact[] artifacts, DownloadOptions options) {
         RepositoryCacheManager cacheManager = getRepositoryCacheManager();
 
-        clearArtifactAttempts();
+        clearArtifactAttempts(artifacts);
         DownloadReport dr = new DownloadReport();
         for (Artifact artifact : artifacts) {
             ArtifactDownloadReport adr = cacheManager.download(artifact, artifactResourceResolver,
@@ -865,6 +868,19 @@ public abstract class BasicResolver extends AbstractResolver {
         artattempts.clear();
     }
 
+    /**
+     * Clears the attempts logged for the given artifacts only, leaving untouched the attempts of
+     * artifacts being downloaded concurrently by other threads.
+     *
+     * @param artifacts
+     *            the artifacts for which attempts should be cleared
+     */
+    protected void clearArtifactAttempts(Artifact[] artifacts) {
+        for (Artifact artifact : artifacts) {
+            artattempts.remove(artifact);
+        }
+    }
+
     @Override
     public ArtifactDownloadReport download(final ArtifactOrigin origin, DownloadOptions options) {
         Checks.checkNotNull(origin, "origin");
@@ -982,9 +998,20 @@ public abstract class BasicResolver extends AbstractResolver {
     }
 
     protected long getAndCheck(Resource resource, File dest) throws IOException {
-        long size = get(resource, dest);
-        for (String checksum : getChecksumAlgorithms()) {
-            if (check(resource, dest, checksum)) {
+        String[] checksums = getChecksumAlgorithms();
+        if (checksums.length == 0) {
+            return get(resource, dest);
+        }
+        // compute the checksums while the resource is downloaded, to avoid reading it again
+        ChecksumDigester digester = ChecksumDigester.start(Arrays.asList(checksums));
+        long size;
+        try {
+            size = get(resource, dest);
+        } finally {
+            digester.stop();
+        }
+        for (String checksum : checksums) {
+            if (check(resource, dest, checksum, digester.getChecksum(checksum, dest.length()))) {
                 break;
             }
         }
@@ -1000,12 +1027,16 @@ public abstract class BasicResolver extends AbstractResolver {
      *            the file where the resource has been downloaded
      * @param algorithm
      *            the checksum algorithm to use
+     * @param computed
+     *            the checksum computed during the download, <code>null</code> to compute it from
+     *            the downloaded file
      * @return true if the checksum has been successfully checked, false if the checksum wasn't
      *         available
      * @throws IOException
      *             if a checksum exist but do not match the downloaded file checksum
      */
-    private boolean check(Resource resource, File dest, String algorithm) throws IOException {
+    private boolean check(Resource resource, File dest, String algorithm, String computed)
+            throws IOException {
         if (!ChecksumHelper.isKnownAlgorithm(algorithm)) {
             throw new IllegalArgumentException("Unknown checksum algorithm: " + algorithm);
         }
@@ -1017,7 +1048,7 @@ public abstract class BasicResolver extends AbstractResolver {
             try {
                 get(csRes, csFile);
                 try {
-                    ChecksumHelper.check(dest, csFile, algorithm);
+                    ChecksumHelper.check(dest, csFile, algorithm, computed);
                     Message.verbose(algorithm + " OK for " + resource);
                     return true;
                 } catch (IOException ex) {
@@ -22,13 +22,22 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.WorkerTask;
 import org.apache.ivy.core.cache.ArtifactOrigin;
+import org.apache.ivy.core.event.EventManager;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
@@ -49,6 +58,11 @@ import org.apache.ivy.util.StringUtils;
  *
  */
 public class ChainResolver extends AbstractResolver {
+    private static final long LOOKUP_THREADS_KEEP_ALIVE = 60;
+
+    // set in lookup threads, so that chains used from there don't wait for other lookup threads
+    private static final ThreadLocal<Boolean> IN_LOOKUP_THREAD = new ThreadLocal<>();
+
     public static class ResolvedModuleRevisionArtifactInfo implements ArtifactInfo {
         private ResolvedModuleRevision rmr;
 
@@ -71,6 +85,10 @@ public class ChainResolver extends AbstractResolver {
 
     private boolean dual;
 
+    private boolean parallel = false;
+
+    private ExecutorService executor;
+
     public void add(DependencyResolver resolver) {
         chain.add(resolver);
     }
@@ -93,24 +111,10 @@ public class ChainResolver extends AbstractResolver {
             }
         }
 
-        for (DependencyResolver resolver : chain) {
-            LatestStrategy oldLatest = setLatestIfRequired(resolver, getLatestStrategy());
-            try {
-                ResolvedModuleRevision previouslyResolved = mr;
-                data.setCurrentResolvedModuleRevision(previouslyResolved);
-                mr = resolver.getDependency(dd, data);
-                if (mr != previouslyResolved && isReturnFirst()) {
-                    mr = forcedRevision(mr);
-                }
-            } catch (Exception ex) {
-                Message.verbose("problem occurred while resolving " + dd + " with " + resolver, ex);
-                errors.add(ex);
-            } finally {
-                if (oldLatest != null) {
-                    setLatest(resolver, oldLatest);
-                }
-            }
-            checkInterrupted();
+        if (isParallelLookup(dd, mr)) {
+            mr = getDependencyInParallel(dd, data, mr, errors);
+        } else {
+            mr = getDependencyInSequence(dd, data, mr, errors);
         }
         if (mr == null && !errors.isEmpty()) {
             if (errors.size() == 1) {
@@ -139,6 +143,143 @@ public class ChainResolver extends AbstractResolver {
         return resolvedRevision(mr);
     }
 
+    private ResolvedModuleRevision getDependencyInSequence(DependencyDescriptor dd,
+            ResolveData data, ResolvedModuleRevision mr, List<Exception> errors) {
+        for (DependencyResolver resolver : chain) {
+            LatestStrategy oldLatest = setLatestIfRequired(resolver, getLatestStrategy());
+            try {
+                ResolvedModuleRevision previouslyResolved = mr;
+                data.setCurrentResolvedModuleRevision(previouslyResolved);
+                mr = resolver.getDependency(dd, data);
+                if (mr != previouslyResolved && isReturnFirst()) {
+                    mr = forcedRevision(mr);
+                }
+            } catch (Exception ex) {
+                Message.verbose("problem occurred while resolving " + dd + " with " + resolver, ex);
+                errors.add(ex);
+            } finally {
+                if (oldLatest != null) {
+                    setLatest(resolver, oldLatest);
+                }
+            }
+            checkInterrupted();
+        }
+        return mr;
+    }
+
+    /**
+     * Tells if the given dependency should be looked up in all the resolvers of the chain
+     * concurrently. This is only done when every resolver would be asked anyway: for dynamic
+     * revisions, when the chain doesn't return the first module found and nothing forced the
+     * module revision already found.
+     */
+    private boolean isParallelLookup(DependencyDescriptor dd, ResolvedModuleRevision mr) {
+        return isParallel() && !isReturnFirst() && chain.size() > 1
+                && (mr == null || !mr.isForce()) && !Boolean.TRUE.equals(IN_LOOKUP_THREAD.get())
+                && getSettings().getVersionMatcher().isDynamic(dd.getDependencyRevisionId());
+    }
+
+    /**
+     * Asks all the resolvers of the chain for the given dependency concurrently, each one being
+     * given the module revision found before the lookup. The results are then compared in the
+     * order of the chain, as if each resolver had been asked after the previous ones.
+     */
+    private ResolvedModuleRevision getDependencyInParallel(DependencyDescriptor dd,
+            ResolveData data, ResolvedModuleRevision previouslyResolved, List<Exception> errors) {
+        Message.verbose(getName() + ": looking for " + dd.getDependencyRevisionId() + " in "
+                + chain.size() + " resolvers concurrently");
+        List<LatestStrategy> oldLatests = new ArrayList<>();
+        List<ChainLookup> lookups = new ArrayList<>();
+        try {
+            for (DependencyResolver resolver : chain) {
+                oldLatests.add(setLatestIfRequired(resolver, getLatestStrategy()));
+                ResolveData lookupData = new ResolveData(data, data.isValidate());
+                lookupData.setCurrentResolvedModuleRevision(previouslyResolved);
+                ChainLookup lookup = new ChainLookup(resolver, dd, lookupData);
+                lookup.submit(getExecutor());
+                lookups.add(lookup);
+            }
+            ResolvedModuleRevision mr = previouslyResolved;
+            for (ChainLookup lookup : lookups) {
+                lookup.await();
+                lookup.fireEvents();
+                if (lookup.error != null) {
+                    Message.verbose("problem occurred while resolving " + dd + " with "
+                            + lookup.resolver, lookup.error);
+                    errors.add(lookup.error);
+                } else if (lookup.result != null && lookup.result != previouslyResolved
+                        && (mr == null || !mr.isForce())) {
+                    mr = selectLatest(lookup.result, mr, data.getDate());
+                }
+            }
+            checkInterrupted();
+            return mr;
+        } finally {
+            for (ChainLookup lookup : lookups) {
+                lookup.cancel();
+            }
+            for (int i = 0; i < oldLatests.size(); i++) {
+                if (oldLatests.get(i) != null) {
+                    setLatest(chain.get(i), oldLatests.get(i));
+                }
+            }
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(chain.size(), chain.size(),
+                    LOOKUP_THREADS_KEEP_ALIVE, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    WorkerTask.newThreadFactory("ivy-chain-" + getName() + "-"));
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    /**
+     * The lookup of a dependency in one resolver of the chain, run in a lookup thread. The ivy
+     * events it fires are recorded to be delivered by the resolving thread, in the order of the
+     * chain.
+     */
+    private static final class ChainLookup extends WorkerTask<Void, RuntimeException> {
+        private final DependencyResolver resolver;
+
+        private final DependencyDescriptor dd;
+
+        private final ResolveData data;
+
+        private ResolvedModuleRevision result;
+
+        private Exception error;
+
+        private ChainLookup(DependencyResolver resolver, DependencyDescriptor dd,
+                ResolveData data) {
+            super(getIvyEventManager());
+            this.resolver = resolver;
+            this.dd = dd;
+            this.data = data;
+        }
+
+        private static EventManager getIvyEventManager() {
+            Ivy ivy = IvyContext.getContext().peekIvy();
+            return ivy == null ? null : ivy.getEventManager();
+        }
+
+        protected Void doCall() {
+            IN_LOOKUP_THREAD.set(Boolean.TRUE);
+            try {
+                result = resolver.getDependency(dd, data);
+            } catch (Exception ex) {
+                error = ex;
+            } finally {
+                IN_LOOKUP_THREAD.remove();
+            }
+            return null;
+        }
+    }
+
     private ResolvedModuleRevision resolvedRevision(ResolvedModuleRevision mr) {
         if (isDual() && mr != null) {
             return new ResolvedModuleRevision(mr.getResolver(), this, mr.getDescriptor(),
@@ -273,6 +414,7 @@ public class ChainResolver extends AbstractResolver {
         Message.verbose("\t" + getName() + " [chain] " + chain);
         Message.debug("\t\treturn first: " + isReturnFirst());
         Message.debug("\t\tdual: " + isDual());
+        Message.debug("\t\tparallel: " + isParallel());
         for (DependencyResolver resolver : chain) {
             Message.debug("\t\t-> " + resolver.getName());
         }
@@ -342,4 +484,22 @@ public class ChainResolver extends AbstractResolver {
     public boolean isDual() {
         return dual;
     }
+
+    /**
+     * Sets whether dynamic revisions are looked up in all the resolvers of the chain concurrently.
+     * It only applies when the chain doesn't return the first module found, since all resolvers
+     * have to be asked anyway. The module revision selected is the same as with a sequential
+     * lookup, but all the resolvers are asked even if the cache or one of them forces the
+     * revision.
+     *
+     * @param parallel
+     *            <code>true</code> to look up dynamic revisions concurrently
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
 }
@@ -19,8 +19,9 @@ package org.apache.ivy.plugins.trigger;
 
 import org.apache.ivy.core.event.IvyEvent;
 import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.SynchronousListener;
 import org.apache.ivy.util.filter.Filter;
 
-public interface Trigger extends IvyListener {
+public interface Trigger extends IvyListener, SynchronousListener {
     Filter<IvyEvent> getEventFilter();
 }
@@ -0,0 +1,113 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes checksums of the data copied by {@link FileUtil} in the current thread, so that a
+ * downloaded file can be checked without being read again.
+ * <p>
+ * A digester is started before a download and stopped after it. Each stream copy made by
+ * {@link FileUtil} in between starts the checksums over, so that they correspond to the last
+ * copy, which is the one that wrote the downloaded file.
+ * </p>
+ */
+public final class ChecksumDigester {
+    private static final ThreadLocal<ChecksumDigester> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, MessageDigest> digests = new LinkedHashMap<>();
+
+    private long length;
+
+    private ChecksumDigester(Collection<String> algorithms) {
+        for (String algorithm : algorithms) {
+            if (ChecksumHelper.isKnownAlgorithm(algorithm) && !digests.containsKey(algorithm)) {
+                digests.put(algorithm, ChecksumHelper.getMessageDigest(algorithm));
+            }
+        }
+    }
+
+    /**
+     * Starts computing the checksums of the data copied in the current thread.
+     *
+     * @param algorithms
+     *            the checksum algorithms to compute. Unknown algorithms are ignored.
+     * @return the started digester, to be stopped by the caller
+     */
+    public static ChecksumDigester start(Collection<String> algorithms) {
+        ChecksumDigester digester = new ChecksumDigester(algorithms);
+        CURRENT.set(digester);
+        return digester;
+    }
+
+    /**
+     * Stops computing checksums in the current thread. The checksums computed so far remain
+     * available.
+     */
+    public void stop() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    static ChecksumDigester current() {
+        return CURRENT.get();
+    }
+
+    void reset() {
+        for (MessageDigest digest : digests.values()) {
+            digest.reset();
+        }
+        length = 0;
+    }
+
+    void update(byte[] buffer, int offset, int len) {
+        for (MessageDigest digest : digests.values()) {
+            digest.update(buffer, offset, len);
+        }
+        length += len;
+    }
+
+    /**
+     * Returns the checksum computed with the given algorithm, provided the amount of data
+     * digested is the expected one.
+     *
+     * @param algorithm
+     *            the checksum algorithm
+     * @param expectedLength
+     *            the length of the downloaded file
+     * @return the checksum as an hexadecimal string, or <code>null</code> if it has not been
+     *         computed or if it was computed over a different amount of data
+     */
+    public String getChecksum(String algorithm, long expectedLength) {
+        MessageDigest digest = digests.get(algorithm);
+        if (digest == null || length != expectedLength) {
+            return null;
+        }
+        try {
+            // digest() resets the digest, work on a copy so that the checksum can be asked again
+            return ChecksumHelper.byteArrayToHexString(((MessageDigest) digest.clone()).digest());
+        } catch (CloneNotSupportedException e) {
+            return null;
+        }
+    }
+}
@@ -79,6 +79,28 @@ public final class ChecksumHelper {
      *             if an IO problem occur while reading files or if the checksum is not compliant
      */
     public static void check(File dest, File checksumFile, String algorithm) throws IOException {
+        check(dest, checksumFile, algorithm, null);
+    }
+
+    /**
+     * Checks the checksum of the given file against the given checksumFile, and throws an
+     * IOException if the checksum is not compliant
+     *
+     * @param dest
+     *            the file to test
+     * @param checksumFile
+     *            the file containing the expected checksum
+     * @param algorithm
+     *            the checksum algorithm to use
+     * @param computed
+     *            the checksum of the file, computed while it was written, or <code>null</code> to
+     *            compute it by reading the file
+     * @throws IOException
+     *             if an IO problem occur while reading files or if the checksum is not compliant
+     * @see ChecksumDigester
+     */
+    public static void check(File dest, File checksumFile, String algorithm, String computed)
+            throws IOException {
         String csFileContent = FileUtil
                 .readEntirely(new BufferedReader(new FileReader(checksumFile))).trim()
                 .toLowerCase(Locale.US);
@@ -108,7 +130,10 @@ public final class ChecksumHelper {
             }
         }
 
-        String computed = computeAsString(dest, algorithm).trim().toLowerCase(Locale.US);
+        if (computed == null) {
+            computed = computeAsString(dest, algorithm);
+        }
+        computed = computed.trim().toLowerCase(Locale.US);
         if (!expected.equals(computed)) {
             throw new IOException("invalid " + algorithm + ": expected=" + expected + " computed="
                     + computed);
@@ -138,7 +163,7 @@ public final class ChecksumHelper {
         return algorithms.containsKey(algorithm);
     }
 
-    private static MessageDigest getMessageDigest(String algorithm) {
+    static MessageDigest getMessageDigest(String algorithm) {
         String mdAlgorithm = algorithms.get(algorithm);
         if (mdAlgorithm == null) {
             throw new IllegalArgumentException("unknown algorithm " + algorithm);
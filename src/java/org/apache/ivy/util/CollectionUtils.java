@@ -18,8 +18,12 @@
 package org.apache.ivy.util;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 public class CollectionUtils {
 
@@ -30,4 +34,27 @@ public class CollectionUtils {
         }
         return list;
     }
+
+    /**
+     * Returns an unmodifiable set containing the elements of the given collection, using as little
+     * memory as possible for the common cases of an empty collection or a single element.
+     *
+     * @param <T> the type of the elements
+     * @param collection the elements of the set
+     * @return an unmodifiable set with the elements of the collection
+     */
+    public static <T> Set<T> compactSet(Collection<T> collection) {
+        switch (collection.size()) {
+            case 0:
+                return Collections.emptySet();
+            case 1:
+                return Collections.singleton(collection.iterator().next());
+            default:
+                Set<T> set = new HashSet<>(collection);
+                if (set.size() == 1) {
+                    return Collections.singleton(set.iterator().next());
+                }
+                return Collections.unmodifiableSet(set);
+        }
+    }
 }
@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
@@ -97,6 +98,38 @@ public final class FileUtil {
         return true;
     }
 
+    /**
+     * Creates a hard link at {@code link} to the {@code target} file. Depending on the underlying
+     * filesystem, this method may not always be able to create a hard link (for instance when
+     * {@code target} and {@code link} are not on the same file system), in which case this method
+     * returns {@code false}. Directories cannot be hard linked.
+     *
+     * @param target    The {@link File} which will be the target of the hard link being created
+     * @param link      The path to the hard link that needs to be created
+     * @param overwrite {@code true} if any existing file at {@code link} has to be overwritten.
+     *                  False otherwise
+     * @return Returns true if the hard link was successfully created. Returns false if the hard
+     * link could not be created
+     * @throws IOException if the existing file at {@code link} cannot be replaced
+     */
+    public static boolean hardlink(final File target, final File link, final boolean overwrite)
+            throws IOException {
+        if (!target.isFile() || !prepareCopy(target, link, overwrite)) {
+            return false;
+        }
+        try {
+            if (link.exists() && Files.isSameFile(target.toPath(), link.toPath())) {
+                return true;
+            }
+            Files.deleteIfExists(link.toPath());
+            Files.createLink(link.toPath(), target.toPath());
+            return true;
+        } catch (FileSystemException | UnsupportedOperationException e) {
+            Message.verbose("impossible to create hard link " + link + " to " + target + ": " + e);
+            return false;
+        }
+    }
+
     /**
      * This is the same as calling {@link #copy(File, File, CopyProgressListener, boolean)} with
      * {@code overwrite} param as {@code true}
@@ -278,6 +311,10 @@ public final class FileUtil {
         if (l != null) {
             evt = new CopyProgressEvent();
         }
+        ChecksumDigester digester = ChecksumDigester.current();
+        if (digester != null) {
+            digester.reset();
+        }
         try {
             byte[] buffer = new byte[BUFFER_SIZE];
             int c;
@@ -291,6 +328,9 @@ public final class FileUtil {
                     throw new IOException("transfer interrupted");
                 }
                 dest.write(buffer, 0, c);
+                if (digester != null) {
+                    digester.update(buffer, 0, c);
+                }
                 total += c;
                 if (l != null) {
                     l.progress(evt.update(buffer, c, total));
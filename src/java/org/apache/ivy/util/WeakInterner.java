@@ -0,0 +1,156 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread safe pool of canonical instances, which are only weakly referenced so that they can be
+ * garbage collected once they aren't used anymore.
+ * <p>
+ * Lookups of an already interned instance don't take any lock, and adding an instance only
+ * contends with concurrent additions of equal instances. References to collected instances are
+ * removed from the pool using a reference queue, on subsequent calls.
+ * </p>
+ *
+ * @param <T>
+ *            the type of the interned instances, which must be immutable and implement equals
+ *            and hashCode
+ */
+public final class WeakInterner<T> {
+
+    private final ConcurrentMap<Object, Ref<T>> pool = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+    /**
+     * Returns the interned instance equal to the given one if any, or interns the given instance
+     * and returns it.
+     *
+     * @param value
+     *            the instance to intern, not null
+     * @return the interned instance
+     */
+    public T intern(T value) {
+        expungeCollected();
+        // looking up with a strong key avoids allocating a weak reference for already interned
+        // instances, which would have to be processed by the garbage collector
+        Ref<T> existing = pool.get(new Lookup(value));
+        if (existing != null) {
+            T interned = existing.get();
+            if (interned != null) {
+                return interned;
+            }
+        }
+        Ref<T> ref = new Ref<>(value, queue);
+        while (true) {
+            existing = pool.putIfAbsent(ref, ref);
+            if (existing == null) {
+                return value;
+            }
+            T interned = existing.get();
+            if (interned != null) {
+                return interned;
+            }
+            // collected but not expunged yet: replace it
+            pool.remove(existing, existing);
+        }
+    }
+
+    /**
+     * @return the number of instances in the pool, including the collected ones which haven't
+     *         been removed yet
+     */
+    public int size() {
+        expungeCollected();
+        return pool.size();
+    }
+
+    private void expungeCollected() {
+        Object ref;
+        while ((ref = queue.poll()) != null) {
+            pool.remove(ref);
+        }
+    }
+
+    /**
+     * A key of the pool, equal to the other keys with an equal referent.
+     */
+    private interface Key {
+        Object referent();
+    }
+
+    /**
+     * A weak reference remembering the hash code of its referent, so that it can still be found
+     * in the pool once its referent is collected. A cleared reference is only equal to itself.
+     */
+    private static final class Ref<T> extends WeakReference<T> implements Key {
+        private final int hash;
+
+        Ref(T referent, ReferenceQueue<T> queue) {
+            super(referent, queue);
+            this.hash = referent.hashCode();
+        }
+
+        public Object referent() {
+            return get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this || keyEquals(referent(), obj);
+        }
+    }
+
+    /**
+     * A strong key used to look an instance up in the pool.
+     */
+    private static final class Lookup implements Key {
+        private final Object referent;
+
+        Lookup(Object referent) {
+            this.referent = referent;
+        }
+
+        public Object referent() {
+            return referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return referent.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this || keyEquals(referent, obj);
+        }
+    }
+
+    private static boolean keyEquals(Object referent, Object key) {
+        return referent != null && key instanceof Key && referent.equals(((Key) key).referent());
+    }
+}
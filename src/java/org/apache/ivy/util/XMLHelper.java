@@ -23,6 +23,11 @@ import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -67,15 +72,30 @@ public abstract class XMLHelper {
     public static final String ALLOW_DOCTYPE_PROCESSING = "ivy.xml.allow-doctype-processing";
     public static final String EXTERNAL_RESOURCES = "ivy.xml.external-resources";
 
+    /**
+     * Factories are expensive to look up and configure, so one is kept per feature set (see
+     * {@link #featureSetKey(boolean, boolean, ExternalResources)}). JAXP factories are not
+     * guaranteed to be thread safe, hence parsers are created while holding the factory monitor.
+     */
+    private static final Map<Integer, SAXParserFactory> SAX_PARSER_FACTORIES =
+            new ConcurrentHashMap<>();
+
+    private static final Map<Integer, DocumentBuilderFactory> DOC_BUILDER_FACTORIES =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Idle non validating parsers of each thread. Parsers are reset before being put back, so
+     * that they don't keep the handlers of the previous parse alive.
+     */
+    private static final ParserPool<SAXParser> SAX_PARSERS = new ParserPool<>();
+
+    private static final ParserPool<DocumentBuilder> DOC_BUILDERS = new ParserPool<>();
+
     private static SAXParser newSAXParser(final URL schema, final InputStream schemaStream,
         final boolean allowXmlDoctypeProcessing, final ExternalResources externalResources)
         throws ParserConfigurationException, SAXException {
-        final SAXParserFactory parserFactory = SAXParserFactory.newInstance();
-        parserFactory.setNamespaceAware(true);
-        parserFactory.setValidating(schema != null);
-        configureSafeFeatures(parserFactory, allowXmlDoctypeProcessing, externalResources);
-
-        SAXParser parser = parserFactory.newSAXParser();
+        SAXParser parser = newSAXParser(schema != null, allowXmlDoctypeProcessing,
+            externalResources);
         if (schema != null) {
             try {
                 parser.setProperty(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
@@ -83,19 +103,74 @@ public abstract class XMLHelper {
             } catch (SAXNotRecognizedException ex) {
                 Message.warn("problem while setting JAXP validating property on SAXParser... "
                         + "XML validation will not be done", ex);
-                parserFactory.setValidating(false);
-                parser = parserFactory.newSAXParser();
+                parser = newSAXParser(false, allowXmlDoctypeProcessing, externalResources);
             }
         }
-        final XMLReader reader = parser.getXMLReader();
+        configureReader(parser.getXMLReader(), externalResources);
+        return parser;
+    }
+
+    private static SAXParser newSAXParser(final boolean validating,
+            final boolean allowXmlDoctypeProcessing, final ExternalResources externalResources)
+            throws ParserConfigurationException, SAXException {
+        final Integer key = featureSetKey(validating, allowXmlDoctypeProcessing, externalResources);
+        SAXParserFactory parserFactory = SAX_PARSER_FACTORIES.get(key);
+        if (parserFactory == null) {
+            parserFactory = SAXParserFactory.newInstance();
+            parserFactory.setNamespaceAware(true);
+            parserFactory.setValidating(validating);
+            configureSafeFeatures(parserFactory, allowXmlDoctypeProcessing, externalResources);
+            SAX_PARSER_FACTORIES.put(key, parserFactory);
+        }
+        synchronized (parserFactory) {
+            return parserFactory.newSAXParser();
+        }
+    }
+
+    private static void configureReader(final XMLReader reader,
+            final ExternalResources externalResources) {
         trySetFeature(reader, XML_NAMESPACE_PREFIXES, true);
         trySetProperty(reader, XML_ACCESS_EXTERNAL_SCHEMA,
                        externalResources.getAllowedProtocols());
         trySetProperty(reader, XML_ACCESS_EXTERNAL_DTD,
                        externalResources.getAllowedProtocols());
+    }
+
+    /**
+     * Takes an idle non validating parser of the current thread, or creates a new one if there
+     * is none (for instance when parsing a file from within the handler of another parse).
+     */
+    private static SAXParser borrowSAXParser(final boolean allowXmlDoctypeProcessing,
+            final ExternalResources externalResources)
+            throws ParserConfigurationException, SAXException {
+        final SAXParser parser = SAX_PARSERS.borrow(featureSetKey(false,
+            allowXmlDoctypeProcessing, externalResources));
+        if (parser == null) {
+            return newSAXParser(null, null, allowXmlDoctypeProcessing, externalResources);
+        }
+        // reset() restores the reader as the factory created it
+        configureReader(parser.getXMLReader(), externalResources);
         return parser;
     }
 
+    private static void releaseSAXParser(final SAXParser parser,
+            final boolean allowXmlDoctypeProcessing, final ExternalResources externalResources) {
+        try {
+            parser.reset();
+        } catch (UnsupportedOperationException e) {
+            // this implementation can't be reused
+            return;
+        }
+        SAX_PARSERS.release(featureSetKey(false, allowXmlDoctypeProcessing, externalResources),
+            parser);
+    }
+
+    private static Integer featureSetKey(final boolean validating,
+            final boolean allowXmlDoctypeProcessing, final ExternalResources externalResources) {
+        return (externalResources.ordinal() << 2) | (allowXmlDoctypeProcessing ? 2 : 0)
+                | (validating ? 1 : 0);
+    }
+
     /**
      * Convert an URL to a valid systemId according to RFC 2396.
      *
@@ -159,18 +234,32 @@ public abstract class XMLHelper {
             loadExternalDtds ? ExternalResources.LOCAL_ONLY : ExternalResources.PROHIBIT);
     }
 
+    public static void parse(final InputSource xmlStream, final URL schema,
+                             final DefaultHandler handler, final LexicalHandler lHandler,
+                             final ExternalResources externalResources) throws SAXException, IOException,
+            ParserConfigurationException {
+        parse(xmlStream, schema, handler, lHandler, isXmlDoctypeProcessingAllowed(),
+            externalResources);
+    }
+
     @SuppressWarnings("deprecation")
     public static void parse(final InputSource xmlStream, final URL schema,
                              final DefaultHandler handler, final LexicalHandler lHandler,
+                             final boolean allowXmlDoctypeProcessing,
                              final ExternalResources externalResources) throws SAXException, IOException,
             ParserConfigurationException {
         InputStream schemaStream = null;
+        SAXParser pooledParser = null;
         try {
+            final SAXParser parser;
             if (schema != null) {
                 schemaStream = URLHandlerRegistry.getDefault().openStream(schema);
+                parser = XMLHelper.newSAXParser(schema, schemaStream, allowXmlDoctypeProcessing,
+                    externalResources);
+            } else {
+                parser = borrowSAXParser(allowXmlDoctypeProcessing, externalResources);
+                pooledParser = parser;
             }
-            SAXParser parser = XMLHelper.newSAXParser(schema, schemaStream,
-                    isXmlDoctypeProcessingAllowed(), externalResources);
 
             if (lHandler != null) {
                 try {
@@ -187,6 +276,9 @@ public abstract class XMLHelper {
                 : handler;
             parser.parse(xmlStream, h);
         } finally {
+            if (pooledParser != null) {
+                releaseSAXParser(pooledParser, allowXmlDoctypeProcessing, externalResources);
+            }
             if (schemaStream != null) {
                 try {
                     schemaStream.close();
@@ -251,9 +343,22 @@ public abstract class XMLHelper {
     public static Document parseToDom(InputSource source, EntityResolver entityResolver,
             boolean allowXmlDoctypeProcessing, ExternalResources externalResources)
             throws IOException, SAXException {
-        DocumentBuilder docBuilder = getDocBuilder(entityResolver, allowXmlDoctypeProcessing,
-            externalResources);
-        return docBuilder.parse(source);
+        final Integer key = featureSetKey(false, allowXmlDoctypeProcessing, externalResources);
+        DocumentBuilder docBuilder = DOC_BUILDERS.borrow(key);
+        if (docBuilder == null) {
+            docBuilder = newDocumentBuilder(allowXmlDoctypeProcessing, externalResources);
+        }
+        configureEntityResolver(docBuilder, entityResolver, externalResources);
+        try {
+            return docBuilder.parse(source);
+        } finally {
+            try {
+                docBuilder.reset();
+                DOC_BUILDERS.release(key, docBuilder);
+            } catch (UnsupportedOperationException e) {
+                // this implementation can't be reused
+            }
+        }
     }
 
     public static DocumentBuilder getDocBuilder(EntityResolver entityResolver) {
@@ -263,23 +368,41 @@ public abstract class XMLHelper {
 
     public static DocumentBuilder getDocBuilder(EntityResolver entityResolver,
             boolean allowXmlDoctypeProcessing, ExternalResources externalResources) {
-        try {
-            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        DocumentBuilder docBuilder = newDocumentBuilder(allowXmlDoctypeProcessing,
+            externalResources);
+        configureEntityResolver(docBuilder, entityResolver, externalResources);
+        return docBuilder;
+    }
+
+    private static DocumentBuilder newDocumentBuilder(boolean allowXmlDoctypeProcessing,
+            ExternalResources externalResources) {
+        final Integer key = featureSetKey(false, allowXmlDoctypeProcessing, externalResources);
+        DocumentBuilderFactory factory = DOC_BUILDER_FACTORIES.get(key);
+        if (factory == null) {
+            factory = DocumentBuilderFactory.newInstance();
             factory.setValidating(false);
             configureSafeFeatures(factory, allowXmlDoctypeProcessing, externalResources);
-            DocumentBuilder docBuilder = factory.newDocumentBuilder();
-            if (externalResources == ExternalResources.IGNORE) {
-                entityResolver = new NoopEntityResolver(entityResolver);
-            }
-            if (entityResolver != null) {
-                docBuilder.setEntityResolver(entityResolver);
+            DOC_BUILDER_FACTORIES.put(key, factory);
+        }
+        try {
+            synchronized (factory) {
+                return factory.newDocumentBuilder();
             }
-            return docBuilder;
         } catch (ParserConfigurationException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private static void configureEntityResolver(DocumentBuilder docBuilder,
+            EntityResolver entityResolver, ExternalResources externalResources) {
+        if (externalResources == ExternalResources.IGNORE) {
+            entityResolver = new NoopEntityResolver(entityResolver);
+        }
+        if (entityResolver != null) {
+            docBuilder.setEntityResolver(entityResolver);
+        }
+    }
+
     public static Transformer getTransformer(Source source) throws TransformerConfigurationException {
         TransformerFactory factory = getTransformerFactory();
         return factory.newTransformer(source);
@@ -537,6 +660,39 @@ public abstract class XMLHelper {
         }
     }
 
+    /**
+     * Per thread stacks of idle parsers, by feature set. A parser is removed from its stack
+     * while in use, so nested parses on the same thread each get their own instance.
+     */
+    private static final class ParserPool<T> {
+        private static final int MAX_IDLE_PER_THREAD = 4;
+
+        private final ThreadLocal<Map<Integer, Deque<T>>> idle =
+                new ThreadLocal<Map<Integer, Deque<T>>>() {
+            @Override
+            protected Map<Integer, Deque<T>> initialValue() {
+                return new HashMap<>();
+            }
+        };
+
+        private T borrow(Integer key) {
+            Deque<T> parsers = idle.get().get(key);
+            return parsers == null ? null : parsers.pollFirst();
+        }
+
+        private void release(Integer key, T parser) {
+            Map<Integer, Deque<T>> byKey = idle.get();
+            Deque<T> parsers = byKey.get(key);
+            if (parsers == null) {
+                parsers = new ArrayDeque<>(MAX_IDLE_PER_THREAD);
+                byKey.put(key, parsers);
+            }
+            if (parsers.size() < MAX_IDLE_PER_THREAD) {
+                parsers.addFirst(parser);
+            }
+        }
+    }
+
     private static final InputSource EMPTY_INPUT_SOURCE = new InputSource(new StringReader(""));
 
     private static class NoopEntityResolver implements EntityResolver {
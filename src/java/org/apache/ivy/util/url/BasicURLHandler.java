@@ -37,7 +37,7 @@ import java.net.UnknownHostException;
 /**
  *
  */
-public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstrainedURLHandler {
+public class BasicURLHandler extends AbstractURLHandler implements ConditionalURLHandler {
 
     private static final int BUFFER_SIZE = 64 * 1024;
 
@@ -46,6 +46,8 @@ public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstr
     private static final class HttpStatus {
         static final int SC_OK = 200;
 
+        static final int SC_NOT_MODIFIED = 304;
+
         static final int SC_PROXY_AUTHENTICATION_REQUIRED = 407;
 
         private HttpStatus() {
@@ -107,7 +109,7 @@ public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstr
                 if (checkStatusCode(normalizedURL, httpCon)) {
                     String bodyCharset = getCharSetFromContentType(con.getContentType());
                     return new URLInfo(true, httpCon.getContentLength(), con.getLastModified(),
-                            bodyCharset);
+                            bodyCharset, con.getHeaderField("ETag"));
                 }
             } else {
                 int contentLength = con.getContentLength();
@@ -286,6 +288,51 @@ public class BasicURLHandler extends AbstractURLHandler implements TimeoutConstr
         }
     }
 
+    @Override
+    public Validators checkModified(final URL url, final TimeoutConstraint timeoutConstraint,
+                                    final String etag, final long lastModified) throws IOException {
+        if (!"http".equals(url.getProtocol()) && !"https".equals(url.getProtocol())) {
+            throw new UnsupportedOperationException(
+                    "Conditional requests are only supported over HTTP");
+        }
+        // Install the IvyAuthenticator
+        IvyAuthenticator.install();
+        final int connectionTimeout = (timeoutConstraint == null || timeoutConstraint.getConnectionTimeout() < 0) ? 0 : timeoutConstraint.getConnectionTimeout();
+        final int readTimeout = (timeoutConstraint == null || timeoutConstraint.getReadTimeout() < 0) ? 0 : timeoutConstraint.getReadTimeout();
+
+        HttpURLConnection conn = null;
+        try {
+            final URL normalizedURL = normalizeToURL(url);
+            conn = (HttpURLConnection) normalizedURL.openConnection();
+            conn.setConnectTimeout(connectionTimeout);
+            conn.setReadTimeout(readTimeout);
+            conn.setRequestProperty("User-Agent", getUserAgent());
+            conn.setRequestProperty("Accept", ACCEPT_HEADER_VALUE);
+            if (etag != null) {
+                conn.setRequestProperty("If-None-Match", etag);
+            }
+            if (lastModified > 0) {
+                conn.setIfModifiedSince(lastModified);
+            }
+            if (conn.getResponseCode() == HttpStatus.SC_NOT_MODIFIED) {
+                // no content: the connection can be kept alive
+                conn.getInputStream().close();
+                conn = null;
+                return null;
+            }
+            if (!checkStatusCode(normalizedURL, conn)) {
+                throw new IOException("The HTTP response code for " + normalizedURL
+                        + " did not indicate a success." + " See log for more detail.");
+            }
+            return new Validators(conn.getHeaderField("ETag"), conn.getLastModified());
+        } finally {
+            if (conn != null) {
+                // the content is not wanted, don't read it
+                conn.disconnect();
+            }
+        }
+    }
+
     @Override
     public void upload(final File source, final URL dest, final CopyProgressListener l) throws IOException {
         this.upload(source, dest, l, null);
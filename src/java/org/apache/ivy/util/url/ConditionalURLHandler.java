@@ -0,0 +1,89 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util.url;
+
+import java.io.IOException;
+import java.net.URL;
+
+import org.apache.ivy.core.settings.TimeoutConstraint;
+
+/**
+ * A {@link TimeoutConstrainedURLHandler} able to check if the content of an URL has changed with a
+ * single conditional request, using the validators (entity tag and last modification date) of the
+ * content already known.
+ */
+public interface ConditionalURLHandler extends TimeoutConstrainedURLHandler {
+
+    /**
+     * Sends a conditional GET request for the given URL, which the server answers without any
+     * content if the content known by the caller is still up to date. The content of the URL is
+     * never transferred: when it has changed, the caller is expected to download it again.
+     *
+     * @param url
+     *            the URL to check
+     * @param timeoutConstraint
+     *            the connectivity timeout constraints, may be <code>null</code>
+     * @param etag
+     *            the entity tag of the content known by the caller, may be <code>null</code>
+     * @param lastModified
+     *            the last modification date of the content known by the caller, or 0 if unknown
+     * @return <code>null</code> if the content known by the caller is still up to date, the
+     *         validators of the current content otherwise
+     * @throws IOException
+     *             if the URL can't be checked, for instance if it doesn't exist anymore
+     */
+    Validators checkModified(URL url, TimeoutConstraint timeoutConstraint, String etag,
+            long lastModified) throws IOException;
+
+    /**
+     * The validators of the content of an URL, as given by the server.
+     */
+    final class Validators {
+        private final String etag;
+
+        private final long lastModified;
+
+        public Validators(String etag, long lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * @return the entity tag of the content, or <code>null</code> if the server didn't give
+         *         one
+         */
+        public String getETag() {
+            return etag;
+        }
+
+        /**
+         * @return the last modification date of the content, or 0 if the server didn't give one
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return <code>true</code> if the server gave at least one validator, which means later
+         *         conditional requests can tell the content has not changed
+         */
+        public boolean isValidatable() {
+            return etag != null || lastModified > 0;
+        }
+    }
+}
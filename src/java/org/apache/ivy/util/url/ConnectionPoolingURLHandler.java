@@ -0,0 +1,85 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util.url;
+
+/**
+ * A {@link TimeoutConstrainedURLHandler} keeping a pool of connections to the servers it talks
+ * to, which can be sized from the settings and exposes a few metrics about its use.
+ */
+public interface ConnectionPoolingURLHandler extends TimeoutConstrainedURLHandler {
+
+    /**
+     * Sets the maximum number of connections open at the same time, all servers included.
+     *
+     * @param maxConnections
+     *            the maximum number of connections, must be positive
+     */
+    void setMaxConnections(int maxConnections);
+
+    /**
+     * Sets the maximum number of connections open at the same time to a single server.
+     *
+     * @param maxConnectionsPerRoute
+     *            the maximum number of connections per server, must be positive
+     */
+    void setMaxConnectionsPerRoute(int maxConnectionsPerRoute);
+
+    /**
+     * Sets for how long a connection can be idle in the pool before being closed.
+     *
+     * @param idleConnectionTimeout
+     *            the timeout in milliseconds, 0 to never close idle connections
+     */
+    void setIdleConnectionTimeout(long idleConnectionTimeout);
+
+    /**
+     * Sets for how long a connection is kept alive to be reused, when the server doesn't say it
+     * should be closed sooner.
+     *
+     * @param keepAliveTimeout
+     *            the timeout in milliseconds, 0 to keep connections alive as long as the server
+     *            allows it
+     */
+    void setKeepAliveTimeout(long keepAliveTimeout);
+
+    /**
+     * @return the number of requests sent since this handler has been created
+     */
+    long getRequestCount();
+
+    /**
+     * @return the number of connections opened since this handler has been created. Compared to
+     *         the number of requests, it tells how well connections are reused.
+     */
+    long getConnectionCount();
+
+    /**
+     * @return the number of connections currently used by a request
+     */
+    int getLeasedConnections();
+
+    /**
+     * @return the number of connections currently idle in the pool
+     */
+    int getAvailableConnections();
+
+    /**
+     * @return the number of requests currently waiting for a connection
+     */
+    int getPendingConnectionRequests();
+}
@@ -32,9 +32,15 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.config.ConnectionConfig;
 import org.apache.http.config.Lookup;
 import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.routing.HttpRoutePlanner;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.FileEntity;
@@ -42,9 +48,12 @@ import org.apache.http.impl.auth.BasicSchemeFactory;
 import org.apache.http.impl.auth.DigestSchemeFactory;
 import org.apache.http.impl.auth.NTLMSchemeFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.apache.http.protocol.HttpContext;
 import org.apache.ivy.core.settings.TimeoutConstraint;
 import org.apache.ivy.util.CopyProgressListener;
 import org.apache.ivy.util.FileUtil;
@@ -57,20 +66,18 @@ import java.io.InputStream;
 import java.net.ProxySelector;
 import java.net.URL;
 import java.nio.charset.Charset;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *
  */
-public class HttpClientHandler extends AbstractURLHandler implements TimeoutConstrainedURLHandler, AutoCloseable {
-    private static final SimpleDateFormat LAST_MODIFIED_FORMAT = new SimpleDateFormat(
-            "EEE, d MMM yyyy HH:mm:ss z", Locale.US);
-
+public class HttpClientHandler extends AbstractURLHandler implements ConnectionPoolingURLHandler,
+        ConditionalURLHandler, AutoCloseable {
     // A instance of the HttpClientHandler which gets registered to be closed
     // when the JVM exits
     static final HttpClientHandler DELETE_ON_EXIT_INSTANCE;
@@ -92,15 +99,35 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
         Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
 
+    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 8;
+
+    private static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = 60 * 1000;
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong connectionCount = new AtomicLong();
+
+    private final AtomicLong lastIdleConnectionsCheck = new AtomicLong(System.currentTimeMillis());
+
+    private volatile long idleConnectionTimeout = DEFAULT_IDLE_CONNECTION_TIMEOUT;
+
+    private volatile long keepAliveTimeout = 0;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
     private final CloseableHttpClient httpClient;
 
     public HttpClientHandler() {
+        this.connectionManager = createConnectionManager();
         this.httpClient = buildUnderlyingClient();
     }
 
     private CloseableHttpClient buildUnderlyingClient() {
         return HttpClients.custom()
-                .setConnectionManager(createConnectionManager())
+                .setConnectionManager(this.connectionManager)
+                .setKeepAliveStrategy(new IvyKeepAliveStrategy())
                 .setRoutePlanner(createProxyRoutePlanner())
                 .setUserAgent(this.getUserAgent())
                 .setDefaultAuthSchemeRegistry(createAuthSchemeRegistry())
@@ -121,8 +148,71 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
                 .build();
     }
 
-    private static HttpClientConnectionManager createConnectionManager() {
-        return new PoolingHttpClientConnectionManager();
+    private PoolingHttpClientConnectionManager createConnectionManager() {
+        // count the connections actually opened, to tell how well they are reused
+        final PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(
+                new HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection>() {
+                    @Override
+                    public ManagedHttpClientConnection create(final HttpRoute route, final ConnectionConfig config) {
+                        connectionCount.incrementAndGet();
+                        return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+                    }
+                });
+        manager.setMaxTotal(DEFAULT_MAX_CONNECTIONS);
+        manager.setDefaultMaxPerRoute(DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+        return manager;
+    }
+
+    @Override
+    public void setMaxConnections(final int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Invalid maximum number of HTTP connections: " + maxConnections);
+        }
+        this.connectionManager.setMaxTotal(maxConnections);
+    }
+
+    @Override
+    public void setMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+        if (maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("Invalid maximum number of HTTP connections per route: "
+                    + maxConnectionsPerRoute);
+        }
+        this.connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+    }
+
+    @Override
+    public void setIdleConnectionTimeout(final long idleConnectionTimeout) {
+        this.idleConnectionTimeout = Math.max(0, idleConnectionTimeout);
+    }
+
+    @Override
+    public void setKeepAliveTimeout(final long keepAliveTimeout) {
+        this.keepAliveTimeout = Math.max(0, keepAliveTimeout);
+    }
+
+    @Override
+    public long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    @Override
+    public long getConnectionCount() {
+        return this.connectionCount.get();
+    }
+
+    @Override
+    public int getLeasedConnections() {
+        return this.connectionManager.getTotalStats().getLeased();
+    }
+
+    @Override
+    public int getAvailableConnections() {
+        return this.connectionManager.getTotalStats().getAvailable();
+    }
+
+    @Override
+    public int getPendingConnectionRequests() {
+        return this.connectionManager.getTotalStats().getPending();
     }
 
     private static List<String> getAuthSchemePreferredOrder() {
@@ -167,6 +257,39 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
         }
     }
 
+    @Override
+    public Validators checkModified(final URL url, final TimeoutConstraint timeoutConstraint,
+                                    final String etag, final long lastModified) throws IOException {
+        final int connectionTimeout = (timeoutConstraint == null || timeoutConstraint.getConnectionTimeout() < 0) ? 0 : timeoutConstraint.getConnectionTimeout();
+        final int readTimeout = (timeoutConstraint == null || timeoutConstraint.getReadTimeout() < 0) ? 0 : timeoutConstraint.getReadTimeout();
+        final RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(readTimeout)
+                .setConnectTimeout(connectionTimeout)
+                .setAuthenticationEnabled(hasCredentialsConfigured(url))
+                .setTargetPreferredAuthSchemes(getAuthSchemePreferredOrder())
+                .setProxyPreferredAuthSchemes(getAuthSchemePreferredOrder())
+                .build();
+        final HttpGet httpGet = new HttpGet(normalizeToString(url));
+        httpGet.setConfig(requestConfig);
+        if (etag != null) {
+            httpGet.addHeader("If-None-Match", etag);
+        }
+        if (lastModified > 0) {
+            httpGet.addHeader("If-Modified-Since", DateUtils.formatDate(new Date(lastModified)));
+        }
+        try (final CloseableHttpResponse response = this.execute(httpGet)) {
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                return null;
+            }
+            this.requireSuccessStatus(HttpGet.METHOD_NAME, url, response);
+            final Header etagHeader = response.getFirstHeader("ETag");
+            final Header lastModifiedHeader = response.getFirstHeader("Last-Modified");
+            // the content is not wanted, don't transfer it
+            httpGet.abort();
+            return new Validators(etagHeader == null ? null : etagHeader.getValue(),
+                    lastModifiedHeader == null ? 0 : getLastModified(response));
+        }
+    }
+
     @Override
     public void upload(final File src, final URL dest, final CopyProgressListener l) throws IOException {
         this.upload(src, dest, l, null);
@@ -186,7 +309,7 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
         final HttpPut put = new HttpPut(normalizeToString(dest));
         put.setConfig(requestConfig);
         put.setEntity(new FileEntity(src));
-        try (final CloseableHttpResponse response = this.httpClient.execute(put)) {
+        try (final CloseableHttpResponse response = this.execute(put)) {
             validatePutStatusCode(dest, response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
         }
     }
@@ -240,8 +363,10 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
                 final HttpEntity responseEntity = response.getEntity();
                 final Charset charSet = ContentType.getOrDefault(responseEntity).getCharset();
                 final String charSetName = charSet != null ? charSet.name() : null;
+                final Header etagHeader = response.getFirstHeader("ETag");
                 return new URLInfo(true, responseEntity == null ? 0 : responseEntity.getContentLength(),
-                        getLastModified(response), charSetName);
+                        getLastModified(response), charSetName,
+                        etagHeader == null ? null : etagHeader.getValue());
             }
         } catch (IOException | IllegalArgumentException e) {
             // IllegalArgumentException is thrown by HttpClient library to indicate the URL is not valid,
@@ -314,13 +439,12 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
         if (header == null) {
             return System.currentTimeMillis();
         }
-        final String lastModified = header.getValue();
-        try {
-            return LAST_MODIFIED_FORMAT.parse(lastModified).getTime();
-        } catch (ParseException e) {
-            // ignored
+        final Date lastModified = DateUtils.parseDate(header.getValue());
+        if (lastModified == null) {
+            // unparseable date
+            return System.currentTimeMillis();
         }
-        return System.currentTimeMillis();
+        return lastModified.getTime();
     }
 
     private CloseableHttpResponse doGet(final URL url, final int connectionTimeout, final int readTimeout) throws IOException {
@@ -333,7 +457,7 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
         final HttpGet httpGet = new HttpGet(normalizeToString(url));
         httpGet.setConfig(requestConfig);
         httpGet.addHeader("Accept-Encoding", "gzip,deflate");
-        return this.httpClient.execute(httpGet);
+        return this.execute(httpGet);
     }
 
     private CloseableHttpResponse doHead(final URL url, final int connectionTimeout, final int readTimeout) throws IOException {
@@ -345,7 +469,31 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
                 .build();
         final HttpHead httpHead = new HttpHead(normalizeToString(url));
         httpHead.setConfig(requestConfig);
-        return this.httpClient.execute(httpHead);
+        return this.execute(httpHead);
+    }
+
+    private CloseableHttpResponse execute(final HttpUriRequest request) throws IOException {
+        this.closeIdleConnections();
+        this.requestCount.incrementAndGet();
+        return this.httpClient.execute(request);
+    }
+
+    /**
+     * Closes the connections idle for longer than the idle connection timeout, checking at most
+     * twice per timeout period so that requests don't pay for it.
+     */
+    private void closeIdleConnections() {
+        final long timeout = this.idleConnectionTimeout;
+        if (timeout <= 0) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final long lastCheck = this.lastIdleConnectionsCheck.get();
+        if (now - lastCheck < timeout / 2 || !this.lastIdleConnectionsCheck.compareAndSet(lastCheck, now)) {
+            return;
+        }
+        this.connectionManager.closeExpiredConnections();
+        this.connectionManager.closeIdleConnections(timeout, TimeUnit.MILLISECONDS);
     }
 
     private boolean hasCredentialsConfigured(final URL url) {
@@ -359,6 +507,23 @@ public class HttpClientHandler extends AbstractURLHandler implements TimeoutCons
         }
     }
 
+    /**
+     * Keeps connections alive as long as the server allows it, capped by the keep alive timeout
+     * when one is set.
+     */
+    private class IvyKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        @Override
+        public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+            final long serverDuration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            final long timeout = keepAliveTimeout;
+            if (timeout <= 0) {
+                return serverDuration;
+            }
+            return serverDuration <= 0 ? timeout : Math.min(serverDuration, timeout);
+        }
+    }
+
     private static class IvyCredentialsProvider implements CredentialsProvider {
 
         private final ConcurrentHashMap<AuthScope, Credentials> cachedCreds = new ConcurrentHashMap<>();
@@ -32,7 +32,7 @@ import java.util.Map;
  * and a fallback default {@link URLHandler} for dealing with downloads, uploads and
  * general reachability checks
  */
-public class URLHandlerDispatcher implements TimeoutConstrainedURLHandler {
+public class URLHandlerDispatcher implements ConditionalURLHandler {
     @SuppressWarnings("deprecation")
     private final Map<String, URLHandler> handlers = new HashMap<>();
 
@@ -155,6 +155,17 @@ public class URLHandlerDispatcher implements TimeoutConstrainedURLHandler {
         handler.download(src, dest, listener);
     }
 
+    @SuppressWarnings("deprecation")
+    @Override
+    public Validators checkModified(final URL url, final TimeoutConstraint timeoutConstraint,
+                                    final String etag, final long lastModified) throws IOException {
+        final URLHandler handler = this.getHandler(url.getProtocol());
+        if (handler instanceof ConditionalURLHandler) {
+            return ((ConditionalURLHandler) handler).checkModified(url, timeoutConstraint, etag, lastModified);
+        }
+        throw new UnsupportedOperationException("Conditional requests are not supported for " + url);
+    }
+
     @Override
     public void upload(final File src, final URL dest, final CopyProgressListener l) throws IOException {
         this.upload(src, dest, l, null);
@@ -0,0 +1,44 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.io.File;
+
+/**
+ * Locations of the files used by the benchmarks, relative to the Ivy checkout in which they are
+ * run unless set through system properties.
+ */
+final class BenchmarkFiles {
+    private BenchmarkFiles() {
+    }
+
+    /**
+     * @return the directory of the test sources, whose descriptors are parsed by the benchmarks
+     */
+    static File getTestDir() {
+        return new File(System.getProperty("ivy.benchmark.test.dir", "test/java"));
+    }
+
+    /**
+     * @return the directory in which the synthetic repositories are generated
+     */
+    static File getRepositoryDir() {
+        return new File(System.getProperty("ivy.benchmark.repository.dir",
+            "build/benchmark/repositories"));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.util.WeakInterner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Interning of already interned module ids, as done for each dependency of each parsed
+ * descriptor, with the {@link WeakInterner} used by {@link ModuleId#intern(ModuleId)} and with
+ * the synchronized {@link WeakHashMap} it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InternerBenchmark {
+    private static final int IDS = 1024;
+
+    private final WeakInterner<ModuleId> weakInterner = new WeakInterner<>();
+
+    private final Map<ModuleId, WeakReference<ModuleId>> weakHashMap = new WeakHashMap<>();
+
+    /** Keeps the interned instances reachable. */
+    private ModuleId[] interned;
+
+    /** Equal but distinct instances, as created by the parsers. */
+    private ModuleId[] lookups;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        private int next() {
+            next = (next + 1) & (IDS - 1);
+            return next;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        interned = new ModuleId[IDS];
+        lookups = new ModuleId[IDS];
+        for (int i = 0; i < IDS; i++) {
+            interned[i] = new ModuleId("org.benchmark" + (i % 16), "module" + i);
+            lookups[i] = new ModuleId(interned[i].getOrganisation(), interned[i].getName());
+            weakInterner.intern(interned[i]);
+            internInWeakHashMap(interned[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ModuleId weakInterner1(Cursor cursor) {
+        return weakInterner.intern(lookups[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ModuleId weakInterner4(Cursor cursor) {
+        return weakInterner.intern(lookups[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ModuleId weakInterner16(Cursor cursor) {
+        return weakInterner.intern(lookups[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ModuleId synchronizedWeakHashMap1(Cursor cursor) {
+        return internInWeakHashMap(lookups[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ModuleId synchronizedWeakHashMap4(Cursor cursor) {
+        return internInWeakHashMap(lookups[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ModuleId synchronizedWeakHashMap16(Cursor cursor) {
+        return internInWeakHashMap(lookups[cursor.next()]);
+    }
+
+    private ModuleId internInWeakHashMap(ModuleId moduleId) {
+        synchronized (weakHashMap) {
+            WeakReference<ModuleId> ref = weakHashMap.get(moduleId);
+            ModuleId r = ref == null ? null : ref.get();
+            if (r == null) {
+                r = moduleId;
+                weakHashMap.put(r, new WeakReference<>(r));
+            }
+            return r;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.plugins.latest.ArtifactInfo;
+import org.apache.ivy.plugins.latest.LatestRevisionStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Comparison of revisions by the {@link LatestRevisionStrategy}, as done to pick the latest
+ * revision among the ones listed for a dynamic revision.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LatestRevisionBenchmark {
+    private static final String[] QUALIFIERS = {"", "-SNAPSHOT", "-alpha", "-beta2", "-rc1",
+            "-final", ".dev", "+build5"};
+
+    @Param({"10", "200"})
+    private int revisions;
+
+    private final LatestRevisionStrategy strategy = new LatestRevisionStrategy();
+
+    private ArtifactInfo[] infos;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        infos = new ArtifactInfo[revisions];
+        for (int i = 0; i < revisions; i++) {
+            final String revision = random.nextInt(5) + "." + random.nextInt(20) + "."
+                    + random.nextInt(10) + QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+            infos[i] = new ArtifactInfo() {
+                public String getRevision() {
+                    return revision;
+                }
+
+                public long getLastModified() {
+                    return 0;
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    public List<ArtifactInfo> sort() {
+        return strategy.sort(infos);
+    }
+
+    @Benchmark
+    public ArtifactInfo findLatest() {
+        return strategy.findLatest(infos, null);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.osgi.core.BundleInfo;
+import org.apache.ivy.osgi.core.BundleRequirement;
+import org.apache.ivy.osgi.core.ExecutionEnvironmentProfileProvider;
+import org.apache.ivy.osgi.core.ExportPackage;
+import org.apache.ivy.osgi.filter.CompiledOSGiFilter;
+import org.apache.ivy.osgi.filter.OSGiFilter;
+import org.apache.ivy.osgi.filter.OSGiFilterParser;
+import org.apache.ivy.osgi.repo.AbstractOSGiResolver;
+import org.apache.ivy.osgi.repo.EditableRepoDescriptor;
+import org.apache.ivy.osgi.repo.ModuleDescriptorWrapper;
+import org.apache.ivy.osgi.repo.RepoDescriptor;
+import org.apache.ivy.osgi.util.Version;
+import org.apache.ivy.osgi.util.VersionRange;
+import org.apache.ivy.util.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolve of an OSGi target platform driven by <code>Import-Package</code> requirements, in a
+ * generated repository of bundles each exporting one package, itself exported by several versions
+ * of the bundle. Also measures the lookups of the providers of the imported packages, and the
+ * evaluation of the artifact mapping filters of p2 repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class OSGiResolveBenchmark {
+    private static final String[] P2_MAPPINGS = {
+        "(& (classifier=osgi.bundle) (format=packed))", "(& (classifier=osgi.bundle))",
+        "(& (classifier=binary))", "(& (classifier=org.eclipse.update.feature) (format=packed))",
+        "(& (classifier=org.eclipse.update.feature))"};
+
+    @Param("10000")
+    private int bundles;
+
+    @Param("4")
+    private int versions;
+
+    @Param("8")
+    private int imports;
+
+    @Param("50")
+    private int roots;
+
+    private EditableRepoDescriptor repo;
+
+    private List<BundleRequirement> requirements;
+
+    private File workDir;
+
+    private Ivy ivy;
+
+    private DefaultModuleDescriptor platform;
+
+    private List<OSGiFilter> filters;
+
+    private List<CompiledOSGiFilter> compiledFilters;
+
+    private List<Map<String, String>> artifactProperties;
+
+    @Setup
+    public void setUp() throws Exception {
+        generateRepository();
+
+        workDir = new File(BenchmarkFiles.getRepositoryDir(), "osgi-" + bundles + "-work");
+        FileUtil.forceDelete(workDir);
+        IvySettings settings = new IvySettings();
+        SyntheticOSGiResolver resolver = new SyntheticOSGiResolver(repo);
+        resolver.setName("osgi");
+        resolver.setRequirementStrategy("first");
+        resolver.setSettings(settings);
+        settings.addResolver(resolver);
+        settings.setDefaultResolver("osgi");
+        settings.setDefaultCache(new File(workDir, "cache"));
+        ivy = Ivy.newInstance(settings);
+
+        // the platform requires the last bundles, which import the most packages transitively
+        platform = DefaultModuleDescriptor.newDefaultInstance(ModuleRevisionId.newInstance(
+            "org.acme", "platform", "1.0"));
+        int packages = bundles / versions;
+        for (int i = packages - roots; i < packages; i++) {
+            DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(platform,
+                    ModuleRevisionId.newInstance(BundleInfo.BUNDLE_TYPE, bundleName(i),
+                        "[1.0.0,2.0.0)"), false, false, true);
+            dd.addDependencyConfiguration("default", "default");
+            platform.addDependency(dd);
+        }
+        ResolveReport report = resolve();
+        if (report.hasError()) {
+            throw new IllegalStateException("resolve of the synthetic platform failed: "
+                    + report.getAllProblemMessages());
+        }
+
+        filters = new ArrayList<>();
+        compiledFilters = new ArrayList<>();
+        for (String mapping : P2_MAPPINGS) {
+            OSGiFilter filter = OSGiFilterParser.parse(mapping);
+            filters.add(filter);
+            compiledFilters.add(filter.compile());
+        }
+        artifactProperties = new ArrayList<>();
+        for (String classifier : new String[] {"osgi.bundle", "binary",
+                "org.eclipse.update.feature"}) {
+            for (String format : new String[] {null, "packed"}) {
+                Map<String, String> properties = new HashMap<>();
+                properties.put("classifier", classifier);
+                if (format != null) {
+                    properties.put("format", format);
+                }
+                artifactProperties.add(properties);
+            }
+        }
+    }
+
+    /**
+     * Bundle <code>b&lt;p&gt;</code> exports the package <code>p&lt;p&gt;</code>, at the
+     * versions 1.0.0 to 1.&lt;versions - 1&gt;.0, and imports packages with a lower index.
+     */
+    private void generateRepository() {
+        repo = new EditableRepoDescriptor(new File(BenchmarkFiles.getRepositoryDir(), "osgi")
+                .toURI(), ExecutionEnvironmentProfileProvider.getInstance());
+        requirements = new ArrayList<>();
+        Random random = new Random(bundles);
+        int packages = bundles / versions;
+        for (int p = 0; p < packages; p++) {
+            List<BundleRequirement> bundleRequirements = new ArrayList<>();
+            for (int i = 0; p > 0 && i < imports; i++) {
+                int imported = random.nextInt(p);
+                int minor = random.nextInt(versions);
+                VersionRange range = new VersionRange(false, new Version(1, minor, 0, null),
+                        true, new Version(1, minor + 2, 0, null));
+                bundleRequirements.add(new BundleRequirement(BundleInfo.PACKAGE_TYPE,
+                        packageName(imported), range, null));
+            }
+            requirements.addAll(bundleRequirements);
+            for (int v = 0; v < versions; v++) {
+                Version version = new Version(1, v, 0, null);
+                BundleInfo bundle = new BundleInfo(bundleName(p), version);
+                bundle.addCapability(new ExportPackage(packageName(p), version));
+                for (BundleRequirement requirement : bundleRequirements) {
+                    bundle.addRequirement(requirement);
+                }
+                repo.addBundle(bundle);
+            }
+        }
+    }
+
+    private static String bundleName(int p) {
+        return "org.acme.b" + p;
+    }
+
+    private static String packageName(int p) {
+        return "org.acme.p" + p;
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtil.forceDelete(workDir);
+    }
+
+    /**
+     * Resolves the target platform, without downloading the bundles.
+     *
+     * @return the report
+     * @throws Exception
+     *             if the resolve fails
+     */
+    @Benchmark
+    public ResolveReport resolve() throws Exception {
+        return ivy.resolve(platform, new ResolveOptions().setConfs(new String[] {"default"})
+                .setDownload(false).setOutputReport(false));
+    }
+
+    /**
+     * Looks up the providers of each import with the version index of the repository.
+     *
+     * @return the number of providers found
+     */
+    @Benchmark
+    public int findProvidersInRange() {
+        int found = 0;
+        for (BundleRequirement requirement : requirements) {
+            Collection<ModuleDescriptorWrapper> mds = repo.findModules(requirement.getType(),
+                requirement.getName(), requirement.getVersion());
+            for (ModuleDescriptorWrapper md : mds) {
+                if (requirement.getVersion().contains(md.getBundleInfo().getVersion())) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Looks up the providers of each import by checking all the modules exporting the package.
+     *
+     * @return the number of providers found
+     */
+    @Benchmark
+    public int findProvidersByScan() {
+        int found = 0;
+        for (BundleRequirement requirement : requirements) {
+            Set<ModuleDescriptorWrapper> mds = repo.findModules(requirement.getType(),
+                requirement.getName());
+            for (ModuleDescriptorWrapper md : mds) {
+                if (requirement.getVersion().contains(md.getBundleInfo().getVersion())) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Matches artifacts against the mappings of a p2 repository, walking the filter trees.
+     *
+     * @return the number of matches
+     */
+    @Benchmark
+    public int evalFilters() {
+        int matches = 0;
+        for (Map<String, String> properties : artifactProperties) {
+            for (OSGiFilter filter : filters) {
+                if (filter.eval(properties)) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Matches artifacts against the mappings of a p2 repository, with the compiled filters.
+     *
+     * @return the number of matches
+     */
+    @Benchmark
+    public int evalCompiledFilters() {
+        int matches = 0;
+        for (Map<String, String> properties : artifactProperties) {
+            for (CompiledOSGiFilter filter : compiledFilters) {
+                if (filter.eval(properties)) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static final class SyntheticOSGiResolver extends AbstractOSGiResolver {
+        private final RepoDescriptor repo;
+
+        private SyntheticOSGiResolver(RepoDescriptor repo) {
+            this.repo = repo;
+        }
+
+        @Override
+        protected void init() {
+            setRepoDescriptor(repo);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Substitution of the tokens of artifact patterns, done for each artifact by the cache and the
+ * resolvers. Run with the gc profiler to see the allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PatternHelperBenchmark {
+    /** The default artifact pattern of the cache. */
+    private static final String CACHE_PATTERN = "[organisation]/[module](/[branch])/[type]s"
+            + "/[artifact]-[revision](-[classifier])(.[ext])";
+
+    private static final String MAVEN_PATTERN = "[organisation]/[module]/[revision]"
+            + "/[artifact]-[revision](-[classifier]).[ext]";
+
+    private Artifact artifact;
+
+    private Artifact classifiedArtifact;
+
+    @Setup
+    public void setUp() {
+        ModuleRevisionId mrid = ModuleRevisionId.newInstance("org.apache.commons",
+            "commons-lang3", "3.12.0");
+        artifact = new DefaultArtifact(mrid, new Date(), "commons-lang3", "jar", "jar");
+        classifiedArtifact = new DefaultArtifact(mrid, new Date(), "commons-lang3", "source",
+                "jar", Collections.singletonMap("classifier", "sources"));
+    }
+
+    @Benchmark
+    public String cachePattern() {
+        return IvyPatternHelper.substitute(CACHE_PATTERN, artifact);
+    }
+
+    @Benchmark
+    public String cachePatternWithClassifier() {
+        return IvyPatternHelper.substitute(CACHE_PATTERN, classifiedArtifact);
+    }
+
+    @Benchmark
+    public String mavenPattern() {
+        return IvyPatternHelper.substitute(MAVEN_PATTERN, artifact);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.parser.m2.PomModuleDescriptorParser;
+import org.apache.ivy.plugins.parser.m2.PomReader;
+import org.apache.ivy.plugins.repository.url.URLResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading of the poms of the test suite, with the {@link PomReader} alone and into a module
+ * descriptor. Run with the gc profiler to see the allocation per pom.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PomBenchmark {
+    @Param({"test-simple.pom", "test-dependencies.pom", "test-ignored-sections.pom",
+            "mule-1.3.3.pom"})
+    private String pom;
+
+    private IvySettings settings;
+
+    private URL url;
+
+    private URLResource resource;
+
+    @Setup
+    public void setUp() throws Exception {
+        File file = new File(BenchmarkFiles.getTestDir(), "org/apache/ivy/plugins/parser/m2/"
+                + pom);
+        url = file.toURI().toURL();
+        resource = new URLResource(url);
+        settings = new IvySettings();
+    }
+
+    @Benchmark
+    public void readPom(Blackhole blackhole) throws Exception {
+        PomReader reader = new PomReader(url, resource);
+        blackhole.consume(reader.getGroupId());
+        blackhole.consume(reader.getArtifactId());
+        blackhole.consume(reader.getVersion());
+        blackhole.consume(reader.getDependencies());
+        blackhole.consume(reader.getDependencyMgt());
+        blackhole.consume(reader.getPomProperties());
+        blackhole.consume(reader.getLicenses());
+    }
+
+    @Benchmark
+    public ModuleDescriptor parseDescriptor() throws Exception {
+        return PomModuleDescriptorParser.getInstance().parseDescriptor(settings, url, false);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.cache.CacheMetadataOptions;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.IvyNode;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.resolve.ResolvedModuleRevision;
+import org.apache.ivy.core.retrieve.RetrieveOptions;
+import org.apache.ivy.util.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End to end resolve, cache lookup and retrieve of a {@link SyntheticRepository}. The cache is
+ * filled once per trial, so the resolves measure the work done on each build with an up to date
+ * cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ResolveBenchmark {
+    private static final String RESOLVE_ID = "benchmark";
+
+    @Param("5")
+    private int depth;
+
+    @Param("5")
+    private int fanOut;
+
+    @Param("40")
+    private int width;
+
+    @Param("0.2")
+    private double conflictRatio;
+
+    @Param("0.1")
+    private double dynamicRatio;
+
+    private SyntheticRepository repository;
+
+    private File workDir;
+
+    private Ivy ivy;
+
+    private List<ModuleRevisionId> resolvedModules;
+
+    private CacheMetadataOptions cacheOptions;
+
+    @Setup
+    public void setUp() throws Exception {
+        repository = new SyntheticRepository(depth, fanOut, width, conflictRatio, dynamicRatio)
+                .generate();
+        workDir = new File(repository.getDir().getParentFile(), repository.getDir().getName()
+                + "-work");
+        FileUtil.forceDelete(workDir);
+        ivy = repository.newIvy(new File(workDir, "cache"));
+
+        ResolveReport report = resolve();
+        if (report.hasError()) {
+            throw new IllegalStateException("resolve of the synthetic repository failed: "
+                    + report.getAllProblemMessages());
+        }
+        resolvedModules = new ArrayList<>();
+        for (IvyNode node : report.getDependencies()) {
+            if (node.isLoaded() && !node.isCompletelyEvicted()) {
+                resolvedModules.add(node.getResolvedId());
+            }
+        }
+        cacheOptions = new CacheMetadataOptions();
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtil.forceDelete(workDir);
+    }
+
+    /**
+     * Resolves the root module, as done by the resolve task.
+     *
+     * @return the report
+     * @throws Exception
+     *             if the resolve fails
+     */
+    @Benchmark
+    public ResolveReport resolve() throws Exception {
+        return ivy.resolve(repository.getRoot(), new ResolveOptions()
+                .setConfs(new String[] {"default"}).setResolveId(RESOLVE_ID), false);
+    }
+
+    /**
+     * Looks up each resolved module and its artifacts in the cache, as done by the resolvers for
+     * each dependency before asking the repository.
+     *
+     * @return the number of artifacts found
+     */
+    @Benchmark
+    public int cacheLookup() {
+        ivy.pushContext();
+        try {
+            DefaultRepositoryCacheManager cacheManager = (DefaultRepositoryCacheManager) ivy
+                    .getSettings().getDefaultRepositoryCacheManager();
+            int found = 0;
+            for (ModuleRevisionId mrid : resolvedModules) {
+                DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(mrid, false);
+                ResolvedModuleRevision rmr = cacheManager.findModuleInCache(dd, mrid,
+                    cacheOptions, "synthetic");
+                if (rmr == null) {
+                    continue;
+                }
+                for (Artifact artifact : rmr.getDescriptor().getAllArtifacts()) {
+                    if (cacheManager.getArchiveFileInCache(artifact).exists()) {
+                        found++;
+                    }
+                }
+            }
+            return found;
+        } finally {
+            ivy.popContext();
+        }
+    }
+
+    /**
+     * Copies the artifacts of the last resolve to a directory, overwriting them.
+     *
+     * @return the number of artifacts in the retrieve
+     * @throws Exception
+     *             if the retrieve fails
+     */
+    @Benchmark
+    public int retrieve() throws Exception {
+        return ivy.retrieve(repository.getRoot(), new RetrieveOptions()
+                .setConfs(new String[] {"default"})
+                .setResolveId(RESOLVE_ID)
+                .setDestArtifactPattern(workDir.getAbsolutePath()
+                        + "/lib/[organisation]/[artifact]-[revision].[ext]")
+                .setOverwriteMode(RetrieveOptions.OVERWRITEMODE_ALWAYS))
+                .getNbrArtifactsCopied();
+    }
+}
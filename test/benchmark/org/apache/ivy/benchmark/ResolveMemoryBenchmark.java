@@ -0,0 +1,144 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.resolve.IvyNode;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.util.FileUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Heap retained by the graph of {@link IvyNode}s built by a resolve, per node. The measured time
+ * includes the garbage collections needed to measure the heap and is not meaningful: the result
+ * is the <code>retainedBytesPerNode</code> secondary metric.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ResolveMemoryBenchmark {
+    @Param("6")
+    private int depth;
+
+    @Param("8")
+    private int fanOut;
+
+    @Param("60")
+    private int width;
+
+    @Param("0.2")
+    private double conflictRatio;
+
+    @Param("0.1")
+    private double dynamicRatio;
+
+    private File workDir;
+
+    private Ivy ivy;
+
+    private ModuleDescriptor root;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long nodes;
+
+        public long retainedBytesPerNode;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+            retainedBytesPerNode = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticRepository repository = new SyntheticRepository(depth, fanOut, width,
+                conflictRatio, dynamicRatio).generate();
+        workDir = new File(repository.getDir().getParentFile(), repository.getDir().getName()
+                + "-memory");
+        FileUtil.forceDelete(workDir);
+        ivy = repository.newIvy(new File(workDir, "cache"));
+        // fills the cache, so that the descriptors it keeps in memory are not measured
+        ivy.resolve(repository.getRoot(), newOptions(), false);
+        ivy.pushContext();
+        try {
+            root = ivy.findModule(repository.getRoot()).getDescriptor();
+        } finally {
+            ivy.popContext();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtil.forceDelete(workDir);
+    }
+
+    @Benchmark
+    public void resolveGraph(Footprint footprint, Blackhole blackhole) {
+        long before = usedHeap();
+        ivy.pushContext();
+        IvyNode[] nodes;
+        try {
+            nodes = ivy.getResolveEngine().getDependencies(root, newOptions(), null);
+        } finally {
+            ivy.popContext();
+        }
+        long after = usedHeap();
+        footprint.nodes = nodes.length;
+        footprint.retainedBytesPerNode = (after - before) / nodes.length;
+        blackhole.consume(nodes);
+    }
+
+    private static ResolveOptions newOptions() {
+        return new ResolveOptions().setConfs(new String[] {"default"}).setDownload(false)
+                .setOutputReport(false);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
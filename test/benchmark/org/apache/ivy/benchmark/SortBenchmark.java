@@ -0,0 +1,93 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.sort.SimpleSortEngineSettings;
+import org.apache.ivy.core.sort.SortEngine;
+import org.apache.ivy.core.sort.SortOptions;
+import org.apache.ivy.plugins.circular.WarnCircularDependencyStrategy;
+import org.apache.ivy.plugins.version.LatestVersionMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorting of the modules of a workspace, as done by the buildlist task, where each module
+ * depends on up to ten latest.integration revisions of the modules declared before it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SortBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int modules;
+
+    private List<ModuleDescriptor> descriptors;
+
+    private SortEngine sortEngine;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        descriptors = new ArrayList<>(modules);
+        for (int i = 0; i < modules; i++) {
+            DefaultModuleDescriptor md = new DefaultModuleDescriptor(
+                    ModuleRevisionId.newInstance("org", "m" + i, "1." + i), "integration",
+                    new Date());
+            for (int j = 0; j < Math.min(i, 10); j++) {
+                md.addDependency(new DefaultDependencyDescriptor(md, ModuleRevisionId
+                        .newInstance("org", "m" + random.nextInt(i), "latest.integration"),
+                        false, false, true));
+            }
+            descriptors.add(md);
+        }
+        Collections.shuffle(descriptors, random);
+
+        SimpleSortEngineSettings settings = new SimpleSortEngineSettings();
+        settings.setCircularDependencyStrategy(WarnCircularDependencyStrategy.getInstance());
+        settings.setVersionMatcher(new LatestVersionMatcher());
+        sortEngine = new SortEngine(settings);
+    }
+
+    @Benchmark
+    public List<ModuleDescriptor> sortModuleDescriptors() {
+        return sortEngine.sortModuleDescriptors(descriptors, SortOptions.SILENT);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.util.DefaultMessageLogger;
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.Message;
+
+/**
+ * A file system repository of Ivy modules generated for the benchmarks.
+ * <p>
+ * The root module depends on <code>fanOut</code> modules of the first level, each of which depends
+ * on <code>fanOut</code> modules of the next level, and so on down to <code>depth</code> levels.
+ * Each level has <code>width</code> modules, each published in revisions 1.0 and 2.0, so that
+ * modules are shared by several dependers. Dependencies ask for 2.0, except for a
+ * <code>conflictRatio</code> of them asking for 1.0, which causes conflicts, and a
+ * <code>dynamicRatio</code> of them asking for a dynamic revision.
+ * </p>
+ * <p>
+ * Repositories are generated once under the directory given by the
+ * <code>ivy.benchmark.repository.dir</code> system property, in a directory named after their
+ * parameters, and are reused by later runs.
+ * </p>
+ */
+public final class SyntheticRepository {
+    private static final String[] REVISIONS = {"1.0", "2.0"};
+
+    private static final String[] DYNAMIC_REVISIONS = {"latest.integration", "[1.0,3.0)"};
+
+    private static final int ARTIFACT_SIZE = 4096;
+
+    private final int depth;
+
+    private final int fanOut;
+
+    private final int width;
+
+    private final double conflictRatio;
+
+    private final double dynamicRatio;
+
+    private final File dir;
+
+    public SyntheticRepository(int depth, int fanOut, int width, double conflictRatio,
+            double dynamicRatio) {
+        if (depth < 1 || fanOut < 1 || width < fanOut) {
+            throw new IllegalArgumentException("invalid repository shape: depth=" + depth
+                    + " fanOut=" + fanOut + " width=" + width);
+        }
+        this.depth = depth;
+        this.fanOut = fanOut;
+        this.width = width;
+        this.conflictRatio = conflictRatio;
+        this.dynamicRatio = dynamicRatio;
+        this.dir = new File(BenchmarkFiles.getRepositoryDir(), String.format(Locale.ROOT,
+            "d%d-f%d-w%d-c%.2f-r%.2f", depth, fanOut, width, conflictRatio, dynamicRatio));
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    public ModuleRevisionId getRoot() {
+        return ModuleRevisionId.newInstance("org.bench", "root", "1.0");
+    }
+
+    /**
+     * Generates the repository, unless it has already been generated.
+     *
+     * @return this repository
+     * @throws IOException
+     *             if a file can't be written
+     */
+    public SyntheticRepository generate() throws IOException {
+        File done = new File(dir, ".generated");
+        if (done.exists()) {
+            return this;
+        }
+        FileUtil.forceDelete(dir);
+        Random random = new Random(42);
+        writeModule(getRoot(), dependencies(random, 1));
+        for (int level = 1; level <= depth; level++) {
+            for (int i = 0; i < width; i++) {
+                for (String revision : REVISIONS) {
+                    writeModule(ModuleRevisionId.newInstance(organisation(i),
+                        module(level, i), revision), level < depth ? dependencies(random,
+                        level + 1) : new ModuleRevisionId[0]);
+                }
+            }
+        }
+        write(new File(dir, "ivysettings.xml"), "<ivysettings>\n"
+                + "  <settings defaultResolver=\"synthetic\"/>\n"
+                + "  <caches defaultCacheDir=\"${ivy.benchmark.cache.dir}\"/>\n"
+                + "  <resolvers>\n"
+                + "    <filesystem name=\"synthetic\">\n"
+                + "      <ivy pattern=\"${ivy.settings.dir}/[organisation]/[module]/[revision]"
+                + "/ivy.xml\"/>\n"
+                + "      <artifact pattern=\"${ivy.settings.dir}/[organisation]/[module]"
+                + "/[revision]/[artifact].[ext]\"/>\n"
+                + "    </filesystem>\n"
+                + "  </resolvers>\n"
+                + "</ivysettings>\n");
+        write(done, "");
+        return this;
+    }
+
+    /**
+     * Creates an Ivy instance resolving from this repository, with the given cache, and only
+     * logging warnings and errors.
+     *
+     * @param cacheDir
+     *            the cache directory to use
+     * @return the configured Ivy instance
+     * @throws IOException
+     *             if the settings can't be read
+     * @throws ParseException
+     *             if the settings can't be parsed
+     */
+    public Ivy newIvy(File cacheDir) throws IOException, ParseException {
+        Message.setDefaultLogger(new DefaultMessageLogger(Message.MSG_WARN));
+        Ivy ivy = Ivy.newInstance();
+        ivy.getSettings().setVariable("ivy.benchmark.cache.dir", cacheDir.getAbsolutePath());
+        ivy.configure(new File(dir, "ivysettings.xml"));
+        ivy.getLoggerEngine().setDefaultLogger(new DefaultMessageLogger(Message.MSG_WARN));
+        return ivy;
+    }
+
+    private ModuleRevisionId[] dependencies(Random random, int level) {
+        Set<Integer> targets = new LinkedHashSet<>();
+        while (targets.size() < fanOut) {
+            targets.add(random.nextInt(width));
+        }
+        ModuleRevisionId[] dependencies = new ModuleRevisionId[fanOut];
+        int d = 0;
+        for (int i : targets) {
+            double kind = random.nextDouble();
+            String revision;
+            if (kind < dynamicRatio) {
+                revision = DYNAMIC_REVISIONS[random.nextInt(DYNAMIC_REVISIONS.length)];
+            } else if (kind < dynamicRatio + conflictRatio) {
+                revision = REVISIONS[0];
+            } else {
+                revision = REVISIONS[1];
+            }
+            dependencies[d++] = ModuleRevisionId.newInstance(organisation(i), module(level, i),
+                revision);
+        }
+        return dependencies;
+    }
+
+    private static String organisation(int i) {
+        return "org.bench" + (i % 5);
+    }
+
+    private static String module(int level, int i) {
+        return "l" + level + "m" + i;
+    }
+
+    private void writeModule(ModuleRevisionId mrid, ModuleRevisionId[] dependencies)
+            throws IOException {
+        File moduleDir = new File(dir, mrid.getOrganisation() + "/" + mrid.getName() + "/"
+                + mrid.getRevision());
+        StringBuilder ivy = new StringBuilder();
+        ivy.append("<ivy-module version=\"2.0\">\n");
+        ivy.append("  <info organisation=\"").append(mrid.getOrganisation())
+                .append("\" module=\"").append(mrid.getName()).append("\" revision=\"")
+                .append(mrid.getRevision()).append("\" status=\"release\"/>\n");
+        ivy.append("  <configurations>\n"
+                + "    <conf name=\"default\" extends=\"runtime,master\"/>\n"
+                + "    <conf name=\"master\"/>\n"
+                + "    <conf name=\"compile\"/>\n"
+                + "    <conf name=\"runtime\" extends=\"compile\"/>\n"
+                + "    <conf name=\"test\" extends=\"runtime\"/>\n"
+                + "  </configurations>\n");
+        ivy.append("  <publications>\n    <artifact name=\"").append(mrid.getName())
+                .append("\" conf=\"master\"/>\n  </publications>\n");
+        ivy.append("  <dependencies>\n");
+        for (ModuleRevisionId dependency : dependencies) {
+            ivy.append("    <dependency org=\"").append(dependency.getOrganisation())
+                    .append("\" name=\"").append(dependency.getName()).append("\" rev=\"")
+                    .append(dependency.getRevision())
+                    .append("\" conf=\"compile->compile(*),master(*);runtime->runtime(*)\"/>\n");
+        }
+        ivy.append("  </dependencies>\n</ivy-module>\n");
+        write(new File(moduleDir, "ivy.xml"), ivy.toString());
+
+        byte[] content = new byte[ARTIFACT_SIZE];
+        Arrays.fill(content, (byte) mrid.hashCode());
+        try (OutputStream out = new FileOutputStream(new File(moduleDir, mrid.getName()
+                + ".jar"))) {
+            out.write(content);
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+}
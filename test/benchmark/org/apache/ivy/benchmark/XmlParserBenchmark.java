@@ -0,0 +1,99 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.benchmark;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.cache.ResolutionCacheManager;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.apache.ivy.plugins.report.XmlReportParser;
+import org.apache.ivy.util.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of Ivy files and of resolve reports, which goes through the XML parsers pooled by
+ * XMLHelper. The report is the one of a resolve of a {@link SyntheticRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class XmlParserBenchmark {
+    private IvySettings settings;
+
+    private URL ivyFile;
+
+    private File workDir;
+
+    private File report;
+
+    @Setup
+    public void setUp() throws Exception {
+        settings = new IvySettings();
+        ivyFile = new File(BenchmarkFiles.getTestDir(),
+                "org/apache/ivy/plugins/parser/xml/test.xml").toURI().toURL();
+
+        SyntheticRepository repository = new SyntheticRepository(4, 4, 20, 0.2, 0.1).generate();
+        workDir = new File(repository.getDir().getParentFile(), repository.getDir().getName()
+                + "-xml");
+        FileUtil.forceDelete(workDir);
+        Ivy ivy = repository.newIvy(new File(workDir, "cache"));
+        String resolveId = ResolveOptions.getDefaultResolveId(repository.getRoot()
+                .getModuleId());
+        ivy.resolve(repository.getRoot(), new ResolveOptions().setConfs(new String[] {"default"})
+                .setResolveId(resolveId), false);
+        ResolutionCacheManager cacheManager = ivy.getSettings().getResolutionCacheManager();
+        report = cacheManager.getConfigurationResolveReportInCache(resolveId, "default");
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtil.forceDelete(workDir);
+    }
+
+    @Benchmark
+    public ModuleDescriptor parseIvyFile() throws Exception {
+        return XmlModuleDescriptorParser.getInstance().parseDescriptor(settings, ivyFile, false);
+    }
+
+    @Benchmark
+    public ModuleRevisionId[] parseResolveReport() throws Exception {
+        XmlReportParser parser = new XmlReportParser();
+        parser.parse(report);
+        return parser.getDependencyRevisionIds();
+    }
+}
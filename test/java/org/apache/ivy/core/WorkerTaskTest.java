@@ -0,0 +1,125 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.ivy.core.event.EventManager;
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.core.event.IvyListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WorkerTaskTest {
+
+    private EventManager eventManager;
+
+    private ExecutorService executor;
+
+    private final List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() {
+        eventManager = new EventManager();
+        eventManager.addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                delivered.add(event.getName() + " " + Thread.currentThread().getName());
+            }
+        });
+        executor = Executors.newFixedThreadPool(2, WorkerTask.newThreadFactory("test-worker-"));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that the events of a task run inline by a worker thread awaiting it, while running
+     * another task, are delivered once, with those of the enclosing task, by the thread which
+     * submitted the enclosing task.
+     */
+    @Test
+    public void testNestedTaskRunInline() {
+        // the nested task is never started by its executor: it is run by the awaiting thread
+        assertNestedEvents(new Executor() {
+            public void execute(Runnable command) {
+            }
+        });
+    }
+
+    /**
+     * Tests the same with a nested task run by another worker thread.
+     */
+    @Test
+    public void testNestedTaskRunByWorker() {
+        assertNestedEvents(executor);
+    }
+
+    private void assertNestedEvents(final Executor nestedExecutor) {
+        WorkerTask<Void, RuntimeException> outer = new WorkerTask<Void, RuntimeException>(
+                eventManager) {
+            protected Void doCall() {
+                eventManager.fireIvyEvent(new TestEvent("before"));
+                WorkerTask<Void, RuntimeException> nested = new EventTask("nested");
+                nested.submit(nestedExecutor);
+                nested.await();
+                nested.fireEvents();
+                eventManager.fireIvyEvent(new TestEvent("after"));
+                return null;
+            }
+        };
+        outer.submit(executor);
+        outer.await();
+        assertEquals(Collections.emptyList(), delivered);
+
+        outer.fireEvents();
+        String thread = Thread.currentThread().getName();
+        assertEquals(Arrays.asList("before " + thread, "nested " + thread, "after " + thread),
+            delivered);
+    }
+
+    private final class EventTask extends WorkerTask<Void, RuntimeException> {
+        private final String name;
+
+        private EventTask(String name) {
+            super(eventManager);
+            this.name = name;
+        }
+
+        protected Void doCall() {
+            eventManager.fireIvyEvent(new TestEvent(name));
+            return null;
+        }
+    }
+
+    private static final class TestEvent extends IvyEvent {
+        private TestEvent(String name) {
+            super(name);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.ivy.core.cache;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -25,10 +26,19 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 
 import org.apache.ivy.Ivy;
+import org.apache.ivy.TestHelper;
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
@@ -39,6 +49,8 @@ import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
 import org.apache.ivy.core.report.DownloadStatus;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorWriter;
@@ -48,6 +60,7 @@ import org.apache.ivy.plugins.repository.Resource;
 import org.apache.ivy.plugins.repository.ResourceDownloader;
 import org.apache.ivy.plugins.repository.url.URLResource;
 import org.apache.ivy.plugins.resolver.MockResolver;
+import org.apache.ivy.plugins.resolver.URLResolver;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
 import org.apache.ivy.plugins.resolver.util.ResolvedResource;
 import org.apache.ivy.util.DefaultMessageLogger;
@@ -116,6 +129,22 @@ public class DefaultRepositoryCacheManagerTest {
         assertTrue(ArtifactOrigin.isUnknown(found));
     }
 
+    @Test
+    public void testArtifactOriginWithLogMetadataStore() {
+        cacheManager.setMetadataStore("log");
+        assertTrue(cacheManager.getCacheMetadataStore() instanceof LogCacheMetadataStore);
+        // data saved in properties files by the default store is still available
+        ArtifactOrigin found = cacheManager.getSavedArtifactOrigin(artifact);
+        assertEquals(origin, found);
+
+        Artifact other = createArtifact("org", "module", "rev", "name", "type2", "ext");
+        ArtifactOrigin otherOrigin = new ArtifactOrigin(other, false, "file:/some/where.jar");
+        cacheManager.saveArtifactOrigin(other, otherOrigin);
+        assertEquals(otherOrigin, cacheManager.getSavedArtifactOrigin(other));
+        assertEquals(origin, cacheManager.getSavedArtifactOrigin(artifact));
+        ((LogCacheMetadataStore) cacheManager.getCacheMetadataStore()).close();
+    }
+
     @Test
     public void testUniqueness() {
         cacheManager.saveArtifactOrigin(artifact, origin);
@@ -196,6 +225,84 @@ public class DefaultRepositoryCacheManagerTest {
         assertTrue(report.getDownloadDetails().contains("is outside"));
     }
 
+    /**
+     * Tests that the descriptor of a changing module is revalidated with a single conditional
+     * request once it has been downloaded, and downloaded again when it has changed.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testRevalidateChangingModuleWithETag() throws Exception {
+        final String[] descriptor = {"<ivy-module version=\"2.0\"><info organisation=\"org\" "
+                + "module=\"mod\" revision=\"1.0\" status=\"integration\"/>"
+                + "<publications/></ivy-module>", "\"v1\""};
+        final List<String> requests = new ArrayList<>();
+        InetSocketAddress address = new InetSocketAddress("localhost",
+                TestHelper.getMaybeAvailablePort());
+        HttpServer server = HttpServer.create(address, -1);
+        // serves the descriptor with an entity tag only, and 404 for anything else
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath();
+                String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+                synchronized (requests) {
+                    requests.add(exchange.getRequestMethod() + " " + path
+                            + (ifNoneMatch == null ? "" : " " + ifNoneMatch));
+                }
+                if (!path.equals("/org/mod/1.0/ivy.xml")) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else if (descriptor[1].equals(ifNoneMatch)) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    byte[] content = descriptor[0].getBytes("UTF-8");
+                    exchange.getResponseHeaders().add("ETag", descriptor[1]);
+                    boolean head = "HEAD".equals(exchange.getRequestMethod());
+                    exchange.sendResponseHeaders(200, head ? -1 : content.length);
+                    if (!head) {
+                        exchange.getResponseBody().write(content);
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            URLResolver resolver = new URLResolver();
+            resolver.setName("http");
+            resolver.addIvyPattern("http://localhost:" + address.getPort()
+                    + "/[organisation]/[module]/[revision]/ivy.xml");
+            resolver.addArtifactPattern("http://localhost:" + address.getPort()
+                    + "/[organisation]/[module]/[revision]/[artifact].[ext]");
+            resolver.setCheckmodified(true);
+            IvySettings settings = ivy.getSettings();
+            settings.addResolver(resolver);
+            settings.setDefaultResolver("http");
+            settings.setDefaultCache(cacheManager.getBasedir());
+            ModuleRevisionId mrid = ModuleRevisionId.newInstance("org", "mod", "1.0");
+            ResolveOptions options = new ResolveOptions().setConfs(new String[] {"default"})
+                    .setOutputReport(false);
+
+            // the first resolve downloads the descriptor and saves its entity tag
+            assertFalse(ivy.resolve(mrid, options, true).hasError());
+            requests.clear();
+
+            // so a single conditional request is enough afterwards
+            ResolveReport report = ivy.resolve(mrid, options, true);
+            assertFalse(report.hasError());
+            assertEquals(Collections.singletonList("GET /org/mod/1.0/ivy.xml \"v1\""),
+                requests);
+
+            // and a new descriptor is downloaded when it has changed
+            descriptor[0] = descriptor[0].replace("integration", "release");
+            descriptor[1] = "\"v2\"";
+            report = ivy.resolve(mrid, options, true);
+            assertFalse(report.hasError());
+            assertEquals("release", report.getDependencies().get(0).getDescriptor().getStatus());
+        } finally {
+            server.stop(0);
+        }
+    }
+
     @Test
     @Ignore
     public void testLatestIntegrationIsCachedPerResolver() throws Exception {
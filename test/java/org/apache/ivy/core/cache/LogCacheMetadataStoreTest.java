@@ -0,0 +1,171 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.apache.ivy.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogCacheMetadataStoreTest {
+
+    private File root;
+
+    private LogCacheMetadataStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        root = File.createTempFile("ivycache", ".dir");
+        root.delete();
+        store = new LogCacheMetadataStore(root);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+        FileUtil.forceDelete(root);
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        store.save("org/mod/ivydata-1.0.properties", data("resolver", "r1"), null);
+        store.save("org/mod/ivydata-2.0.properties", data("resolver", "r2"), null);
+        store.save("org/mod/ivydata-1.0.properties", data("resolver", "r3"), null);
+
+        assertEquals("r3", store.load("org/mod/ivydata-1.0.properties").getProperty("resolver"));
+        assertEquals("r2", store.load("org/mod/ivydata-2.0.properties").getProperty("resolver"));
+        assertTrue(store.load("org/mod/ivydata-3.0.properties").isEmpty());
+        assertEquals(2, store.size());
+        // a single file is used for all the data
+        assertEquals(1, root.list().length);
+    }
+
+    @Test
+    public void testSaveEmptyDataRemovesData() {
+        store.save("org/mod/ivydata-1.0.properties", data("resolver", "r1"), null);
+        store.save("org/mod/ivydata-1.0.properties", new Properties(), null);
+
+        assertTrue(store.load("org/mod/ivydata-1.0.properties").isEmpty());
+    }
+
+    @Test
+    public void testReopen() {
+        store.save("org/mod/ivydata-1.0.properties", data("resolver", "r1"), null);
+        store.close();
+
+        LogCacheMetadataStore other = new LogCacheMetadataStore(root);
+        try {
+            assertEquals("r1",
+                other.load("org/mod/ivydata-1.0.properties").getProperty("resolver"));
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void testSeesDataSavedByAnotherStore() {
+        LogCacheMetadataStore other = new LogCacheMetadataStore(root);
+        try {
+            store.save("org/mod/ivydata-1.0.properties", data("resolver", "r1"), null);
+            assertEquals("r1",
+                other.load("org/mod/ivydata-1.0.properties").getProperty("resolver"));
+
+            other.save("org/mod/ivydata-1.0.properties", data("resolver", "r2"), null);
+            assertEquals("r2",
+                store.load("org/mod/ivydata-1.0.properties").getProperty("resolver"));
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsDiscarded() throws IOException {
+        store.save("org/mod/ivydata-1.0.properties", data("resolver", "r1"), null);
+        store.close();
+        // a process died while appending a record: only the start of its header was written
+        try (OutputStream out = new FileOutputStream(store.getFile(), true)) {
+            out.write(new byte[] {0, 0, 1, 0, 0x12});
+        }
+
+        store.save("org/mod/ivydata-2.0.properties", data("resolver", "r2"), null);
+        store.close();
+
+        LogCacheMetadataStore other = new LogCacheMetadataStore(root);
+        try {
+            assertEquals("r1",
+                other.load("org/mod/ivydata-1.0.properties").getProperty("resolver"));
+            assertEquals("r2",
+                other.load("org/mod/ivydata-2.0.properties").getProperty("resolver"));
+            // records saved later are still visible
+            other.save("org/mod/ivydata-3.0.properties", data("resolver", "r3"), null);
+            assertEquals("r3",
+                store.load("org/mod/ivydata-3.0.properties").getProperty("resolver"));
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void testLegacyPropertiesFileIsUsedWhenNoDataIsSaved() throws IOException {
+        File legacy = new File(root, "org/mod/ivydata-1.0.properties");
+        legacy.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(legacy)) {
+            data("resolver", "legacy").store(out, null);
+        }
+        assertEquals("legacy",
+            store.load("org/mod/ivydata-1.0.properties").getProperty("resolver"));
+
+        store.save("org/mod/ivydata-1.0.properties", data("resolver", "r1"), null);
+        assertEquals("r1", store.load("org/mod/ivydata-1.0.properties").getProperty("resolver"));
+    }
+
+    @Test
+    public void testCompaction() {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            value.append('x');
+        }
+        for (int i = 0; i < 3000; i++) {
+            store.save("org/mod/ivydata-" + (i % 10) + ".properties",
+                data("value", value + "-" + i), null);
+        }
+        // without compaction the file would be about 3MB
+        assertTrue(store.getFile().length() < 2 * 1024 * 1024);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(value + "-" + (2990 + i),
+                store.load("org/mod/ivydata-" + i + ".properties").getProperty("value"));
+        }
+        assertNull(store.load("org/mod/ivydata-10.properties").getProperty("value"));
+    }
+
+    private static Properties data(String name, String value) {
+        Properties data = new Properties();
+        data.setProperty(name, value);
+        return data;
+    }
+}
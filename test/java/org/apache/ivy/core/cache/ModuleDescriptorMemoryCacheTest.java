@@ -172,6 +172,54 @@ public class ModuleDescriptorMemoryCacheTest {
         providerMock2.assertCalled();
     }
 
+    @Test
+    public void testStatistics() throws ParseException, IOException {
+        cache.get(url1, ivySettings, false, new ModuleDescriptorProviderMock(md1)); // miss
+        cache.get(url1, ivySettings, false, null); // hit
+        cache.get(url2, ivySettings, false, new ModuleDescriptorProviderMock(md2)); // miss
+        cache.get(url3, ivySettings, false, new ModuleDescriptorProviderMock(md3)); // eviction
+        cache.get(url1, ivySettings, true, new ModuleDescriptorProviderMock(md1)); // miss
+        cache.get(url3, ivySettings, true, new ModuleDescriptorProviderMock(md3)); // stale
+        assertEquals(1, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(1, cache.getStaleCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testWeightIsLimited() throws ParseException, IOException {
+        ModuleDescriptorMemoryCache.Weigher weigher = new ModuleDescriptorMemoryCache.Weigher() {
+            public long weigh(ModuleDescriptor md) {
+                return md == md1 ? 200 : 100;
+            }
+        };
+        cache = new ModuleDescriptorMemoryCache(10, 300, weigher);
+        cache.get(url2, ivySettings, false, new ModuleDescriptorProviderMock(md2));
+        cache.get(url3, ivySettings, false, new ModuleDescriptorProviderMock(md3));
+        assertEquals(200, cache.getWeight());
+        cache.get(url1, ivySettings, false, new ModuleDescriptorProviderMock(md1));
+        // url2 is the least recently used entry, and has been removed to make room for url1
+        assertEquals(300, cache.getWeight());
+        assertEquals(1, cache.getEvictionCount());
+        ModuleDescriptorProviderMock providerMock2b = new ModuleDescriptorProviderMock(md2);
+        cache.get(url3, ivySettings, false, null);
+        cache.get(url2, ivySettings, false, providerMock2b);
+        providerMock2b.assertCalled();
+    }
+
+    @Test
+    public void testLargeCacheKeepsAllEntries() throws ParseException, IOException {
+        cache = new ModuleDescriptorMemoryCache(150);
+        File[] files = new File[150];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new File(url1.getParentFile(), "ivy-" + i + ".xml");
+            cache.get(files[i], ivySettings, false, new ModuleDescriptorProviderMock(md1));
+        }
+        assertEquals(150, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
     private static class ModuleDescriptorProviderMock implements ModuleDescriptorProvider {
 
         private boolean called = false;
@@ -0,0 +1,218 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.core.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.plugins.repository.BasicResource;
+import org.apache.ivy.plugins.repository.TransferEvent;
+import org.apache.ivy.plugins.repository.TransferListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventManagerTest {
+
+    private EventManager eventManager;
+
+    @Before
+    public void setUp() {
+        eventManager = new EventManager();
+        eventManager.startAsyncDispatch(16);
+    }
+
+    @After
+    public void tearDown() {
+        eventManager.stopAsyncDispatch();
+    }
+
+    @Test
+    public void testAsyncDispatch() {
+        RecordingListener async = new RecordingListener();
+        SynchronousRecordingListener sync = new SynchronousRecordingListener();
+        eventManager.addIvyListener(async);
+        eventManager.addIvyListener(sync, "test");
+
+        List<IvyEvent> fired = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            IvyEvent event = new TestEvent();
+            fired.add(event);
+            eventManager.fireIvyEvent(event);
+            // synchronous listeners are notified before the event manager returns
+            assertEquals(i + 1, sync.events.size());
+        }
+        eventManager.flush();
+
+        assertEquals(fired, sync.events);
+        assertEquals(Collections.singletonList(Thread.currentThread()), sync.distinctThreads());
+        assertEquals(fired, async.events);
+        assertEquals(1, async.distinctThreads().size());
+        assertNotSame(Thread.currentThread(), async.distinctThreads().get(0));
+    }
+
+    @Test
+    public void testTransferProgressIsCoalesced() throws InterruptedException {
+        // block the dispatcher thread until the transfer is over
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        eventManager.addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                if (event instanceof TestEvent) {
+                    blocked.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        final List<TransferEvent> async = Collections.synchronizedList(
+            new ArrayList<TransferEvent>());
+        eventManager.addTransferListener(new TransferListener() {
+            public void transferProgress(TransferEvent evt) {
+                async.add(evt);
+            }
+        });
+        final List<Long> sync = new ArrayList<>();
+        eventManager.addTransferListener(new SynchronousTransferListener(sync));
+
+        eventManager.fireIvyEvent(new TestEvent());
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        TestTransferEvent transfer = new TestTransferEvent(100);
+        eventManager.transferProgress(transfer);
+        for (int i = 0; i < 4; i++) {
+            transfer.progress(100);
+            eventManager.transferProgress(transfer);
+        }
+        release.countDown();
+        eventManager.flush();
+
+        assertEquals(5, sync.size());
+        assertEquals(1, async.size());
+        TransferEvent delivered = async.get(0);
+        assertEquals(TransferEvent.TRANSFER_PROGRESS, delivered.getEventType());
+        assertEquals(500, delivered.getLength());
+        assertEquals(500, delivered.getTotalLength());
+        // asynchronous listeners get a copy of the event, which the repository keeps updating
+        assertNotSame(transfer, delivered);
+    }
+
+    @Test
+    public void testStopDeliversQueuedEvents() {
+        RecordingListener async = new RecordingListener();
+        eventManager.addIvyListener(async);
+        for (int i = 0; i < 50; i++) {
+            eventManager.fireIvyEvent(new TestEvent());
+        }
+        eventManager.stopAsyncDispatch();
+        assertEquals(50, async.events.size());
+
+        // events are now delivered synchronously
+        eventManager.fireIvyEvent(new TestEvent());
+        assertEquals(51, async.events.size());
+        assertSame(Thread.currentThread(), async.threads.get(50));
+    }
+
+    @Test
+    public void testDispatcherThreadEndsWhenIdle() throws InterruptedException {
+        RecordingListener async = new RecordingListener();
+        eventManager.addIvyListener(async);
+        eventManager.fireIvyEvent(new TestEvent());
+        eventManager.flush();
+        Thread dispatcher = async.threads.get(0);
+
+        // the thread ends once no event has been queued for a while
+        dispatcher.join(10000);
+        assertFalse(dispatcher.isAlive());
+
+        // and another one is started for the next events
+        eventManager.fireIvyEvent(new TestEvent());
+        eventManager.flush();
+        assertEquals(2, async.distinctThreads().size());
+        assertNotSame(Thread.currentThread(), async.threads.get(1));
+    }
+
+    private static final class TestEvent extends IvyEvent {
+        private TestEvent() {
+            super("test");
+        }
+    }
+
+    private static final class TestTransferEvent extends TransferEvent {
+        private TestTransferEvent(long length) {
+            super(null, new BasicResource("test", true, 0, 0, false), length,
+                    TransferEvent.REQUEST_GET);
+        }
+
+        private void progress(long length) {
+            setLength(length);
+            setTotalLength(getTotalLength() + length);
+        }
+    }
+
+    private static class RecordingListener implements IvyListener {
+        protected final List<IvyEvent> events = Collections.synchronizedList(
+            new ArrayList<IvyEvent>());
+
+        protected final List<Thread> threads = Collections.synchronizedList(
+            new ArrayList<Thread>());
+
+        public void progress(IvyEvent event) {
+            events.add(event);
+            threads.add(Thread.currentThread());
+        }
+
+        List<Thread> distinctThreads() {
+            List<Thread> distinct = new ArrayList<>();
+            for (Thread thread : threads) {
+                if (!distinct.contains(thread)) {
+                    distinct.add(thread);
+                }
+            }
+            return distinct;
+        }
+    }
+
+    private static final class SynchronousRecordingListener extends RecordingListener implements
+            SynchronousListener {
+    }
+
+    private static final class SynchronousTransferListener implements TransferListener,
+            SynchronousListener {
+        private final List<Long> lengths;
+
+        private SynchronousTransferListener(List<Long> lengths) {
+            this.lengths = lengths;
+        }
+
+        public void transferProgress(TransferEvent evt) {
+            lengths.add(evt.getLength());
+        }
+    }
+}
@@ -17,20 +17,41 @@
  */
 package org.apache.ivy.core.resolve;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.ivy.Ivy;
 import org.apache.ivy.core.cache.ArtifactOrigin;
 import org.apache.ivy.core.cache.DefaultResolutionCacheManager;
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.download.EndArtifactDownloadEvent;
+import org.apache.ivy.core.event.resolve.StartResolveDependencyEvent;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.id.ArtifactRevisionId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.CachedConfigurationResolveReport;
+import org.apache.ivy.core.report.ConfigurationResolveReport;
 import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.plugins.resolver.ChainResolver;
 import org.apache.ivy.plugins.resolver.FileSystemResolver;
 import org.apache.ivy.util.CacheCleaner;
+import org.apache.ivy.util.FileUtil;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -38,6 +59,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -152,6 +174,284 @@ public class ResolveEngineTest {
 
     }
 
+    /**
+     * Tests that downloading artifacts with several threads produces the same report, and fires
+     * the download events in the same order, than a serial download.
+     */
+    @Test
+    public void testParallelDownload() throws Exception {
+        final List<ArtifactRevisionId> serialEvents = new ArrayList<>();
+        ResolveReport serial = resolveRecordingDownloads(1, serialEvents);
+
+        CacheCleaner.deleteDir(cache);
+        createCache();
+
+        final List<ArtifactRevisionId> parallelEvents = new ArrayList<>();
+        ResolveReport parallel = resolveRecordingDownloads(4, parallelEvents);
+
+        assertFalse(parallel.hasError());
+        assertEquals(7, parallel.getConfigurationReport("standalone").getArtifactsNumber());
+        assertEquals(serial.getDownloadSize(), parallel.getDownloadSize());
+        assertEquals(serialEvents, parallelEvents);
+        ArtifactDownloadReport[] serialReports = serial.getAllArtifactsReports();
+        ArtifactDownloadReport[] parallelReports = parallel.getAllArtifactsReports();
+        assertEquals(serialReports.length, parallelReports.length);
+        for (int i = 0; i < serialReports.length; i++) {
+            assertEquals(serialReports[i].getArtifact().getId(),
+                parallelReports[i].getArtifact().getId());
+        }
+        for (ArtifactDownloadReport adr : parallel.getAllArtifactsReports()) {
+            assertEquals(DownloadStatus.SUCCESSFUL, adr.getDownloadStatus());
+            assertTrue(adr.getLocalFile().exists());
+        }
+    }
+
+    /**
+     * Tests that prefetching module descriptors concurrently doesn't change the result of the
+     * resolve nor the order of the dependencies, and that download events of prefetched
+     * descriptors are still fired.
+     */
+    @Test
+    public void testPrefetchDescriptors() throws Exception {
+        final List<ArtifactRevisionId> serialEvents = new ArrayList<>();
+        ResolveReport serial = resolveRecordingDownloads(new ResolveOptions(), serialEvents);
+
+        CacheCleaner.deleteDir(cache);
+        createCache();
+
+        final List<ArtifactRevisionId> prefetchEvents = new ArrayList<>();
+        ResolveReport prefetch = resolveRecordingDownloads(
+            new ResolveOptions().setPrefetchThreads(4), prefetchEvents);
+
+        assertFalse(prefetch.hasError());
+        assertEquals(getResolvedIds(serial), getResolvedIds(prefetch));
+        assertEquals(new HashSet<>(serialEvents), new HashSet<>(prefetchEvents));
+    }
+
+    /**
+     * Tests that the module descriptors of the dependencies are looked up by the prefetch threads
+     * before the resolving thread visits the dependencies.
+     */
+    @Test
+    public void testPrefetchDescriptorsAhead() throws Exception {
+        final List<String> lookups = Collections.synchronizedList(new ArrayList<String>());
+        ChainResolver recording = new ChainResolver() {
+            @Override
+            public ResolvedModuleRevision getDependency(DependencyDescriptor dd,
+                    ResolveData data) throws ParseException {
+                lookups.add(Thread.currentThread().getName() + " "
+                        + dd.getDependencyRevisionId().getModuleId());
+                return super.getDependency(dd, data);
+            }
+        };
+        recording.setName("recording");
+        recording.add(ivy.getSettings().getResolver("test"));
+        ivy.getSettings().addResolver(recording);
+        ivy.getSettings().setDefaultResolver("recording");
+
+        ResolveReport report = ivy.resolve(new File("test/repositories/2/mod14.4/ivy-1.1.xml"),
+            new ResolveOptions().setConfs(new String[] {"standalone"}).setPrefetchThreads(4));
+        assertFalse(report.hasError());
+
+        // the first lookup of each module is done by a prefetch thread, if any is
+        Set<String> looked = new HashSet<>();
+        int prefetched = 0;
+        for (String lookup : lookups) {
+            String module = lookup.substring(lookup.indexOf(' ') + 1);
+            if (lookup.startsWith("ivy-prefetch-")) {
+                assertTrue(module + " prefetched after its visit", looked.add(module));
+                prefetched++;
+            } else {
+                looked.add(module);
+            }
+        }
+        // mod14.4 depends on mod14.3 and mod8.3, mod14.3 has several dependencies
+        assertTrue("expected several prefetched descriptors, got " + lookups, prefetched > 2);
+    }
+
+    /**
+     * Tests that the events fired by the concurrent lookups of a parallel chain, themselves run by
+     * prefetch threads, are all delivered once, by the resolving thread.
+     */
+    @Test
+    public void testPrefetchWithParallelChainDeliversEventsOnce() throws Exception {
+        final List<IvyEvent> events = Collections.synchronizedList(new ArrayList<IvyEvent>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        ivy.getEventManager().addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                events.add(event);
+                threads.add(Thread.currentThread());
+            }
+        });
+        ((ChainResolver) ivy.getSettings().getResolver("test")).setParallel(true);
+
+        DefaultModuleDescriptor md = DefaultModuleDescriptor.newDefaultInstance(
+            ModuleRevisionId.newInstance("org", "caller", "1.0"));
+        for (String dependency : new String[] {"org1#mod1.1", "org2#mod2.1", "org1#mod1.4"}) {
+            String[] parts = dependency.split("#");
+            DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(md,
+                    ModuleRevisionId.newInstance(parts[0], parts[1], "latest.integration"),
+                    false, false, true);
+            dd.addDependencyConfiguration("default", "*");
+            md.addDependency(dd);
+        }
+        ResolveReport report = ivy.resolve(md, new ResolveOptions()
+                .setConfs(new String[] {"default"}).setPrefetchThreads(4).setDownload(false));
+        assertFalse(report.getAllProblemMessages().toString(), report.hasError());
+
+        Set<IvyEvent> distinct = Collections.newSetFromMap(new IdentityHashMap<IvyEvent, Boolean>());
+        distinct.addAll(events);
+        assertEquals(events.size(), distinct.size());
+        assertEquals(Collections.singleton(Thread.currentThread()), new HashSet<>(threads));
+        int lookups = 0;
+        for (IvyEvent event : events) {
+            if (event instanceof StartResolveDependencyEvent) {
+                lookups++;
+            }
+        }
+        // each dependency is looked up by each resolver of the chain, once prefetched
+        assertTrue("expected lookups of each resolver, got " + lookups, lookups > 3);
+    }
+
+    /**
+     * Tests that a second resolve of an unchanged module reuses the result of the first one, and
+     * that changing the module descriptor or removing an artifact from the cache prevents it.
+     */
+    @Test
+    public void testReuseResolution() throws Exception {
+        File ivyFile = new File(cache, "reuse/ivy.xml");
+        FileUtil.copy(new File("test/repositories/2/mod14.4/ivy-1.1.xml"), ivyFile, null);
+        ResolveOptions options = new ResolveOptions().setConfs(new String[] {"standalone"})
+                .setReuseResolution(true);
+
+        ResolveReport first = ivy.resolve(ivyFile, options);
+        assertFalse(first.hasError());
+        assertFalse(isReused(first));
+
+        ResolveReport second = ivy.resolve(ivyFile, options);
+        assertTrue(isReused(second));
+        assertFalse(second.hasError());
+        ConfigurationResolveReport firstConf = first.getConfigurationReport("standalone");
+        ConfigurationResolveReport secondConf = second.getConfigurationReport("standalone");
+        assertEquals(firstConf.getModuleRevisionIds(), secondConf.getModuleRevisionIds());
+        assertEquals(firstConf.getArtifactsNumber(), secondConf.getArtifactsNumber());
+        assertEquals(getArtifactIds(first), getArtifactIds(second));
+        assertEquals(new HashSet<>(first.getModuleIds()), new HashSet<>(second.getModuleIds()));
+        for (ModuleRevisionId mrid : firstConf.getModuleRevisionIds()) {
+            assertEquals(firstConf.getDownloadReports(mrid).length,
+                secondConf.getDownloadReports(mrid).length);
+        }
+
+        // a modified descriptor is resolved again
+        String content = FileUtil.readEntirely(ivyFile);
+        FileUtil.copy(new ByteArrayInputStream(
+                content.replace("integration", "release").getBytes(StandardCharsets.UTF_8)),
+            ivyFile, null);
+        ResolveReport third = ivy.resolve(ivyFile, options);
+        assertFalse(isReused(third));
+        assertTrue(isReused(ivy.resolve(ivyFile, options)));
+
+        // as well as a module whose artifacts are not in the cache anymore
+        assertTrue(third.getAllArtifactsReports()[0].getLocalFile().delete());
+        ResolveReport fourth = ivy.resolve(ivyFile, options);
+        assertFalse(isReused(fourth));
+        assertFalse(fourth.hasError());
+
+        // and the result is reused only when asked to
+        assertFalse(isReused(ivy.resolve(ivyFile,
+            new ResolveOptions(options).setReuseResolution(null))));
+        assertFalse(isReused(ivy.resolve(ivyFile, options)));
+    }
+
+    /**
+     * Tests that changing a file loaded by the settings prevents the reuse of a previous resolve,
+     * even if the settings variables are the same.
+     */
+    @Test
+    public void testReuseResolutionWithChangedSettingsFile() throws Exception {
+        File ivyFile = new File(cache, "reuse/ivy.xml");
+        FileUtil.copy(new File("test/repositories/2/mod14.4/ivy-1.1.xml"), ivyFile, null);
+        File propertiesFile = new File(cache, "reuse/reuse.properties");
+        FileUtil.copy(new ByteArrayInputStream("reuse.test=1\n".getBytes(StandardCharsets.UTF_8)),
+            propertiesFile, null);
+        ivy.getSettings().loadProperties(propertiesFile);
+        ResolveOptions options = new ResolveOptions().setConfs(new String[] {"standalone"})
+                .setReuseResolution(true);
+
+        assertFalse(isReused(ivy.resolve(ivyFile, options)));
+        assertTrue(isReused(ivy.resolve(ivyFile, options)));
+
+        FileUtil.copy(new ByteArrayInputStream(
+                "# changed\nreuse.test=1\n".getBytes(StandardCharsets.UTF_8)),
+            propertiesFile, null);
+        assertFalse(isReused(ivy.resolve(ivyFile, options)));
+        assertTrue(isReused(ivy.resolve(ivyFile, options)));
+    }
+
+    /**
+     * Tests that a resolve done with useOrigin does not reuse the result of a resolve done
+     * without, and conversely.
+     */
+    @Test
+    public void testReuseResolutionWithUseOrigin() throws Exception {
+        File ivyFile = new File(cache, "reuse/ivy.xml");
+        FileUtil.copy(new File("test/repositories/2/mod14.4/ivy-1.1.xml"), ivyFile, null);
+        ResolveOptions options = new ResolveOptions().setConfs(new String[] {"standalone"})
+                .setReuseResolution(true);
+
+        assertFalse(isReused(ivy.resolve(ivyFile, options)));
+        assertTrue(isReused(ivy.resolve(ivyFile, options)));
+
+        ivy.getSettings().setDefaultUseOrigin(true);
+        assertFalse(isReused(ivy.resolve(ivyFile, options)));
+        assertTrue(isReused(ivy.resolve(ivyFile, options)));
+
+        ivy.getSettings().setDefaultUseOrigin(false);
+        assertFalse(isReused(ivy.resolve(ivyFile, options)));
+    }
+
+    private Set<ArtifactRevisionId> getArtifactIds(ResolveReport report) {
+        Set<ArtifactRevisionId> ids = new HashSet<>();
+        for (Artifact artifact : report.getArtifacts()) {
+            ids.add(artifact.getId());
+        }
+        return ids;
+    }
+
+    private boolean isReused(ResolveReport report) {
+        return report.getConfigurationReport("standalone")
+                instanceof CachedConfigurationResolveReport;
+    }
+
+    private List<ModuleRevisionId> getResolvedIds(ResolveReport report) {
+        List<ModuleRevisionId> ids = new ArrayList<>();
+        for (IvyNode node : report.getDependencies()) {
+            ids.add(node.getResolvedId());
+        }
+        return ids;
+    }
+
+    private ResolveReport resolveRecordingDownloads(int threads,
+            final List<ArtifactRevisionId> events) throws Exception {
+        return resolveRecordingDownloads(new ResolveOptions().setDownloadThreads(threads), events);
+    }
+
+    private ResolveReport resolveRecordingDownloads(ResolveOptions options,
+            final List<ArtifactRevisionId> events) throws Exception {
+        IvyListener listener = new IvyListener() {
+            public void progress(IvyEvent event) {
+                events.add(((EndArtifactDownloadEvent) event).getArtifact().getId());
+            }
+        };
+        ivy.getEventManager().addIvyListener(listener, EndArtifactDownloadEvent.NAME);
+        try {
+            options.setConfs(new String[] {"standalone"});
+            return ivy.resolve(new File("test/repositories/2/mod14.4/ivy-1.1.xml"), options);
+        } finally {
+            ivy.getEventManager().removeIvyListener(listener);
+        }
+    }
+
     private void testLocateThenDownload(ResolveEngine engine, Artifact artifact, File artifactFile) {
         ArtifactOrigin origin = engine.locate(artifact);
         assertNotNull(origin);
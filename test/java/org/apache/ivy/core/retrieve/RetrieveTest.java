@@ -304,6 +304,63 @@ public class RetrieveTest {
             "jar", "default"));
     }
 
+    @Test
+    public void testRetrieveWithHardlinks() throws Exception {
+        // mod1.1 depends on mod1.2
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/1/org1/mod1.1/ivys/ivy-1.0.xml").toURI().toURL(),
+            getResolveOptions(new String[] {"*"}));
+        ModuleDescriptor md = report.getModuleDescriptor();
+
+        String pattern = "build/test/retrieve/[module]/[conf]/[artifact]-[revision].[ext]";
+        RetrieveReport retrieveReport = ivy.retrieve(md.getModuleRevisionId(),
+            getRetrieveOptions().setMakeHardlinks(true).setDestArtifactPattern(pattern));
+        assertEquals(1, retrieveReport.getNbrArtifactsCopied());
+        File cached = report.getArtifactsReports(ModuleRevisionId.newInstance("org1", "mod1.2",
+            "2.0"))[0].getLocalFile();
+        Path retrieved = Paths.get(IvyPatternHelper.substitute(pattern, "org1", "mod1.2", "2.0",
+            "mod1.2", "jar", "jar", "default"));
+        assertTrue(Files.exists(retrieved));
+        assertFalse(Files.isSymbolicLink(retrieved));
+        // not a symbolic link, but the same file as in the cache: a hard link
+        assertTrue(Files.isSameFile(cached.toPath(), retrieved));
+    }
+
+    @Test
+    public void testRetrieveWithThreads() throws Exception {
+        // mod6.2 depends on mod1.2, mod1.1 and mod6.1, with transitive dependencies
+        ResolveReport report = ivy.resolve(new File(
+                "test/repositories/1/org6/mod6.2/ivys/ivy-0.5.xml").toURI().toURL(),
+            getResolveOptions(new String[] {"*"}));
+        ModuleDescriptor md = report.getModuleDescriptor();
+
+        final List<IvyEvent> events = new ArrayList<>();
+        final List<Boolean> existing = new ArrayList<>();
+        ivy.getEventManager().addIvyListener(new IvyListener() {
+            public void progress(IvyEvent event) {
+                events.add(event);
+                if (event instanceof StartRetrieveArtifactEvent) {
+                    existing.add(((StartRetrieveArtifactEvent) event).getDestFile().exists());
+                }
+            }
+        });
+        String pattern = "build/test/retrieve/[module]/[conf]/[artifact]-[revision].[ext]";
+        RetrieveReport retrieveReport = ivy.retrieve(md.getModuleRevisionId(),
+            getRetrieveOptions().setThreads(4).setDestArtifactPattern(pattern));
+        int copied = retrieveReport.getNbrArtifactsCopied();
+        assertTrue("expected several files to be copied, got " + copied, copied > 1);
+        assertEquals(2 * copied + 2, events.size());
+        // the start events are fired before the copies are submitted, the end events once they
+        // are done, in the same order
+        for (int i = 0; i < copied; i++) {
+            StartRetrieveArtifactEvent start = (StartRetrieveArtifactEvent) events.get(1 + i);
+            EndRetrieveArtifactEvent end = (EndRetrieveArtifactEvent) events.get(1 + copied + i);
+            assertEquals(start.getDestFile(), end.getDestFile());
+            assertFalse(existing.get(i));
+            assertTrue(end.getDestFile().exists());
+        }
+    }
+
     /**
      * Tests that retrieve, when invoked with "symlink" enabled, creates the necessary symlink
      * when the artifact being retrieved is a directory instead of a regular file
@@ -141,6 +141,27 @@ public class SortTest {
         // If it ends, it's ok.
     }
 
+    /**
+     * A long chain of dependencies must not be limited by the depth of the thread stack.
+     */
+    @Test
+    public void testLongChainOfDependencies() {
+        int nbModules = 20000;
+        List<ModuleDescriptor> toSort = new ArrayList<>(nbModules);
+        for (int i = 0; i < nbModules; i++) {
+            DefaultModuleDescriptor md = createModuleDescriptorToSort("chain" + i, "1.0");
+            if (i > 0) {
+                addDependency(md, "chain" + (i - 1), "1.0");
+            }
+            toSort.add(0, md);
+        }
+        List<ModuleDescriptor> sorted = sortModuleDescriptors(toSort, nonMatchReporter);
+        assertEquals(nbModules, sorted.size());
+        for (int i = 0; i < nbModules; i++) {
+            assertEquals("chain" + i, sorted.get(i).getModuleRevisionId().getName());
+        }
+    }
+
     /**
      * In case of Circular dependency a warning is generated.
      */
@@ -20,6 +20,10 @@ package org.apache.ivy.osgi.filter;
 import static org.junit.Assert.assertEquals;
 
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.ivy.osgi.filter.CompareFilter.Operator;
 import org.junit.Test;
@@ -66,6 +70,47 @@ public class OSGiFilterTest {
             "(&     (version>=3.5.0)     (!(version>=4.0.0))     (bundle=org.eclipse.core.runtime)    )");
     }
 
+    @Test
+    public void testCompile() throws Exception {
+        String[] filters = {"(c>2)", "(c<=2)", "(c=*)", "(c~=2)", "(c=2*)", "(!(c=2))", "(&(c>=1)(d=x))", "(|(c<1)(d=x)(e=*))",
+                "(&(|(c=1)(c=3))(!(|(d=x)(e=y)))(f>=b))",
+                "(|(&(c>=1)(c<=2))(&(d=*)(!(e=*))))"};
+        List<OSGiFilter> parsedFilters = new ArrayList<>();
+        for (String filter : filters) {
+            parsedFilters.add(OSGiFilterParser.parse(filter));
+        }
+        // not parseable
+        parsedFilters.add(new AndFilter());
+        parsedFilters.add(new OrFilter());
+
+        String[] values = {null, "1", "2", "3", "x", "y", "a", "b"};
+        for (OSGiFilter parsed : parsedFilters) {
+            CompiledOSGiFilter compiled = parsed.compile();
+            // all the combinations of values of the properties c, d and e, with f set to a or b
+            for (String c : values) {
+                for (String d : values) {
+                    for (String e : values) {
+                        for (String f : new String[] {"a", "b"}) {
+                            Map<String, String> properties = new HashMap<>();
+                            put(properties, "c", c);
+                            put(properties, "d", d);
+                            put(properties, "e", e);
+                            put(properties, "f", f);
+                            assertEquals(parsed + " " + properties, parsed.eval(properties),
+                                compiled.eval(properties));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void put(Map<String, String> properties, String name, String value) {
+        if (value != null) {
+            properties.put(name, value);
+        }
+    }
+
     private void checkParse(OSGiFilter expected, String toParse) throws ParseException {
         OSGiFilter parsed = OSGiFilterParser.parse(toParse);
         assertEquals(expected, parsed);
@@ -22,6 +22,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.sax.SAXTransformerFactory;
@@ -29,9 +33,13 @@ import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 
 import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.osgi.core.BundleInfo;
 import org.apache.ivy.osgi.core.ExecutionEnvironmentProfileProvider;
+import org.apache.ivy.osgi.core.ExportPackage;
 import org.apache.ivy.osgi.obr.xml.OBRXMLParser;
 import org.apache.ivy.osgi.obr.xml.OBRXMLWriter;
+import org.apache.ivy.osgi.util.Version;
+import org.apache.ivy.osgi.util.VersionRange;
 import org.apache.ivy.plugins.repository.file.FileRepository;
 import org.apache.ivy.plugins.resolver.FileSystemResolver;
 import org.apache.tools.ant.BuildException;
@@ -39,6 +47,7 @@ import org.junit.Test;
 import org.xml.sax.SAXException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class BundleRepoTest {
 
@@ -120,4 +129,49 @@ public class BundleRepoTest {
         assertEquals(repo, repo2);
     }
 
+    @Test
+    public void testFindModulesInRange() throws Exception {
+        EditableRepoDescriptor repo = new EditableRepoDescriptor(bundlerepo.toURI(),
+                ExecutionEnvironmentProfileProvider.getInstance());
+        for (String version : new String[] {"0.5.0", "0.9.0", "1.0.0", "1.0.0.v1", "1.5.0",
+                "2.0.0", "2.0.0.v2", "3.0.0", "4.0.0", "5.0.0"}) {
+            BundleInfo bundle = new BundleInfo("org.acme.bundle" + version, new Version(version));
+            bundle.addCapability(new ExportPackage("org.acme", new Version(version)));
+            repo.addBundle(bundle);
+        }
+
+        // qualifiers and exclusions aside
+        assertEquals(versions("1.0.0", "1.0.0.v1", "1.5.0", "2.0.0", "2.0.0.v2"),
+            exportedVersions(repo.findModules(BundleInfo.PACKAGE_TYPE, "org.acme",
+                new VersionRange("(1.0.0,2.0.0)"))));
+        assertEquals(versions("1.5.0"), exportedVersions(repo.findModules(
+            BundleInfo.PACKAGE_TYPE, "org.acme", new VersionRange("[1.1,1.9]"))));
+        assertEquals(versions("2.0.0", "2.0.0.v2", "3.0.0", "4.0.0", "5.0.0"),
+            exportedVersions(repo.findModules(BundleInfo.PACKAGE_TYPE, "org.acme",
+                new VersionRange("[2.0.0,)"))));
+        assertEquals(versions(), exportedVersions(repo.findModules(BundleInfo.PACKAGE_TYPE,
+            "org.acme", new VersionRange("[6.0.0,7.0.0)"))));
+        // most of the versions in range: all the modules
+        assertEquals(10, repo.findModules(BundleInfo.PACKAGE_TYPE, "org.acme",
+            new VersionRange("[0.9.0,5.0.0)")).size());
+        assertNull(repo.findModules(BundleInfo.PACKAGE_TYPE, "org.other",
+            new VersionRange("[1.0.0,2.0.0)")));
+
+        assertEquals("org.acme.bundle2.0.0.v2", repo.findModule("org.acme.bundle2.0.0.v2",
+            new Version("2.0.0.v2")).getBundleInfo().getSymbolicName());
+        assertNull(repo.findModule("org.acme.bundle2.0.0.v2", new Version("2.0.0")));
+    }
+
+    private static Set<String> versions(String... versions) {
+        return new HashSet<>(Arrays.asList(versions));
+    }
+
+    private static Set<String> exportedVersions(Collection<ModuleDescriptorWrapper> mds) {
+        Set<String> versions = new HashSet<>();
+        for (ModuleDescriptorWrapper md : mds) {
+            versions.add(md.getBundleInfo().getVersion().toString());
+        }
+        return versions;
+    }
+
 }
@@ -0,0 +1,177 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.osgi.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.ivy.core.cache.CacheResourceOptions;
+import org.apache.ivy.core.cache.RepositoryCacheManager;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.osgi.core.BundleArtifact;
+import org.apache.ivy.osgi.core.BundleInfo;
+import org.apache.ivy.osgi.obr.xml.OBRXMLParser;
+import org.apache.ivy.osgi.p2.P2Descriptor;
+import org.apache.ivy.osgi.updatesite.UpdateSiteLoader;
+import org.apache.ivy.plugins.repository.url.URLRepository;
+import org.apache.ivy.util.CacheCleaner;
+import org.apache.ivy.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RepoDescriptorSnapshotTest {
+
+    private File cache;
+
+    private RepositoryCacheManager cacheManager;
+
+    @Before
+    public void setUp() {
+        IvySettings ivySettings = new IvySettings();
+        cache = new File("build/cache");
+        cache.mkdirs();
+        ivySettings.setDefaultCache(cache);
+        cacheManager = ivySettings.getDefaultRepositoryCacheManager();
+    }
+
+    @After
+    public void tearDown() {
+        CacheCleaner.deleteDir(cache);
+    }
+
+    @Test
+    public void testUpdateSite() throws Exception {
+        UpdateSiteLoader loader = new UpdateSiteLoader(cacheManager, null,
+                new CacheResourceOptions(), null);
+        RepoDescriptor parsed = loader.load(new File("test/test-p2/composite/").toURI());
+        assertTrue(parsed instanceof P2Descriptor);
+
+        loader = new UpdateSiteLoader(cacheManager, null, new CacheResourceOptions(), null);
+        RepoDescriptor loaded = loader.load(new File("test/test-p2/composite/").toURI());
+        assertFalse(loaded instanceof P2Descriptor);
+        assertSameBundles(parsed, loaded);
+    }
+
+    @Test
+    public void testLocalSource() throws Exception {
+        File repoXml = new File(cache, "obr.xml");
+        FileUtil.copy(new File("test/test-repo/multi-osgi/repo1/obr.xml"), repoXml, null);
+        RepoDescriptorSnapshot snapshot = newSnapshot(repoXml);
+        assertNull(snapshot.load());
+        BundleRepoDescriptor parsed;
+        try (InputStream in = new FileInputStream(repoXml)) {
+            parsed = OBRXMLParser.parse(repoXml.getParentFile().toURI(), in);
+        }
+        snapshot.save(parsed);
+        assertTrue(snapshot.getFile().isFile());
+
+        EditableRepoDescriptor loaded = newSnapshot(repoXml).load();
+        assertNotNull(loaded);
+        assertEquals(parsed.getBaseUri(), loaded.getBaseUri());
+        assertSameBundles(parsed, loaded);
+
+        // any change of the source makes the snapshot out of date
+        long lastModified = repoXml.lastModified();
+        try (OutputStream out = new FileOutputStream(repoXml, true)) {
+            out.write("\n".getBytes(StandardCharsets.UTF_8));
+        }
+        repoXml.setLastModified(lastModified);
+        assertNull(newSnapshot(repoXml).load());
+    }
+
+    @Test
+    public void testCorrupted() throws Exception {
+        File repoXml = new File("test/test-repo/multi-osgi/repo1/obr.xml");
+        RepoDescriptorSnapshot snapshot = newSnapshot(repoXml);
+        try (InputStream in = new FileInputStream(repoXml)) {
+            snapshot.save(OBRXMLParser.parse(repoXml.getParentFile().toURI(), in));
+        }
+        byte[] bytes = Files.readAllBytes(snapshot.getFile().toPath());
+        Files.write(snapshot.getFile().toPath(), Arrays.copyOf(bytes,
+            bytes.length / 2));
+        assertNull(newSnapshot(repoXml).load());
+    }
+
+    private RepoDescriptorSnapshot newSnapshot(File repoXml) {
+        RepoDescriptorSnapshot snapshot = new RepoDescriptorSnapshot("test " + repoXml,
+                cacheManager, new URLRepository(), new CacheResourceOptions(), null);
+        snapshot.addSource(repoXml);
+        return snapshot;
+    }
+
+    private static void assertSameBundles(RepoDescriptor expected, RepoDescriptor actual) {
+        Map<String, ModuleDescriptorWrapper> expectedModules = modules(expected);
+        Map<String, ModuleDescriptorWrapper> actualModules = modules(actual);
+        assertFalse(expectedModules.isEmpty());
+        assertEquals(expectedModules, actualModules);
+        for (Map.Entry<String, ModuleDescriptorWrapper> entry : expectedModules.entrySet()) {
+            ModuleDescriptorWrapper module = entry.getValue();
+            ModuleDescriptorWrapper actualModule = actualModules.get(entry.getKey());
+            BundleInfo bundle = module.getBundleInfo();
+            BundleInfo actualBundle = actualModule.getBundleInfo();
+            // not part of BundleInfo.equals
+            assertEquals(bundle.getPresentationName(), actualBundle.getPresentationName());
+            assertEquals(bundle.getSize(), actualBundle.getSize());
+            assertEquals(bundle.getArtifacts().size(), actualBundle.getArtifacts().size());
+            for (int i = 0; i < bundle.getArtifacts().size(); i++) {
+                BundleArtifact artifact = bundle.getArtifacts().get(i);
+                BundleArtifact actualArtifact = actualBundle.getArtifacts().get(i);
+                assertEquals(artifact.isSource(), actualArtifact.isSource());
+                assertEquals(artifact.getUri(), actualArtifact.getUri());
+                assertEquals(artifact.getFormat(), actualArtifact.getFormat());
+            }
+            Artifact[] artifacts = module.getModuleDescriptor().getAllArtifacts();
+            Artifact[] actualArtifacts = actualModule.getModuleDescriptor().getAllArtifacts();
+            assertEquals(artifacts.length, actualArtifacts.length);
+            for (int i = 0; i < artifacts.length; i++) {
+                assertEquals(artifacts[i].getId(), actualArtifacts[i].getId());
+                assertEquals(artifacts[i].getUrl(), actualArtifacts[i].getUrl());
+            }
+        }
+        assertEquals(expected.getCapabilities(), actual.getCapabilities());
+    }
+
+    private static Map<String, ModuleDescriptorWrapper> modules(RepoDescriptor repo) {
+        Map<String, ModuleDescriptorWrapper> modules = new HashMap<>();
+        Iterator<ModuleDescriptorWrapper> it = repo.getModules();
+        while (it.hasNext()) {
+            ModuleDescriptorWrapper module = it.next();
+            BundleInfo bundle = module.getBundleInfo();
+            modules.put(bundle.getSymbolicName() + "@" + bundle.getVersion(), module);
+        }
+        return modules;
+    }
+}
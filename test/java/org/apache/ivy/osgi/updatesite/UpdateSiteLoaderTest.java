@@ -25,9 +25,14 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.ivy.core.cache.CacheResourceOptions;
+import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.osgi.repo.ModuleDescriptorWrapper;
@@ -100,4 +105,34 @@ public class UpdateSiteLoaderTest {
         ModuleDescriptor md = site.getModules().next().getModuleDescriptor();
         assertTrue(md.getAllArtifacts()[0].getUrl().toExternalForm().startsWith(path));
     }
+
+    @Test
+    public void testCompositeThreads() throws Exception {
+        URI nested = new File("test/test-p2/composite-nested/").toURI();
+        RepoDescriptor sequential = loader.load(nested);
+        Map<String, List<String>> artifacts = artifactUrls(sequential);
+        // the 8 modules of the nested composite, and the ones of the 3 other children
+        assertTrue(artifacts.size() > 8);
+
+        // start over, without the snapshot of the first load
+        CacheCleaner.deleteDir(cache);
+        loader.setCompositeThreads(4);
+        RepoDescriptor parallel = loader.load(nested);
+        assertEquals(sequential, parallel);
+        assertEquals(artifacts, artifactUrls(parallel));
+    }
+
+    private static Map<String, List<String>> artifactUrls(RepoDescriptor repo) {
+        Map<String, List<String>> urls = new HashMap<>();
+        Iterator<ModuleDescriptorWrapper> it = repo.getModules();
+        while (it.hasNext()) {
+            ModuleDescriptor md = it.next().getModuleDescriptor();
+            List<String> mdUrls = new ArrayList<>();
+            for (Artifact artifact : md.getAllArtifacts()) {
+                mdUrls.add(artifact.getUrl().toExternalForm());
+            }
+            urls.put(md.getModuleRevisionId().toString(), mdUrls);
+        }
+        return urls;
+    }
 }
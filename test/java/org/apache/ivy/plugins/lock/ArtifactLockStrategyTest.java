@@ -45,6 +45,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 public class ArtifactLockStrategyTest {
+    private boolean readWriteLocks;
+
     @Before
     public void setUp() {
         FileUtil.forceDelete(new File("build/test/cache"));
@@ -87,10 +89,21 @@ public class ArtifactLockStrategyTest {
         assertFound("org6#mod6.4;3", t3.getFinalResult());
     }
 
+    /**
+     * Same as {@link #testConcurrentResolve()}, with caches reading the modules already in cache
+     * under shared locks.
+     */
+    @Test
+    public void testConcurrentResolveWithReadWriteLocks() throws Exception {
+        readWriteLocks = true;
+        testConcurrentResolve();
+    }
+
     private RepositoryCacheManager newCacheManager(IvySettings settings) {
         DefaultRepositoryCacheManager cacheManager = new DefaultRepositoryCacheManager("cache",
                 settings, new File("build/test/cache"));
-        cacheManager.setLockStrategy(new CreateFileLockStrategy(false));
+        cacheManager.setLockStrategy(readWriteLocks ? new NIOFileReadWriteLockStrategy(false)
+                : new CreateFileLockStrategy(false));
         return cacheManager;
     }
 
@@ -0,0 +1,174 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.lock;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FileBasedLockStrategyTest {
+    private File dir;
+
+    private File lockFile;
+
+    @Before
+    public void setUp() {
+        dir = new File("build/test/lock");
+        FileUtil.forceDelete(dir);
+        lockFile = new File(dir, "artifact.lck");
+    }
+
+    @After
+    public void tearDown() {
+        FileUtil.forceDelete(dir);
+    }
+
+    @Test
+    public void testReentrantLock() throws Exception {
+        FileBasedLockStrategy strategy = new CreateFileLockStrategy(false);
+        assertTrue(strategy.acquireLock(lockFile));
+        assertTrue(strategy.acquireLock(lockFile));
+        assertTrue(lockFile.exists());
+
+        strategy.releaseLock(lockFile);
+        assertTrue("the lock file is kept until the outermost lock is released",
+            lockFile.exists());
+        strategy.releaseLock(lockFile);
+        assertFalse(lockFile.exists());
+        assertEquals(2, strategy.getWaitTimes().getTotalCount());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testReleaseNotHeldLock() {
+        new CreateFileLockStrategy(false).releaseLock(lockFile);
+    }
+
+    /**
+     * Threads of the same process exclude each other, whichever strategy instance they use.
+     */
+    @Test
+    public void testConcurrentLocks() throws Exception {
+        assertConcurrentLocks(new CreateFileLockStrategy(false), new CreateFileLockStrategy(false));
+    }
+
+    /**
+     * Java file locks are held by the whole process: two threads must never try to take them at
+     * the same time.
+     */
+    @Test
+    public void testConcurrentNIOLocks() throws Exception {
+        assertConcurrentLocks(new NIOFileLockStrategy(false), new NIOFileLockStrategy(false));
+    }
+
+    private void assertConcurrentLocks(final FileBasedLockStrategy... strategies)
+            throws Exception {
+        final int threads = 4;
+        final int iterations = 50;
+        final int[] counter = new int[1];
+        final List<Throwable> failures = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final FileBasedLockStrategy strategy = strategies[t % strategies.length];
+            new Thread() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < iterations; i++) {
+                            assertTrue(strategy.acquireLock(lockFile));
+                            try {
+                                int value = counter[0];
+                                Thread.yield();
+                                counter[0] = value + 1;
+                            } finally {
+                                strategy.releaseLock(lockFile);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        assertEquals("[]", failures.toString());
+        assertEquals(threads * iterations, counter[0]);
+        assertEquals(threads * iterations, strategies[0].getWaitTimes().getTotalCount()
+                + strategies[1].getWaitTimes().getTotalCount());
+    }
+
+    /**
+     * A thread waiting for a lock held by another thread of this process gets it once released,
+     * without polling.
+     */
+    @Test
+    public void testWaiterWokenUpOnRelease() throws Exception {
+        final FileBasedLockStrategy strategy = new CreateFileLockStrategy(false);
+        assertTrue(strategy.acquireLock(lockFile));
+        final CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread() {
+            public void run() {
+                try {
+                    if (strategy.acquireLock(lockFile)) {
+                        acquired.countDown();
+                        strategy.releaseLock(lockFile);
+                    }
+                } catch (InterruptedException e) {
+                    // the test fails
+                }
+            }
+        };
+        waiter.start();
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        strategy.releaseLock(lockFile);
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        waiter.join();
+        assertFalse(lockFile.exists());
+        assertEquals(0, strategy.getWaitTimes().getTimeoutCount());
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        LockWaitHistogram histogram = new LockWaitHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(300));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.record(TimeUnit.HOURS.toNanos(1));
+        histogram.recordTimeout();
+
+        assertEquals(1, histogram.getCount(0));
+        assertEquals(2, histogram.getCount(2));
+        assertEquals(4, histogram.getUpperBoundMillis(2));
+        assertEquals(1, histogram.getCount(histogram.getBucketCount() - 1));
+        assertEquals(4, histogram.getTotalCount());
+        assertEquals("<1ms: 1, <4ms: 2, >=65536ms: 1, timeouts: 1", histogram.toString());
+    }
+}
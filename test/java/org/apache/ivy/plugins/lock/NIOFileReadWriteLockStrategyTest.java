@@ -0,0 +1,164 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.lock;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DefaultArtifact;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.util.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NIOFileReadWriteLockStrategyTest {
+    private File dir;
+
+    private File artifactFile;
+
+    private Artifact artifact;
+
+    private NIOFileReadWriteLockStrategy strategy;
+
+    @Before
+    public void setUp() {
+        dir = new File("build/test/lock");
+        FileUtil.forceDelete(dir);
+        artifactFile = new File(dir, "ivy-1.0.xml");
+        artifact = DefaultArtifact.newIvyArtifact(
+            ModuleRevisionId.newInstance("org", "mod", "1.0"), null);
+        strategy = new NIOFileReadWriteLockStrategy(false);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtil.forceDelete(dir);
+    }
+
+    @Test
+    public void testSharedLocks() throws Exception {
+        assertTrue(strategy.lockArtifactForRead(artifact, artifactFile));
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = lockInThread(true, acquired);
+        assertTrue("readers don't wait for each other", acquired.await(10, TimeUnit.SECONDS));
+        strategy.unlockArtifactForRead(artifact, artifactFile);
+        thread.join();
+        assertReleased();
+    }
+
+    @Test
+    public void testExclusiveLockExcludesReaders() throws Exception {
+        assertTrue(strategy.lockArtifact(artifact, artifactFile));
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = lockInThread(true, acquired);
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        strategy.unlockArtifact(artifact, artifactFile);
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        thread.join();
+        assertReleased();
+    }
+
+    @Test
+    public void testSharedLockExcludesWriters() throws Exception {
+        assertTrue(strategy.lockArtifactForRead(artifact, artifactFile));
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = lockInThread(false, acquired);
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        strategy.unlockArtifactForRead(artifact, artifactFile);
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        thread.join();
+        assertReleased();
+    }
+
+    @Test
+    public void testReadWhileWriting() throws Exception {
+        assertTrue(strategy.lockArtifact(artifact, artifactFile));
+        assertTrue(strategy.lockArtifactForRead(artifact, artifactFile));
+        assertTrue(strategy.lockArtifact(artifact, artifactFile));
+        strategy.unlockArtifact(artifact, artifactFile);
+        strategy.unlockArtifactForRead(artifact, artifactFile);
+        strategy.unlockArtifact(artifact, artifactFile);
+        assertReleased();
+        assertEquals(3, strategy.getWaitTimes().getTotalCount());
+    }
+
+    @Test
+    public void testWriteWhileReading() throws Exception {
+        assertTrue(strategy.lockArtifactForRead(artifact, artifactFile));
+        try {
+            strategy.lockArtifact(artifact, artifactFile);
+            fail("a shared lock can't be upgraded");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        strategy.unlockArtifactForRead(artifact, artifactFile);
+        assertReleased();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testReleaseNotHeldLock() {
+        strategy.unlockArtifactForRead(artifact, artifactFile);
+    }
+
+    /**
+     * Locks the artifact in another thread, which releases it as soon as it gets it.
+     *
+     * @return the started thread, which counts down the given latch once it got the lock
+     */
+    private Thread lockInThread(final boolean shared, final CountDownLatch acquired) {
+        Thread thread = new Thread() {
+            public void run() {
+                try {
+                    if (shared && strategy.lockArtifactForRead(artifact, artifactFile)) {
+                        acquired.countDown();
+                        strategy.unlockArtifactForRead(artifact, artifactFile);
+                    } else if (!shared && strategy.lockArtifact(artifact, artifactFile)) {
+                        acquired.countDown();
+                        strategy.unlockArtifact(artifact, artifactFile);
+                    }
+                } catch (InterruptedException e) {
+                    // the test fails
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Checks that the file lock has been released, by taking it.
+     */
+    private void assertReleased() throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(artifactFile.getPath() + ".lck", "rw")) {
+            FileLock lock = raf.getChannel().tryLock();
+            assertNotNull(lock);
+            lock.release();
+        }
+    }
+}
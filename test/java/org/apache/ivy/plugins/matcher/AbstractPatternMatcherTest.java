@@ -17,7 +17,9 @@
  */
 package org.apache.ivy.plugins.matcher;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -107,4 +109,20 @@ public abstract class AbstractPatternMatcherTest {
             patternMatcher.getMatcher(expression);
         }
     }
+
+    @Test
+    public void testMatcherCache() {
+        MatcherCache cache = ((AbstractPatternMatcher) patternMatcher).getMatcherCache();
+        cache.clear();
+        Matcher matcher = patternMatcher.getMatcher("some.expression");
+        assertTrue(matcher.matches("some.expression"));
+        if (cache.getCapacity() == 0) {
+            assertEquals(0, cache.size());
+            return;
+        }
+        assertSame(matcher, patternMatcher.getMatcher("some.expression"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0);
+    }
 }
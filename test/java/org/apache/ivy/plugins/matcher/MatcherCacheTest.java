@@ -0,0 +1,59 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.plugins.matcher;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MatcherCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        MatcherCache cache = new MatcherCache(2);
+        Matcher a = RegexpPatternMatcher.INSTANCE.getMatcher("a");
+        Matcher b = RegexpPatternMatcher.INSTANCE.getMatcher("b");
+        cache.put("a", a);
+        cache.put("b", b);
+        assertSame(a, cache.get("a"));
+        cache.put("c", RegexpPatternMatcher.INSTANCE.getMatcher("c"));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertSame(a, cache.get("a"));
+    }
+
+    @Test
+    public void testFirstCachedMatcherIsKept() {
+        MatcherCache cache = new MatcherCache(2);
+        Matcher first = new ExactPatternMatcher().getMatcher("a");
+        assertSame(first, cache.put("a", first));
+        assertSame(first, cache.put("a", new ExactPatternMatcher().getMatcher("a")));
+    }
+
+    @Test
+    public void testDisabled() {
+        MatcherCache cache = new MatcherCache(0);
+        Matcher matcher = RegexpPatternMatcher.INSTANCE.getMatcher("a");
+        assertSame(matcher, cache.put("a", matcher));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -33,6 +33,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
 import org.apache.ivy.core.module.descriptor.DependencyArtifactDescriptor;
@@ -43,6 +45,7 @@ import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.resolve.ResolveData;
+import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.parser.AbstractModuleDescriptorParserTester;
@@ -302,6 +305,29 @@ public class PomModuleDescriptorParserTest extends AbstractModuleDescriptorParse
             dds[0].getAllDependencyArtifacts().length);
     }
 
+    /**
+     * The sections of a pom which are not read, like the configuration of the plugins or the
+     * reporting, must not be confused with the sections which are.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testIgnoredSections() throws Exception {
+        ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(settings,
+            getClass().getResource("test-ignored-sections.pom"), false);
+        assertNotNull(md);
+
+        assertEquals(ModuleRevisionId.newInstance("org.apache", "test", "1.0"),
+            md.getModuleRevisionId());
+        assertEquals("A module with <sections> ignored by Ivy", md.getDescription());
+
+        DependencyDescriptor[] dds = md.getDependencies();
+        assertNotNull(dds);
+        assertEquals(1, dds.length);
+        assertEquals(ModuleRevisionId.newInstance("commons-logging", "commons-logging", "1.0.4"),
+            dds[0].getDependencyRevisionId());
+    }
+
     @Test
     public void testDependenciesWithClassifier() throws Exception {
         ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(settings,
@@ -947,6 +973,144 @@ public class PomModuleDescriptorParserTest extends AbstractModuleDescriptorParse
         assertEquals("jms", excludes[1].getId().getModuleId().getName());
     }
 
+    /**
+     * The dependency management of a parent read from the Ivy file it has been converted to in the
+     * cache must be the same as the one of the parent read from its pom.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testParentDependencyMgtFromIvyFile() throws Exception {
+        URL parentPom = getClass().getResource("test-dependencyMgt.pom");
+        ModuleDescriptor parentMd = PomModuleDescriptorParser.getInstance().parseDescriptor(
+            settings, parentPom, false);
+        PomModuleDescriptorParser.getInstance().toIvyFile(parentPom.openStream(),
+            new URLResource(parentPom), dest, parentMd);
+        final ModuleDescriptor parentIvyMd = XmlModuleDescriptorParser.getInstance()
+                .parseDescriptor(new IvySettings(), dest.toURI().toURL(), false);
+        assertFalse(parentIvyMd instanceof PomModuleDescriptorBuilder.PomModuleDescriptor);
+        settings.setDictatorResolver(new MockResolver() {
+            public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data) {
+                return new ResolvedModuleRevision(null, null, parentIvyMd, null);
+            }
+        });
+
+        ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(settings,
+            getClass().getResource("test-parentDependencyMgt.pom"), false);
+        DependencyDescriptor[] dds = md.getDependencies();
+        assertEquals(2, dds.length);
+        assertEquals(
+            ModuleRevisionId.newInstance("commons-collection", "commons-collection", "1.0.5"),
+            dds[0].getDependencyRevisionId());
+        assertEquals(ModuleRevisionId.newInstance("commons-logging", "commons-logging", "1.0.4"),
+            dds[1].getDependencyRevisionId());
+
+        ExcludeRule[] excludes = dds[0].getAllExcludeRules();
+        assertEquals(2, excludes.length);
+        assertEquals("javax.mail", excludes[0].getId().getModuleId().getOrganisation());
+        assertEquals("mail", excludes[0].getId().getModuleId().getName());
+        assertEquals("javax.jms", excludes[1].getId().getModuleId().getOrganisation());
+        assertEquals("jms", excludes[1].getId().getModuleId().getName());
+    }
+
+    /**
+     * A parent referenced by several poms during a resolve must be resolved only once.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testParentResolvedOncePerResolve() throws Exception {
+        final int[] nbResolves = {0};
+        settings.setDictatorResolver(new MockResolver() {
+            public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
+                    throws ParseException {
+                nbResolves[0]++;
+                try {
+                    ModuleDescriptor moduleDescriptor = PomModuleDescriptorParser.getInstance()
+                            .parseDescriptor(settings,
+                                getClass().getResource("test-dependencyMgt.pom"), false);
+                    return new ResolvedModuleRevision(null, null, moduleDescriptor, null);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+
+        Ivy ivy = Ivy.newInstance(settings);
+        IvyContext context = IvyContext.pushNewCopyContext();
+        try {
+            context.setIvy(ivy);
+            context.setResolveData(new ResolveData(ivy.getResolveEngine(), new ResolveOptions()));
+            for (int i = 0; i < 2; i++) {
+                ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(
+                    settings, getClass().getResource("test-parentDependencyMgt.pom"), false);
+                assertEquals(2, md.getDependencies().length);
+            }
+        } finally {
+            IvyContext.popContext();
+        }
+        assertEquals(1, nbResolves[0]);
+    }
+
+    /**
+     * A parent published under the same id by two resolvers must not be reused across them
+     * during a resolve.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testParentResolvedOncePerResolver() throws Exception {
+        MockResolver first = newParentResolver("first", "test-dependencyMgt.pom");
+        MockResolver second = newParentResolver("second",
+            "test-dependencyMgt-otherRepository.pom");
+
+        Ivy ivy = Ivy.newInstance(settings);
+        IvyContext context = IvyContext.pushNewCopyContext();
+        try {
+            context.setIvy(ivy);
+            context.setResolveData(new ResolveData(ivy.getResolveEngine(), new ResolveOptions()));
+
+            settings.setDictatorResolver(first);
+            ModuleDescriptor md = PomModuleDescriptorParser.getInstance().parseDescriptor(
+                settings, getClass().getResource("test-parentDependencyMgt.pom"), false);
+            DependencyDescriptor[] dds = md.getDependencies();
+            assertEquals(2, dds.length);
+            assertEquals(
+                ModuleRevisionId.newInstance("commons-collection", "commons-collection", "1.0.5"),
+                dds[0].getDependencyRevisionId());
+
+            settings.setDictatorResolver(second);
+            md = PomModuleDescriptorParser.getInstance().parseDescriptor(settings,
+                getClass().getResource("test-parentDependencyMgt.pom"), false);
+            dds = md.getDependencies();
+            assertEquals(2, dds.length);
+            assertEquals(
+                ModuleRevisionId.newInstance("commons-collection", "commons-collection", "2.0"),
+                dds[0].getDependencyRevisionId());
+            assertEquals(ModuleRevisionId.newInstance("commons-logging", "commons-logging", "1.1"),
+                dds[1].getDependencyRevisionId());
+        } finally {
+            IvyContext.popContext();
+        }
+    }
+
+    private MockResolver newParentResolver(String name, final String parentPom) {
+        MockResolver resolver = new MockResolver() {
+            public ResolvedModuleRevision getDependency(DependencyDescriptor dd, ResolveData data)
+                    throws ParseException {
+                try {
+                    ModuleDescriptor moduleDescriptor = PomModuleDescriptorParser.getInstance()
+                            .parseDescriptor(settings, getClass().getResource(parentPom), false);
+                    return new ResolvedModuleRevision(null, null, moduleDescriptor, null);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        };
+        resolver.setName(name);
+        return resolver;
+    }
+
     @Test
     public void testOverrideParentVersionPropertyDependencyMgt()
             throws ParseException, IOException {
@@ -203,6 +203,44 @@ public class ChainResolverTest extends AbstractDependencyResolverTest {
         }
     }
 
+    @Test
+    public void testParallelLatestRevisionResolve() throws Exception {
+        ChainResolver chain = new ChainResolver();
+        chain.setName("chain");
+        chain.setSettings(settings);
+        chain.setLatestStrategy(new LatestRevisionStrategy());
+        chain.setParallel(true);
+        MockResolver[] resolvers = new MockResolver[] {
+                MockResolver.buildMockResolver(settings, "1", true,
+                    ModuleRevisionId.newInstance("org", "mod", "1"),
+                    new GregorianCalendar(2005, 1, 20).getTime()),
+                MockResolver.buildMockResolver(settings, "2", false, null),
+                MockResolver.buildMockResolver(settings, "3", true,
+                    ModuleRevisionId.newInstance("org", "mod", "4"),
+                    new GregorianCalendar(2005, 1, 22).getTime()),
+                    // latest -> should the one kept
+                MockResolver.buildMockResolver(settings, "4", true,
+                    ModuleRevisionId.newInstance("org", "mod", "2"),
+                    new GregorianCalendar(2005, 1, 25).getTime()),
+                MockResolver.buildMockResolver(settings, "5", true,
+                    ModuleRevisionId.newInstance("org", "mod", "4"),
+                    new GregorianCalendar(2005, 1, 18).getTime())};
+                    // same revision, found after -> not kept
+        for (MockResolver resolver : resolvers) {
+            chain.add(resolver);
+        }
+
+        DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(
+                ModuleRevisionId.newInstance("org", "mod", "latest.integration"), false);
+        ResolvedModuleRevision rmr = chain.getDependency(dd, data);
+        assertNotNull(rmr);
+        assertEquals("3", rmr.getResolver().getName());
+        List<DependencyDescriptor> ddAsList = Collections.<DependencyDescriptor> singletonList(dd);
+        for (MockResolver resolver : resolvers) {
+            assertEquals(ddAsList, resolver.askedDeps);
+        }
+    }
+
     @Test
     public void testWithDefault() throws Exception {
         ChainResolver chain = new ChainResolver();
@@ -0,0 +1,64 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ChecksumDigesterTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void testChecksumsOfCopiedData() throws IOException {
+        File dest = tempDir.newFile("dest.txt");
+        ChecksumDigester digester = ChecksumDigester.start(Arrays.asList("sha1", "md5", "foo"));
+        try {
+            copy("a first attempt which is discarded", dest);
+            copy("the downloaded content", dest);
+        } finally {
+            digester.stop();
+        }
+        // copies made once the digester is stopped are not taken into account
+        copy("the downloaded content", tempDir.newFile("other.txt"));
+
+        assertEquals(ChecksumHelper.computeAsString(dest, "sha1"),
+            digester.getChecksum("sha1", dest.length()));
+        assertEquals(ChecksumHelper.computeAsString(dest, "md5"),
+            digester.getChecksum("md5", dest.length()));
+        assertNull(digester.getChecksum("foo", dest.length()));
+        assertNull(digester.getChecksum("SHA-256", dest.length()));
+        assertNull(digester.getChecksum("sha1", dest.length() + 1));
+    }
+
+    private static void copy(String content, File dest) throws IOException {
+        FileUtil.copy(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), dest,
+            null);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CollectionUtilsTest {
+
+    @Test
+    public void testCompactSetOfEmptyCollection() {
+        assertSame(Collections.emptySet(),
+            CollectionUtils.compactSet(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void testCompactSetOfDuplicates() {
+        Set<String> set = CollectionUtils.compactSet(Arrays.asList("a", "a"));
+        assertEquals(Collections.singleton("a"), set);
+        assertEquals(Collections.singleton("a").getClass(), set.getClass());
+    }
+
+    @Test
+    public void testCompactSetIsACopy() {
+        Set<String> source = new HashSet<>(Arrays.asList("a", "b"));
+        Set<String> set = CollectionUtils.compactSet(source);
+        source.add("c");
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), set);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCompactSetIsUnmodifiable() {
+        CollectionUtils.compactSet(Arrays.asList("a", "b")).add("c");
+    }
+}
@@ -169,5 +169,24 @@ public class IvyPatternHelperTest {
         IvyPatternHelper.substitute(pattern, "org", "module", "revision/", "artifact", "type", "./ext", "conf");
     }
 
+    @Test
+    public void testOptionalPartWithoutTokenIsKept() {
+        assertEquals("lib/(all)/mod.jar", IvyPatternHelper.substitute(
+            "lib/(all)/[module].[ext]", "org", "mod", "1.0", null, "jar", "jar"));
+    }
 
+    @Test
+    public void testSubstituteExtraAttributes() {
+        String pattern = "[organisation]/[module](/[platform])/[artifact]-[revision](-[classifier]).[ext]";
+        Map<String, String> moduleAttributes = Collections.singletonMap("e:platform", "linux");
+        Map<String, String> artifactAttributes = Collections.singletonMap("m:classifier", "src");
+        // substitute twice to also use the cached compiled pattern
+        for (int i = 0; i < 2; i++) {
+            assertEquals("org/mod/linux/art-1.0-src.jar", IvyPatternHelper.substitute(pattern,
+                "org", "mod", "1.0", "art", "jar", "jar", null, moduleAttributes,
+                artifactAttributes));
+            assertEquals("org/mod/art-1.0.jar", IvyPatternHelper.substitute(pattern, "org", "mod",
+                "1.0", "art", "jar", "jar", null, null, null));
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class WeakInternerTest {
+
+    @Test
+    public void testIntern() {
+        WeakInterner<String> interner = new WeakInterner<>();
+        String a = new String("a");
+        String b = new String("a");
+        assertSame(a, interner.intern(a));
+        assertSame(a, interner.intern(b));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    public void testCollectedInstancesAreRemoved() throws InterruptedException {
+        WeakInterner<String> interner = new WeakInterner<>();
+        for (int i = 0; i < 1000; i++) {
+            interner.intern(new String("value" + i));
+        }
+        for (int i = 0; i < 50 && interner.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, interner.size());
+        String a = new String("value1");
+        assertSame(a, interner.intern(a));
+    }
+
+    @Test
+    public void testConcurrentIntern() throws Exception {
+        final WeakInterner<String> interner = new WeakInterner<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    public List<String> call() {
+                        List<String> interned = new ArrayList<>();
+                        for (int i = 0; i < 1000; i++) {
+                            interned.add(interner.intern(new String("value" + i)));
+                        }
+                        return interned;
+                    }
+                }));
+            }
+            List<String> first = futures.get(0).get();
+            for (Future<List<String>> future : futures) {
+                List<String> interned = future.get();
+                for (int i = 0; i < interned.size(); i++) {
+                    assertSame(first.get(i), interned.get(i));
+                }
+            }
+            assertTrue(interner.size() <= 1000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
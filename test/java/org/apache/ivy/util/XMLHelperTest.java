@@ -0,0 +1,113 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.ivy.util;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ivy.util.XMLHelper.ExternalResources;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.DefaultHandler2;
+import org.xml.sax.helpers.DefaultHandler;
+
+import static org.junit.Assert.assertEquals;
+
+public class XMLHelperTest {
+
+    /**
+     * Parsers are reused within a thread: a parse started from the handler of another one must
+     * get its own parser.
+     */
+    @Test
+    public void testNestedParse() throws Exception {
+        final List<String> elements = new ArrayList<>();
+        DefaultHandler outer = new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName,
+                    Attributes attributes) throws SAXException {
+                elements.add(qName);
+                if ("include".equals(qName)) {
+                    try {
+                        parse("<included><child/></included>", new RecordingHandler(elements));
+                    } catch (Exception e) {
+                        throw new SAXException(e);
+                    }
+                }
+            }
+        };
+        parse("<root><include/><after/></root>", outer);
+        parse("<again/>", outer);
+
+        assertEquals("[root, include, included, child, after, again]", elements.toString());
+    }
+
+    /**
+     * The lexical handler of a parse must not be notified by later parses reusing the parser.
+     */
+    @Test
+    public void testLexicalHandlerNotReused() throws Exception {
+        final List<String> comments = new ArrayList<>();
+        DefaultHandler2 lexicalHandler = new DefaultHandler2() {
+            @Override
+            public void comment(char[] ch, int start, int length) {
+                comments.add(new String(ch, start, length));
+            }
+        };
+        XMLHelper.parse(source("<a><!--first--></a>"), null, new DefaultHandler(),
+            lexicalHandler);
+        XMLHelper.parse(source("<a><!--second--></a>"), null, new DefaultHandler(), null);
+
+        assertEquals("[first]", comments.toString());
+    }
+
+    @Test
+    public void testParseToDomTwice() throws Exception {
+        for (String name : new String[] {"first", "second"}) {
+            Document doc = XMLHelper.parseToDom(source("<" + name + "/>"), null, false,
+                ExternalResources.PROHIBIT);
+            assertEquals(name, doc.getDocumentElement().getNodeName());
+        }
+    }
+
+    private static void parse(String xml, DefaultHandler handler) throws Exception {
+        XMLHelper.parse(source(xml), null, handler, null);
+    }
+
+    private static InputSource source(String xml) {
+        return new InputSource(new StringReader(xml));
+    }
+
+    private static final class RecordingHandler extends DefaultHandler {
+        private final List<String> elements;
+
+        private RecordingHandler(List<String> elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) {
+            elements.add(qName);
+        }
+    }
+}
@@ -169,6 +169,33 @@ public class HttpClientHandlerTest {
         }
     }
 
+    /**
+     * Tests that connections are pooled and reused across requests to the same server.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testConnectionReuse() throws Exception {
+        handler.setMaxConnections(4);
+        handler.setMaxConnectionsPerRoute(2);
+        handler.setKeepAliveTimeout(30000);
+        final InetSocketAddress serverBindAddr = new InetSocketAddress("localhost", TestHelper.getMaybeAvailablePort());
+        final String contextRoot = "/testHttpClientHandler";
+        final Path repoRoot = new File("test/repositories").toPath();
+        try (AutoCloseable server = TestHelper.createHttpServerBackedRepository(serverBindAddr, contextRoot, repoRoot)) {
+            final URL src = new URL("http://localhost:" + serverBindAddr.getPort() + "/"
+                    + contextRoot + "/ivysettings.xml");
+            for (int i = 0; i < 3; i++) {
+                assertDownloadOK(src, new File(testDir, "downloaded-" + i + ".xml"));
+            }
+            assertEquals(3, handler.getRequestCount());
+            assertEquals(1, handler.getConnectionCount());
+            assertEquals(0, handler.getLeasedConnections());
+            assertEquals(1, handler.getAvailableConnections());
+            assertEquals(0, handler.getPendingConnectionRequests());
+        }
+    }
+
     private void assertDownloadOK(final URL url, final File file) throws Exception {
         handler.download(url, file, null, defaultTimeoutConstraint);
         assertTrue("Content from " + url + " wasn't downloaded to " + file, file.exists());